@@ -0,0 +1,277 @@
+package com.mineprofiler.analysis;
+
+import com.mineprofiler.metrics.RunStatistics;
+import com.mineprofiler.metrics.RunSummary;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 离线分析命令行工具，不依赖Minecraft和pandas，可在夜间任务中直接运行
+ *
+ * 用法：
+ * <pre>
+ * java -jar mineprofiler-analysis.jar summary &lt;目录或文件...&gt; [--runs]
+ * java -jar mineprofiler-analysis.jar diff &lt;基线目录&gt; &lt;候选目录&gt; [--min-effect 2] [--resamples 2000]
+ * java -jar mineprofiler-analysis.jar changepoints &lt;目录&gt; [--alpha 0.01] [--min-size 3] [--permutations 999]
+ * </pre>
+ * 目录下递归查找 perf_*.csv 和 perf_*.mpcol，只统计正式测量期间的窗口。所有命令都接受
+ * --metrics a,b（默认 fps,fpsLow1,frameTimeP99,mspt,msptP99）和 --seed n。
+ * 结果以CSV写到标准输出；diff 发现退化、changepoints 发现最近一次突变为退化时退出码为2。
+ */
+public final class AnalysisCli {
+    private static final List<String> DEFAULT_METRICS = List.of("fps", "fpsLow1", "frameTimeP99", "mspt", "msptP99");
+    private static final int EXIT_USAGE = 1;
+    private static final int EXIT_REGRESSION = 2;
+
+    private final List<String> positional = new ArrayList<>();
+    private final Map<String, String> options = new HashMap<>();
+
+    private AnalysisCli(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--")) {
+                String name = args[i].substring(2);
+                boolean flag = i + 1 >= args.length || args[i + 1].startsWith("--");
+                options.put(name, flag ? "true" : args[++i]);
+            } else {
+                positional.add(args[i]);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            usage();
+            System.exit(EXIT_USAGE);
+        }
+        AnalysisCli cli = new AnalysisCli(Arrays.copyOfRange(args, 1, args.length));
+        int exit;
+        try {
+            switch (args[0]) {
+                case "summary" -> exit = cli.summary();
+                case "diff" -> exit = cli.diff();
+                case "changepoints" -> exit = cli.changePoints();
+                default -> {
+                    usage();
+                    exit = EXIT_USAGE;
+                }
+            }
+        } catch (IllegalArgumentException | IOException | UncheckedIOException e) {
+            System.err.println("错误: " + e.getMessage());
+            exit = EXIT_USAGE;
+        }
+        System.exit(exit);
+    }
+
+    private static void usage() {
+        System.err.println("用法: AnalysisCli summary <目录或文件...> [--runs]");
+        System.err.println("      AnalysisCli diff <基线目录> <候选目录> [--min-effect 百分比] [--resamples n]");
+        System.err.println("      AnalysisCli changepoints <目录> [--alpha a] [--min-size n] [--permutations n]");
+        System.err.println("      共同选项: --metrics a,b  --seed n");
+    }
+
+    /**
+     * 每个指标在所有运行上的均值、标准差和95%置信区间；--runs 时改为输出每次运行的窗口平均值
+     */
+    private int summary() throws IOException {
+        List<String> metrics = metrics();
+        List<RunData> runs = load(positional, metrics);
+        if (options.containsKey("runs")) {
+            StringBuilder out = new StringBuilder("run,windows");
+            for (String metric : metrics) {
+                out.append(',').append(metric);
+            }
+            System.out.println(out);
+            for (RunData run : runs) {
+                out.setLength(0);
+                out.append(run.getId()).append(',').append(run.getWindows());
+                for (int m = 0; m < metrics.size(); m++) {
+                    out.append(',').append(format(run.getMean(m)));
+                }
+                System.out.println(out);
+            }
+            return 0;
+        }
+        System.out.println("metric,runs,mean,stddev,ciLow,ciHigh,min,max");
+        for (int m = 0; m < metrics.size(); m++) {
+            double[] values = runMeans(runs, m);
+            double[] ci = RunStatistics.confidenceInterval95(values);
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            System.out.println(String.join(",", metrics.get(m), String.valueOf(values.length),
+                    format(RunStatistics.mean(values)), format(RunStatistics.standardDeviation(values)),
+                    format(ci[0]), format(ci[1]),
+                    format(sorted.length > 0 ? sorted[0] : Double.NaN),
+                    format(sorted.length > 0 ? sorted[sorted.length - 1] : Double.NaN)));
+        }
+        return 0;
+    }
+
+    /**
+     * 候选组相对基线组的变化
+     * 两组都至少有3次运行时以运行为单位做bootstrap和U检验，否则对窗口值做移动块bootstrap
+     */
+    private int diff() throws IOException {
+        if (positional.size() != 2) {
+            throw new IllegalArgumentException("diff 需要基线和候选两个路径");
+        }
+        List<String> metrics = metrics();
+        List<RunData> baseline = load(positional.subList(0, 1), metrics);
+        List<RunData> candidate = load(positional.subList(1, 2), metrics);
+        double minEffect = doubleOption("min-effect", 2.0);
+        int resamples = intOption("resamples", 2000);
+        long seed = longOption("seed", 42);
+
+        boolean regression = false;
+        System.out.println("metric,baselineRuns,candidateRuns,unit,baselineMean,candidateMean,deltaPct,ciLow,ciHigh,mannWhitneyP,verdict");
+        for (int m = 0; m < metrics.size(); m++) {
+            boolean byRun = baseline.size() >= 3 && candidate.size() >= 3;
+            double[] a = byRun ? runMeans(baseline, m) : windowValues(baseline, m);
+            double[] b = byRun ? runMeans(candidate, m) : windowValues(candidate, m);
+            int block = byRun ? 1 : Bootstrap.blockLength(Math.min(a.length, b.length));
+            double[] delta = Bootstrap.relativeDifference(a, b, block, resamples, seed);
+            double pValue = a.length > 0 && b.length > 0 ? RunStatistics.mannWhitney(a, b).getPValue() : Double.NaN;
+
+            String verdict = "unchanged";
+            boolean significant = delta[1] > 0 || delta[2] < 0;
+            if (significant && Math.abs(delta[0]) >= minEffect) {
+                boolean better = higherIsBetter(metrics.get(m)) == (delta[0] > 0);
+                verdict = better ? "improvement" : "regression";
+                regression |= !better;
+            }
+            System.out.println(String.join(",", metrics.get(m), String.valueOf(baseline.size()),
+                    String.valueOf(candidate.size()), byRun ? "run" : "window",
+                    format(RunStatistics.mean(a)), format(RunStatistics.mean(b)),
+                    format(delta[0]), format(delta[1]), format(delta[2]), format(pValue), verdict));
+        }
+        return regression ? EXIT_REGRESSION : 0;
+    }
+
+    /**
+     * 按运行时间排序的每次运行均值序列上的突变点
+     * 某个指标最近一次突变为退化时返回退化退出码，较早的、已被后续运行恢复或接受的突变只输出不报警
+     */
+    private int changePoints() throws IOException {
+        List<String> metrics = metrics();
+        List<RunData> runs = load(positional, metrics);
+        double alpha = doubleOption("alpha", 0.01);
+        int minSize = intOption("min-size", 3);
+        int permutations = intOption("permutations", 999);
+        long seed = longOption("seed", 42);
+
+        boolean regression = false;
+        System.out.println("metric,index,run,before,after,deltaPct,pValue,direction");
+        for (int m = 0; m < metrics.size(); m++) {
+            List<RunData> present = new ArrayList<>();
+            for (RunData run : runs) {
+                if (!Double.isNaN(run.getMean(m))) present.add(run);
+            }
+            double[] series = new double[present.size()];
+            for (int i = 0; i < series.length; i++) {
+                series[i] = present.get(i).getMean(m);
+            }
+            List<ChangePoints.ChangePoint> points = ChangePoints.detect(series, minSize, alpha, permutations, seed);
+            for (int i = 0; i < points.size(); i++) {
+                ChangePoints.ChangePoint point = points.get(i);
+                double delta = Bootstrap.percent(point.after, point.before);
+                boolean better = higherIsBetter(metrics.get(m)) == (delta > 0);
+                if (i == points.size() - 1 && !better) {
+                    regression = true;
+                }
+                System.out.println(String.join(",", metrics.get(m), String.valueOf(point.index),
+                        present.get(point.index).getId(), format(point.before), format(point.after),
+                        format(delta), format(point.pValue), better ? "improvement" : "regression"));
+            }
+        }
+        return regression ? EXIT_REGRESSION : 0;
+    }
+
+    /**
+     * 并行读取路径下的所有输出文件，按运行标识（时间戳）排序；无法读取的文件跳过并提示
+     */
+    private static List<RunData> load(List<String> paths, List<String> metrics) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (String path : paths) {
+            Path root = Path.of(path);
+            if (!Files.exists(root)) {
+                throw new IllegalArgumentException("路径不存在: " + path);
+            }
+            try (Stream<Path> walk = Files.walk(root)) {
+                walk.map(Path::toFile).filter(File::isFile).filter(RunData::isOutputFile).forEach(files::add);
+            }
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("没有找到 perf_*.csv 或 perf_*.mpcol: " + paths);
+        }
+        List<RunData> runs = files.parallelStream().map(file -> {
+            try {
+                return RunData.load(file, metrics);
+            } catch (IOException e) {
+                System.err.println("跳过无法读取的文件 " + file + ": " + e.getMessage());
+                return null;
+            }
+        }).filter(Objects::nonNull).filter(run -> run.getWindows() > 0).collect(Collectors.toList());
+        runs.sort(Comparator.comparing(RunData::getId));
+        System.err.println("已读取 " + runs.size() + " 次运行（" + files.size() + " 个文件）");
+        return runs;
+    }
+
+    private static double[] runMeans(List<RunData> runs, int metric) {
+        return runs.stream().mapToDouble(run -> run.getMean(metric)).filter(v -> !Double.isNaN(v)).toArray();
+    }
+
+    private static double[] windowValues(List<RunData> runs, int metric) {
+        return runs.stream().flatMapToDouble(run -> Arrays.stream(run.getValues(metric))).toArray();
+    }
+
+    /**
+     * 指标方向：汇总指标按 {@link RunSummary.Metric} 的定义，其余以fps或chunks开头的列越大越好，其他越小越好
+     */
+    private static boolean higherIsBetter(String metric) {
+        RunSummary.Metric known = RunSummary.Metric.byColumnName(metric);
+        if (known != null) return known.isHigherBetter();
+        return metric.startsWith("fps") || metric.startsWith("chunks");
+    }
+
+    private List<String> metrics() {
+        String value = options.get("metrics");
+        if (value == null) return DEFAULT_METRICS;
+        List<String> metrics = new ArrayList<>();
+        for (String name : value.split(",")) {
+            if (!name.isBlank()) metrics.add(name.trim());
+        }
+        return metrics;
+    }
+
+    private double doubleOption(String name, double defaultValue) {
+        String value = options.get(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private long longOption(String name, long defaultValue) {
+        String value = options.get(name);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "NaN" : String.format(Locale.ROOT, "%.4f", value);
+    }
+}
@@ -0,0 +1,77 @@
+package com.mineprofiler.analysis;
+
+import com.mineprofiler.metrics.RunStatistics;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 两组样本均值相对差异的bootstrap置信区间
+ *
+ * 每组有多次运行时以运行为重抽样单位（每次运行的均值）；运行次数太少时退化为对窗口值做移动块bootstrap，
+ * 块长取样本数的立方根，保留相邻窗口之间的自相关，区间不会因窗口数多而虚假地变窄。
+ */
+final class Bootstrap {
+    private Bootstrap() {
+    }
+
+    /**
+     * 候选组相对基线组的均值变化百分比及其95%百分位区间，返回 {变化, 下限, 上限}
+     * @param blockLength 块长，1表示普通（独立）bootstrap
+     */
+    static double[] relativeDifference(double[] baseline, double[] candidate, int blockLength, int resamples, long seed) {
+        double point = percent(RunStatistics.mean(candidate), RunStatistics.mean(baseline));
+        if (baseline.length == 0 || candidate.length == 0) {
+            return new double[]{point, Double.NaN, Double.NaN};
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] estimates = new double[resamples];
+        int valid = 0;
+        for (int i = 0; i < resamples; i++) {
+            double base = resampleMean(baseline, blockLength, random);
+            double cand = resampleMean(candidate, blockLength, random);
+            double estimate = percent(cand, base);
+            if (!Double.isNaN(estimate)) {
+                estimates[valid++] = estimate;
+            }
+        }
+        if (valid == 0) {
+            return new double[]{point, Double.NaN, Double.NaN};
+        }
+        Arrays.sort(estimates, 0, valid);
+        return new double[]{point, quantile(estimates, valid, 0.025), quantile(estimates, valid, 0.975)};
+    }
+
+    /**
+     * 移动块bootstrap的默认块长
+     */
+    static int blockLength(int samples) {
+        return Math.max(1, (int) Math.round(Math.cbrt(samples)));
+    }
+
+    private static double resampleMean(double[] values, int blockLength, SplittableRandom random) {
+        int n = values.length;
+        int block = Math.min(blockLength, n);
+        double sum = 0;
+        int taken = 0;
+        while (taken < n) {
+            int start = random.nextInt(n - block + 1);
+            for (int j = 0; j < block && taken < n; j++, taken++) {
+                sum += values[start + j];
+            }
+        }
+        return sum / n;
+    }
+
+    private static double quantile(double[] sorted, int count, double q) {
+        double position = q * (count - 1);
+        int lower = (int) Math.floor(position);
+        int upper = Math.min(count - 1, lower + 1);
+        double fraction = position - lower;
+        return sorted[lower] + (sorted[upper] - sorted[lower]) * fraction;
+    }
+
+    static double percent(double value, double base) {
+        return base != 0 ? (value - base) / Math.abs(base) * 100.0 : Double.NaN;
+    }
+}
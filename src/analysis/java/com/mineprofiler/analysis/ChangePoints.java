@@ -0,0 +1,116 @@
+package com.mineprofiler.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 运行序列上的均值突变检测
+ *
+ * 二分分割：在一段序列中找使两侧均值差异统计量 n1*n2/n*(m1-m2)^2 最大的切分点，
+ * 用置换检验（打乱顺序后重新计算最大统计量）判断是否显著，显著则记录并对两侧递归。
+ * 不假设数据服从正态分布，对个别离群的运行也比较稳健。
+ */
+final class ChangePoints {
+    private ChangePoints() {
+    }
+
+    /**
+     * 一个突变点：从下标 index 开始的运行与之前的运行均值不同
+     */
+    static final class ChangePoint {
+        final int index;
+        final double before;
+        final double after;
+        final double pValue;
+
+        ChangePoint(int index, double before, double after, double pValue) {
+            this.index = index;
+            this.before = before;
+            this.after = after;
+            this.pValue = pValue;
+        }
+    }
+
+    /**
+     * 检测所有显著的突变点，按下标排序
+     * @param minSize 每段至少包含的运行数
+     * @param alpha 显著性水平
+     */
+    static List<ChangePoint> detect(double[] series, int minSize, double alpha, int permutations, long seed) {
+        List<ChangePoint> points = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(seed);
+        split(series, 0, series.length, Math.max(1, minSize), alpha, permutations, random, points);
+        points.sort((a, b) -> Integer.compare(a.index, b.index));
+        return points;
+    }
+
+    private static void split(double[] series, int from, int to, int minSize, double alpha, int permutations,
+                              SplittableRandom random, List<ChangePoint> points) {
+        if (to - from < minSize * 2) return;
+        double[] segment = new double[to - from];
+        System.arraycopy(series, from, segment, 0, segment.length);
+        int best = bestSplit(segment, minSize);
+        double observed = statistic(segment, best);
+
+        // 置换检验
+        double[] shuffled = segment.clone();
+        int exceed = 0;
+        for (int p = 0; p < permutations; p++) {
+            for (int i = shuffled.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                double t = shuffled[i];
+                shuffled[i] = shuffled[j];
+                shuffled[j] = t;
+            }
+            if (statistic(shuffled, bestSplit(shuffled, minSize)) >= observed) {
+                exceed++;
+            }
+        }
+        double pValue = (exceed + 1.0) / (permutations + 1.0);
+        if (pValue >= alpha) return;
+
+        points.add(new ChangePoint(from + best, mean(segment, 0, best), mean(segment, best, segment.length), pValue));
+        split(series, from, from + best, minSize, alpha, permutations, random, points);
+        split(series, from + best, to, minSize, alpha, permutations, random, points);
+    }
+
+    /**
+     * 统计量最大的切分位置（右段起点）
+     */
+    private static int bestSplit(double[] values, int minSize) {
+        int n = values.length;
+        double total = 0;
+        for (double value : values) {
+            total += value;
+        }
+        double left = 0;
+        int best = minSize;
+        double bestStat = -1;
+        for (int k = 1; k < n; k++) {
+            left += values[k - 1];
+            if (k < minSize || n - k < minSize) continue;
+            double diff = left / k - (total - left) / (n - k);
+            double stat = (double) k * (n - k) / n * diff * diff;
+            if (stat > bestStat) {
+                bestStat = stat;
+                best = k;
+            }
+        }
+        return best;
+    }
+
+    private static double statistic(double[] values, int k) {
+        int n = values.length;
+        double diff = mean(values, 0, k) - mean(values, k, n);
+        return (double) k * (n - k) / n * diff * diff;
+    }
+
+    private static double mean(double[] values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum / (to - from);
+    }
+}
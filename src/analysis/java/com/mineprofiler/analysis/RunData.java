@@ -0,0 +1,194 @@
+package com.mineprofiler.analysis;
+
+import com.mineprofiler.metrics.io.ColumnarSampleReader;
+import com.mineprofiler.metrics.io.SampleSchema;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 一次运行中选定列的窗口数据
+ *
+ * 逐行读取 perf_*.csv 或 perf_*.mpcol，只保留正式测量期间（measuring=1）选定列的值，
+ * 不把整个文件读入内存。没有measuring列的旧文件按全部窗口都属于测量处理。
+ */
+final class RunData {
+    private final String id;
+    private final File file;
+    private final List<String> metrics;
+    // 每个指标的窗口值（NaN已跳过）
+    private final double[][] values;
+    private final int[] counts;
+    private long windows = 0;
+
+    private RunData(File file, List<String> metrics) {
+        this.file = file;
+        this.id = runId(file);
+        this.metrics = metrics;
+        this.values = new double[metrics.size()][64];
+        this.counts = new int[metrics.size()];
+    }
+
+    /**
+     * 读取一个输出文件，文件中缺少的指标视为没有数据
+     */
+    static RunData load(File file, List<String> metrics) throws IOException {
+        RunData run = new RunData(file, metrics);
+        if (file.getName().endsWith(".mpcol")) {
+            run.readColumnar();
+        } else {
+            run.readCsv();
+        }
+        return run;
+    }
+
+    /**
+     * 运行标识：去掉 perf_ 前缀和扩展名后的时间戳，按字典序即按时间排序
+     */
+    static String runId(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) name = name.substring(0, dot);
+        return name.startsWith("perf_") ? name.substring(5) : name;
+    }
+
+    static boolean isOutputFile(File file) {
+        String name = file.getName();
+        return name.startsWith("perf_") && (name.endsWith(".csv") || name.endsWith(".mpcol"));
+    }
+
+    String getId() {
+        return id;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * 正式测量的窗口数
+     */
+    long getWindows() {
+        return windows;
+    }
+
+    /**
+     * 指标的窗口值，按时间顺序
+     */
+    double[] getValues(int metric) {
+        return Arrays.copyOf(values[metric], counts[metric]);
+    }
+
+    /**
+     * 指标在本次运行中的窗口平均值，没有数据时为NaN
+     */
+    double getMean(int metric) {
+        int n = counts[metric];
+        if (n == 0) return Double.NaN;
+        double sum = 0;
+        double[] v = values[metric];
+        for (int i = 0; i < n; i++) {
+            sum += v[i];
+        }
+        return sum / n;
+    }
+
+    private void add(int metric, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return;
+        double[] v = values[metric];
+        if (counts[metric] == v.length) {
+            v = values[metric] = Arrays.copyOf(v, v.length * 2);
+        }
+        v[counts[metric]++] = value;
+    }
+
+    private void readCsv() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), 256 * 1024)) {
+            String header = reader.readLine();
+            if (header == null) return;
+            String[] names = header.split(",");
+            int measuring = indexOf(names, "measuring");
+            // 列下标 -> 指标下标，不需要的列为-1
+            int[] wanted = new int[names.length];
+            Arrays.fill(wanted, -1);
+            int lastWanted = measuring;
+            for (int m = 0; m < metrics.size(); m++) {
+                int column = indexOf(names, metrics.get(m));
+                if (column >= 0) {
+                    wanted[column] = m;
+                    lastWanted = Math.max(lastWanted, column);
+                }
+            }
+
+            String line;
+            double[] row = new double[metrics.size()];
+            while ((line = reader.readLine()) != null) {
+                boolean measured = measuring < 0;
+                Arrays.fill(row, Double.NaN);
+                int column = 0;
+                int start = 0;
+                int length = line.length();
+                // 只解析需要的列，读到最后一个需要的列即停止
+                while (column <= lastWanted && start <= length) {
+                    int end = line.indexOf(',', start);
+                    if (end < 0) end = length;
+                    if (column == measuring) {
+                        measured = end > start && line.charAt(start) == '1';
+                    } else if (wanted[column] >= 0 && end > start) {
+                        row[wanted[column]] = parse(line, start, end);
+                    }
+                    column++;
+                    start = end + 1;
+                }
+                if (!measured) continue;
+                windows++;
+                for (int m = 0; m < row.length; m++) {
+                    add(m, row[m]);
+                }
+            }
+        }
+    }
+
+    private void readColumnar() throws IOException {
+        try (ColumnarSampleReader reader = new ColumnarSampleReader(file)) {
+            SampleSchema schema = reader.getSchema();
+            int measuring = schema.indexOf("measuring");
+            int[] columns = new int[metrics.size()];
+            for (int m = 0; m < columns.length; m++) {
+                columns[m] = schema.indexOf(metrics.get(m));
+            }
+            while (reader.nextBlock()) {
+                for (int row = 0; row < reader.getBlockRows(); row++) {
+                    if (measuring >= 0 && reader.getLong(measuring, row) != 1) continue;
+                    windows++;
+                    for (int m = 0; m < columns.length; m++) {
+                        if (columns[m] >= 0) {
+                            add(m, reader.getDouble(columns[m], row));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static double parse(String line, int start, int end) {
+        try {
+            return Double.parseDouble(line.substring(start, end));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].trim().equals(name)) return i;
+        }
+        return -1;
+    }
+}
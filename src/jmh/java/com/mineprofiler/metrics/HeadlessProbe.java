@@ -0,0 +1,38 @@
+package com.mineprofiler.metrics;
+
+import java.util.Map;
+
+/**
+ * 基准测试用的运行环境探针，不依赖Minecraft，始终就绪
+ */
+final class HeadlessProbe implements WorldProbe {
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public double getPlayerX() {
+        return 128.5;
+    }
+
+    @Override
+    public double getPlayerY() {
+        return 70.0;
+    }
+
+    @Override
+    public double getPlayerZ() {
+        return -64.25;
+    }
+
+    @Override
+    public int getLoadedChunks() {
+        return 1089;
+    }
+
+    @Override
+    public Map<String, Integer> countNearbyEntities(double radius) {
+        return Map.of();
+    }
+}
@@ -0,0 +1,75 @@
+package com.mineprofiler.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 直方图在采样线程上的查询开销：每个窗口都要做一次差分和若干次百分位/尾部均值查询
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HistogramBenchmark {
+    private final LogHistogram histogram = new LogHistogram();
+    private final long[] current = new long[LogHistogram.BUCKET_COUNT];
+    private final long[] base = new long[LogHistogram.BUCKET_COUNT];
+    private final HistogramCounts counts = new HistogramCounts();
+    private long value = 16_000_000L;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        // 约十分钟60帧的数据，带少量长尾
+        for (int i = 0; i < 36_000; i++) {
+            double ms = 16.6 + random.nextDouble(-4.0, 4.0) + (random.nextInt(200) == 0 ? random.nextDouble(20.0, 200.0) : 0.0);
+            histogram.record((long) (ms * 1_000_000.0));
+        }
+        histogram.copyCounts(current);
+        counts.setDifference(current, base, 250_000_000L);
+    }
+
+    @Benchmark
+    public void record() {
+        value = value * 6364136223846793005L + 1442695040888963407L;
+        histogram.record(10_000_000L + (value >>> 41));
+    }
+
+    /**
+     * 推进窗口时的复制和差分
+     */
+    @Benchmark
+    public long snapshot() {
+        histogram.copyCounts(current);
+        counts.setDifference(current, base, 250_000_000L);
+        return counts.getTotal();
+    }
+
+    @Benchmark
+    public long percentile99() {
+        return counts.percentileNanos(99.0);
+    }
+
+    @Benchmark
+    public long percentile999() {
+        return counts.percentileNanos(99.9);
+    }
+
+    @Benchmark
+    public double lowFps1() {
+        return counts.lowFps(0.01);
+    }
+}
@@ -0,0 +1,82 @@
+package com.mineprofiler.metrics;
+
+import com.mineprofiler.config.TestConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 渲染线程和tick线程上每次记录的开销
+ * 记录路径要求不加锁、不分配内存，用 -prof gc 运行时 gc.alloc.rate.norm 应为0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RecordBenchmark {
+    // 预先生成的帧时间（纳秒），覆盖多个直方图桶，避免分支预测和缓存过于理想
+    private static final int VALUE_COUNT = 4096;
+
+    private LightweightMetrics metrics;
+    private final long[] frameNanos = new long[VALUE_COUNT];
+    private int index = 0;
+    private long frameStart = 0;
+
+    @Setup
+    public void setup() {
+        metrics = new LightweightMetrics(new TestConfig(), new HeadlessProbe());
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            // 大部分在16 ms附近，偶尔出现尖峰
+            double ms = 16.6 + random.nextDouble(-4.0, 4.0) + (random.nextInt(100) == 0 ? 40.0 : 0.0);
+            frameNanos[i] = (long) (ms * 1_000_000.0);
+        }
+    }
+
+    private long nextValue() {
+        index = (index + 1) & (VALUE_COUNT - 1);
+        return frameNanos[index];
+    }
+
+    @Benchmark
+    public void updateFrameTime() {
+        metrics.updateFrameTime(nextValue() / 1_000_000.0);
+    }
+
+    @Benchmark
+    public void updateFrameTimeNanos() {
+        metrics.updateFrameTimeNanos(nextValue());
+    }
+
+    @Benchmark
+    public void updateFps() {
+        metrics.updateFps(1_000_000_000.0 / nextValue());
+    }
+
+    @Benchmark
+    public void updateMspt() {
+        metrics.updateMspt(nextValue() / 1_000_000.0f);
+    }
+
+    /**
+     * GameRendererMixin每帧调用的完整路径：帧时间、慢帧、GC标记和尖峰历史
+     */
+    @Benchmark
+    public void recordFrame() {
+        long duration = nextValue();
+        metrics.recordFrame(frameStart, duration, (index & 1) == 0);
+        frameStart += duration;
+    }
+}
@@ -0,0 +1,66 @@
+package com.mineprofiler.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程下的记录吞吐
+ *
+ * recordPerThread：每个线程各自的记录器（对应渲染线程、服务器线程、区块线程各写各的），检查记录器之间没有伪共享；
+ * writerWithSampler：一个线程持续记录，另一个线程不停推进窗口，是采样线程与写线程竞争最激烈的情况。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecorderContentionBenchmark {
+
+    @State(Scope.Thread)
+    public static class ThreadRecorder {
+        final SingleWriterRecorder recorder = new SingleWriterRecorder(true);
+        long value = 16_000_000L;
+    }
+
+    @State(Scope.Group)
+    public static class SharedRecorder {
+        final SingleWriterRecorder recorder = new SingleWriterRecorder(true);
+        final RecorderWindow window = new RecorderWindow();
+        long value = 16_000_000L;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordPerThread(ThreadRecorder state) {
+        state.value = state.value * 6364136223846793005L + 1442695040888963407L;
+        state.recorder.record(10_000_000L + (state.value >>> 41));
+    }
+
+    @Benchmark
+    @Group("writerWithSampler")
+    @GroupThreads(1)
+    public void write(SharedRecorder state) {
+        state.value = state.value * 6364136223846793005L + 1442695040888963407L;
+        state.recorder.record(10_000_000L + (state.value >>> 41));
+    }
+
+    @Benchmark
+    @Group("writerWithSampler")
+    @GroupThreads(1)
+    public long drain(SharedRecorder state) {
+        state.recorder.drain(state.window);
+        return state.window.getCount();
+    }
+}
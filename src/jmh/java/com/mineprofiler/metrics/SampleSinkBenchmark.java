@@ -0,0 +1,99 @@
+package com.mineprofiler.metrics;
+
+import com.mineprofiler.metrics.io.ColumnarSampleSink;
+import com.mineprofiler.metrics.io.CsvSampleSink;
+import com.mineprofiler.metrics.io.SampleSchema;
+import com.mineprofiler.metrics.io.SampleSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 采样线程每写一行的开销，使用与 perf_*.csv 相同的列定义
+ * 有 /dev/null 时写到 /dev/null，只测格式化和编码，不受磁盘速度影响；否则写到临时文件
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SampleSinkBenchmark {
+    private static final int ROW_COUNT = 1024;
+
+    @Param({"csv", "columnar"})
+    public String format;
+
+    private SampleSchema schema;
+    private SampleSink sink;
+    private File file;
+    private boolean temporary;
+    // 预先生成的行数据，按列交替使用整数和小数
+    private double[][] rows;
+    private int row = 0;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        schema = LightweightMetrics.buildSchema();
+        SplittableRandom random = new SplittableRandom(42);
+        rows = new double[ROW_COUNT][schema.size()];
+        long timestamp = 1_700_000_000_000L;
+        for (int r = 0; r < ROW_COUNT; r++) {
+            for (int c = 0; c < schema.size(); c++) {
+                rows[r][c] = c == 0 ? timestamp + r * 1000L : 60.0 + random.nextGaussian() * 5.0;
+            }
+        }
+
+        File devNull = new File("/dev/null");
+        temporary = !devNull.exists();
+        file = temporary ? File.createTempFile("mineprofiler-bench", "." + format) : devNull;
+        sink = "columnar".equals(format) ? new ColumnarSampleSink(file, 1000) : new CsvSampleSink(file, 1000);
+        sink.writeHeader(schema);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try {
+            sink.close();
+        } catch (IOException e) {
+            // /dev/null 不支持 fsync，关闭时的刷盘失败可以忽略
+            if (temporary) {
+                throw e;
+            }
+        } finally {
+            if (temporary) {
+                file.delete();
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeRow() throws IOException {
+        double[] values = rows[row];
+        row = (row + 1) & (ROW_COUNT - 1);
+        sink.beginRow();
+        for (int c = 0; c < values.length; c++) {
+            if (schema.getType(c) == SampleSchema.ColumnType.DOUBLE) {
+                sink.putDouble(values[c]);
+            } else {
+                sink.putLong((long) values[c]);
+            }
+        }
+        sink.endRow();
+    }
+}
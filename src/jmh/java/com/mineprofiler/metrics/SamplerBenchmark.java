@@ -0,0 +1,84 @@
+package com.mineprofiler.metrics;
+
+import com.google.gson.Gson;
+import com.mineprofiler.config.TestConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 采样线程处理一个窗口的完整开销：推进所有记录器、计算窗口统计、写出一行并发布快照
+ * 每次调用前记录一个窗口的帧和tick，使窗口直方图非空
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SamplerBenchmark {
+    // 每个窗口的帧数，对应1秒60帧
+    private static final int FRAMES_PER_WINDOW = 60;
+
+    @Param({"csv", "columnar"})
+    public String format;
+
+    private LightweightMetrics metrics;
+    private File directory;
+    private long frameStart = 0;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("mineprofiler-bench").toFile();
+        // 定时采样间隔设得很长，窗口只由基准测试切分；关闭会启动额外线程或写文件的功能
+        String json = "{\"metrics\": {\"sampleInterval\": 3600, \"outputDirectory\": " + new Gson().toJson(directory.getAbsolutePath())
+                + ", \"outputFormat\": \"" + format + "\", \"spikeCapture\": false}}";
+        metrics = new LightweightMetrics(new Gson().fromJson(json, TestConfig.class), new HeadlessProbe());
+        metrics.startCollection(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        metrics.stopCollection();
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void recordWindow() {
+        for (int i = 0; i < FRAMES_PER_WINDOW; i++) {
+            long duration = 15_000_000L + (i * 7919L % 4_000_000L);
+            metrics.recordFrame(frameStart, duration, (i & 1) == 0);
+            metrics.updateFps(60);
+            frameStart += duration;
+        }
+        for (int i = 0; i < FRAMES_PER_WINDOW / 3; i++) {
+            metrics.updateMspt(8.0f + (i % 5));
+        }
+    }
+
+    @Benchmark
+    public MetricsSnapshot sampleWindow() {
+        metrics.sampleSafely();
+        return metrics.getSnapshot();
+    }
+}
@@ -1,14 +1,36 @@
 package com.mineprofiler;
 
+import com.mineprofiler.automation.AutoWorldManager;
+import com.mineprofiler.automation.MatrixRunner;
+import com.mineprofiler.automation.RunController;
 import com.mineprofiler.automation.SimplePlayerController;
+import com.mineprofiler.config.ConfigWatcher;
+import com.mineprofiler.config.TestConfig;
+import com.mineprofiler.metrics.ClientWorldProbe;
+import com.mineprofiler.metrics.EntrypointSampler;
 import com.mineprofiler.metrics.LightweightMetrics;
+import com.mineprofiler.metrics.PerfOverlay;
+import com.mineprofiler.metrics.ServerChunkHooks;
+import com.mineprofiler.metrics.StartupTimeline;
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.entrypoint.EntrypointContainer;
+import net.minecraft.client.option.KeyBinding;
+import net.minecraft.client.util.InputUtil;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.config.Configurator;
+import org.lwjgl.glfw.GLFW;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 模组主类
@@ -23,27 +45,61 @@ public class MineProfilerMod implements ClientModInitializer {
     public static final Logger LOGGER = LogManager.getLogger("MineProfiler");
     // 单例模式
     private static MineProfilerMod INSTANCE;
+    // 测试配置
+    private TestConfig config;
     // 玩家控制器
     private SimplePlayerController playerController;
     // 性能指标收集器
     private LightweightMetrics metrics;
+    // 测试流程
+    private RunController runController;
+    // 自动创建/加载世界
+    private AutoWorldManager autoWorldManager;
+    // 性能浮层
+    private PerfOverlay overlay;
+    // 切换性能浮层的按键
+    private KeyBinding overlayKey;
+    // 配置文件监视，未启用时为null
+    private ConfigWatcher configWatcher;
+    // 启动时间线
+    private StartupTimeline startup;
+    // 启动时间线是否已写出
+    private boolean startupWritten = false;
     // 游戏刻计数
     private int ticks = 0;
-    // 是否已经开始收集指标
-    private boolean metricsStarted = false;
     
     @Override
     public void onInitializeClient() {
         INSTANCE = this;
+        this.startup = StartupTimeline.current();
         
         // 设置日志级别为DEBUG
         Configurator.setLevel(LOGGER.getName(), Level.DEBUG);
         
         LOGGER.info("MineProfiler mod 正在初始化...");
         
+        // 加载配置
+        this.config = TestConfig.loadOrDefault();
+        
         // 初始化玩家控制器和性能指标收集器
-        this.playerController = new SimplePlayerController();
-        this.metrics = new LightweightMetrics();
+        this.playerController = new SimplePlayerController(config.getTest());
+        this.metrics = new LightweightMetrics(config, new ClientWorldProbe());
+        MatrixRunner matrix = config.getMatrix().isEnabled() ? new MatrixRunner(config.getMatrix()) : null;
+        this.runController = new RunController(config.getTest(), metrics, playerController, matrix);
+        this.autoWorldManager = new AutoWorldManager(config.getWorld(), startup);
+        this.overlay = new PerfOverlay(metrics, config.getMetrics().isHudOverlay());
+        // 运行中修改配置文件时重新加载，指标配置在下一个采样窗口生效
+        if (config.isWatchConfig()) {
+            configWatcher = ConfigWatcher.start(config, this::onConfigReloaded);
+        }
+        this.overlayKey = KeyBindingHelper.registerKeyBinding(new KeyBinding(
+                "key.mineprofiler.overlay", InputUtil.Type.KEYSYM, GLFW.GLFW_KEY_F6, "category.mineprofiler"));
+        
+        // 集成服务器的区块加载事件
+        ServerChunkHooks.register();
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> startup.mark(StartupTimeline.Milestone.SERVER_STARTED));
+        ClientLifecycleEvents.CLIENT_STARTED.register(client -> onClientStarted());
+        ClientLifecycleEvents.CLIENT_STOPPING.register(client -> onClientStopping());
         
         LOGGER.info("MineProfiler mod 已初始化！");
         LOGGER.info("Minecraft版本: " + FabricLoader.getInstance().getModContainer("minecraft").get().getMetadata().getVersion());
@@ -53,37 +109,86 @@ public class MineProfilerMod implements ClientModInitializer {
             // 客户端每Tick执行一次
             this.ticks++;
             
-            // 如果玩家已加载
-            if (client != null && client.player != null) {
-                // 更新性能指标（每tick都更新）
-                if (client.getCurrentFps() > 0) {
-                    metrics.updateFps(client.getCurrentFps());
-                    // frameTime 现在由 GameRendererMixin 独立测量，不再从FPS反推
-                }
-                
-                // 开始收集指标数据（仅执行一次）
-                if (!metricsStarted) {
-                    LOGGER.info("开始收集性能指标数据...");
-                    metrics.startCollection();
-                    metricsStarted = true;
-                }
-                
-                // 如果未开始移动，则开始移动
-                if (!playerController.isAutoMovementActive()) {
-                    LOGGER.info("玩家已加载，启动自动移动");
-                    playerController.activateAutoMovement();
-                }
-                
-                // 已激活自动移动，更新玩家控制器
-                try {
-                    if (playerController.isAutoMovementActive()) {
-                        playerController.updatePlayerMovement();
-                    }
-                } catch (Exception e) {
-                    LOGGER.error("更新玩家控制器时出错", e);
-                }
+            while (overlayKey.wasPressed()) {
+                overlay.toggle();
+            }
+            
+            // 资源加载完成后直接进入世界
+            autoWorldManager.update();
+            if (client.player != null && client.world != null) {
+                startup.mark(StartupTimeline.Milestone.WORLD_JOINED);
+            }
+            
+            // 如果玩家已加载，更新性能指标（每tick都更新）
+            if (client.player != null && client.getCurrentFps() > 0) {
+                metrics.updateFps(client.getCurrentFps());
+                // frameTime 现在由 GameRendererMixin 独立测量，不再从FPS反推
+            }
+            
+            // 推进测试流程：进入世界后预热、测量、冷却，并驱动玩家移动
+            try {
+                runController.tick(client);
+            } catch (Exception e) {
+                LOGGER.error("更新测试流程时出错", e);
+            }
+            
+            // 首帧之后写出启动时间线，与本次运行的其他数据放在一起
+            if (!startupWritten && startup.isComplete() && metrics.getOutputDirectory() != null) {
+                startupWritten = true;
+                startup.write(metrics.getOutputDirectory(), metrics.getRunTimestamp());
             }
         });
+        
+        startup.mark(StartupTimeline.Milestone.MOD_INITIALIZED);
+    }
+    
+    /**
+     * 配置文件已重新加载，在监视线程上调用
+     * 玩家控制器等已按初始配置创建，只有指标收集器应用新配置
+     */
+    private void onConfigReloaded(TestConfig next) {
+        metrics.applyConfig(next);
+    }
+    
+    /**
+     * 客户端关闭：停止监视配置文件
+     */
+    private void onClientStopping() {
+        if (configWatcher != null) {
+            configWatcher.close();
+            configWatcher = null;
+        }
+    }
+    
+    /**
+     * 所有模组初始化完成：停止对初始化入口的采样，把采样结果按模组记入启动时间线
+     */
+    private void onClientStarted() {
+        startup.mark(StartupTimeline.Milestone.CLIENT_STARTED);
+        EntrypointSampler sampler = MineProfilerPreLaunch.takeEntrypointSampler();
+        if (sampler == null) return;
+        List<EntrypointSampler.Run> runs = sampler.stop();
+        startup.addEntrypointRuns(runs, entrypointOwners(), Thread.currentThread());
+        LOGGER.info("模组初始化采样完成，共 " + runs.size() + " 段");
+    }
+    
+    /**
+     * 初始化入口类名 -> 模组ID
+     */
+    private static Map<String, String> entrypointOwners() {
+        Map<String, String> owners = new HashMap<>();
+        try {
+            FabricLoader loader = FabricLoader.getInstance();
+            for (EntrypointContainer<ModInitializer> container : loader.getEntrypointContainers("main", ModInitializer.class)) {
+                owners.put(container.getEntrypoint().getClass().getName(), container.getProvider().getMetadata().getId());
+            }
+            for (EntrypointContainer<ClientModInitializer> container : loader.getEntrypointContainers("client", ClientModInitializer.class)) {
+                owners.put(container.getEntrypoint().getClass().getName(), container.getProvider().getMetadata().getId());
+            }
+        } catch (Exception e) {
+            LOGGER.warn("无法获取模组初始化入口: " + e.getMessage());
+        }
+        return owners;
     }
     
     /**
@@ -94,6 +199,14 @@ public class MineProfilerMod implements ClientModInitializer {
         return INSTANCE;
     }
     
+    /**
+     * 获取启动时加载的测试配置，重新加载配置文件后不变
+     * @return 测试配置
+     */
+    public TestConfig getConfig() {
+        return config;
+    }
+    
     /**
      * 获取玩家控制器
      * @return 玩家控制器
@@ -102,6 +215,30 @@ public class MineProfilerMod implements ClientModInitializer {
         return playerController;
     }
     
+    /**
+     * 获取测试流程
+     * @return 测试流程状态机
+     */
+    public RunController getRunController() {
+        return runController;
+    }
+    
+    /**
+     * 获取启动时间线
+     * @return 启动时间线
+     */
+    public StartupTimeline getStartup() {
+        return startup;
+    }
+    
+    /**
+     * 获取性能浮层
+     * @return 性能浮层
+     */
+    public PerfOverlay getOverlay() {
+        return overlay;
+    }
+    
     /**
      * 获取性能指标收集器
      * @return 性能指标收集器
@@ -0,0 +1,42 @@
+package com.mineprofiler;
+
+import com.mineprofiler.config.TestConfig;
+import com.mineprofiler.metrics.EntrypointSampler;
+import com.mineprofiler.metrics.StartupTimeline;
+import net.fabricmc.api.EnvType;
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.entrypoint.PreLaunchEntrypoint;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * preLaunch 入口
+ * 在任何模组初始化之前运行：记录加载器阶段结束的时间，并开始对各模组的初始化入口采样。
+ * 此时游戏类尚未加载，这里不能引用任何Minecraft类。
+ */
+public class MineProfilerPreLaunch implements PreLaunchEntrypoint {
+    private static final Logger LOGGER = LogManager.getLogger("MineProfilerPreLaunch");
+    // 模组初始化采样器，客户端启动完成后由 MineProfilerMod 取走
+    private static volatile EntrypointSampler entrypointSampler;
+
+    @Override
+    public void onPreLaunch() {
+        StartupTimeline.current().mark(StartupTimeline.Milestone.PRE_LAUNCH);
+        if (FabricLoader.getInstance().getEnvironmentType() != EnvType.CLIENT) return;
+        if (!TestConfig.loadOrDefault().getMetrics().isStartupProfiling()) return;
+
+        // 客户端在同一线程上依次调用 main 和 client 入口
+        entrypointSampler = new EntrypointSampler(Thread.currentThread());
+        entrypointSampler.start();
+        LOGGER.info("已开始对模组初始化入口采样");
+    }
+
+    /**
+     * 取走模组初始化采样器，未启用时为null
+     */
+    static synchronized EntrypointSampler takeEntrypointSampler() {
+        EntrypointSampler sampler = entrypointSampler;
+        entrypointSampler = null;
+        return sampler;
+    }
+}
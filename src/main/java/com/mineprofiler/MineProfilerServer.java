@@ -0,0 +1,96 @@
+package com.mineprofiler;
+
+import com.mineprofiler.automation.BotLoadDriver;
+import com.mineprofiler.config.ConfigWatcher;
+import com.mineprofiler.config.TestConfig;
+import com.mineprofiler.metrics.LightweightMetrics;
+import com.mineprofiler.metrics.ServerChunkHooks;
+import com.mineprofiler.metrics.ServerWorldProbe;
+import net.fabricmc.api.DedicatedServerModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.server.MinecraftServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * 专用服务器入口
+ * 服务器启动后开始收集MSPT等指标；启用压测时由 {@link BotLoadDriver} 分级增加机器人玩家，
+ * 输出玩家数量与MSPT分位、区块吞吐、内存占用的容量曲线
+ */
+public class MineProfilerServer implements DedicatedServerModInitializer {
+    private static final Logger LOGGER = LogManager.getLogger("MineProfilerServer");
+    // 测试配置，重新加载时整体替换
+    private volatile TestConfig config;
+    // 性能指标收集器
+    private volatile LightweightMetrics metrics;
+    // 配置文件监视，未启用时为null
+    private ConfigWatcher configWatcher;
+    // 机器人负载驱动，未启用压测时为null
+    private BotLoadDriver botDriver;
+    
+    @Override
+    public void onInitializeServer() {
+        LOGGER.info("MineProfiler 专用服务器模式正在初始化...");
+        this.config = TestConfig.loadOrDefault();
+        if (config.isWatchConfig()) {
+            configWatcher = ConfigWatcher.start(config, this::onConfigReloaded);
+        }
+        
+        ServerChunkHooks.register();
+        ServerLifecycleEvents.SERVER_STARTED.register(this::onServerStarted);
+        ServerLifecycleEvents.SERVER_STOPPING.register(this::onServerStopping);
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (botDriver != null) {
+                botDriver.tick();
+            }
+        });
+        ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> {
+            if (botDriver != null) {
+                botDriver.onChunkLoaded();
+            }
+        });
+    }
+    
+    private void onServerStarted(MinecraftServer server) {
+        ServerWorldProbe probe = new ServerWorldProbe(server);
+        metrics = new LightweightMetrics(config, probe);
+        metrics.startCollection();
+        
+        if (config.getServer().isEnabled()) {
+            try {
+                botDriver = new BotLoadDriver(server, config, metrics, probe);
+                botDriver.start();
+            } catch (Exception e) {
+                LOGGER.error("无法启动机器人压测", e);
+                botDriver = null;
+            }
+        }
+    }
+    
+    /**
+     * 配置文件已重新加载，在监视线程上调用
+     */
+    private void onConfigReloaded(TestConfig next) {
+        this.config = next;
+        LightweightMetrics current = metrics;
+        if (current != null) {
+            current.applyConfig(next);
+        }
+    }
+    
+    private void onServerStopping(MinecraftServer server) {
+        if (configWatcher != null) {
+            configWatcher.close();
+            configWatcher = null;
+        }
+        if (botDriver != null) {
+            botDriver.stop();
+            botDriver = null;
+        }
+        if (metrics != null) {
+            metrics.stopCollection();
+        }
+    }
+}
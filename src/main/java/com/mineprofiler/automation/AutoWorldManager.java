@@ -1,42 +1,98 @@
 package com.mineprofiler.automation;
 
-import com.mineprofiler.MineProfilerMod;
+import com.mineprofiler.config.TestConfig;
+import com.mineprofiler.metrics.StartupTimeline;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.screen.TitleScreen;
+import net.minecraft.resource.DataConfiguration;
+import net.minecraft.resource.featuretoggle.FeatureFlags;
+import net.minecraft.world.Difficulty;
+import net.minecraft.world.GameMode;
+import net.minecraft.world.GameRules;
+import net.minecraft.world.gen.GeneratorOptions;
+import net.minecraft.world.gen.WorldPresets;
+import net.minecraft.world.level.LevelInfo;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
- * 简化版自动世界管理器
- * 处理进入SchedEvalBench世界的过程
+ * 自动世界管理器
+ * 首次资源加载完成后直接创建或加载配置中的世界，不经过标题界面和选择世界界面。
+ * 世界不存在时按配置的种子、名称和游戏模式创建，存在时直接加载。
  */
 public class AutoWorldManager {
 
     private static final Logger LOGGER = LogManager.getLogger("AutoWorldManager");
     private final MinecraftClient client;
-    
+    private final TestConfig.WorldConfig config;
+    private final StartupTimeline startup;
+
+    // 是否已经发起过创建或加载，每次启动只自动进入一次
+    private boolean started = false;
+
     /**
-     * 构造函数
+     * @param config 世界配置
+     * @param startup 启动时间线
      */
-    public AutoWorldManager() {
+    public AutoWorldManager(TestConfig.WorldConfig config, StartupTimeline startup) {
         this.client = MinecraftClient.getInstance();
+        this.config = config;
+        this.startup = startup;
         LOGGER.info("AutoWorldManager已初始化");
     }
-    
+
     /**
-     * 启动世界自动化流程
+     * 在每个客户端tick结束时调用：资源加载完成、尚未进入世界时启动世界
      */
-    public void startAutomation() {
-        LOGGER.info("开始世界自动化流程");
-        // 自动化流程将通过Mixin处理:
-        // 1. TitleScreenMixin - 点击单人游戏按钮
-        // 2. SelectWorldScreenMixin - 选择或创建SchedEvalBench世界
-        // 3. SimplePlayerController - 控制玩家移动
+    public void update() {
+        if (client.getOverlay() != null) return;
+        startup.mark(StartupTimeline.Milestone.RESOURCES_LOADED);
+
+        // 每次启动只自动进入一次，退出世界后停留在标题界面
+        if (started || !config.isAutoStart() || client.world != null) return;
+        started = true;
+        startAutomation();
     }
-    
+
     /**
-     * 更新自动世界管理器状态
+     * 创建或加载世界
      */
-    public void update() {
-        // 仅用于兼容性，简化版无需更新
+    public void startAutomation() {
+        String name = config.getWorldName();
+        startup.mark(StartupTimeline.Milestone.WORLD_REQUESTED);
+        try {
+            if (client.getLevelStorage().levelExists(name)) {
+                LOGGER.info("加载已有世界: " + name);
+                client.createIntegratedServerLoader().start(name, () -> {
+                    LOGGER.warn("加载世界被取消: " + name);
+                    client.setScreen(new TitleScreen());
+                });
+            } else {
+                createWorld(name);
+            }
+        } catch (Exception e) {
+            LOGGER.error("无法创建或加载世界: " + name, e);
+        }
+    }
+
+    private void createWorld(String name) {
+        GameMode gameMode = GameMode.byId(config.getGameMode());
+        Difficulty difficulty = Difficulty.byName(config.getDifficulty());
+        if (difficulty == null) {
+            difficulty = Difficulty.NORMAL;
+        }
+        long seed = GeneratorOptions.parseSeed(config.getSeed()).orElse(GeneratorOptions.getRandomSeed());
+        LOGGER.info("创建新世界: " + name + "，种子: " + seed + "，游戏模式: " + gameMode.getId());
+
+        GameRules gameRules = new GameRules(FeatureFlags.DEFAULT_ENABLED_FEATURES);
+        if (config.isFreezeDaylightAndWeather()) {
+            // 固定时间和天气，保证每次运行的画面相同
+            gameRules.get(GameRules.DO_DAYLIGHT_CYCLE).set(false, null);
+            gameRules.get(GameRules.DO_WEATHER_CYCLE).set(false, null);
+        }
+        LevelInfo levelInfo = new LevelInfo(name, gameMode, false, difficulty, true, gameRules, DataConfiguration.SAFE_MODE);
+        GeneratorOptions generatorOptions = new GeneratorOptions(seed, true, false);
+        client.createIntegratedServerLoader().createAndStart(name, levelInfo, generatorOptions,
+                WorldPresets::createDemoOptions, new TitleScreen());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,203 @@
+package com.mineprofiler.automation;
+
+import com.mineprofiler.automation.path.PathEngine;
+import com.mineprofiler.automation.path.PathPose;
+import com.mineprofiler.config.TestConfig;
+import com.mineprofiler.metrics.CapacityCurve;
+import com.mineprofiler.metrics.LightweightMetrics;
+import com.mineprofiler.metrics.ServerWorldProbe;
+import com.mojang.authlib.GameProfile;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 机器人负载驱动
+ *
+ * 在专用服务器上分级增加机器人玩家：所有机器人按 {@link PathEngine} 飞行与 {@link SimplePlayerController} 相同形状的路线，
+ * 第i个机器人的路线向东平移 i * botSpacing 方块，速度为 botSpeed，
+ * 每一级持续 stepSeconds 秒，预热结束后的数据写入 {@link CapacityCurve}。
+ * 机器人只加入世界，不在玩家列表中；压测期间服务器不按 pause-when-empty-seconds 暂停（见 MinecraftDedicatedServerMixin）。
+ * 除 {@link #isRunning()} 外，所有方法只能由服务器线程调用。
+ */
+public class BotLoadDriver {
+    private static final Logger LOGGER = LogManager.getLogger("BotLoadDriver");
+    // 是否有压测正在进行
+    private static volatile boolean running = false;
+    
+    private final MinecraftServer server;
+    private final TestConfig.ServerBenchmarkConfig config;
+    private final TestConfig.TestParameters test;
+    private final LightweightMetrics metrics;
+    private final ServerWorldProbe probe;
+    private final CapacityCurve curve;
+    private final List<BotPlayer> bots = new ArrayList<>();
+    
+    private ServerWorld world;
+    private PathEngine engine;
+    private long pathTicks = 0;
+    private long stepStartNanos = 0;
+    private boolean measuring = false;
+    private boolean finished = false;
+    
+    public BotLoadDriver(MinecraftServer server, TestConfig config, LightweightMetrics metrics, ServerWorldProbe probe) throws IOException {
+        this.server = server;
+        this.config = config.getServer();
+        this.test = config.getTest();
+        this.metrics = metrics;
+        this.probe = probe;
+        
+        File directory = metrics.getOutputDirectory();
+        if (directory == null) {
+            directory = new File(config.getMetrics().getOutputDirectory());
+            directory.mkdirs();
+        }
+        String timestamp = metrics.getRunTimestamp() != null ? metrics.getRunTimestamp() : Long.toString(System.currentTimeMillis());
+        this.curve = new CapacityCurve(new File(directory, "capacity_" + timestamp + ".csv"), config.getMetrics().getFlushIntervalMs());
+    }
+    
+    /**
+     * 是否有压测正在进行，可以在任何线程上调用
+     */
+    public static boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * 开始压测，生成第一级机器人
+     */
+    public void start() {
+        int pauseSeconds = server.getPauseWhenEmptySeconds();
+        if (pauseSeconds > 0) {
+            LOGGER.info("压测期间忽略 pause-when-empty-seconds=" + pauseSeconds + "，服务器不会因没有真实玩家而暂停");
+        }
+        world = server.getOverworld();
+        BlockPos spawn = world.getSpawnPos();
+        double originX = test.getOriginX() != null ? test.getOriginX() : spawn.getX() + 0.5;
+        double originZ = test.getOriginZ() != null ? test.getOriginZ() : spawn.getZ() + 0.5;
+        engine = PathEngine.create(test, config.getBotSpeed(), originX, originZ);
+        LOGGER.info("开始机器人压测: 初始 " + config.getInitialBots() + " 个，每级增加 " + config.getBotStep()
+                + " 个，最多 " + config.getMaxBots() + " 个，每级 " + config.getStepSeconds() + " 秒，路线: " + engine.getType());
+        spawnBots(config.getInitialBots());
+        beginStep();
+        running = true;
+    }
+    
+    /**
+     * 在每个服务器tick结束时调用
+     */
+    public void tick() {
+        if (finished) return;
+        // tick结束事件在MinecraftServer.tick返回之前触发，这里读到的是上一个tick的耗时
+        curve.recordTick(metrics.getServerTicks().getLastTickNanos());
+        moveBots();
+        
+        long elapsedNanos = System.nanoTime() - stepStartNanos;
+        if (!measuring && elapsedNanos >= config.getWarmupSeconds() * 1_000_000_000L) {
+            curve.beginMeasure();
+            measuring = true;
+        }
+        if (elapsedNanos >= config.getStepSeconds() * 1_000_000_000L) {
+            curve.endStep();
+            if (bots.size() >= config.getMaxBots()) {
+                finish();
+            } else {
+                spawnBots(Math.min(config.getBotStep(), config.getMaxBots() - bots.size()));
+                beginStep();
+            }
+        }
+    }
+    
+    /**
+     * 在服务器区块加载完成时调用
+     */
+    public void onChunkLoaded() {
+        curve.recordChunkLoaded();
+    }
+    
+    /**
+     * 服务器关闭时调用：移除机器人并关闭输出，未完成的一级不写出
+     */
+    public void stop() {
+        if (!finished) {
+            finished = true;
+            removeBots();
+        }
+        curve.close();
+    }
+    
+    public int getBotCount() {
+        return bots.size();
+    }
+    
+    private void beginStep() {
+        curve.beginStep(bots.size());
+        stepStartNanos = System.nanoTime();
+        measuring = false;
+        LOGGER.info("当前机器人数量: " + bots.size());
+    }
+    
+    private void finish() {
+        finished = true;
+        LOGGER.info("机器人压测完成");
+        removeBots();
+        if (config.isStopServerAfterTest()) {
+            server.stop(false);
+        }
+    }
+    
+    /**
+     * 生成机器人，第i个机器人的路线向东平移 i * botSpacing 方块
+     * 后加入的机器人从当前路线进度处出发，和已有机器人保持相同的飞行距离
+     */
+    private void spawnBots(int count) {
+        PathPose pose = engine.poseAt(pathTicks);
+        for (int i = 0; i < count; i++) {
+            int index = bots.size();
+            String name = "MPBot" + index;
+            UUID uuid = UUID.nameUUIDFromBytes(("MineProfilerBot:" + index).getBytes(StandardCharsets.UTF_8));
+            BotPlayer bot = new BotPlayer(world, new GameProfile(uuid, name));
+            bot.refreshPositionAndAngles(pose.getX() + offset(index), pose.getY(), pose.getZ(), pose.getYaw(), pose.getPitch());
+            world.onPlayerConnected(bot);
+            bots.add(bot);
+        }
+        if (!bots.isEmpty()) {
+            probe.setTracked(bots.get(0));
+        }
+    }
+    
+    /**
+     * 所有机器人前进一个tick
+     */
+    private void moveBots() {
+        PathPose pose = engine.poseAt(++pathTicks);
+        for (int i = 0; i < bots.size(); i++) {
+            BotPlayer bot = bots.get(i);
+            bot.refreshPositionAndAngles(pose.getX() + offset(i), pose.getY(), pose.getZ(), pose.getYaw(), pose.getPitch());
+            world.getChunkManager().updatePosition(bot);
+        }
+    }
+    
+    private double offset(int index) {
+        return (double) index * config.getBotSpacing();
+    }
+    
+    private void removeBots() {
+        running = false;
+        probe.setTracked(null);
+        for (BotPlayer bot : bots) {
+            world.removePlayer(bot, Entity.RemovalReason.DISCARDED);
+        }
+        bots.clear();
+    }
+}
@@ -0,0 +1,17 @@
+package com.mineprofiler.automation;
+
+import com.mojang.authlib.GameProfile;
+import net.fabricmc.fabric.api.entity.FakePlayer;
+import net.minecraft.server.world.ServerWorld;
+
+/**
+ * 压测用的机器人玩家
+ * 基于Fabric的FakePlayer：没有真实网络连接，发往它的数据包会被丢弃，
+ * 但加入世界后会像真实玩家一样触发视距内的区块加载、生成和实体追踪
+ */
+public class BotPlayer extends FakePlayer {
+    
+    public BotPlayer(ServerWorld world, GameProfile profile) {
+        super(world, profile);
+    }
+}
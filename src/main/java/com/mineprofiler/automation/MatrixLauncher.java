@@ -0,0 +1,113 @@
+package com.mineprofiler.automation;
+
+import com.mineprofiler.config.TestConfig;
+import com.mineprofiler.metrics.MatrixReport;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 矩阵测试启动器
+ * JVM参数（GC、堆大小等）无法在运行中修改，因此由本工具按 jvmVariants 逐个重新启动游戏，
+ * 每次启动运行一轮游戏内的矩阵（渲染距离 × 模拟距离），结果写入同一个会话文件，全部结束后汇总。
+ * 需要在游戏目录中运行（读取其中的 mineprofiler_config.json），并在配置中开启 exitAfterTest。
+ *
+ * 用法：
+ * <pre>
+ * java -cp mineprofiler.jar:gson.jar:log4j-api.jar:log4j-core.jar com.mineprofiler.automation.MatrixLauncher
+ * </pre>
+ * launchCommand 示例：["java", "{jvmArgs}", "-cp", "...", "net.fabricmc.loader.impl.launch.knot.KnotClient"]
+ */
+public final class MatrixLauncher {
+    private static final String JVM_ARGS_PLACEHOLDER = "{jvmArgs}";
+
+    private MatrixLauncher() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        TestConfig config = TestConfig.load();
+        TestConfig.MatrixConfig matrix = config.getMatrix();
+        if (matrix.getLaunchCommand().isEmpty()) {
+            System.err.println("未配置 matrix.launchCommand");
+            System.exit(1);
+        }
+        List<TestConfig.JvmVariant> variants = matrix.getJvmVariants().isEmpty()
+                ? List.of(new TestConfig.JvmVariant())
+                : matrix.getJvmVariants();
+        String session = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        File directory = new File(config.getMetrics().getOutputDirectory()).getAbsoluteFile();
+        directory.mkdirs();
+
+        // 与游戏内相同：交替时按轮次在外层循环
+        int repetitions = matrix.getRepetitions();
+        List<int[]> launches = new ArrayList<>();
+        if (matrix.isInterleave()) {
+            for (int r = 0; r < repetitions; r++) {
+                for (int v = 0; v < variants.size(); v++) {
+                    launches.add(new int[]{v, r});
+                }
+            }
+        } else {
+            for (int v = 0; v < variants.size(); v++) {
+                for (int r = 0; r < repetitions; r++) {
+                    launches.add(new int[]{v, r});
+                }
+            }
+        }
+
+        int failures = 0;
+        for (int i = 0; i < launches.size(); i++) {
+            TestConfig.JvmVariant variant = variants.get(launches.get(i)[0]);
+            int repetition = launches.get(i)[1];
+            List<String> command = buildCommand(matrix.getLaunchCommand(), variant, session, directory, repetition);
+            System.out.printf("[%d/%d] %s 第 %d 次: %s%n", i + 1, launches.size(), variant.getName(), repetition + 1, String.join(" ", command));
+            Process process = new ProcessBuilder(command).inheritIO().start();
+            if (!process.waitFor(matrix.getLaunchTimeoutMinutes(), TimeUnit.MINUTES)) {
+                System.err.println("超时，强制结束");
+                process.destroyForcibly().waitFor();
+                failures++;
+            } else if (process.exitValue() != 0) {
+                System.err.println("游戏退出码 " + process.exitValue());
+                failures++;
+            }
+        }
+
+        File runsFile = new File(directory, "matrix_" + session + "_runs.csv");
+        File summaryFile = new File(directory, "matrix_" + session + "_summary.csv");
+        MatrixReport.write(runsFile, summaryFile, matrix.getBaseline(), matrix.getCompareMetrics());
+        System.out.println("运行结果: " + runsFile + "，汇总: " + summaryFile + "，失败 " + failures + " 次");
+        System.exit(failures > 0 ? 1 : 0);
+    }
+
+    /**
+     * 展开启动命令：{jvmArgs} 替换为该组合的JVM参数和矩阵系统属性，未出现时插在第一个参数（java）之后
+     */
+    private static List<String> buildCommand(List<String> template, TestConfig.JvmVariant variant, String session,
+                                             File directory, int repetition) {
+        List<String> jvmArgs = new ArrayList<>(variant.getArgs());
+        jvmArgs.add("-D" + MatrixRunner.PROPERTY_SESSION + "=" + session);
+        jvmArgs.add("-D" + MatrixRunner.PROPERTY_DIRECTORY + "=" + directory.getPath());
+        jvmArgs.add("-D" + MatrixRunner.PROPERTY_JVM_VARIANT + "=" + variant.getName());
+        jvmArgs.add("-D" + MatrixRunner.PROPERTY_REPETITION + "=" + repetition);
+
+        List<String> command = new ArrayList<>();
+        boolean expanded = false;
+        for (String part : template) {
+            if (JVM_ARGS_PLACEHOLDER.equals(part)) {
+                command.addAll(jvmArgs);
+                expanded = true;
+            } else {
+                command.add(part);
+            }
+        }
+        if (!expanded) {
+            command.addAll(1, jvmArgs);
+        }
+        return command;
+    }
+}
@@ -0,0 +1,220 @@
+package com.mineprofiler.automation;
+
+import com.mineprofiler.config.TestConfig;
+import com.mineprofiler.metrics.LightweightMetrics;
+import com.mineprofiler.metrics.MatrixReport;
+import com.mineprofiler.metrics.RunSummary;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.option.GameOptions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 矩阵测试
+ *
+ * 在同一个JVM中按渲染距离 × 模拟距离的所有组合依次运行，每个组合重复 repetitions 次，
+ * 两次运行之间直接修改游戏选项（预热期吸收区块重新加载的影响）。
+ * 由 {@link MatrixLauncher} 启动时，JVM参数组合和重复序号由系统属性指定，本JVM只运行一轮。
+ * 每次运行的结果追加到 matrix_<会话>_runs.csv，全部结束后由 {@link MatrixReport} 汇总。
+ * 所有方法只能由客户端线程调用。
+ */
+public class MatrixRunner {
+    private static final Logger LOGGER = LogManager.getLogger("MatrixRunner");
+    // 由 MatrixLauncher 传入的系统属性
+    static final String PROPERTY_SESSION = "mineprofiler.matrixSession";
+    static final String PROPERTY_DIRECTORY = "mineprofiler.matrixDir";
+    static final String PROPERTY_JVM_VARIANT = "mineprofiler.jvmVariant";
+    static final String PROPERTY_REPETITION = "mineprofiler.matrixRepetition";
+
+    private final TestConfig.MatrixConfig config;
+    private final String jvmVariant;
+    private final List<Cell> schedule = new ArrayList<>();
+    // 下一次运行在 schedule 中的位置
+    private int next = 0;
+    // 当前运行的单元，运行之间为null
+    private Cell current;
+
+    // 会话名和输出目录，第一次运行结束时确定
+    private String session;
+    private File directory;
+
+    // 开始前的选项，全部结束后恢复
+    private Integer originalViewDistance;
+    private Integer originalSimulationDistance;
+
+    public MatrixRunner(TestConfig.MatrixConfig config) {
+        this.config = config;
+        this.jvmVariant = System.getProperty(PROPERTY_JVM_VARIANT, "default");
+        this.session = System.getProperty(PROPERTY_SESSION);
+        String dir = System.getProperty(PROPERTY_DIRECTORY);
+        this.directory = dir != null ? new File(dir) : null;
+        buildSchedule();
+        LOGGER.info(String.format("矩阵测试: JVM组合 %s，%d 次运行", jvmVariant, schedule.size()));
+    }
+
+    /**
+     * 按配置展开所有运行；未配置的维度保持当前选项
+     */
+    private void buildSchedule() {
+        List<Integer> renderDistances = config.getRenderDistances().isEmpty() ? nullList() : config.getRenderDistances();
+        List<Integer> simulationDistances = config.getSimulationDistances().isEmpty() ? nullList() : config.getSimulationDistances();
+        List<Cell> cells = new ArrayList<>();
+        for (Integer renderDistance : renderDistances) {
+            for (Integer simulationDistance : simulationDistances) {
+                cells.add(new Cell(renderDistance, simulationDistance, 0));
+            }
+        }
+
+        // 由启动器指定重复序号时只运行这一轮
+        String fixedRepetition = System.getProperty(PROPERTY_REPETITION);
+        if (fixedRepetition != null) {
+            int repetition = Integer.parseInt(fixedRepetition);
+            for (Cell cell : cells) {
+                schedule.add(cell.withRepetition(repetition));
+            }
+            return;
+        }
+        int repetitions = config.getRepetitions();
+        if (config.isInterleave()) {
+            for (int r = 0; r < repetitions; r++) {
+                for (Cell cell : cells) {
+                    schedule.add(cell.withRepetition(r));
+                }
+            }
+        } else {
+            for (Cell cell : cells) {
+                for (int r = 0; r < repetitions; r++) {
+                    schedule.add(cell.withRepetition(r));
+                }
+            }
+        }
+    }
+
+    private static List<Integer> nullList() {
+        List<Integer> list = new ArrayList<>();
+        list.add(null);
+        return list;
+    }
+
+    /**
+     * 是否还有未运行的组合
+     */
+    public boolean hasNext() {
+        return next < schedule.size();
+    }
+
+    /**
+     * 开始下一次运行：应用该单元的游戏选项
+     */
+    public void beginRun(MinecraftClient client) {
+        if (!hasNext()) return;
+        current = schedule.get(next);
+        GameOptions options = client.options;
+        if (originalViewDistance == null) {
+            originalViewDistance = options.getViewDistance().getValue();
+            originalSimulationDistance = options.getSimulationDistance().getValue();
+        }
+        if (current.renderDistance != null) {
+            options.getViewDistance().setValue(current.renderDistance);
+        }
+        if (current.simulationDistance != null) {
+            options.getSimulationDistance().setValue(current.simulationDistance);
+        }
+        LOGGER.info(String.format("矩阵测试 %d/%d: %s 第 %d 次（渲染距离 %d，模拟距离 %d）",
+                next + 1, schedule.size(), cellName(current), current.repetition + 1,
+                options.getViewDistance().getValue(), options.getSimulationDistance().getValue()));
+    }
+
+    /**
+     * 当前运行结束：在停止收集之后调用，把汇总指标追加到运行结果文件
+     */
+    public void endRun(MinecraftClient client, LightweightMetrics metrics) {
+        if (current == null) return;
+        Cell cell = current;
+        current = null;
+        next++;
+
+        RunSummary summary = metrics.getLastSummary();
+        if (summary == null) {
+            LOGGER.warn("本次运行没有汇总指标，跳过: " + cellName(cell));
+            return;
+        }
+        if (session == null) {
+            session = metrics.getRunTimestamp();
+        }
+        if (directory == null) {
+            directory = metrics.getOutputDirectory();
+        }
+        Map<String, String> keys = new LinkedHashMap<>();
+        keys.put("session", session);
+        keys.put("jvmVariant", jvmVariant);
+        keys.put("cell", cellName(cell));
+        keys.put("renderDistance", String.valueOf(client.options.getViewDistance().getValue()));
+        keys.put("simulationDistance", String.valueOf(client.options.getSimulationDistance().getValue()));
+        keys.put("repetition", String.valueOf(cell.repetition));
+        keys.put("runTimestamp", metrics.getRunTimestamp());
+        try {
+            directory.mkdirs();
+            MatrixReport.appendRun(getRunsFile(), keys, summary);
+        } catch (IOException e) {
+            LOGGER.error("无法写入矩阵运行结果", e);
+        }
+    }
+
+    /**
+     * 全部运行结束或中止：恢复游戏选项并写出汇总
+     */
+    public void finish(MinecraftClient client) {
+        if (originalViewDistance != null) {
+            client.options.getViewDistance().setValue(originalViewDistance);
+            client.options.getSimulationDistance().setValue(originalSimulationDistance);
+        }
+        if (directory == null || session == null) return;
+        try {
+            MatrixReport.write(getRunsFile(), new File(directory, "matrix_" + session + "_summary.csv"),
+                    config.getBaseline(), config.getCompareMetrics());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("无法写入矩阵测试汇总", e);
+        }
+    }
+
+    private File getRunsFile() {
+        return new File(directory, "matrix_" + session + "_runs.csv");
+    }
+
+    /**
+     * 单元名称：JVM组合/渲染距离/模拟距离，未配置的维度省略
+     */
+    private String cellName(Cell cell) {
+        StringBuilder name = new StringBuilder(jvmVariant);
+        if (cell.renderDistance != null) name.append("/rd").append(cell.renderDistance);
+        if (cell.simulationDistance != null) name.append("/sd").append(cell.simulationDistance);
+        return name.toString();
+    }
+
+    /**
+     * 一次运行：配置单元和重复序号
+     */
+    private static final class Cell {
+        final Integer renderDistance;
+        final Integer simulationDistance;
+        final int repetition;
+
+        Cell(Integer renderDistance, Integer simulationDistance, int repetition) {
+            this.renderDistance = renderDistance;
+            this.simulationDistance = simulationDistance;
+            this.repetition = repetition;
+        }
+
+        Cell withRepetition(int repetition) {
+            return new Cell(renderDistance, simulationDistance, repetition);
+        }
+    }
+}
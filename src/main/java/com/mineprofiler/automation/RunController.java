@@ -0,0 +1,201 @@
+package com.mineprofiler.automation;
+
+import com.mineprofiler.config.TestConfig;
+import com.mineprofiler.metrics.LightweightMetrics;
+import net.minecraft.client.MinecraftClient;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * 测试流程状态机
+ *
+ * 等待进入世界 -> 预热（JIT编译、区块缓存趋于稳定，只写CSV不计入统计）-> 正式测量 duration 秒
+ * -> 冷却（停止移动，等待后台写入完成）-> 输出报告 -> 按配置退出游戏。
+ * 各阶段按客户端tick计时（每秒20个），客户端卡顿时墙钟时间变长，但每次运行都覆盖同一段路线。
+ * 启用矩阵测试时，冷却结束后由 {@link MatrixRunner} 应用下一个配置，重新从预热开始，全部运行完成后才结束。
+ * 所有方法只能由客户端线程调用。
+ */
+public class RunController {
+    private static final Logger LOGGER = LogManager.getLogger("RunController");
+    private static final int TICKS_PER_SECOND = 20;
+
+    // 退出码
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_WORLD_TIMEOUT = 2;
+    public static final int EXIT_COLLECTION_FAILED = 3;
+    public static final int EXIT_ABORTED = 4;
+
+    /**
+     * 流程阶段
+     */
+    public enum State {
+        WAITING_FOR_WORLD,
+        WARMUP,
+        MEASURING,
+        COOLDOWN,
+        FINISHED
+    }
+
+    private final TestConfig.TestParameters test;
+    private final LightweightMetrics metrics;
+    private final SimplePlayerController playerController;
+    // 矩阵测试，未启用时为null
+    private final MatrixRunner matrix;
+
+    private State state = State.WAITING_FOR_WORLD;
+    // 当前阶段已经过的tick数
+    private long stateTicks = 0;
+    private int exitCode = EXIT_OK;
+    // 测试结束后按配置退出游戏，进程以 exitCode 结束；游戏关闭时由客户端线程读取
+    private volatile boolean exitRequested = false;
+
+    /**
+     * @param matrix 矩阵测试，未启用时为null
+     */
+    public RunController(TestConfig.TestParameters test, LightweightMetrics metrics, SimplePlayerController playerController,
+                         MatrixRunner matrix) {
+        this.test = test;
+        this.metrics = metrics;
+        this.playerController = playerController;
+        this.matrix = matrix;
+    }
+
+    /**
+     * 在每个客户端tick结束时调用
+     */
+    public void tick(MinecraftClient client) {
+        stateTicks++;
+        boolean inWorld = client.player != null && client.world != null;
+
+        switch (state) {
+            case WAITING_FOR_WORLD -> {
+                if (inWorld) {
+                    startRun(client);
+                } else if (test.getWorldTimeoutSeconds() > 0 && stateTicks > seconds(test.getWorldTimeoutSeconds())) {
+                    LOGGER.error("等待进入世界超时（" + test.getWorldTimeoutSeconds() + " 秒）");
+                    finish(client, EXIT_WORLD_TIMEOUT);
+                }
+            }
+            case WARMUP, MEASURING -> {
+                if (!inWorld) {
+                    LOGGER.error("测试过程中离开了世界，测试中止");
+                    metrics.stopCollection();
+                    if (matrix != null) {
+                        matrix.finish(client);
+                    }
+                    finish(client, EXIT_ABORTED);
+                    return;
+                }
+                playerController.updatePlayerMovement();
+                if (state == State.WARMUP && stateTicks >= seconds(test.getWarmupSeconds())) {
+                    metrics.beginMeasurement();
+                    enter(State.MEASURING);
+                } else if (state == State.MEASURING && stateTicks >= seconds(test.getDuration())) {
+                    metrics.endMeasurement();
+                    playerController.deactivateAutoMovement();
+                    enter(State.COOLDOWN);
+                }
+            }
+            case COOLDOWN -> {
+                if (stateTicks >= seconds(test.getCooldownSeconds())) {
+                    metrics.stopCollection();
+                    if (matrix != null) {
+                        matrix.endRun(client, metrics);
+                        if (matrix.hasNext()) {
+                            // 下一个配置，路线从头开始
+                            startRun(client);
+                            return;
+                        }
+                        matrix.finish(client);
+                    }
+                    finish(client, EXIT_OK);
+                }
+            }
+            case FINISHED -> {
+                // 测试已结束
+            }
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * 当前阶段已经过的tick数
+     */
+    public long getStateTicks() {
+        return stateTicks;
+    }
+
+    /**
+     * 测试结束时的退出码，未结束时为 EXIT_OK
+     */
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * 游戏关闭时进程应使用的退出码：测试结束后按配置退出时为 {@link #getExitCode()}，否则为 EXIT_OK
+     */
+    public int getProcessExitCode() {
+        return exitRequested ? exitCode : EXIT_OK;
+    }
+
+    private void startRun(MinecraftClient client) {
+        if (matrix != null) {
+            matrix.beginRun(client);
+        }
+        LOGGER.info(String.format("开始运行，预热 %d 秒，测量 %d 秒，冷却 %d 秒",
+                test.getWarmupSeconds(), test.getDuration(), test.getCooldownSeconds()));
+        boolean warmup = test.getWarmupSeconds() > 0;
+        metrics.startCollection(!warmup);
+        if (!metrics.isCollecting()) {
+            LOGGER.error("无法开始收集性能指标，测试中止");
+            if (matrix != null) {
+                matrix.finish(client);
+            }
+            finish(client, EXIT_COLLECTION_FAILED);
+            return;
+        }
+        playerController.activateAutoMovement();
+        enter(warmup ? State.WARMUP : State.MEASURING);
+    }
+
+    private void enter(State next) {
+        LOGGER.info("测试阶段: " + state + " -> " + next);
+        state = next;
+        stateTicks = 0;
+    }
+
+    /**
+     * 结束测试，按配置退出游戏
+     */
+    private void finish(MinecraftClient client, int code) {
+        enter(State.FINISHED);
+        exitCode = code;
+        LOGGER.info("测试结束，退出码 " + code);
+        if (!test.isExitAfterTest()) return;
+
+        // 客户端关闭时调用 System.exit(0)，由 MinecraftClientMixin 改为这里的退出码
+        exitRequested = true;
+        if (code != EXIT_OK) {
+            // 客户端线程没有调用System.exit而是正常返回时，等它退出后再以指定退出码结束进程
+            Thread clientThread = Thread.currentThread();
+            Thread exitThread = new Thread(() -> {
+                try {
+                    clientThread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                System.exit(code);
+            }, "MineProfilerExit");
+            exitThread.start();
+        }
+        client.scheduleStop();
+    }
+
+    private static long seconds(int seconds) {
+        return (long) seconds * TICKS_PER_SECOND;
+    }
+}
@@ -1,44 +1,45 @@
 package com.mineprofiler.automation;
 
 import com.mineprofiler.MineProfilerMod;
+import com.mineprofiler.automation.path.PathEngine;
+import com.mineprofiler.automation.path.PathPose;
+import com.mineprofiler.config.TestConfig;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 
 /**
  * 简单的玩家控制器
- * 只实现直线移动+视角旋转
+ * 按配置的路线（直线、圆形、螺旋、随机游走或路点样条）移动玩家并旋转视角。
+ * 位置由 {@link PathEngine} 按客户端tick序号计算，与帧率无关，每次运行都经过相同的区块。
  */
 public class SimplePlayerController {
     private final MinecraftClient client;
+    private final TestConfig.TestParameters test;
     
-    // 移动开始时间
-    private long movementStartTime;
-    // 初始位置
-    private Vec3d initialPosition;
-    // 相机旋转角度
-    private float currentRotation = 0.0f;
+    // 路线引擎，首次移动时按起点创建
+    private PathEngine engine;
+    // 自动移动开始后的tick数
+    private long pathTicks = 0;
     // 是否已激活自动移动
     private boolean autoMovementActive = false;
-    // 移动速度
-    private final double MOVE_SPEED = 0.2;
-    // 旋转速度(度/帧)
-    private final float ROTATION_SPEED = 0.5f;
     
     /**
-     * 默认构造函数
+     * @param test 测试配置
      */
-    public SimplePlayerController() {
+    public SimplePlayerController(TestConfig.TestParameters test) {
         this.client = MinecraftClient.getInstance();
-        this.movementStartTime = 0;
+        this.test = test;
     }
     
     /**
-     * 激活自动移动
+     * 激活自动移动，路线从头开始
      */
     public void activateAutoMovement() {
         this.autoMovementActive = true;
-        this.movementStartTime = System.currentTimeMillis();
+        this.engine = null;
+        this.pathTicks = 0;
         MineProfilerMod.LOGGER.info("已激活自动移动");
     }
     
@@ -56,35 +57,25 @@ public class SimplePlayerController {
      */
     public void updatePlayerMovement() {
         ClientPlayerEntity player = client.player;
-        if (player == null || !autoMovementActive) return;
+        if (player == null || client.world == null || !autoMovementActive) return;
         
-        // 如果这是第一次移动，记录初始位置
-        if (initialPosition == null) {
-            initialPosition = player.getPos();
-            MineProfilerMod.LOGGER.info("开始自动移动，初始位置: " + initialPosition);
+        // 第一次移动时确定起点：优先使用配置，否则使用世界出生点，保证每次运行起点相同
+        if (engine == null) {
+            BlockPos spawn = client.world.getSpawnPos();
+            double originX = test.getOriginX() != null ? test.getOriginX() : spawn.getX() + 0.5;
+            double originZ = test.getOriginZ() != null ? test.getOriginZ() : spawn.getZ() + 0.5;
+            engine = PathEngine.create(test, test.getMovementSpeed(), originX, originZ);
+            MineProfilerMod.LOGGER.info(String.format("开始自动移动，路线: %s，起点: (%.1f, %.1f)，速度: %.2f 方块/tick",
+                    engine.getType(), originX, originZ, test.getMovementSpeed()));
         }
         
-        // 执行直线移动
-        straightLineMovement(player);
-    }
-    
-    /**
-     * 直线移动
-     * 同时沿Z轴匀速移动并旋转视角
-     */
-    private void straightLineMovement(ClientPlayerEntity player) {
-        // 方向向量：沿Z轴正方向移动
-        Vec3d direction = new Vec3d(0, 0, 1);
-        Vec3d movement = direction.multiply(MOVE_SPEED);
-        
-        // 更新位置
-        Vec3d currentPos = player.getPos();
-        player.setPosition(currentPos.x + movement.x, currentPos.y, currentPos.z + movement.z);
-        
-        // 旋转视角
-        currentRotation += ROTATION_SPEED;
-        if (currentRotation >= 360.0f) currentRotation -= 360.0f;
-        player.setYaw(currentRotation);
+        // 直接设置本tick结束时的位置，渲染时由游戏在上一tick和本tick之间插值
+        PathPose pose = engine.poseAt(++pathTicks);
+        player.setVelocity(Vec3d.ZERO);
+        player.setPosition(pose.getX(), pose.getY(), pose.getZ());
+        player.setYaw(pose.getYaw());
+        player.setHeadYaw(pose.getYaw());
+        player.setPitch(pose.getPitch());
     }
     
     /**
@@ -93,6 +84,7 @@ public class SimplePlayerController {
     public void stopMovement() {
         ClientPlayerEntity player = client.player;
         if (player != null) {
+            player.setVelocity(Vec3d.ZERO);
             MineProfilerMod.LOGGER.info("停止所有移动");
         }
     }
@@ -103,4 +95,11 @@ public class SimplePlayerController {
     public boolean isAutoMovementActive() {
         return autoMovementActive;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 自动移动开始后的tick数
+     */
+    public long getPathTicks() {
+        return pathTicks;
+    }
+}
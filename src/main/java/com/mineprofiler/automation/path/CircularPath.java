@@ -0,0 +1,20 @@
+package com.mineprofiler.automation.path;
+
+/**
+ * 以起点为圆心的圆形路线，从圆心正南方（+Z）出发逆时针飞行
+ */
+public final class CircularPath implements FlightPath {
+    private final double radius;
+
+    public CircularPath(double radius) {
+        this.radius = Math.max(1.0, radius);
+    }
+
+    @Override
+    public PathPoint locate(double distance) {
+        double angle = distance / radius;
+        double sin = StrictMath.sin(angle);
+        double cos = StrictMath.cos(angle);
+        return new PathPoint(radius * sin, radius * cos, PathPoint.headingOf(cos, -sin));
+    }
+}
@@ -0,0 +1,12 @@
+package com.mineprofiler.automation.path;
+
+/**
+ * 水平飞行路线
+ * 按已飞行距离（方块）给出位置，实现必须是距离的纯函数，并使用 StrictMath，保证不同机器上结果逐位相同
+ */
+public interface FlightPath {
+    /**
+     * @param distance 从起点开始沿路线飞行的距离（方块）
+     */
+    PathPoint locate(double distance);
+}
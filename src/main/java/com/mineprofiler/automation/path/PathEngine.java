@@ -0,0 +1,115 @@
+package com.mineprofiler.automation.path;
+
+import com.mineprofiler.config.TestConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * 路线引擎
+ *
+ * 位置只取决于tick序号：第n个tick的飞行距离为 n * 速度，与帧率和机器性能无关，
+ * 渲染时由游戏在相邻两个tick之间插值。相同配置和起点在任何机器上都会经过相同的区块、看到相同的画面，
+ * 不同主机的帧时间因此可以直接比较。
+ */
+public final class PathEngine {
+    private static final Logger LOGGER = LogManager.getLogger("PathEngine");
+    public static final int TICKS_PER_SECOND = 20;
+
+    private final FlightPath path;
+    private final String type;
+    private final double speed;
+    private final double originX;
+    private final double originZ;
+    private final double height;
+    private final boolean autoRotate;
+    private final double rotationSpeed;
+    private final float pitch;
+
+    // 上一次输出的偏航角，用于展开 ±180 度处的跳变，避免插值时视角反向旋转一圈
+    private double lastYaw = Double.NaN;
+
+    private PathEngine(FlightPath path, String type, TestConfig.TestParameters test, double speed, double originX, double originZ) {
+        this.path = path;
+        this.type = type;
+        this.speed = speed;
+        this.originX = originX;
+        this.originZ = originZ;
+        this.height = test.getFlyHeight();
+        this.autoRotate = test.isAutoRotateCamera();
+        this.rotationSpeed = test.getRotationSpeed();
+        this.pitch = (float) test.getCameraPitch();
+    }
+
+    /**
+     * 按测试配置创建路线
+     * @param speed 飞行速度（方块/tick）
+     * @param originX 起点X
+     * @param originZ 起点Z
+     */
+    public static PathEngine create(TestConfig.TestParameters test, double speed, double originX, double originZ) {
+        String type = test.getMovementType();
+        FlightPath path;
+        switch (type) {
+            case "circular" -> path = new CircularPath(test.getPathRadius());
+            case "spiral" -> path = new SpiralPath(test.getSpiralSpacing());
+            case "random" -> {
+                // 生成两倍于预热加测量时长的路线，测试超时继续运行时不会立即停在终点
+                double length = 2.0 * speed * Math.max(1, test.getWarmupSeconds() + test.getDuration()) * TICKS_PER_SECOND;
+                path = new RandomWalkPath(test.getPathSeed(), test.getHeading(),
+                        test.getRandomSegmentLength(), test.getRandomMaxTurn(), length);
+            }
+            case "waypoints" -> {
+                if (test.getWaypoints().isEmpty() || !validWaypoints(test)) {
+                    LOGGER.warn("未配置路点或路点格式不是 [x, z]，改用直线路线");
+                    type = "straight_line";
+                    path = new StraightPath(test.getHeading());
+                } else {
+                    path = new SplinePath(test.getWaypoints());
+                }
+            }
+            case "straight_line" -> path = new StraightPath(test.getHeading());
+            default -> {
+                LOGGER.warn("未知的移动类型 " + type + "，改用直线路线");
+                type = "straight_line";
+                path = new StraightPath(test.getHeading());
+            }
+        }
+        return new PathEngine(path, type, test, speed, originX, originZ);
+    }
+
+    /**
+     * 第tick个tick结束时的位置和视角，必须按tick顺序调用（同一tick可重复调用）
+     */
+    public PathPose poseAt(long tick) {
+        PathPoint point = path.locate(tick * speed);
+        double yaw;
+        if (autoRotate) {
+            yaw = tick * rotationSpeed;
+        } else {
+            yaw = point.getHeading();
+            if (!Double.isNaN(lastYaw)) {
+                yaw = lastYaw + wrapDegrees(yaw - lastYaw);
+            }
+        }
+        lastYaw = yaw;
+        return new PathPose(originX + point.getX(), height, originZ + point.getZ(), (float) yaw, pitch);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    private static boolean validWaypoints(TestConfig.TestParameters test) {
+        for (double[] point : test.getWaypoints()) {
+            if (point == null || point.length < 2) return false;
+        }
+        return true;
+    }
+
+    private static double wrapDegrees(double degrees) {
+        double wrapped = degrees % 360.0;
+        if (wrapped >= 180.0) wrapped -= 360.0;
+        if (wrapped < -180.0) wrapped += 360.0;
+        return wrapped;
+    }
+}
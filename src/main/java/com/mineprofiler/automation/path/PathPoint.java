@@ -0,0 +1,38 @@
+package com.mineprofiler.automation.path;
+
+/**
+ * 路线上的一点：相对起点的水平偏移和前进方向
+ */
+public final class PathPoint {
+    private final double x;
+    private final double z;
+    private final double heading;
+
+    /**
+     * @param heading 前进方向，按Minecraft偏航角约定（度，0为+Z，90为-X）
+     */
+    public PathPoint(double x, double z, double heading) {
+        this.x = x;
+        this.z = z;
+        this.heading = heading;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public double getHeading() {
+        return heading;
+    }
+
+    /**
+     * 由水平方向向量计算偏航角（度）
+     */
+    static double headingOf(double dx, double dz) {
+        return StrictMath.toDegrees(StrictMath.atan2(-dx, dz));
+    }
+}
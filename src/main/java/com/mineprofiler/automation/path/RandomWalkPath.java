@@ -0,0 +1,44 @@
+package com.mineprofiler.automation.path;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 带种子的随机游走路线
+ * 每飞行 segmentLength 方块随机转向一次（不超过 maxTurn 度），再用样条连接各转折点。
+ * java.util.Random 的算法由规范固定，相同种子在任何JVM上生成相同的路线。
+ */
+public final class RandomWalkPath implements FlightPath {
+    private final SplinePath spline;
+
+    /**
+     * @param seed 随机种子
+     * @param heading 初始方向（度）
+     * @param segmentLength 每段长度（方块）
+     * @param maxTurn 每段最大转向角（度）
+     * @param length 需要生成的路线长度（方块），超出后停在终点
+     */
+    public RandomWalkPath(long seed, double heading, double segmentLength, double maxTurn, double length) {
+        Random random = new Random(seed);
+        double step = Math.max(1.0, segmentLength);
+        int segments = (int) Math.min(100_000, Math.ceil(Math.max(0.0, length) / step) + 1);
+        List<double[]> points = new ArrayList<>(segments);
+        double x = 0.0;
+        double z = 0.0;
+        double direction = heading;
+        for (int i = 0; i < segments; i++) {
+            direction += (random.nextDouble() * 2.0 - 1.0) * maxTurn;
+            double radians = StrictMath.toRadians(direction);
+            x -= StrictMath.sin(radians) * step;
+            z += StrictMath.cos(radians) * step;
+            points.add(new double[] {x, z});
+        }
+        this.spline = new SplinePath(points);
+    }
+
+    @Override
+    public PathPoint locate(double distance) {
+        return spline.locate(distance);
+    }
+}
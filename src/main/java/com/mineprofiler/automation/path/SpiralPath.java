@@ -0,0 +1,34 @@
+package com.mineprofiler.automation.path;
+
+/**
+ * 以起点为中心向外展开的阿基米德螺线 r = bθ，相邻两圈相距 spacing 方块
+ * 按弧长 s(θ) = b/2 · (θ√(1+θ²) + asinh θ) 用固定次数的牛顿迭代反解θ，飞行速度恒定
+ */
+public final class SpiralPath implements FlightPath {
+    private static final int NEWTON_ITERATIONS = 6;
+
+    private final double b;
+
+    public SpiralPath(double spacing) {
+        this.b = Math.max(1.0, spacing) / (2.0 * Math.PI);
+    }
+
+    @Override
+    public PathPoint locate(double distance) {
+        double target = Math.max(0.0, distance);
+        // 初值取大θ时的近似 s ≈ bθ²/2
+        double angle = StrictMath.sqrt(2.0 * target / b);
+        for (int i = 0; i < NEWTON_ITERATIONS; i++) {
+            double root = StrictMath.sqrt(1.0 + angle * angle);
+            double length = 0.5 * b * (angle * root + StrictMath.log(angle + root));
+            angle = Math.max(0.0, angle - (length - target) / (b * root));
+        }
+        double sin = StrictMath.sin(angle);
+        double cos = StrictMath.cos(angle);
+        double r = b * angle;
+        // 对θ求导得到切线方向
+        double dx = b * sin + r * cos;
+        double dz = b * cos - r * sin;
+        return new PathPoint(r * sin, r * cos, PathPoint.headingOf(dx, dz));
+    }
+}
@@ -0,0 +1,94 @@
+package com.mineprofiler.automation.path;
+
+import java.util.List;
+
+/**
+ * 经过各路点的 Catmull-Rom 样条路线
+ * 构造时把每段样条按固定步数离散并累计弧长，按距离查表，使飞行速度恒定；飞过最后一个路点后停在终点
+ */
+public final class SplinePath implements FlightPath {
+    private static final int SAMPLES_PER_SEGMENT = 32;
+
+    private final double[] xs;
+    private final double[] zs;
+    // 各离散点处的累计弧长
+    private final double[] lengths;
+
+    /**
+     * @param points 路点（相对起点的 {x, z}），路线从起点 (0, 0) 出发
+     */
+    public SplinePath(List<double[]> points) {
+        int count = points.size() + 1;
+        double[] px = new double[count];
+        double[] pz = new double[count];
+        for (int i = 1; i < count; i++) {
+            double[] point = points.get(i - 1);
+            px[i] = point[0];
+            pz[i] = point[1];
+        }
+
+        int segments = Math.max(1, count - 1);
+        xs = new double[segments * SAMPLES_PER_SEGMENT + 1];
+        zs = new double[xs.length];
+        lengths = new double[xs.length];
+        int index = 0;
+        for (int segment = 0; segment < segments; segment++) {
+            int i0 = Math.max(0, segment - 1);
+            int i1 = segment;
+            int i2 = Math.min(count - 1, segment + 1);
+            int i3 = Math.min(count - 1, segment + 2);
+            int first = segment == 0 ? 0 : 1;
+            for (int step = first; step <= SAMPLES_PER_SEGMENT; step++) {
+                double t = (double) step / SAMPLES_PER_SEGMENT;
+                xs[index] = catmullRom(px[i0], px[i1], px[i2], px[i3], t);
+                zs[index] = catmullRom(pz[i0], pz[i1], pz[i2], pz[i3], t);
+                if (index > 0) {
+                    double dx = xs[index] - xs[index - 1];
+                    double dz = zs[index] - zs[index - 1];
+                    lengths[index] = lengths[index - 1] + StrictMath.sqrt(dx * dx + dz * dz);
+                }
+                index++;
+            }
+        }
+    }
+
+    /**
+     * 路线总长度（方块）
+     */
+    public double getLength() {
+        return lengths[lengths.length - 1];
+    }
+
+    @Override
+    public PathPoint locate(double distance) {
+        int last = lengths.length - 1;
+        if (last == 0) return new PathPoint(xs[0], zs[0], 0.0);
+        double clamped = Math.max(0.0, Math.min(distance, lengths[last]));
+
+        // 二分查找所在的离散段
+        int low = 0;
+        int high = last;
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (lengths[mid] <= clamped) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        double span = lengths[high] - lengths[low];
+        double t = span > 0 ? (clamped - lengths[low]) / span : 0.0;
+        double dx = xs[high] - xs[low];
+        double dz = zs[high] - zs[low];
+        return new PathPoint(xs[low] + dx * t, zs[low] + dz * t, PathPoint.headingOf(dx, dz));
+    }
+
+    private static double catmullRom(double p0, double p1, double p2, double p3, double t) {
+        double t2 = t * t;
+        double t3 = t2 * t;
+        return 0.5 * (2.0 * p1
+                + (p2 - p0) * t
+                + (2.0 * p0 - 5.0 * p1 + 4.0 * p2 - p3) * t2
+                + (3.0 * p1 - p0 - 3.0 * p2 + p3) * t3);
+    }
+}
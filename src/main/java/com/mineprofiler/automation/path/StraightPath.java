@@ -0,0 +1,25 @@
+package com.mineprofiler.automation.path;
+
+/**
+ * 直线路线
+ */
+public final class StraightPath implements FlightPath {
+    private final double heading;
+    private final double dx;
+    private final double dz;
+
+    /**
+     * @param heading 前进方向（度）
+     */
+    public StraightPath(double heading) {
+        this.heading = heading;
+        double radians = StrictMath.toRadians(heading);
+        this.dx = -StrictMath.sin(radians);
+        this.dz = StrictMath.cos(radians);
+    }
+
+    @Override
+    public PathPoint locate(double distance) {
+        return new PathPoint(dx * distance, dz * distance, heading);
+    }
+}
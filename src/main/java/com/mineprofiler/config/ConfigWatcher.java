@@ -0,0 +1,133 @@
+package com.mineprofiler.config;
+
+import com.google.gson.JsonElement;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 监视游戏目录中的配置文件，修改后重新加载
+ *
+ * 新配置通过校验且与当前配置不同时，以新的 {@link TestConfig} 实例通知监听器；
+ * 校验失败时只输出错误，继续使用当前配置，长时间运行中改错配置不会中断测试。
+ */
+public final class ConfigWatcher {
+    private static final Logger LOGGER = LogManager.getLogger("ConfigWatcher");
+    // 编辑器保存时常常产生多个事件（截断、写入、重命名），等待写入完成后只重新加载一次
+    private static final long DEBOUNCE_MS = 250;
+
+    private final WatchService watchService;
+    private final Path fileName;
+    private final Consumer<TestConfig> listener;
+    // 当前配置，仅监视线程访问
+    private TestConfig current;
+
+    private ConfigWatcher(WatchService watchService, Path fileName, TestConfig initial, Consumer<TestConfig> listener) {
+        this.watchService = watchService;
+        this.fileName = fileName;
+        this.current = initial;
+        this.listener = listener;
+    }
+
+    /**
+     * 开始监视配置文件
+     * @param initial 当前使用的配置
+     * @param listener 配置变化时在监视线程上调用
+     * @return 监视器，无法监视时为null
+     */
+    public static ConfigWatcher start(TestConfig initial, Consumer<TestConfig> listener) {
+        Path file = TestConfig.getConfigFile().toPath().toAbsolutePath();
+        try {
+            WatchService watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            ConfigWatcher watcher = new ConfigWatcher(watchService, file.getFileName(), initial, listener);
+            Thread thread = new Thread(watcher::watchLoop, "ConfigWatcher");
+            thread.setDaemon(true);
+            thread.start();
+            LOGGER.info("正在监视配置文件: " + file);
+            return watcher;
+        } catch (IOException e) {
+            LOGGER.warn("无法监视配置文件，修改配置后需要重启游戏: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 停止监视
+     */
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOGGER.warn("关闭配置文件监视时出错: " + e.getMessage());
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                if (!isConfigEvent(watchService.take())) continue;
+                Thread.sleep(DEBOUNCE_MS);
+                WatchKey pending;
+                while ((pending = watchService.poll()) != null) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 已停止监视
+        }
+    }
+
+    /**
+     * 取出事件并判断是否涉及配置文件
+     */
+    private boolean isConfigEvent(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // 事件过多时只知道目录有变化
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void reload() {
+        TestConfig next;
+        try {
+            next = TestConfig.load();
+        } catch (InvalidConfigException e) {
+            LOGGER.error("修改后的配置文件有误，继续使用当前配置:");
+            for (String error : e.getErrors()) {
+                LOGGER.error("  " + error);
+            }
+            return;
+        } catch (IOException e) {
+            LOGGER.warn("无法重新加载配置文件，继续使用当前配置: " + e.getMessage());
+            return;
+        }
+
+        Map<String, JsonElement> changes = current.diff(next);
+        if (changes.isEmpty()) return;
+        current = next;
+        LOGGER.info("配置文件已修改: " + changes);
+        try {
+            listener.accept(next);
+        } catch (RuntimeException e) {
+            LOGGER.error("应用新配置时出错", e);
+        }
+    }
+}
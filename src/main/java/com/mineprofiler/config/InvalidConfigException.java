@@ -0,0 +1,25 @@
+package com.mineprofiler.config;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 配置文件能够解析，但存在取值错误
+ */
+public class InvalidConfigException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<String> errors;
+
+    public InvalidConfigException(List<String> errors) {
+        super("配置文件有 " + errors.size() + " 处错误: " + String.join("; ", errors));
+        this.errors = List.copyOf(errors);
+    }
+
+    /**
+     * 每处错误的说明，包含配置项路径
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+}
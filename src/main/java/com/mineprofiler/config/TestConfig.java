@@ -2,22 +2,59 @@ package com.mineprofiler.config;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.mineprofiler.MineProfilerMod;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
+/**
+ * 测试配置
+ *
+ * 由Gson从游戏目录中的 mineprofiler_config.json 读取，读取后经过校验，之后不再修改；
+ * 运行中重新加载时创建新的实例整体替换（见 {@link ConfigWatcher}），因此可以在任意线程上无锁读取。
+ */
 public class TestConfig {
+    private static final Logger LOGGER = LogManager.getLogger("TestConfig");
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-    private static final String CONFIG_FILENAME = "mineprofiler_config.json";
+    static final String CONFIG_FILENAME = "mineprofiler_config.json";
+    private static final Set<String> GAME_MODES = Set.of("survival", "creative", "adventure", "spectator");
+    private static final Set<String> DIFFICULTIES = Set.of("peaceful", "easy", "normal", "hard");
+    private static final Set<String> MOVEMENT_TYPES = Set.of("straight_line", "circular", "spiral", "random", "waypoints");
+    private static final Set<String> OUTPUT_FORMATS = Set.of("csv", "columnar");
+    private static final Set<String> JFR_SETTINGS = Set.of("default", "profile");
     
     // 是否启用mod
     private boolean enabled = true;
     
+    // 运行中修改配置文件时是否自动重新加载
+    private boolean watchConfig = true;
+    
     // 世界配置
     private WorldConfig world = new WorldConfig();
     
@@ -27,6 +64,12 @@ public class TestConfig {
     // 性能指标配置
     private MetricsConfig metrics = new MetricsConfig();
     
+    // 专用服务器压测配置
+    private ServerBenchmarkConfig server = new ServerBenchmarkConfig();
+    
+    // 多配置矩阵测试
+    private MatrixConfig matrix = new MatrixConfig();
+    
     public TestConfig() {
     }
     
@@ -34,15 +77,69 @@ public class TestConfig {
         return new TestConfig();
     }
     
+    /**
+     * 读取并校验配置文件
+     * 未知的配置项（通常是拼写错误）只输出警告
+     * @throws InvalidConfigException 配置项取值错误
+     * @throws IOException 文件不存在、不是有效的JSON或配置项类型错误
+     */
     public static TestConfig load() throws IOException {
         File configFile = getConfigFile();
         if (!configFile.exists()) {
             throw new IOException("Config file does not exist");
         }
         
-        try (FileReader reader = new FileReader(configFile)) {
-            return GSON.fromJson(reader, TestConfig.class);
+        JsonElement tree;
+        try (Reader reader = new InputStreamReader(new FileInputStream(configFile), StandardCharsets.UTF_8)) {
+            tree = JsonParser.parseReader(reader);
+        } catch (JsonParseException e) {
+            throw new IOException("配置文件不是有效的JSON: " + e.getMessage(), e);
+        }
+        if (!tree.isJsonObject()) {
+            throw new IOException("配置文件的根节点必须是对象");
+        }
+        
+        TestConfig config;
+        try {
+            config = GSON.fromJson(tree, TestConfig.class);
+        } catch (JsonParseException e) {
+            throw new IOException("配置项类型错误: " + e.getMessage(), e);
+        }
+        
+        List<String> unknown = new ArrayList<>();
+        findUnknownKeys("", tree.getAsJsonObject(), TestConfig.class, unknown);
+        for (String key : unknown) {
+            LOGGER.warn("未知的配置项 " + key + "，已忽略");
+        }
+        List<String> errors = config.validate();
+        if (!errors.isEmpty()) {
+            throw new InvalidConfigException(errors);
+        }
+        return config;
+    }
+    
+    /**
+     * 加载配置文件，无法读取或校验失败时使用默认配置
+     * 游戏目录中还没有配置文件时，先写出模组自带的配置作为模板
+     */
+    public static TestConfig loadOrDefault() {
+        try {
+            File configFile = getConfigFile();
+            if (!configFile.exists()) {
+                writeBundledConfig(configFile);
+            }
+            TestConfig loaded = load();
+            LOGGER.info("已加载配置: " + loaded);
+            return loaded;
+        } catch (InvalidConfigException e) {
+            LOGGER.error("配置文件有误，使用默认配置:");
+            for (String error : e.getErrors()) {
+                LOGGER.error("  " + error);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("无法加载配置文件，使用默认配置: " + e.getMessage());
         }
+        return createDefault();
     }
     
     public void save() throws IOException {
@@ -52,63 +149,218 @@ public class TestConfig {
             configFile.createNewFile();
         }
         
-        try (FileWriter writer = new FileWriter(configFile)) {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(configFile), StandardCharsets.UTF_8)) {
             GSON.toJson(this, writer);
         }
     }
     
-    private static File getConfigFile() {
+    /**
+     * 把模组自带的 mineprofiler_config.json 复制到游戏目录
+     */
+    private static void writeBundledConfig(File configFile) throws IOException {
+        try (InputStream in = TestConfig.class.getResourceAsStream("/" + CONFIG_FILENAME)) {
+            if (in == null) return;
+            Files.copy(in, configFile.toPath());
+            LOGGER.info("已写出默认配置文件: " + configFile.getAbsolutePath());
+        }
+    }
+    
+    static File getConfigFile() {
         String gamePath = System.getProperty("user.dir");
         Path configPath = Paths.get(gamePath, CONFIG_FILENAME);
         return configPath.toFile();
     }
     
+    /**
+     * 校验各配置项的取值
+     * @return 每处错误的说明，没有错误时为空
+     */
+    public List<String> validate() {
+        List<String> errors = new ArrayList<>();
+        if (world == null || test == null || metrics == null || server == null || matrix == null) {
+            errors.add("world、test、metrics、server、matrix 不能为null");
+            return errors;
+        }
+        world.validate(errors);
+        test.validate(errors);
+        metrics.validate(errors);
+        server.validate(errors);
+        matrix.validate(errors);
+        return errors;
+    }
+    
+    /**
+     * 与另一份配置相比有变化的配置项
+     * @return 配置项路径（如 metrics.sampleInterval）-> 新值，新配置中没有的项为JsonNull
+     */
+    public Map<String, JsonElement> diff(TestConfig other) {
+        Map<String, JsonElement> before = new TreeMap<>();
+        Map<String, JsonElement> after = new TreeMap<>();
+        flatten("", GSON.toJsonTree(this), before);
+        flatten("", GSON.toJsonTree(other), after);
+        Map<String, JsonElement> changes = new TreeMap<>();
+        for (Map.Entry<String, JsonElement> entry : after.entrySet()) {
+            if (!entry.getValue().equals(before.get(entry.getKey()))) {
+                changes.put(entry.getKey(), entry.getValue());
+            }
+        }
+        for (String key : before.keySet()) {
+            if (!after.containsKey(key)) {
+                changes.put(key, JsonNull.INSTANCE);
+            }
+        }
+        return changes;
+    }
+    
+    /**
+     * 把嵌套对象展开为以点分隔的路径，数组作为一个整体
+     */
+    private static void flatten(String prefix, JsonElement element, Map<String, JsonElement> out) {
+        if (element.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                flatten(prefix.isEmpty() ? entry.getKey() : prefix + "." + entry.getKey(), entry.getValue(), out);
+            }
+        } else {
+            out.put(prefix, element);
+        }
+    }
+    
+    /**
+     * 查找配置类中没有对应字段的键
+     */
+    private static void findUnknownKeys(String prefix, JsonObject json, Class<?> type, List<String> unknown) {
+        for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+            String path = prefix.isEmpty() ? entry.getKey() : prefix + "." + entry.getKey();
+            Field field = findField(type, entry.getKey());
+            if (field == null) {
+                unknown.add(path);
+                continue;
+            }
+            JsonElement value = entry.getValue();
+            if (value.isJsonObject() && isConfigClass(field.getType())) {
+                findUnknownKeys(path, value.getAsJsonObject(), field.getType(), unknown);
+            } else if (value.isJsonArray() && field.getGenericType() instanceof ParameterizedType parameterized) {
+                // 元素为配置类的列表，例如 matrix.jvmVariants
+                Type element = parameterized.getActualTypeArguments()[0];
+                if (element instanceof Class<?> elementType && isConfigClass(elementType)) {
+                    for (int i = 0; i < value.getAsJsonArray().size(); i++) {
+                        JsonElement item = value.getAsJsonArray().get(i);
+                        if (item.isJsonObject()) {
+                            findUnknownKeys(path + "[" + i + "]", item.getAsJsonObject(), elementType, unknown);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    private static Field findField(Class<?> type, String name) {
+        for (Field field : type.getDeclaredFields()) {
+            if (field.getName().equals(name) && !Modifier.isStatic(field.getModifiers())) {
+                return field;
+            }
+        }
+        return null;
+    }
+    
+    private static boolean isConfigClass(Class<?> type) {
+        return type.getEnclosingClass() == TestConfig.class;
+    }
+    
+    private static void check(List<String> errors, boolean valid, String message) {
+        if (!valid) {
+            errors.add(message);
+        }
+    }
+    
+    /**
+     * 有限且不小于指定值
+     */
+    private static boolean atLeast(double value, double min) {
+        return Double.isFinite(value) && value >= min;
+    }
+    
     // 世界配置类
     public static class WorldConfig {
         private String seed = "12345";
         private String worldName = "PerfTest";
         private String gameMode = "spectator"; // 默认改为旁观模式
+        private String difficulty = "normal"; // 新建世界的难度
+        private boolean autoStart = true; // 资源加载完成后直接创建或加载世界，跳过标题界面
+        private boolean freezeDaylightAndWeather = true; // 新建世界时关闭昼夜和天气变化
         
         public String getSeed() {
             return seed;
         }
         
-        public void setSeed(String seed) {
-            this.seed = seed;
-        }
-        
         public String getWorldName() {
             return worldName;
         }
         
-        public void setWorldName(String worldName) {
-            this.worldName = worldName;
-        }
-        
         public String getGameMode() {
             return gameMode;
         }
         
-        public void setGameMode(String gameMode) {
-            this.gameMode = gameMode;
+        public String getDifficulty() {
+            return difficulty;
+        }
+        
+        public boolean isAutoStart() {
+            return autoStart;
+        }
+        
+        public boolean isFreezeDaylightAndWeather() {
+            return freezeDaylightAndWeather;
+        }
+        
+        void validate(List<String> errors) {
+            check(errors, worldName != null && !worldName.isBlank(), "world.worldName 不能为空");
+            check(errors, seed != null, "world.seed 不能为null");
+            check(errors, gameMode != null && GAME_MODES.contains(gameMode), "world.gameMode 必须是 " + GAME_MODES + " 之一: " + gameMode);
+            check(errors, difficulty != null && DIFFICULTIES.contains(difficulty), "world.difficulty 必须是 " + DIFFICULTIES + " 之一: " + difficulty);
         }
     }
     
     // 测试参数类
     public static class TestParameters {
-        private int duration = 300; // 测试持续时间（秒）
-        private String movementType = "straight_line"; // 移动类型: straight_line, random, circular
-        private double movementSpeed = 1.0; // 移动速度
+        private int duration = 300; // 正式测量时长（秒，按每秒20个tick计）
+        private int warmupSeconds = 30; // 预热时长（秒），不计入统计
+        private int cooldownSeconds = 5; // 冷却时长（秒），停止移动后等待写入完成
+        private int worldTimeoutSeconds = 600; // 等待进入世界的最长时间（秒），0表示不限
+        private String movementType = "straight_line"; // 移动类型: straight_line, circular, spiral, random, waypoints
+        private double movementSpeed = 1.0; // 移动速度（方块/tick）
         private boolean exitAfterTest = false; // 测试后是否退出游戏
         private boolean useSpectatorMode = true; // 是否使用旁观模式
         private double flyHeight = 70.0; // 飞行高度
         private boolean autoRotateCamera = true; // 是否自动旋转相机
-        private double rotationSpeed = 0.5; // 相机旋转速度
+        private double rotationSpeed = 0.5; // 相机旋转速度（度/tick）
+        private double cameraPitch = 0.0; // 相机俯仰角（度）
+        private double heading = 0.0; // 直线和随机游走的初始方向（度，0为+Z）
+        private double pathRadius = 128.0; // 圆形路线半径
+        private double spiralSpacing = 64.0; // 螺旋路线相邻两圈的间距
+        private long pathSeed = 12345L; // 随机游走种子
+        private double randomSegmentLength = 48.0; // 随机游走每段长度
+        private double randomMaxTurn = 60.0; // 随机游走每段最大转向角（度）
+        private List<double[]> waypoints = new ArrayList<>(); // 路点，相对起点的 [x, z]
+        private Double originX = null; // 路线起点X，未设置时使用世界出生点
+        private Double originZ = null; // 路线起点Z，未设置时使用世界出生点
         
         public int getDuration() {
             return duration;
         }
         
+        public int getWarmupSeconds() {
+            return Math.max(0, warmupSeconds);
+        }
+        
+        public int getCooldownSeconds() {
+            return Math.max(0, cooldownSeconds);
+        }
+        
+        public int getWorldTimeoutSeconds() {
+            return Math.max(0, worldTimeoutSeconds);
+        }
+        
         public String getMovementType() {
             return movementType;
         }
@@ -136,18 +388,111 @@ public class TestConfig {
         public double getRotationSpeed() {
             return rotationSpeed;
         }
+        
+        public double getCameraPitch() {
+            return cameraPitch;
+        }
+        
+        public double getHeading() {
+            return heading;
+        }
+        
+        public double getPathRadius() {
+            return pathRadius;
+        }
+        
+        public double getSpiralSpacing() {
+            return spiralSpacing;
+        }
+        
+        public long getPathSeed() {
+            return pathSeed;
+        }
+        
+        public double getRandomSegmentLength() {
+            return randomSegmentLength;
+        }
+        
+        public double getRandomMaxTurn() {
+            return randomMaxTurn;
+        }
+        
+        public List<double[]> getWaypoints() {
+            return waypoints != null ? waypoints : List.of();
+        }
+        
+        public Double getOriginX() {
+            return originX;
+        }
+        
+        public Double getOriginZ() {
+            return originZ;
+        }
+        
+        void validate(List<String> errors) {
+            check(errors, duration > 0, "test.duration 必须大于0: " + duration);
+            check(errors, warmupSeconds >= 0, "test.warmupSeconds 不能为负: " + warmupSeconds);
+            check(errors, cooldownSeconds >= 0, "test.cooldownSeconds 不能为负: " + cooldownSeconds);
+            check(errors, worldTimeoutSeconds >= 0, "test.worldTimeoutSeconds 不能为负: " + worldTimeoutSeconds);
+            check(errors, movementType != null && MOVEMENT_TYPES.contains(movementType),
+                    "test.movementType 必须是 " + MOVEMENT_TYPES + " 之一: " + movementType);
+            check(errors, atLeast(movementSpeed, 0.0), "test.movementSpeed 不能为负: " + movementSpeed);
+            check(errors, atLeast(pathRadius, 0.0) && pathRadius > 0.0, "test.pathRadius 必须大于0: " + pathRadius);
+            check(errors, atLeast(spiralSpacing, 0.0) && spiralSpacing > 0.0, "test.spiralSpacing 必须大于0: " + spiralSpacing);
+            check(errors, atLeast(randomSegmentLength, 0.0) && randomSegmentLength > 0.0,
+                    "test.randomSegmentLength 必须大于0: " + randomSegmentLength);
+            check(errors, Double.isFinite(cameraPitch) && Math.abs(cameraPitch) <= 90.0, "test.cameraPitch 必须在 -90 到 90 之间: " + cameraPitch);
+            if (waypoints != null) {
+                for (int i = 0; i < waypoints.size(); i++) {
+                    double[] point = waypoints.get(i);
+                    check(errors, point != null && point.length == 2, "test.waypoints[" + i + "] 必须是 [x, z]");
+                }
+            }
+            if ("waypoints".equals(movementType)) {
+                check(errors, waypoints != null && !waypoints.isEmpty(), "test.movementType 为 waypoints 时 test.waypoints 不能为空");
+            }
+        }
     }
     
     // 性能指标配置类
     public static class MetricsConfig {
-        private int sampleInterval = 1; // 采样间隔（秒）
+        private double sampleInterval = 1; // 采样间隔（秒），最小0.01
+        private int sampleFrames = 0; // 按帧数切分采样窗口，0表示按时间采样
         private String outputDirectory = "./perfdata"; // 输出目录
-        private String outputFormat = "csv"; // 输出格式
+        private String outputFormat = "csv"; // 输出格式: csv 或 columnar（压缩列式）
+        private boolean traceMode = false; // 是否启用逐帧追踪
+        private long traceCapacityFrames = 2_000_000; // 追踪环形文件容量（帧数）
+        private int flushIntervalMs = 1000; // 写入数据在内存中停留的最长时间（毫秒）
+        private boolean jfrRecording = false; // 是否随指标收集同时录制JFR
+        private String jfrSettings = "profile"; // JFR设置：default 或 profile
+        private boolean stackSampling = false; // 是否采集慢帧调用栈
+        private int stackSampleIntervalMs = 10; // 栈采样间隔（毫秒）
+        private double stackPercentile = 99.0; // 耗时超过该百分位的帧/tick视为慢帧
+        private boolean spikeCapture = true; // 是否记录尖峰日志
+        private double spikeFrameMs = 50.0; // 帧时间尖峰阈值（毫秒）
+        private double spikeTickMs = 50.0; // tick耗时尖峰阈值（毫秒）
+        private int spikeHistoryFrames = 120; // 每次尖峰附带的历史帧/tick数
+        private long spikeCooldownMs = 1000; // 两次尖峰捕获的最小间隔（毫秒）
+        private double spikeEntityRadius = 32.0; // 统计附近实体的半径（格）
+        private boolean startupProfiling = true; // 是否记录启动过程（各阶段、各模组初始化耗时和Chrome trace）
+        private int openMetricsPort = 0; // 实时指标端点端口（仅监听127.0.0.1），0表示不启用
+        private boolean hudOverlay = false; // 启动时是否显示性能浮层（F6切换）
         
-        public int getSampleInterval() {
+        public double getSampleInterval() {
             return sampleInterval;
         }
         
+        /**
+         * 采样间隔（毫秒），不小于10毫秒
+         */
+        public long getSampleIntervalMs() {
+            return Math.max(10L, Math.round(sampleInterval * 1000.0));
+        }
+        
+        public int getSampleFrames() {
+            return sampleFrames;
+        }
+        
         public String getOutputDirectory() {
             return outputDirectory;
         }
@@ -155,6 +500,233 @@ public class TestConfig {
         public String getOutputFormat() {
             return outputFormat;
         }
+        
+        public boolean isTraceMode() {
+            return traceMode;
+        }
+        
+        public long getTraceCapacityFrames() {
+            return traceCapacityFrames;
+        }
+        
+        public int getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+        
+        public boolean isJfrRecording() {
+            return jfrRecording;
+        }
+        
+        public String getJfrSettings() {
+            return jfrSettings;
+        }
+        
+        public boolean isStackSampling() {
+            return stackSampling;
+        }
+        
+        public int getStackSampleIntervalMs() {
+            return Math.max(1, stackSampleIntervalMs);
+        }
+        
+        public double getStackPercentile() {
+            return Math.max(0.0, Math.min(100.0, stackPercentile));
+        }
+        
+        public boolean isSpikeCapture() {
+            return spikeCapture;
+        }
+        
+        public double getSpikeFrameMs() {
+            return spikeFrameMs;
+        }
+        
+        public double getSpikeTickMs() {
+            return spikeTickMs;
+        }
+        
+        public int getSpikeHistoryFrames() {
+            return Math.max(1, spikeHistoryFrames);
+        }
+        
+        public long getSpikeCooldownMs() {
+            return Math.max(0, spikeCooldownMs);
+        }
+        
+        public double getSpikeEntityRadius() {
+            return spikeEntityRadius;
+        }
+        
+        public boolean isStartupProfiling() {
+            return startupProfiling;
+        }
+        
+        public int getOpenMetricsPort() {
+            return openMetricsPort;
+        }
+        
+        public boolean isHudOverlay() {
+            return hudOverlay;
+        }
+        
+        void validate(List<String> errors) {
+            check(errors, atLeast(sampleInterval, 0.01), "metrics.sampleInterval 不能小于0.01秒: " + sampleInterval);
+            check(errors, sampleFrames >= 0, "metrics.sampleFrames 不能为负: " + sampleFrames);
+            check(errors, outputFormat != null && OUTPUT_FORMATS.contains(outputFormat.toLowerCase()),
+                    "metrics.outputFormat 必须是 " + OUTPUT_FORMATS + " 之一: " + outputFormat);
+            check(errors, traceCapacityFrames > 0, "metrics.traceCapacityFrames 必须大于0: " + traceCapacityFrames);
+            check(errors, flushIntervalMs > 0, "metrics.flushIntervalMs 必须大于0: " + flushIntervalMs);
+            check(errors, jfrSettings != null && JFR_SETTINGS.contains(jfrSettings),
+                    "metrics.jfrSettings 必须是 " + JFR_SETTINGS + " 之一: " + jfrSettings);
+            check(errors, stackSampleIntervalMs >= 1, "metrics.stackSampleIntervalMs 必须大于0: " + stackSampleIntervalMs);
+            check(errors, atLeast(stackPercentile, 0.0) && stackPercentile <= 100.0,
+                    "metrics.stackPercentile 必须在 0 到 100 之间: " + stackPercentile);
+            check(errors, atLeast(spikeFrameMs, 0.0) && spikeFrameMs > 0.0, "metrics.spikeFrameMs 必须大于0: " + spikeFrameMs);
+            check(errors, atLeast(spikeTickMs, 0.0) && spikeTickMs > 0.0, "metrics.spikeTickMs 必须大于0: " + spikeTickMs);
+            check(errors, spikeHistoryFrames >= 1, "metrics.spikeHistoryFrames 必须大于0: " + spikeHistoryFrames);
+            check(errors, spikeCooldownMs >= 0, "metrics.spikeCooldownMs 不能为负: " + spikeCooldownMs);
+            check(errors, atLeast(spikeEntityRadius, 0.0), "metrics.spikeEntityRadius 不能为负: " + spikeEntityRadius);
+            check(errors, openMetricsPort >= 0 && openMetricsPort <= 65535, "metrics.openMetricsPort 必须在 0 到 65535 之间: " + openMetricsPort);
+        }
+    }
+    
+    // 专用服务器压测配置类
+    public static class ServerBenchmarkConfig {
+        private boolean enabled = false; // 服务器启动后是否自动运行机器人压测
+        private int initialBots = 0; // 第一级的机器人数量
+        private int botStep = 5; // 每级增加的机器人数量
+        private int maxBots = 50; // 最多机器人数量
+        private int stepSeconds = 60; // 每级持续时间（秒），包括预热
+        private int warmupSeconds = 15; // 每级开始后不计入统计的预热时间（秒）
+        private double botSpeed = 0.5; // 机器人移动速度（方块/tick）
+        private int botSpacing = 512; // 相邻机器人路线的间距（方块），避免共享区块
+        private boolean stopServerAfterTest = true; // 压测结束后是否关闭服务器
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public int getInitialBots() {
+            return Math.max(0, initialBots);
+        }
+        
+        public int getBotStep() {
+            return Math.max(1, botStep);
+        }
+        
+        public int getMaxBots() {
+            return maxBots;
+        }
+        
+        public int getStepSeconds() {
+            return Math.max(1, stepSeconds);
+        }
+        
+        public int getWarmupSeconds() {
+            return Math.max(0, Math.min(warmupSeconds, getStepSeconds() - 1));
+        }
+        
+        public double getBotSpeed() {
+            return botSpeed;
+        }
+        
+        public int getBotSpacing() {
+            return botSpacing;
+        }
+        
+        public boolean isStopServerAfterTest() {
+            return stopServerAfterTest;
+        }
+        
+        void validate(List<String> errors) {
+            check(errors, initialBots >= 0, "server.initialBots 不能为负: " + initialBots);
+            check(errors, botStep >= 1, "server.botStep 必须大于0: " + botStep);
+            check(errors, maxBots >= initialBots, "server.maxBots 不能小于 server.initialBots: " + maxBots);
+            check(errors, stepSeconds >= 1, "server.stepSeconds 必须大于0: " + stepSeconds);
+            check(errors, warmupSeconds >= 0 && warmupSeconds < stepSeconds,
+                    "server.warmupSeconds 必须在 0 到 server.stepSeconds 之间: " + warmupSeconds);
+            check(errors, atLeast(botSpeed, 0.0), "server.botSpeed 不能为负: " + botSpeed);
+            check(errors, botSpacing > 0, "server.botSpacing 必须大于0: " + botSpacing);
+        }
+    }
+    
+    // 矩阵测试配置类
+    public static class MatrixConfig {
+        private boolean enabled = false; // 是否按矩阵依次运行多个配置
+        private int repetitions = 3; // 每个配置单元的重复次数
+        private boolean interleave = true; // 交替运行各单元（第1轮所有单元、第2轮所有单元...），减小系统漂移的影响
+        private List<Integer> renderDistances = new ArrayList<>(); // 渲染距离，为空时不改变
+        private List<Integer> simulationDistances = new ArrayList<>(); // 模拟距离，为空时不改变
+        private String baseline = ""; // 基准单元名称，为空时使用第一个单元
+        private List<String> compareMetrics = new ArrayList<>(List.of("fps", "frameTimeP99", "fpsLow1", "msptP99")); // 比较的指标
+        private List<JvmVariant> jvmVariants = new ArrayList<>(); // JVM参数组合（GC、堆大小等），需要 MatrixLauncher 重新启动游戏
+        private List<String> launchCommand = new ArrayList<>(); // 启动游戏的命令，{jvmArgs} 展开为当前组合的JVM参数
+        private int launchTimeoutMinutes = 120; // 单次启动的最长时间（分钟）
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public int getRepetitions() {
+            return Math.max(1, repetitions);
+        }
+        
+        public boolean isInterleave() {
+            return interleave;
+        }
+        
+        public List<Integer> getRenderDistances() {
+            return renderDistances != null ? renderDistances : List.of();
+        }
+        
+        public List<Integer> getSimulationDistances() {
+            return simulationDistances != null ? simulationDistances : List.of();
+        }
+        
+        public String getBaseline() {
+            return baseline;
+        }
+        
+        public List<String> getCompareMetrics() {
+            return compareMetrics != null ? compareMetrics : List.of();
+        }
+        
+        public List<JvmVariant> getJvmVariants() {
+            return jvmVariants != null ? jvmVariants : List.of();
+        }
+        
+        public List<String> getLaunchCommand() {
+            return launchCommand != null ? launchCommand : List.of();
+        }
+        
+        public int getLaunchTimeoutMinutes() {
+            return Math.max(1, launchTimeoutMinutes);
+        }
+        
+        void validate(List<String> errors) {
+            check(errors, repetitions >= 1, "matrix.repetitions 必须大于0: " + repetitions);
+            for (Integer distance : getRenderDistances()) {
+                check(errors, distance != null && distance >= 2 && distance <= 32, "matrix.renderDistances 必须在 2 到 32 之间: " + distance);
+            }
+            for (Integer distance : getSimulationDistances()) {
+                check(errors, distance != null && distance >= 5 && distance <= 32, "matrix.simulationDistances 必须在 5 到 32 之间: " + distance);
+            }
+            check(errors, launchTimeoutMinutes >= 1, "matrix.launchTimeoutMinutes 必须大于0: " + launchTimeoutMinutes);
+        }
+    }
+    
+    // 一组JVM参数
+    public static class JvmVariant {
+        private String name = "default"; // 单元名称的一部分
+        private List<String> args = new ArrayList<>(); // JVM参数，例如 -XX:+UseZGC
+        
+        public String getName() {
+            return name;
+        }
+        
+        public List<String> getArgs() {
+            return args != null ? args : List.of();
+        }
     }
     
     // Getter方法
@@ -162,8 +734,8 @@ public class TestConfig {
         return enabled;
     }
     
-    public void setEnabled(boolean enabled) {
-        this.enabled = enabled;
+    public boolean isWatchConfig() {
+        return watchConfig;
     }
     
     public WorldConfig getWorld() {
@@ -178,6 +750,14 @@ public class TestConfig {
         return metrics;
     }
     
+    public ServerBenchmarkConfig getServer() {
+        return server;
+    }
+    
+    public MatrixConfig getMatrix() {
+        return matrix;
+    }
+    
     // 便捷方法
     public int getTestDuration() {
         return test.getDuration();
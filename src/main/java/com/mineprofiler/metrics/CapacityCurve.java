@@ -0,0 +1,181 @@
+package com.mineprofiler.metrics;
+
+import com.mineprofiler.metrics.io.CsvSampleSink;
+import com.mineprofiler.metrics.io.SampleSchema;
+import com.mineprofiler.metrics.io.SampleSink;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+
+/**
+ * 服务器容量曲线
+ *
+ * 按玩家数量分级统计：每一级先经过预热期，之后记录每个tick的耗时、区块加载数量，
+ * 结束时输出该玩家数量下的TPS、MSPT分位、区块吞吐和堆内存占用，得到“玩家数 - p99 MSPT”曲线。
+ * 所有方法只能由服务器线程调用。
+ */
+public final class CapacityCurve {
+    private static final Logger LOGGER = LogManager.getLogger("CapacityCurve");
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
+    private final SampleSink sink;
+    private final File file;
+    private final SingleWriterRecorder tickRecorder = new SingleWriterRecorder(true);
+    private final RecorderWindow stepWindow = new RecorderWindow();
+
+    // 当前级别
+    private int players = 0;
+    private long measureStartNanos = 0;
+    private long chunksLoaded = 0;
+    private boolean measuring = false;
+
+    // 第一级的堆占用，用于估算每个玩家的内存开销
+    private int baselinePlayers = -1;
+    private double baselineHeapMb = 0;
+
+    /**
+     * @param file 输出文件（CSV，每级一行）
+     * @param flushDeadlineMs 数据在内存中停留的最长时间
+     */
+    public CapacityCurve(File file, long flushDeadlineMs) throws IOException {
+        this.file = file;
+        this.sink = new CsvSampleSink(file, flushDeadlineMs);
+        this.sink.writeHeader(SampleSchema.builder()
+                .longColumn("players")
+                .longColumn("ticks")
+                .doubleColumn("tps")
+                .doubleColumn("mspt", 3)
+                .doubleColumn("msptP50", 3)
+                .doubleColumn("msptP95", 3)
+                .doubleColumn("msptP99", 3)
+                .doubleColumn("msptMax", 3)
+                .doubleColumn("chunksPerSec")
+                .doubleColumn("heapUsedMb")
+                .doubleColumn("heapAfterGcMb")
+                .doubleColumn("heapPerPlayerMb", 3)
+                .build());
+    }
+
+    /**
+     * 开始新的一级，之后的数据属于预热期，不计入统计
+     */
+    public void beginStep(int players) {
+        this.players = players;
+        this.measuring = false;
+    }
+
+    /**
+     * 预热结束，开始统计当前级别
+     */
+    public void beginMeasure() {
+        tickRecorder.drain(stepWindow);
+        measureStartNanos = System.nanoTime();
+        chunksLoaded = 0;
+        measuring = true;
+    }
+
+    /**
+     * 记录一个tick的耗时（纳秒）
+     */
+    public void recordTick(long tickNanos) {
+        if (measuring && tickNanos > 0) {
+            tickRecorder.record(tickNanos);
+        }
+    }
+
+    /**
+     * 记录一个区块加载完成
+     */
+    public void recordChunkLoaded() {
+        if (measuring) {
+            chunksLoaded++;
+        }
+    }
+
+    /**
+     * 结束当前级别并写出一行，预热期内结束时不写出
+     */
+    public void endStep() {
+        if (!measuring) return;
+        measuring = false;
+        tickRecorder.drain(stepWindow);
+        double seconds = (System.nanoTime() - measureStartNanos) / 1_000_000_000.0;
+        if (seconds <= 0) return;
+
+        HistogramCounts histogram = stepWindow.getWindowHistogram();
+        long ticks = stepWindow.getCount();
+        double tps = ticks / seconds;
+        double mspt = stepWindow.getMean() / 1_000_000.0;
+        double p50 = histogram.percentileNanos(50.0) / 1_000_000.0;
+        double p95 = histogram.percentileNanos(95.0) / 1_000_000.0;
+        double p99 = histogram.percentileNanos(99.0) / 1_000_000.0;
+        double max = ticks > 0 ? stepWindow.getMax() / 1_000_000.0 : 0.0;
+        double chunksPerSec = chunksLoaded / seconds;
+
+        double heapUsedMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / BYTES_PER_MB;
+        double heapAfterGcMb = heapAfterLastGc() / BYTES_PER_MB;
+        if (baselinePlayers < 0) {
+            baselinePlayers = players;
+            baselineHeapMb = heapAfterGcMb;
+        }
+        double heapPerPlayerMb = players > baselinePlayers
+                ? (heapAfterGcMb - baselineHeapMb) / (players - baselinePlayers)
+                : 0.0;
+
+        try {
+            sink.beginRow();
+            sink.putLong(players);
+            sink.putLong(ticks);
+            sink.putDouble(tps);
+            sink.putDouble(mspt);
+            sink.putDouble(p50);
+            sink.putDouble(p95);
+            sink.putDouble(p99);
+            sink.putDouble(max);
+            sink.putDouble(chunksPerSec);
+            sink.putDouble(heapUsedMb);
+            sink.putDouble(heapAfterGcMb);
+            sink.putDouble(heapPerPlayerMb);
+            sink.endRow();
+        } catch (IOException e) {
+            LOGGER.error("写入容量曲线时出错", e);
+        }
+        LOGGER.info(String.format("玩家数 %d: TPS %.2f, MSPT 平均 %.2f / p50 %.2f / p99 %.2f / 最大 %.2f ms, 区块 %.1f/s, 堆 %.0f MB",
+                players, tps, mspt, p50, p99, max, chunksPerSec, heapUsedMb));
+    }
+
+    /**
+     * 结束并关闭输出文件
+     */
+    public void close() {
+        try {
+            sink.close();
+            LOGGER.info("容量曲线已保存至 " + file.getPath());
+        } catch (IOException e) {
+            LOGGER.error("关闭容量曲线文件时出错", e);
+        }
+    }
+
+    /**
+     * 各堆内存池在最近一次GC后的占用之和，近似为存活对象大小；JVM不支持时退回当前占用
+     */
+    private static long heapAfterLastGc() {
+        long total = 0;
+        boolean supported = false;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) continue;
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null) {
+                total += usage.getUsed();
+                supported = true;
+            }
+        }
+        return supported ? total : ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,95 @@
+package com.mineprofiler.metrics;
+
+import com.mineprofiler.metrics.jfr.ChunkLoadedEvent;
+
+/**
+ * 区块加载吞吐与延迟跟踪
+ *
+ * 对每个区块记录三个时刻：服务器请求（区块等级升到可访问）、服务器端加载/生成完成、客户端收到区块数据，
+ * 得到请求到就绪、请求到客户端可见两段延迟的分布，以及服务器端和客户端每秒完成的区块数。
+ * 事件来自服务器线程、客户端线程等多个线程，各方法通过对象锁串行化，
+ * 因此内部记录器仍满足单写者约束；每秒几百次的事件频率下锁开销可以忽略。
+ * 区块以 ChunkPos.toLong() 编码为键，不区分维度。
+ */
+public final class ChunkTracker {
+    private static final long MISSING = -1L;
+
+    // 已请求、尚未就绪的区块 -> 请求时间
+    private final LongTimestampMap requested = new LongTimestampMap(4096);
+    // 已就绪、客户端尚未收到的区块 -> 请求时间（未知时为MISSING）
+    private final LongTimestampMap ready = new LongTimestampMap(4096);
+
+    // 请求到服务器就绪的延迟（纳秒）
+    private final SingleWriterRecorder loadLatency = new SingleWriterRecorder(true);
+    // 请求到客户端收到的延迟（纳秒）
+    private final SingleWriterRecorder visibleLatency = new SingleWriterRecorder(true);
+    // 服务器就绪、客户端收到的区块数（每个区块记录一次，值为0）
+    private final SingleWriterRecorder serverChunks = new SingleWriterRecorder();
+    private final SingleWriterRecorder clientChunks = new SingleWriterRecorder();
+
+    /**
+     * 服务器开始加载区块
+     */
+    public synchronized void onRequested(long chunkPos) {
+        requested.putIfAbsent(chunkPos, System.nanoTime());
+    }
+
+    /**
+     * 区块在就绪前被放弃（等级降到不可访问）
+     */
+    public synchronized void onCancelled(long chunkPos) {
+        requested.remove(chunkPos, MISSING);
+    }
+
+    /**
+     * 服务器端区块加载或生成完成
+     */
+    public synchronized void onServerReady(long chunkPos) {
+        long now = System.nanoTime();
+        long requestNanos = requested.remove(chunkPos, MISSING);
+        if (requestNanos != MISSING) {
+            loadLatency.record(now - requestNanos);
+        }
+        ready.put(chunkPos, requestNanos);
+        serverChunks.record(0);
+        
+        ChunkLoadedEvent event = new ChunkLoadedEvent();
+        if (event.shouldCommit()) {
+            event.chunkX = (int) chunkPos;
+            event.chunkZ = (int) (chunkPos >> 32);
+            event.latency = requestNanos != MISSING ? now - requestNanos : -1;
+            event.commit();
+        }
+    }
+
+    /**
+     * 服务器端区块卸载
+     */
+    public synchronized void onServerUnloaded(long chunkPos) {
+        requested.remove(chunkPos, MISSING);
+        ready.remove(chunkPos, MISSING);
+    }
+
+    /**
+     * 客户端收到区块数据
+     * 连接远程服务器时没有服务器端时间戳，只计入吞吐
+     */
+    public synchronized void onClientReceived(long chunkPos) {
+        long requestNanos = ready.remove(chunkPos, MISSING);
+        if (requestNanos != MISSING) {
+            visibleLatency.record(System.nanoTime() - requestNanos);
+        }
+        clientChunks.record(0);
+    }
+
+    /**
+     * 推进采样窗口，只能由采样线程调用
+     */
+    void drain(RecorderWindow loadWindow, RecorderWindow visibleWindow,
+               RecorderWindow serverWindow, RecorderWindow clientWindow) {
+        loadLatency.drain(loadWindow);
+        visibleLatency.drain(visibleWindow);
+        serverChunks.drain(serverWindow);
+        clientChunks.drain(clientWindow);
+    }
+}
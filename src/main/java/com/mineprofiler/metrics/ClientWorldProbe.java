@@ -0,0 +1,75 @@
+package com.mineprofiler.metrics;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.network.ClientPlayerEntity;
+import net.minecraft.client.option.GameOptions;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.server.integrated.IntegratedServer;
+
+import java.util.Map;
+
+/**
+ * 客户端游戏状态探针
+ * 读取本地玩家位置和客户端已加载的区块数量
+ */
+public class ClientWorldProbe implements WorldProbe {
+    private final MinecraftClient client;
+
+    public ClientWorldProbe() {
+        this.client = MinecraftClient.getInstance();
+    }
+
+    @Override
+    public boolean isReady() {
+        return client != null && client.player != null;
+    }
+
+    @Override
+    public double getPlayerX() {
+        ClientPlayerEntity player = client.player;
+        return player != null ? player.getX() : 0.0;
+    }
+
+    @Override
+    public double getPlayerY() {
+        ClientPlayerEntity player = client.player;
+        return player != null ? player.getY() : 0.0;
+    }
+
+    @Override
+    public double getPlayerZ() {
+        ClientPlayerEntity player = client.player;
+        return player != null ? player.getZ() : 0.0;
+    }
+
+    @Override
+    public int getLoadedChunks() {
+        ClientWorld world = client.world;
+        return world != null ? world.getChunkManager().getLoadedChunkCount() : 0;
+    }
+
+    @Override
+    public Map<String, Integer> countNearbyEntities(double radius) {
+        ClientPlayerEntity player = client.player;
+        ClientWorld world = client.world;
+        if (player == null || world == null || !client.isOnThread()) return Map.of();
+        return ServerWorldProbe.countEntitiesAround(world, player, radius);
+    }
+
+    @Override
+    public void describe(Map<String, Object> game) {
+        FabricEnvironment.describe(game);
+        GameOptions options = client.options;
+        game.put("renderDistance", options.getViewDistance().getValue());
+        game.put("simulationDistance", options.getSimulationDistance().getValue());
+        game.put("maxFps", options.getMaxFps().getValue());
+        game.put("vsync", options.getEnableVsync().getValue());
+        game.put("graphicsMode", options.getGraphicsMode().getValue().toString());
+        game.put("framebufferWidth", client.getWindow().getFramebufferWidth());
+        game.put("framebufferHeight", client.getWindow().getFramebufferHeight());
+        IntegratedServer server = client.getServer();
+        if (server != null) {
+            ServerWorldProbe.describeServer(server, game);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.mineprofiler.metrics;
+
+/**
+ * 最近若干周期（帧或tick）的环形历史
+ *
+ * 所有数组在构造时分配，每个周期原地覆盖最旧的一条，记录路径不分配内存。
+ * 只有写线程（渲染线程或服务器线程）可以读写，跨线程使用时需先在写线程上复制。
+ */
+public final class CycleHistory {
+    private final int capacity;
+    private final int phaseCount;
+    private final long[] startNanos;
+    private final long[] durationNanos;
+    private final long[] msptNanos;
+    private final int[] flags;
+    // 各阶段耗时，按 [条目 * phaseCount + 阶段] 排列
+    private final long[] phaseNanos;
+    private long written = 0;
+
+    public CycleHistory(int capacity, int phaseCount) {
+        this.capacity = Math.max(1, capacity);
+        this.phaseCount = phaseCount;
+        this.startNanos = new long[this.capacity];
+        this.durationNanos = new long[this.capacity];
+        this.msptNanos = new long[this.capacity];
+        this.flags = new int[this.capacity];
+        this.phaseNanos = new long[this.capacity * phaseCount];
+    }
+
+    /**
+     * 记录一个周期
+     * @param flags 附加标志（帧为 FrameTraceWriter 的 FLAG_TICK、FLAG_GC）
+     * @param msptNanos 记录时最近一个tick的耗时，tick历史中与本周期耗时相同
+     * @param phases 已提交本周期的阶段计时器
+     */
+    public void record(long startNanos, long durationNanos, int flags, long msptNanos, PhaseTimer<?> phases) {
+        int slot = (int) (written % capacity);
+        this.startNanos[slot] = startNanos;
+        this.durationNanos[slot] = durationNanos;
+        this.msptNanos[slot] = msptNanos;
+        this.flags[slot] = flags;
+        phases.copyLastCycle(phaseNanos, slot * phaseCount);
+        written++;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getPhaseCount() {
+        return phaseCount;
+    }
+
+    /**
+     * 当前保存的条目数
+     */
+    public int size() {
+        return (int) Math.min(written, capacity);
+    }
+
+    /**
+     * 按时间顺序的第i条（0为最旧）对应的槽位
+     */
+    private int slot(int index) {
+        return (int) ((written - size() + index) % capacity);
+    }
+
+    public long getStartNanos(int index) {
+        return startNanos[slot(index)];
+    }
+
+    public long getDurationNanos(int index) {
+        return durationNanos[slot(index)];
+    }
+
+    public long getMsptNanos(int index) {
+        return msptNanos[slot(index)];
+    }
+
+    public int getFlags(int index) {
+        return flags[slot(index)];
+    }
+
+    public long getPhaseNanos(int index, int phase) {
+        return phaseNanos[slot(index) * phaseCount + phase];
+    }
+
+    /**
+     * 按时间顺序复制当前内容，供其他线程使用
+     */
+    CycleHistory copy() {
+        int size = size();
+        CycleHistory copy = new CycleHistory(Math.max(1, size), phaseCount);
+        for (int i = 0; i < size; i++) {
+            int from = slot(i);
+            copy.startNanos[i] = startNanos[from];
+            copy.durationNanos[i] = durationNanos[from];
+            copy.msptNanos[i] = msptNanos[from];
+            copy.flags[i] = flags[from];
+            System.arraycopy(phaseNanos, from * phaseCount, copy.phaseNanos, i * phaseCount, phaseCount);
+        }
+        copy.written = size;
+        return copy;
+    }
+}
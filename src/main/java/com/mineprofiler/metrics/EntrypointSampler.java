@@ -0,0 +1,135 @@
+package com.mineprofiler.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 模组初始化采样器
+ *
+ * Fabric按顺序在同一线程上调用各模组的初始化入口，没有公开的钩子可以逐个计时，
+ * 因此从 preLaunch 开始按固定间隔采集该线程的调用栈：栈中最外层的 onInitialize/onInitializeClient 帧
+ * 所属的类即为当前正在执行的入口，连续属于同一入口的样本合并为一段。精度约为一个采样间隔。
+ */
+public final class EntrypointSampler {
+    private static final long INTERVAL_NANOS = 1_000_000L;
+
+    private final Thread target;
+    private final List<Run> runs = new ArrayList<>();
+    private Thread thread;
+    private volatile boolean running = false;
+
+    // 当前连续段，仅采样线程访问
+    private String currentClass;
+    private long currentStart;
+    private long currentEnd;
+    private int currentSamples;
+
+    /**
+     * @param target 执行模组初始化入口的线程
+     */
+    public EntrypointSampler(Thread target) {
+        this.target = target;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::sampleLoop, "MineProfilerEntrypointSampler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 停止采样并返回各连续段
+     */
+    public synchronized List<Run> stop() {
+        if (running) {
+            running = false;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return Collections.unmodifiableList(runs);
+    }
+
+    private void sampleLoop() {
+        while (running) {
+            long now = System.nanoTime();
+            String entrypoint = findEntrypoint(target.getStackTrace());
+            if (entrypoint == null || !entrypoint.equals(currentClass)) {
+                closeRun();
+                if (entrypoint != null) {
+                    currentClass = entrypoint;
+                    currentStart = now;
+                    currentSamples = 0;
+                }
+            }
+            if (entrypoint != null) {
+                currentEnd = now + INTERVAL_NANOS;
+                currentSamples++;
+            }
+            try {
+                Thread.sleep(INTERVAL_NANOS / 1_000_000L);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        closeRun();
+    }
+
+    private void closeRun() {
+        if (currentClass != null) {
+            runs.add(new Run(currentClass, currentStart, currentEnd, currentSamples));
+            currentClass = null;
+        }
+    }
+
+    /**
+     * 栈中最外层的初始化入口方法所属的类
+     */
+    private static String findEntrypoint(StackTraceElement[] stack) {
+        for (int i = stack.length - 1; i >= 0; i--) {
+            String method = stack[i].getMethodName();
+            if (method.equals("onInitialize") || method.equals("onInitializeClient") || method.equals("onInitializeServer")) {
+                return stack[i].getClassName();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 同一入口的一段连续执行
+     */
+    public static final class Run {
+        private final String className;
+        private final long startNanos;
+        private final long endNanos;
+        private final int samples;
+
+        Run(String className, long startNanos, long endNanos, int samples) {
+            this.className = className;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.samples = samples;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public long getEndNanos() {
+            return endNanos;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+    }
+}
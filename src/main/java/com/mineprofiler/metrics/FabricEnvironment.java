@@ -0,0 +1,43 @@
+package com.mineprofiler.metrics;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.ModContainer;
+import net.fabricmc.loader.api.metadata.ModMetadata;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 加载器环境信息
+ * 客户端和服务器探针共用：游戏版本、加载器版本和已加载的模组列表
+ */
+final class FabricEnvironment {
+
+    private FabricEnvironment() {
+    }
+
+    static void describe(Map<String, Object> game) {
+        FabricLoader loader = FabricLoader.getInstance();
+        game.put("minecraftVersion", version(loader, "minecraft"));
+        game.put("fabricLoaderVersion", version(loader, "fabricloader"));
+        game.put("environment", loader.getEnvironmentType().name().toLowerCase());
+        List<Map<String, String>> mods = new ArrayList<>();
+        for (ModContainer mod : loader.getAllMods()) {
+            ModMetadata metadata = mod.getMetadata();
+            Map<String, String> entry = new LinkedHashMap<>();
+            entry.put("id", metadata.getId());
+            entry.put("version", metadata.getVersion().getFriendlyString());
+            mods.add(entry);
+        }
+        mods.sort((a, b) -> a.get("id").compareTo(b.get("id")));
+        game.put("mods", mods);
+    }
+
+    private static String version(FabricLoader loader, String modId) {
+        return loader.getModContainer(modId)
+                .map(mod -> mod.getMetadata().getVersion().getFriendlyString())
+                .orElse("unknown");
+    }
+}
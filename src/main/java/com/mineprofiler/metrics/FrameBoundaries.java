@@ -0,0 +1,138 @@
+package com.mineprofiler.metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 按帧切分窗口时渲染线程发布的窗口边界
+ *
+ * 渲染线程在窗口的最后一帧结束时，把自己写入的记录器（帧时间、FPS、GC帧、渲染阶段）的累计量
+ * 复制到预先分配的槽位并发布，不加锁、不分配内存；采样线程按发布顺序取出，每个边界写出一行。
+ * 单生产者单消费者：只有渲染线程发布，只有采样线程取出。
+ * 窗口统计由相邻边界的累计量相减得到，队列已满时丢弃的边界会并入下一个窗口，数据不会丢失。
+ */
+final class FrameBoundaries {
+    private static final VarHandle PUBLISHED;
+    private static final VarHandle CONSUMED;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            PUBLISHED = lookup.findVarHandle(FrameBoundaries.class, "published", long.class);
+            CONSUMED = lookup.findVarHandle(FrameBoundaries.class, "consumed", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * 一个窗口边界
+     */
+    static final class Slot {
+        // 边界序号，从0开始，并入下一个窗口的边界不占序号
+        long sequence;
+        // 窗口结束时间（System.nanoTime()）
+        long endNanos;
+        final RecorderSnapshot frameTime;
+        final RecorderSnapshot fps;
+        final RecorderSnapshot gcFrames;
+        final RecorderSnapshot[] phases;
+
+        private Slot(SingleWriterRecorder frameTime, SingleWriterRecorder fps, SingleWriterRecorder gcFrames,
+                     PhaseTimer<RenderPhase> phases) {
+            this.frameTime = frameTime.newSnapshot();
+            this.fps = fps.newSnapshot();
+            this.gcFrames = gcFrames.newSnapshot();
+            this.phases = phases.newSnapshots();
+        }
+    }
+
+    private final SingleWriterRecorder frameTime;
+    private final SingleWriterRecorder fps;
+    private final SingleWriterRecorder gcFrames;
+    private final PhaseTimer<RenderPhase> phases;
+    private final Slot[] slots;
+    private final int mask;
+
+    // 已发布的边界数，仅渲染线程写入
+    private long published = 0;
+    // 已取出的边界数，仅采样线程写入
+    private long consumed = 0;
+    // 队列已满而并入下一个窗口的边界数，仅渲染线程写入
+    private volatile long merged = 0;
+
+    /**
+     * @param capacity 槽位数，必须是2的幂
+     */
+    FrameBoundaries(int capacity, SingleWriterRecorder frameTime, SingleWriterRecorder fps,
+                    SingleWriterRecorder gcFrames, PhaseTimer<RenderPhase> phases) {
+        this.frameTime = frameTime;
+        this.fps = fps;
+        this.gcFrames = gcFrames;
+        this.phases = phases;
+        this.slots = new Slot[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot(frameTime, fps, gcFrames, phases);
+        }
+    }
+
+    /**
+     * 发布一个窗口边界，只能由渲染线程在该窗口的最后一帧记录完成后调用
+     * @return 队列已满时为false，这一边界并入下一个窗口
+     */
+    boolean publish(long endNanos) {
+        long p = published;
+        if (p - (long) CONSUMED.getAcquire(this) >= slots.length) {
+            merged++;
+            return false;
+        }
+        Slot slot = slots[(int) (p & mask)];
+        slot.sequence = p;
+        slot.endNanos = endNanos;
+        frameTime.snapshot(slot.frameTime);
+        fps.snapshot(slot.fps);
+        gcFrames.snapshot(slot.gcFrames);
+        phases.snapshot(slot.phases);
+        PUBLISHED.setRelease(this, p + 1);
+        return true;
+    }
+
+    /**
+     * 最早一个未取出的边界，没有时为null，只能由采样线程调用
+     * 槽位在调用 {@link #release()} 之前不会被渲染线程覆盖
+     */
+    Slot peek() {
+        long c = consumed;
+        if (c == (long) PUBLISHED.getAcquire(this)) return null;
+        return slots[(int) (c & mask)];
+    }
+
+    /**
+     * 归还 {@link #peek()} 取得的槽位，只能由采样线程调用
+     */
+    void release() {
+        CONSUMED.setRelease(this, consumed + 1);
+    }
+
+    /**
+     * 丢弃所有未取出的边界，只能由采样线程调用（或在采样线程启动前调用）
+     */
+    void discard() {
+        CONSUMED.setRelease(this, (long) PUBLISHED.getAcquire(this));
+    }
+
+    /**
+     * 已发布的边界数，也是下一个边界的序号，可以在任何线程上调用
+     */
+    long getPublished() {
+        return (long) PUBLISHED.getAcquire(this);
+    }
+
+    /**
+     * 队列已满而并入下一个窗口的边界总数
+     */
+    long getMerged() {
+        return merged;
+    }
+}
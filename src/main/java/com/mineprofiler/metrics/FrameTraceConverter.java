@@ -0,0 +1,172 @@
+package com.mineprofiler.metrics;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 逐帧追踪文件转换工具
+ * 把 {@link FrameTraceWriter} 生成的环形二进制文件转换为CSV或列式二进制文件，供运行结束后离线使用
+ *
+ * 用法：
+ * <pre>
+ * java -cp mineprofiler.jar com.mineprofiler.metrics.FrameTraceConverter trace_xxx.bin [--csv out.csv] [--columnar out.cols]
+ * </pre>
+ *
+ * 列式文件布局（大端序）：magic "MPCOLS01"、int 版本、int 列数、long 行数，
+ * 之后每一列依次为：UTF列名、byte类型（0=long, 1=float, 2=int）、该列全部行的值。
+ * tick和gc两列与CSV相同，是从标志位拆出的0或1。
+ */
+public final class FrameTraceConverter {
+    static final long COLUMNAR_MAGIC = 0x4D50434F4C533031L; // "MPCOLS01"
+    static final int COLUMNAR_VERSION = 2;
+
+    private static final String[] COLUMN_NAMES = {"frameIndex", "startNanos", "durationNanos", "mspt", "tick", "gc"};
+    private static final int[] COLUMN_OFFSETS = {16, 0, 8, 24, 28, 28};
+    private static final byte[] COLUMN_TYPES = {0, 0, 0, 1, 2, 2};
+    // 从标志位拆出的列所用的位，0表示直接写出字段值
+    private static final int[] COLUMN_FLAGS = {0, 0, 0, 0, FrameTraceWriter.FLAG_TICK, FrameTraceWriter.FLAG_GC};
+
+    private final MappedByteBuffer buffer;
+    private final long capacity;
+    private final long written;
+    private final long startMillis;
+    private final long startNanos;
+
+    /**
+     * 打开追踪文件
+     */
+    public FrameTraceConverter(File traceFile) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(traceFile, "r")) {
+            this.buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getLong(0) != FrameTraceWriter.MAGIC) {
+            throw new IOException("不是MineProfiler追踪文件: " + traceFile);
+        }
+        if (buffer.getInt(8) != FrameTraceWriter.VERSION || buffer.getInt(12) != FrameTraceWriter.RECORD_SIZE) {
+            throw new IOException("不支持的追踪文件版本: " + buffer.getInt(8));
+        }
+        this.capacity = buffer.getLong(FrameTraceWriter.OFFSET_CAPACITY);
+        this.written = buffer.getLong(FrameTraceWriter.OFFSET_WRITTEN);
+        this.startNanos = buffer.getLong(FrameTraceWriter.OFFSET_START_NANOS);
+        this.startMillis = buffer.getLong(FrameTraceWriter.OFFSET_START_MILLIS);
+    }
+
+    /**
+     * 文件中仍保留的记录数（环形覆盖后只保留最近capacity条）
+     */
+    public long getRecordCount() {
+        return Math.min(written, capacity);
+    }
+
+    /**
+     * 第i条保留记录（按时间顺序）在文件中的偏移
+     */
+    private int recordOffset(long i) {
+        long first = written > capacity ? written - capacity : 0;
+        return (int) (FrameTraceWriter.HEADER_SIZE + ((first + i) % capacity) * FrameTraceWriter.RECORD_SIZE);
+    }
+
+    /**
+     * 转换为CSV，时间列换算为相对开始的毫秒以及墙钟时间戳
+     */
+    public void writeCsv(File output) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8))) {
+            writer.write("frameIndex,timestamp,startMs,renderTimeMs,mspt,tick,gc\n");
+            StringBuilder line = new StringBuilder(96);
+            long count = getRecordCount();
+            for (long i = 0; i < count; i++) {
+                int offset = recordOffset(i);
+                long frameStart = buffer.getLong(offset);
+                double relativeMs = (frameStart - startNanos) / 1_000_000.0;
+                int flags = buffer.getInt(offset + 28);
+                line.setLength(0);
+                line.append(buffer.getLong(offset + 16)).append(',')
+                    .append(startMillis + (long) relativeMs).append(',')
+                    .append(relativeMs).append(',')
+                    .append(buffer.getLong(offset + 8) / 1_000_000.0).append(',')
+                    .append(buffer.getFloat(offset + 24)).append(',')
+                    .append(flags & FrameTraceWriter.FLAG_TICK).append(',')
+                    .append((flags & FrameTraceWriter.FLAG_GC) != 0 ? 1 : 0).append('\n');
+                writer.append(line);
+            }
+        }
+    }
+
+    /**
+     * 转换为列式二进制文件，每一列的值连续存放，便于按列读取
+     */
+    public void writeColumnar(File output) throws IOException {
+        long count = getRecordCount();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output), 1 << 16))) {
+            out.writeLong(COLUMNAR_MAGIC);
+            out.writeInt(COLUMNAR_VERSION);
+            out.writeInt(COLUMN_NAMES.length);
+            out.writeLong(count);
+            for (int column = 0; column < COLUMN_NAMES.length; column++) {
+                out.writeUTF(COLUMN_NAMES[column]);
+                out.writeByte(COLUMN_TYPES[column]);
+                int fieldOffset = COLUMN_OFFSETS[column];
+                int flag = COLUMN_FLAGS[column];
+                for (long i = 0; i < count; i++) {
+                    int offset = recordOffset(i) + fieldOffset;
+                    if (flag != 0) {
+                        out.writeInt((buffer.getInt(offset) & flag) != 0 ? 1 : 0);
+                        continue;
+                    }
+                    switch (COLUMN_TYPES[column]) {
+                        case 0 -> out.writeLong(buffer.getLong(offset));
+                        case 1 -> out.writeFloat(buffer.getFloat(offset));
+                        default -> out.writeInt(buffer.getInt(offset));
+                    }
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("用法: FrameTraceConverter <trace.bin> [--csv out.csv] [--columnar out.cols]");
+            System.exit(1);
+        }
+        File input = new File(args[0]);
+        String baseName = input.getPath().endsWith(".bin")
+                ? input.getPath().substring(0, input.getPath().length() - 4)
+                : input.getPath();
+        File csv = null;
+        File columnar = null;
+        for (int i = 1; i < args.length; i++) {
+            if ("--csv".equals(args[i]) && i + 1 < args.length) {
+                csv = new File(args[++i]);
+            } else if ("--columnar".equals(args[i]) && i + 1 < args.length) {
+                columnar = new File(args[++i]);
+            }
+        }
+        if (csv == null && columnar == null) {
+            csv = new File(baseName + ".csv");
+        }
+
+        FrameTraceConverter converter = new FrameTraceConverter(input);
+        System.out.println("共 " + converter.getRecordCount() + " 帧");
+        if (csv != null) {
+            converter.writeCsv(csv);
+            System.out.println("已写入 " + csv);
+        }
+        if (columnar != null) {
+            converter.writeColumnar(columnar);
+            System.out.println("已写入 " + columnar);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.mineprofiler.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 逐帧追踪写入器
+ *
+ * 把每一帧写成定长二进制记录，存放在预先分配大小的内存映射环形文件中。
+ * 渲染线程只做内存写入，不分配对象也不发起write系统调用，脏页由操作系统负责回写；
+ * 文件写满后从头覆盖最旧的记录。运行结束后可用 {@link FrameTraceConverter} 转换为CSV或列式格式。
+ *
+ * 文件布局（小端序）：
+ * <pre>
+ * 头部 64 字节：
+ *   0  magic "MPTRACE1"
+ *   8  int   版本
+ *   12 int   记录长度
+ *   16 long  容量（记录数）
+ *   24 long  已写入的记录总数
+ *   32 long  开始时的System.nanoTime()
+ *   40 long  开始时的System.currentTimeMillis()
+ *   48 int   是否已正常关闭
+ * 记录 32 字节：
+ *   0  long  帧开始时间（System.nanoTime()）
+ *   8  long  渲染耗时（纳秒）
+ *   16 long  帧序号
+ *   24 float 当前MSPT（毫秒）
+ *   28 int   标志位，bit0 = 本帧执行了游戏tick，bit1 = 本帧遇到了GC停顿
+ * </pre>
+ */
+public final class FrameTraceWriter {
+    static final long MAGIC = 0x314543415254504DL; // 小端序读取时为 "MPTRACE1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 32;
+    static final int FLAG_TICK = 1;
+    static final int FLAG_GC = 2;
+
+    static final int OFFSET_CAPACITY = 16;
+    static final int OFFSET_WRITTEN = 24;
+    static final int OFFSET_START_NANOS = 32;
+    static final int OFFSET_START_MILLIS = 40;
+    static final int OFFSET_CLOSED = 48;
+
+    // 单个映射区域最大2GB
+    private static final long MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    private final File file;
+    private final long capacity;
+    private final MappedByteBuffer buffer;
+    // 已写入的记录数，仅渲染线程写入
+    private long written = 0;
+
+    /**
+     * 创建并预分配追踪文件
+     * @param file 输出文件
+     * @param capacity 环形缓冲容量（记录数）
+     */
+    public FrameTraceWriter(File file, long capacity) throws IOException {
+        this.file = file;
+        this.capacity = Math.max(1, Math.min(capacity, MAX_CAPACITY));
+        long size = HEADER_SIZE + this.capacity * RECORD_SIZE;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(size);
+            // 映射在通道关闭后依然有效
+            this.buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putLong(0, MAGIC);
+        buffer.putInt(8, VERSION);
+        buffer.putInt(12, RECORD_SIZE);
+        buffer.putLong(OFFSET_CAPACITY, this.capacity);
+        buffer.putLong(OFFSET_WRITTEN, 0);
+        buffer.putLong(OFFSET_START_NANOS, System.nanoTime());
+        buffer.putLong(OFFSET_START_MILLIS, System.currentTimeMillis());
+        buffer.putInt(OFFSET_CLOSED, 0);
+    }
+
+    /**
+     * 写入一帧，只能由渲染线程调用
+     * @param flags FLAG_TICK、FLAG_GC 的组合
+     */
+    public void record(long startNanos, long durationNanos, int flags, float msptMs) {
+        long frameIndex = written;
+        int offset = (int) (HEADER_SIZE + (frameIndex % capacity) * RECORD_SIZE);
+        buffer.putLong(offset, startNanos);
+        buffer.putLong(offset + 8, durationNanos);
+        buffer.putLong(offset + 16, frameIndex);
+        buffer.putFloat(offset + 24, msptMs);
+        buffer.putInt(offset + 28, flags);
+
+        written = frameIndex + 1;
+        buffer.putLong(OFFSET_WRITTEN, written);
+    }
+
+    /**
+     * 标记文件已正常关闭并把脏页刷到磁盘，不应在渲染线程调用
+     */
+    public void close() {
+        buffer.putInt(OFFSET_CLOSED, 1);
+        buffer.force();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,98 @@
+package com.mineprofiler.metrics;
+
+/**
+ * {@link LogHistogram} 的桶计数快照
+ * 由采样线程持有并复用，提供百分位、尾部均值等查询，查询过程不分配内存
+ */
+public final class HistogramCounts {
+    private final long[] counts = new long[LogHistogram.BUCKET_COUNT];
+    private long total = 0;
+    // 实际记录到的最大值（纳秒），用于收紧最高桶的代表值
+    private long maxNanos = 0;
+
+    /**
+     * 设置为 current - base 的差值
+     */
+    void setDifference(long[] current, long[] base, long maxNanos) {
+        long sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            long c = current[i] - base[i];
+            counts[i] = c;
+            sum += c;
+        }
+        this.total = sum;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * 从另一份快照复制
+     */
+    public void copyFrom(HistogramCounts other) {
+        System.arraycopy(other.counts, 0, counts, 0, counts.length);
+        this.total = other.total;
+        this.maxNanos = other.maxNanos;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * 下标为i的桶计数
+     */
+    public long getBucketCount(int index) {
+        return counts[index];
+    }
+
+    /**
+     * 百分位数（纳秒）
+     * @param percentile 0~100
+     */
+    public long percentileNanos(double percentile) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(percentile / 100.0 * total);
+        if (rank < 1) rank = 1;
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return clampToMax(LogHistogram.bucketMidNanos(i));
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * 最慢的fraction比例样本的平均值（纳秒），例如0.01对应最慢的1%
+     */
+    public double tailMeanNanos(double fraction) {
+        if (total == 0) return 0.0;
+        long wanted = Math.max(1, (long) Math.ceil(total * fraction));
+        long taken = 0;
+        double sum = 0.0;
+        for (int i = counts.length - 1; i >= 0 && taken < wanted; i--) {
+            long c = counts[i];
+            if (c == 0) continue;
+            long use = Math.min(c, wanted - taken);
+            sum += (double) use * clampToMax(LogHistogram.bucketMidNanos(i));
+            taken += use;
+        }
+        return sum / taken;
+    }
+
+    /**
+     * 以帧时间计算的"X% low"帧率，即最慢fraction比例帧的平均帧率
+     */
+    public double lowFps(double fraction) {
+        double tailNanos = tailMeanNanos(fraction);
+        return tailNanos > 0 ? 1_000_000_000.0 / tailNanos : 0.0;
+    }
+
+    private long clampToMax(long valueNanos) {
+        return maxNanos > 0 && valueNanos > maxNanos ? maxNanos : valueNanos;
+    }
+}
@@ -0,0 +1,317 @@
+package com.mineprofiler.metrics;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadInfo;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JVM遥测：GC停顿、线程分配速率和堆占用
+ *
+ * GC停顿通过 GarbageCollectorMXBean 的通知获取（JMX通知线程写入），每次停顿写入 gc_<时间戳>.csv，
+ * 停顿开始时间换算为 System.nanoTime()，可与逐帧追踪和采样窗口直接对齐。
+ * 渲染线程每帧比较停顿计数（{@link #pauseCount()}），据此标记遇到GC停顿的帧。
+ * 分配速率由采样线程读取渲染线程、服务器线程和区块工作线程的累计分配字节数求差得到。
+ */
+public final class JvmTelemetry {
+    private static final Logger LOGGER = LogManager.getLogger("JvmTelemetry");
+    // 区块生成等后台任务的工作线程名前缀
+    private static final String WORKER_PREFIX = "Worker-";
+    // 重新查找工作线程的间隔
+    private static final long WORKER_RESCAN_NANOS = 10_000_000_000L;
+
+    /**
+     * 分配速率统计的线程类别
+     */
+    public enum ThreadRole {
+        RENDER,
+        SERVER,
+        WORKERS
+    }
+
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private final com.sun.management.ThreadMXBean threadBean;
+    // 只统计停顿型收集器（排除ZGC Cycles、G1 Concurrent GC等并发周期）
+    private final GarbageCollectorMXBean[] pauseCollectors;
+    // 堆内存池名称，用于从GcInfo中筛选堆占用
+    private final Set<String> heapPools = new HashSet<>();
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final NotificationListener listener = this::onNotification;
+
+    // JVM启动时刻对应的 System.nanoTime()，用于换算GcInfo中的毫秒时间
+    private final long jvmStartNanos;
+
+    // 停顿记录，仅JMX通知线程写入
+    private final SingleWriterRecorder pauseRecorder = new SingleWriterRecorder(true);
+    private BufferedWriter pauseLog;
+
+    // 线程ID，渲染线程和服务器线程首次记录时登记
+    private volatile long renderThreadId = -1;
+    private volatile long serverThreadId = -1;
+
+    // 以下字段仅采样线程访问
+    private long[] workerThreadIds = new long[0];
+    private long[] workerLastBytes = new long[0];
+    private long lastWorkerScanNanos = 0;
+    private final long[] lastThreadIds = {-1, -1, -1};
+    private final long[] lastBytes = new long[ThreadRole.values().length];
+    private final long[] windowBytes = new long[ThreadRole.values().length];
+
+    public JvmTelemetry() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean extended && extended.isThreadAllocatedMemorySupported()) {
+            extended.setThreadAllocatedMemoryEnabled(true);
+            this.threadBean = extended;
+        } else {
+            this.threadBean = null;
+            LOGGER.warn("当前JVM不支持线程分配统计，分配速率将为0");
+        }
+
+        List<GarbageCollectorMXBean> collectors = new ArrayList<>();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (isPauseCollector(collector.getName())) {
+                collectors.add(collector);
+            }
+        }
+        this.pauseCollectors = collectors.toArray(new GarbageCollectorMXBean[0]);
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool.getName());
+            }
+        }
+        this.jvmStartNanos = System.nanoTime() - ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000L;
+    }
+
+    /**
+     * 开始监听GC通知，并把每次停顿写入指定文件
+     */
+    public synchronized void start(File pauseLogFile) {
+        try {
+            pauseLog = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(pauseLogFile), StandardCharsets.UTF_8));
+            pauseLog.write("startNanos,timestamp,durationMs,collector,action,cause,heapBeforeMb,heapAfterMb\n");
+            pauseLog.flush();
+        } catch (IOException e) {
+            LOGGER.error("无法创建GC日志文件", e);
+            pauseLog = null;
+        }
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(listener, null, null);
+                emitters.add(emitter);
+            }
+        }
+    }
+
+    /**
+     * 停止监听并关闭GC日志
+     */
+    public synchronized void stop() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(listener);
+            } catch (ListenerNotFoundException e) {
+                // 已移除
+            }
+        }
+        emitters.clear();
+        if (pauseLog != null) {
+            try {
+                pauseLog.close();
+            } catch (IOException e) {
+                LOGGER.error("关闭GC日志文件时出错", e);
+            }
+            pauseLog = null;
+        }
+    }
+
+    /**
+     * 登记当前线程为指定类别的线程，重复调用开销很小
+     */
+    public void registerCurrentThread(ThreadRole role) {
+        long id = Thread.currentThread().getId();
+        if (role == ThreadRole.RENDER && renderThreadId != id) {
+            renderThreadId = id;
+        } else if (role == ThreadRole.SERVER && serverThreadId != id) {
+            serverThreadId = id;
+        }
+    }
+
+    /**
+     * 已登记的线程ID，未登记时为-1；工作线程不在此列
+     */
+    long getThreadId(ThreadRole role) {
+        return switch (role) {
+            case RENDER -> renderThreadId;
+            case SERVER -> serverThreadId;
+            case WORKERS -> -1;
+        };
+    }
+
+    /**
+     * 停顿型收集器的累计收集次数，渲染线程每帧调用，不分配内存
+     */
+    public long pauseCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : pauseCollectors) {
+            total += collector.getCollectionCount();
+        }
+        return total;
+    }
+
+    /**
+     * 当前堆占用（字节）
+     */
+    public long heapUsedBytes() {
+        return memoryBean.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * 推进分配统计和停顿窗口，只能由采样线程调用
+     */
+    void drain(RecorderWindow pauseWindow) {
+        pauseRecorder.drain(pauseWindow);
+        windowBytes[ThreadRole.RENDER.ordinal()] = allocationDelta(ThreadRole.RENDER, renderThreadId);
+        windowBytes[ThreadRole.SERVER.ordinal()] = allocationDelta(ThreadRole.SERVER, serverThreadId);
+        windowBytes[ThreadRole.WORKERS.ordinal()] = workerAllocationDelta();
+    }
+
+    /**
+     * 最近一个窗口内指定类别线程分配的字节数
+     */
+    long getWindowAllocatedBytes(ThreadRole role) {
+        return windowBytes[role.ordinal()];
+    }
+
+    private long allocationDelta(ThreadRole role, long threadId) {
+        if (threadBean == null || threadId < 0) return 0;
+        long bytes = threadBean.getThreadAllocatedBytes(threadId);
+        if (bytes < 0) return 0;
+        int index = role.ordinal();
+        if (lastThreadIds[index] != threadId) {
+            // 首次读取或线程已更换（例如集成服务器重新启动），从当前读数开始统计
+            lastThreadIds[index] = threadId;
+            lastBytes[index] = bytes;
+            return 0;
+        }
+        long delta = bytes - lastBytes[index];
+        lastBytes[index] = bytes;
+        return Math.max(0, delta);
+    }
+
+    private long workerAllocationDelta() {
+        if (threadBean == null) return 0;
+        long now = System.nanoTime();
+        if (now - lastWorkerScanNanos >= WORKER_RESCAN_NANOS) {
+            lastWorkerScanNanos = now;
+            rescanWorkers();
+        }
+        long[] bytes = threadBean.getThreadAllocatedBytes(workerThreadIds);
+        long total = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] < 0) continue;
+            if (bytes[i] >= workerLastBytes[i]) {
+                total += bytes[i] - workerLastBytes[i];
+            }
+            workerLastBytes[i] = bytes[i];
+        }
+        return total;
+    }
+
+    /**
+     * 按名称前缀查找工作线程，保留已知线程的上次读数
+     */
+    private void rescanWorkers() {
+        long[] allIds = threadBean.getAllThreadIds();
+        ThreadInfo[] infos = threadBean.getThreadInfo(allIds, 0);
+        List<Long> ids = new ArrayList<>();
+        for (ThreadInfo info : infos) {
+            if (info != null && info.getThreadName().startsWith(WORKER_PREFIX)) {
+                ids.add(info.getThreadId());
+            }
+        }
+        long[] newIds = new long[ids.size()];
+        long[] newLast = new long[ids.size()];
+        for (int i = 0; i < newIds.length; i++) {
+            newIds[i] = ids.get(i);
+            newLast[i] = -1;
+            for (int j = 0; j < workerThreadIds.length; j++) {
+                if (workerThreadIds[j] == newIds[i]) {
+                    newLast[i] = workerLastBytes[j];
+                    break;
+                }
+            }
+            if (newLast[i] < 0) {
+                // 新发现的线程从当前读数开始统计
+                newLast[i] = Math.max(0, threadBean.getThreadAllocatedBytes(newIds[i]));
+            }
+        }
+        workerThreadIds = newIds;
+        workerLastBytes = newLast;
+    }
+
+    /**
+     * JMX通知回调，在通知线程上执行
+     */
+    private void onNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        if (!isPauseCollector(info.getGcName())) return;
+
+        long durationNanos = info.getGcInfo().getDuration() * 1_000_000L;
+        long startNanos = jvmStartNanos + info.getGcInfo().getStartTime() * 1_000_000L;
+        synchronized (this) {
+            pauseRecorder.record(durationNanos);
+            if (pauseLog == null) return;
+            try {
+                pauseLog.write(String.format(Locale.ROOT, "%d,%d,%d,%s,%s,%s,%.1f,%.1f%n",
+                        startNanos,
+                        System.currentTimeMillis() - (System.nanoTime() - startNanos) / 1_000_000L,
+                        info.getGcInfo().getDuration(),
+                        info.getGcName(), info.getGcAction(), info.getGcCause(),
+                        heapMb(info.getGcInfo().getMemoryUsageBeforeGc()),
+                        heapMb(info.getGcInfo().getMemoryUsageAfterGc())));
+                pauseLog.flush();
+            } catch (IOException e) {
+                LOGGER.error("写入GC日志时出错", e);
+            }
+        }
+    }
+
+    private double heapMb(Map<String, MemoryUsage> pools) {
+        long used = 0;
+        for (Map.Entry<String, MemoryUsage> entry : pools.entrySet()) {
+            if (heapPools.contains(entry.getKey())) {
+                used += entry.getValue().getUsed();
+            }
+        }
+        return used / (1024.0 * 1024.0);
+    }
+
+    private static boolean isPauseCollector(String name) {
+        return !name.contains("Cycles") && !name.contains("Concurrent");
+    }
+}
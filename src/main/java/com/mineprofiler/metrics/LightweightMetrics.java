@@ -1,118 +1,380 @@
 package com.mineprofiler.metrics;
 
-import com.mineprofiler.MineProfilerMod;
-import net.minecraft.client.MinecraftClient;
+import com.google.gson.JsonElement;
+import com.mineprofiler.config.TestConfig;
+import com.mineprofiler.metrics.jfr.FrameRenderedEvent;
+import com.mineprofiler.metrics.jfr.JfrSession;
+import com.mineprofiler.metrics.jfr.SampleWindowEvent;
+import com.mineprofiler.metrics.io.ColumnarSampleSink;
+import com.mineprofiler.metrics.io.CsvSampleSink;
+import com.mineprofiler.metrics.io.SampleSchema;
+import com.mineprofiler.metrics.io.SampleSink;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 简化版的轻量级性能指标收集器
  * 收集基本信息并保存到CSV文件
+ *
+ * 渲染线程、客户端tick线程和服务器线程分别写入各自的 {@link SingleWriterRecorder}，
+ * 记录路径无锁、无分配；采样线程按窗口读取累计量，不会与写线程争用。
+ * 本类不依赖客户端类，玩家位置等运行环境数据由 {@link WorldProbe} 提供，
+ * 因此集成服务器和专用服务器都可以使用。
  */
 public class LightweightMetrics {
     private static final Logger LOGGER = LogManager.getLogger("LightweightMetrics");
-    private final MinecraftClient client;
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+    // 计算慢帧阈值所需的最少样本数
+    private static final long MIN_THRESHOLD_SAMPLES = 100;
+    // 按帧切分窗口时未处理边界的队列长度
+    private static final int BOUNDARY_CAPACITY = 32;
+    // 按帧切分窗口时采样线程检查新边界的间隔（毫秒）
+    private static final long BOUNDARY_POLL_MS = 10;
+    // 收集期间修改后在下一个窗口边界生效的配置项，其余配置项在下次开始收集时生效
+    private static final Set<String> LIVE_CONFIG_KEYS = Set.of(
+            "metrics.sampleInterval", "metrics.sampleFrames", "metrics.stackSampling", "metrics.stackPercentile",
+            "metrics.spikeCapture", "metrics.spikeFrameMs", "metrics.spikeTickMs", "metrics.spikeCooldownMs",
+            "metrics.spikeEntityRadius");
+    // 当前实例，供客户端和服务器共用的Mixin访问
+    private static volatile LightweightMetrics current;
     
-    // 性能指标
-    private double currentFps = 0.0;
-    private double averageFps = 0.0;
-    private double minFps = Double.MAX_VALUE;
-    private double maxFps = 0.0;
+    private final WorldProbe probe;
+    // 当前完整配置（不可变），重新加载时在窗口边界整体替换，指标配置由它派生；完整配置写入运行清单
+    private volatile TestConfig config;
+    // 等待在下一个窗口边界应用的新配置
+    private final AtomicReference<TestConfig> pendingConfig = new AtomicReference<>();
     
-    private double currentFrameTime = 0.0;
-    private double averageFrameTime = 0.0;
-    private double minFrameTime = Double.MAX_VALUE;
-    private double maxFrameTime = 0.0;
+    // 性能指标记录器：每个记录器只有一个写线程，采样线程无锁读取
+    // 帧时间（纳秒），由渲染线程写入，附带直方图用于百分位和"1% low"统计
+    private final SingleWriterRecorder frameTimeRecorder = new SingleWriterRecorder(true);
+    // FPS，由客户端tick线程写入
+    private final SingleWriterRecorder fpsRecorder = new SingleWriterRecorder();
+    // MSPT（纳秒），由服务器线程写入：优先使用ServerTickProfiler精确测量的每tick耗时
+    private final SingleWriterRecorder msptRecorder = new SingleWriterRecorder(true);
     
-    // 采样窗口内的帧时间累计（用于计算窗口平均值）
-    private double frameTimeSumInWindow = 0.0;
-    private int frameTimeCountInWindow = 0;
+    // 采样窗口统计，由采样线程访问（持有sampleLock时）；开始和停止收集时由调用线程访问
+    // 渲染线程从不获取sampleLock，持有sampleLock时也不做文件IO
+    private final RecorderWindow frameTimeWindow = new RecorderWindow();
+    private final RecorderWindow fpsWindow = new RecorderWindow();
+    private final RecorderWindow msptWindow = new RecorderWindow();
+    private final Object sampleLock = new Object();
     
-    // MSPT相关指标
-    private float currentMspt = 0.0f;
-    private float averageMspt = 0.0f;
-    private float minMspt = Float.MAX_VALUE;
-    private float maxMspt = 0.0f;
+    // 渲染阶段计时，由渲染线程写入
+    private final PhaseTimer<RenderPhase> renderPhases = new PhaseTimer<>(RenderPhase.class);
+    private final RecorderWindow[] phaseWindows = newWindows(RenderPhase.VALUES.length);
     
-    private int frameCount = 0;
-    private int msptCount = 0;
+    // 慢帧/慢tick区间，供栈采样器筛选样本
+    private final SlowSpans slowFrames = new SlowSpans();
+    private final SlowSpans slowTicks = new SlowSpans();
+    private StackSampler stackSampler;
+    
+    // 尖峰捕获，帧历史由渲染线程写入，tick历史由服务器线程写入
+    private final SpikeCapture spikes;
+    
+    // 服务器tick计时，由服务器线程写入
+    private final ServerTickProfiler serverTicks;
+    private final RecorderWindow[] serverPhaseWindows = newWindows(ServerPhase.VALUES.length);
+    private final RecorderWindow[] dimensionWindows = newWindows(ServerTickProfiler.MAX_DIMENSIONS);
+    
+    // 区块吞吐与延迟，由服务器线程和客户端线程写入
+    private final ChunkTracker chunkTracker = new ChunkTracker();
+    private final RecorderWindow chunkLoadWindow = new RecorderWindow();
+    private final RecorderWindow chunkVisibleWindow = new RecorderWindow();
+    private final RecorderWindow chunkServerWindow = new RecorderWindow();
+    private final RecorderWindow chunkClientWindow = new RecorderWindow();
+    
+    // JVM遥测：GC停顿由JMX通知线程写入，遇到停顿的帧由渲染线程写入
+    private final JvmTelemetry jvm = new JvmTelemetry();
+    private final RecorderWindow gcPauseWindow = new RecorderWindow();
+    private final SingleWriterRecorder gcFrameRecorder = new SingleWriterRecorder();
+    private final RecorderWindow gcFrameWindow = new RecorderWindow();
+    // 上一帧结束时的GC停顿计数，仅渲染线程访问
+    private long lastFramePauseCount;
+    // 本帧中不计入帧时间的耗时（性能浮层的绘制），仅渲染线程访问
+    private long excludedFrameNanos;
+    
+    // 当前帧的JFR事件，仅在录制启用该事件时创建，仅渲染线程访问
+    private FrameRenderedEvent frameEvent;
+    private volatile JfrSession jfrSession;
+    
+    // 当前窗口的起止时间（System.nanoTime()），受sampleLock保护
+    private long windowStartNanos = 0;
+    private long windowEndNanos = 0;
+    
+    // 采样调度
+    private volatile ScheduledExecutorService sampler;
+    // 定时采样任务，按帧采样时为检查新边界的任务
+    private volatile ScheduledFuture<?> sampleTask;
+    // 按帧切分窗口时渲染线程发布的窗口边界，首次按帧采样时创建
+    private volatile FrameBoundaries boundaries;
+    // 已经汇报过的并入下一个窗口的边界数，仅采样线程访问
+    private long reportedMergedBoundaries = 0;
+    // 等待在窗口边界生效的测量状态变化，仅采样线程访问
+    private MeasurementChange pendingMeasurement;
+    // 按帧采样时，写出这一序号的边界之后测量状态变化才生效
+    private long pendingMeasurementBoundary;
+    // 当前窗口是否属于正式测量（预热和冷却期间为false），写入measuring列
+    private volatile boolean measuring = true;
+    // 结束测量时已输出报告，停止收集时不再重复输出
+    private volatile boolean reported = false;
+    // 最近一次报告的汇总指标
+    private volatile RunSummary lastSummary;
+    // 按帧切分窗口时每个窗口的帧数，0表示按时间采样；渲染线程读取
+    private volatile int framesPerWindow = 0;
+    // 当前窗口已渲染的帧数，仅渲染线程访问
+    private int framesInWindow = 0;
     
     // CSV数据导出
-    private Timer samplingTimer;
-    private BufferedWriter dataWriter;
+    private SampleSink dataWriter;
+    private SampleSchema schema;
+    // 待写出的一行，按列类型存放long值或double的位模式；在sampleLock内填充，释放锁后写出，仅采样线程访问
+    private long[] row;
+    private int rowColumn;
     private String outputFilename;
-    private static final int SAMPLE_INTERVAL_MS = 1000; // 采样间隔，默认1秒
+    private volatile File outputDirectory;
+    private volatile String runTimestamp;
+    // 本次运行的清单，收集期间非null
+    private volatile RunManifest manifest;
+    
+    // 逐帧追踪（可选），由渲染线程写入
+    private volatile FrameTraceWriter traceWriter;
+    
+    // 最近一个窗口的快照，每个窗口由采样线程发布一次，供实时指标端点无锁读取
+    private volatile MetricsSnapshot snapshot;
+    // 实时指标端点（可选），与进程同生命周期
+    private final OpenMetricsExporter exporter;
     
     /**
-     * 默认构造函数
+     * 测量状态的变化
      */
-    public LightweightMetrics() {
-        this.client = MinecraftClient.getInstance();
+    private enum MeasurementChange {
+        BEGIN,
+        END
+    }
+    
+    /**
+     * 使用指定的配置构造
+     * @param config 测试配置，使用其中的指标配置，并完整写入运行清单
+     * @param probe 运行环境探针
+     */
+    public LightweightMetrics(TestConfig config, WorldProbe probe) {
+        this.config = config;
+        this.probe = probe;
+        TestConfig.MetricsConfig metrics = config.getMetrics();
+        this.spikes = new SpikeCapture(probe, metrics.getSpikeHistoryFrames(), metrics.getSpikeFrameMs(),
+                metrics.getSpikeTickMs(), metrics.getSpikeCooldownMs(), metrics.getSpikeEntityRadius());
+        this.serverTicks = new ServerTickProfiler(msptRecorder, slowTicks, spikes);
+        this.lastFramePauseCount = jvm.pauseCount();
+        int port = metrics.getOpenMetricsPort();
+        this.exporter = port > 0 ? OpenMetricsExporter.start(port, this::getSnapshot) : null;
+        current = this;
         LOGGER.info("轻量级性能指标收集器已初始化");
     }
     
     /**
-     * 更新FPS指标
+     * 当前的指标收集器，尚未创建时为null
+     * 供客户端与服务器共用的Mixin使用（专用服务器上没有客户端模组实例）
+     */
+    public static LightweightMetrics current() {
+        return current;
+    }
+    
+    /**
+     * 更新FPS指标，只能由客户端tick线程调用
      */
     public void updateFps(double fps) {
-        this.currentFps = fps;
-        this.minFps = Math.min(minFps, fps);
-        this.maxFps = Math.max(maxFps, fps);
-        
-        frameCount++;
-        // 更新平均值
-        double delta = fps - averageFps;
-        averageFps += delta / frameCount;
+        fpsRecorder.record(Math.round(fps));
     }
     
     /**
-     * 更新帧时间指标
+     * 更新帧时间指标（毫秒）
      */
     public void updateFrameTime(double frameTimeMs) {
-        this.currentFrameTime = frameTimeMs;
-        this.minFrameTime = Math.min(minFrameTime, frameTimeMs);
-        this.maxFrameTime = Math.max(maxFrameTime, frameTimeMs);
-        
-        // 累计到采样窗口（用于计算这一秒内的平均渲染耗时）
-        frameTimeSumInWindow += frameTimeMs;
-        frameTimeCountInWindow++;
+        updateFrameTimeNanos((long) (frameTimeMs * 1_000_000.0));
+    }
+    
+    /**
+     * 更新帧时间指标（纳秒），只能由渲染线程调用
+     * 不加锁、不分配内存
+     */
+    public void updateFrameTimeNanos(long frameTimeNanos) {
+        frameTimeRecorder.record(frameTimeNanos);
+    }
+    
+    /**
+     * 本帧中一段不属于游戏本身的耗时（性能浮层的绘制），在 {@link #recordFrame} 中从渲染耗时扣除
+     * 只能由渲染线程调用
+     */
+    void excludeFromFrame(long nanos) {
+        excludedFrameNanos += nanos;
+    }
+    
+    /**
+     * 记录一帧，只能由渲染线程调用
+     * 除更新帧时间统计外，启用追踪模式时还会把该帧写入追踪文件
+     * @param startNanos 帧开始时间（System.nanoTime()）
+     * @param durationNanos 渲染耗时，其中由 {@link #excludeFromFrame} 登记的部分不计入
+     * @param tick 本帧是否执行了游戏tick
+     */
+    public void recordFrame(long startNanos, long durationNanos, boolean tick) {
+        durationNanos = Math.max(0, durationNanos - excludedFrameNanos);
+        excludedFrameNanos = 0;
+        frameTimeRecorder.record(durationNanos);
+        slowFrames.spanEnded(startNanos, startNanos + durationNanos);
+        jvm.registerCurrentThread(JvmTelemetry.ThreadRole.RENDER);
+        // 停顿计数在本帧内变化，说明本帧（或与上一帧之间）遇到了GC停顿
+        long pauseCount = jvm.pauseCount();
+        boolean gcPause = pauseCount != lastFramePauseCount;
+        lastFramePauseCount = pauseCount;
+        if (gcPause) {
+            gcFrameRecorder.record(durationNanos);
+        }
+        int flags = (tick ? FrameTraceWriter.FLAG_TICK : 0) | (gcPause ? FrameTraceWriter.FLAG_GC : 0);
+        long msptNanos = msptRecorder.getLast();
+        spikes.recordFrame(startNanos, durationNanos, flags, msptNanos, renderPhases);
+        FrameTraceWriter trace = traceWriter;
+        if (trace != null) {
+            trace.record(startNanos, durationNanos, flags, msptNanos / 1_000_000.0f);
+        }
+        FrameRenderedEvent event = frameEvent;
+        if (event != null) {
+            frameEvent = null;
+            event.end();
+            if (event.shouldCommit()) {
+                event.frameTime = durationNanos;
+                event.tick = tick;
+                event.gcPause = gcPause;
+                event.world = renderPhases.getLastCycleNanos(RenderPhase.WORLD);
+                event.chunkUpload = renderPhases.getLastCycleNanos(RenderPhase.CHUNK_UPLOAD);
+                event.entities = renderPhases.getLastCycleNanos(RenderPhase.ENTITIES);
+                event.blockEntities = renderPhases.getLastCycleNanos(RenderPhase.BLOCK_ENTITIES);
+                event.particles = renderPhases.getLastCycleNanos(RenderPhase.PARTICLES);
+                event.hud = renderPhases.getLastCycleNanos(RenderPhase.HUD);
+                event.commit();
+            }
+        }
         
-        // 更新全局平均值
-        double delta = frameTimeMs - averageFrameTime;
-        int totalCount = frameCount > 0 ? frameCount : 1;
-        averageFrameTime += delta / totalCount;
+        // 按帧切分窗口：在第N帧结束时由渲染线程发布边界，保证每个窗口恰好包含N帧
+        // 渲染线程只复制自己记录器的累计量，推进窗口和写出都由采样线程完成
+        int frames = framesPerWindow;
+        if (frames > 0 && ++framesInWindow >= frames) {
+            framesInWindow = 0;
+            boundaries.publish(startNanos + durationNanos);
+        }
     }
     
     /**
-     * 更新MSPT指标
+     * 一帧开始，只能由渲染线程调用
+     */
+    public void beginFrame() {
+        renderPhases.reset();
+        excludedFrameNanos = 0;
+        if (FrameRenderedEvent.isTypeEnabled()) {
+            frameEvent = new FrameRenderedEvent();
+            frameEvent.begin();
+        } else {
+            frameEvent = null;
+        }
+    }
+    
+    /**
+     * 获取渲染阶段计时器，只能由渲染线程使用
+     */
+    public PhaseTimer<RenderPhase> getRenderPhases() {
+        return renderPhases;
+    }
+    
+    /**
+     * 获取服务器tick计时器，只能由服务器线程使用
+     */
+    public ServerTickProfiler getServerTicks() {
+        return serverTicks;
+    }
+    
+    /**
+     * 获取区块跟踪器，可由任意线程调用其事件方法
+     */
+    public ChunkTracker getChunks() {
+        return chunkTracker;
+    }
+    
+    /**
+     * 获取尖峰捕获，帧历史只能由渲染线程读取
+     */
+    public SpikeCapture getSpikes() {
+        return spikes;
+    }
+    
+    /**
+     * 获取JVM遥测
+     */
+    public JvmTelemetry getJvm() {
+        return jvm;
+    }
+    
+    /**
+     * 本次运行的输出目录，开始收集前为null
+     */
+    public File getOutputDirectory() {
+        return outputDirectory;
+    }
+    
+    /**
+     * 本次运行的时间戳，用于同一次运行的各输出文件命名
+     */
+    public String getRunTimestamp() {
+        return runTimestamp;
+    }
+    
+    /**
+     * 更新MSPT指标，只能由服务器线程调用
+     * 仅用于无法精确测量tick耗时的场合，不应与 {@link ServerTickProfiler} 同时使用
      */
     public void updateMspt(float mspt) {
-        this.currentMspt = mspt;
-        this.minMspt = Math.min(minMspt, mspt);
-        this.maxMspt = Math.max(maxMspt, mspt);
-        
-        msptCount++;
-        // 更新平均值
-        float delta = mspt - averageMspt;
-        averageMspt += delta / msptCount;
+        msptRecorder.record((long) (mspt * 1_000_000.0));
     }
     
     /**
-     * 开始收集性能数据
+     * 开始收集性能数据，所有数据都计入测量
      */
     public void startCollection() {
+        startCollection(true);
+    }
+    
+    /**
+     * 开始收集性能数据
+     * @param measuring 是否立即开始正式测量；为false时先作为预热期，由 {@link #beginMeasurement()} 开始测量
+     */
+    public void startCollection(boolean measuring) {
+        TestConfig runConfig = config;
+        TestConfig.MetricsConfig metrics = runConfig.getMetrics();
+        this.measuring = measuring;
+        this.reported = false;
+        this.lastSummary = null;
+        
         // 创建输出文件
         try {
-            setupOutputFile();
+            setupOutputFile(metrics);
         } catch (IOException e) {
             LOGGER.error("无法创建输出文件", e);
             return;
@@ -120,58 +382,418 @@ public class LightweightMetrics {
         
         // 写入CSV头
         try {
-            dataWriter.write("timestamp,fps,frameTime,mspt,playerX,playerY,playerZ,loadedChunks\n");
-            dataWriter.flush();
+            schema = buildSchema();
+            row = new long[schema.size()];
+            dataWriter.writeHeader(schema);
         } catch (IOException e) {
             LOGGER.error("无法写入CSV头", e);
             closeWriter();
             return;
         }
         
-        // 启动计时器进行定期采样
-        samplingTimer = new Timer("MetricsSampler");
-        samplingTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                collectAndWriteMetrics();
+        // 逐帧追踪
+        if (metrics.isTraceMode()) {
+            File traceFile = new File(outputDirectory, "trace_" + runTimestamp + ".bin");
+            try {
+                traceWriter = new FrameTraceWriter(traceFile, metrics.getTraceCapacityFrames());
+                LOGGER.info("已启用逐帧追踪，容量 " + traceWriter.getCapacity() + " 帧，文件: " + traceFile);
+            } catch (IOException e) {
+                LOGGER.error("无法创建追踪文件", e);
             }
-        }, SAMPLE_INTERVAL_MS, SAMPLE_INTERVAL_MS);
+        }
+        
+        // GC停顿日志
+        jvm.start(new File(outputDirectory, "gc_" + runTimestamp + ".csv"));
+        
+        // 慢帧栈采样
+        if (metrics.isStackSampling()) {
+            stackSampler = new StackSampler(jvm, slowFrames, slowTicks, metrics.getStackSampleIntervalMs());
+            stackSampler.start();
+            LOGGER.info("已启用慢帧栈采样，间隔 " + metrics.getStackSampleIntervalMs() + " ms，阈值 p" + metrics.getStackPercentile());
+        }
+        
+        // JFR录制
+        if (metrics.isJfrRecording()) {
+            jfrSession = JfrSession.start(new File(outputDirectory, "recording_" + runTimestamp + ".jfr"), metrics.getJfrSettings());
+        }
+        
+        // 以当前时刻作为本次运行的起点，丢弃开始收集之前记录的数据
+        pendingMeasurement = null;
+        FrameBoundaries published = boundaries;
+        if (published != null) {
+            published.discard();
+        }
+        synchronized (sampleLock) {
+            drainWindows();
+            resetRunWindows();
+            windowEndNanos = System.nanoTime();
+        }
+        
+        // 启动采样线程
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MetricsSampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        framesInWindow = 0;
+        scheduleSampling();
+        
+        // 尖峰日志由采样线程写入
+        if (metrics.isSpikeCapture()) {
+            startSpikeLog();
+        }
         
-        LOGGER.info("已开始收集性能指标，每 " + SAMPLE_INTERVAL_MS/1000 + " 秒采样一次");
+        // 运行清单，开始时先写一次，运行中断时也能知道数据来自什么环境
+        // 写出后再发布，之后只由采样线程（重新加载配置时）和停止收集时访问
+        RunManifest created = new RunManifest(runTimestamp, runConfig);
+        created.setOutputFormat(metrics.getOutputFormat());
+        created.setGame(probe);
+        created.write(outputDirectory);
+        manifest = created;
+    }
+    
+    /**
+     * 按当前配置安排窗口切分，已有的定时任务先取消
+     * 在开始收集时或由采样线程调用
+     */
+    private void scheduleSampling() {
+        ScheduledFuture<?> task = sampleTask;
+        if (task != null) {
+            task.cancel(false);
+            sampleTask = null;
+        }
+        TestConfig.MetricsConfig metrics = config.getMetrics();
+        int sampleFrames = metrics.getSampleFrames();
+        if (sampleFrames > 0) {
+            // 由渲染线程按帧数发布窗口边界，采样线程定期取出
+            if (boundaries == null) {
+                boundaries = new FrameBoundaries(BOUNDARY_CAPACITY, frameTimeRecorder, fpsRecorder, gcFrameRecorder, renderPhases);
+            }
+            framesPerWindow = sampleFrames;
+            sampleTask = sampler.scheduleWithFixedDelay(this::emitWindowsSafely, BOUNDARY_POLL_MS, BOUNDARY_POLL_MS, TimeUnit.MILLISECONDS);
+            LOGGER.info("已开始收集性能指标，每 " + sampleFrames + " 帧采样一次");
+        } else {
+            framesPerWindow = 0;
+            // 按帧采样时留下的边界已经过时，按时间切分的窗口会包含这些帧
+            if (boundaries != null) {
+                boundaries.discard();
+            }
+            // 固定频率调度以初始时间为基准，不会累积漂移
+            long intervalMs = metrics.getSampleIntervalMs();
+            sampleTask = sampler.scheduleAtFixedRate(this::sampleSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+            LOGGER.info("已开始收集性能指标，每 " + intervalMs + " 毫秒采样一次");
+        }
+    }
+    
+    private void startSpikeLog() {
+        spikes.start(new File(outputDirectory, "spikes_" + runTimestamp + ".jsonl"), sampler);
+    }
+    
+    /**
+     * 应用重新加载的配置，可由任意线程调用
+     * 收集期间由采样线程在下一个窗口边界切换，采样间隔、尖峰和慢帧栈采样的开关及阈值立即生效，
+     * 不中断当前运行；其余配置项在下次开始收集时生效
+     */
+    public void applyConfig(TestConfig next) {
+        pendingConfig.set(next);
+        if (!isCollecting()) {
+            applyPendingConfig();
+        }
+    }
+    
+    /**
+     * 切换到等待中的新配置，收集期间只能由采样线程在写出窗口后调用
+     */
+    private void applyPendingConfig() {
+        TestConfig next = pendingConfig.getAndSet(null);
+        if (next == null) return;
+        TestConfig.MetricsConfig previous;
+        Map<String, JsonElement> changes;
+        synchronized (sampleLock) {
+            previous = config.getMetrics();
+            changes = config.diff(next);
+            config = next;
+        }
+        TestConfig.MetricsConfig metrics = next.getMetrics();
+        spikes.setThresholds(metrics.getSpikeFrameMs(), metrics.getSpikeTickMs(), metrics.getSpikeCooldownMs(), metrics.getSpikeEntityRadius());
+        if (!isCollecting() || changes.isEmpty()) return;
+        
+        if (previous.getSampleFrames() != metrics.getSampleFrames() || previous.getSampleIntervalMs() != metrics.getSampleIntervalMs()) {
+            scheduleSampling();
+        }
+        if (previous.isSpikeCapture() != metrics.isSpikeCapture()) {
+            if (metrics.isSpikeCapture()) {
+                startSpikeLog();
+            } else {
+                spikes.stop();
+            }
+        }
+        if (previous.isStackSampling() != metrics.isStackSampling()) {
+            if (metrics.isStackSampling()) {
+                // 再次启用时沿用之前的采样器，结果继续累计
+                if (stackSampler == null) {
+                    stackSampler = new StackSampler(jvm, slowFrames, slowTicks, metrics.getStackSampleIntervalMs());
+                }
+                stackSampler.start();
+            } else if (stackSampler != null) {
+                // 写出目前为止的结果
+                stackSampler.stop(outputDirectory, runTimestamp);
+            }
+        }
+        
+        List<String> deferred = new ArrayList<>();
+        for (String key : changes.keySet()) {
+            if (!LIVE_CONFIG_KEYS.contains(key)) {
+                deferred.add(key);
+            }
+        }
+        LOGGER.info("已在窗口边界应用新配置: " + changes);
+        if (!deferred.isEmpty()) {
+            LOGGER.warn("以下配置项在下次开始收集时生效: " + deferred);
+        }
+        RunManifest current = manifest;
+        if (current != null) {
+            current.addConfigChange(changes);
+            current.write(outputDirectory);
+        }
     }
     
     /**
      * 停止收集性能数据
      */
     public void stopCollection() {
-        if (samplingTimer != null) {
-            samplingTimer.cancel();
-            samplingTimer = null;
+        framesPerWindow = 0;
+        spikes.stop();
+        ScheduledExecutorService executor = sampler;
+        if (executor != null) {
+            ScheduledFuture<?> task = sampleTask;
+            if (task != null) {
+                task.cancel(false);
+                sampleTask = null;
+            }
+            // 写出渲染线程已发布但尚未处理的窗口
+            executor.execute(this::emitWindowsSafely);
+            sampler.shutdown();
+            try {
+                if (!sampler.awaitTermination(1, TimeUnit.SECONDS)) {
+                    sampler.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sampler = null;
         }
         
+        // 采样线程已结束，之后只有调用线程访问写入器和窗口
         closeWriter();
+        spikes.close();
+        closeTrace();
+        jvm.stop();
+        if (stackSampler != null) {
+            stackSampler.stop(outputDirectory, runTimestamp);
+            stackSampler = null;
+        }
+        JfrSession session = jfrSession;
+        if (session != null) {
+            jfrSession = null;
+            session.stop();
+        }
         LOGGER.info("已停止收集性能指标，数据保存至 " + outputFilename);
         
+        // 把最后一个未满的窗口也计入全程统计，尚未在窗口边界生效的测量状态变化在此刻生效
+        synchronized (sampleLock) {
+            drainWindows();
+        }
+        applyMeasurementChange();
+        
         // 打印性能报告
-        printReport();
+        if (!reported) {
+            printReport();
+            writeDimensionReport();
+        }
+        
+        if (manifest != null) {
+            manifest.setFinished(lastSummary);
+            manifest.write(outputDirectory);
+            manifest = null;
+        }
+    }
+    
+    /**
+     * 是否正在收集
+     */
+    public boolean isCollecting() {
+        return sampler != null;
+    }
+    
+    /**
+     * 最近一次报告的汇总指标（正式测量结束或停止收集时生成），尚未生成时为null
+     */
+    public RunSummary getLastSummary() {
+        return lastSummary;
+    }
+    
+    /**
+     * 最近一个写出窗口的快照，尚未写出过窗口时为null，可以在任何线程上无锁调用
+     */
+    public MetricsSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * 预热结束，开始正式测量
+     * 写出预热期的最后一行，之前的数据不计入全程统计；切分窗口和写出由采样线程完成，调用线程不等待。
+     * 按时间采样时在此刻切分窗口，按帧采样时在下一个窗口边界生效
+     */
+    public void beginMeasurement() {
+        requestMeasurementChange(MeasurementChange.BEGIN);
+    }
+    
+    /**
+     * 结束正式测量并输出报告，之后到停止收集之前的数据（冷却期）只写入CSV，不计入报告
+     * 与 {@link #beginMeasurement()} 一样由采样线程完成，按帧采样时在下一个窗口边界生效
+     */
+    public void endMeasurement() {
+        requestMeasurementChange(MeasurementChange.END);
+    }
+    
+    private void requestMeasurementChange(MeasurementChange change) {
+        ScheduledExecutorService executor = sampler;
+        if (executor != null) {
+            // 按帧采样时在包含此刻的窗口结束时生效，而不是采样线程处理到的下一个边界
+            FrameBoundaries published = boundaries;
+            long boundary = published != null ? published.getPublished() : 0;
+            try {
+                executor.execute(() -> changeMeasurementSafely(change, boundary));
+                return;
+            } catch (RejectedExecutionException e) {
+                // 正在停止收集
+            }
+        }
+        // 未在收集，没有需要写出的窗口
+        pendingMeasurement = change;
+        applyMeasurementChange();
+    }
+    
+    /**
+     * 在采样线程上记录测量状态变化，按时间采样时立即切分并写出当前窗口
+     */
+    private void changeMeasurementSafely(MeasurementChange change, long boundary) {
+        try {
+            // 上一次变化还没等到窗口边界，先在此刻生效，保证开始和结束都不会丢失
+            applyMeasurementChange();
+            pendingMeasurement = change;
+            pendingMeasurementBoundary = boundary;
+            if (framesPerWindow == 0) {
+                cutWindow(System.nanoTime(), null);
+                writeWindow();
+                afterWindow();
+            }
+        } catch (Throwable t) {
+            LOGGER.error("切换测量状态时出错", t);
+        }
+    }
+    
+    /**
+     * 应用等待中的测量状态变化，在写出一个窗口之后由采样线程调用，或在采样线程结束后由停止收集的线程调用
+     */
+    private void applyMeasurementChange() {
+        MeasurementChange change = pendingMeasurement;
+        if (change == null) return;
+        pendingMeasurement = null;
+        if (change == MeasurementChange.BEGIN) {
+            synchronized (sampleLock) {
+                resetRunWindows();
+            }
+            measuring = true;
+            LOGGER.info("预热结束，开始正式测量");
+        } else {
+            measuring = false;
+            reported = true;
+            printReport();
+            writeDimensionReport();
+            LOGGER.info("正式测量结束");
+        }
     }
     
     /**
      * 设置输出文件
      */
-    private void setupOutputFile() throws IOException {
+    private void setupOutputFile(TestConfig.MetricsConfig metrics) throws IOException {
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd_HHmmss");
-        String timestamp = dateFormat.format(new Date());
+        runTimestamp = dateFormat.format(new Date());
         
-        // 使用Java临时目录属性获取系统临时目录
-        String tmpDir = System.getProperty("java.io.tmpdir");
-        File outputDir = new File(tmpDir, "game_play");
-        if (!outputDir.exists()) {
-            outputDir.mkdirs();
+        // 相对路径以游戏目录为基准，未配置时使用系统临时目录
+        String directory = metrics.getOutputDirectory();
+        outputDirectory = directory != null && !directory.isBlank()
+                ? new File(directory).getAbsoluteFile()
+                : new File(System.getProperty("java.io.tmpdir"), "game_play");
+        if (!outputDirectory.exists() && !outputDirectory.mkdirs()) {
+            throw new IOException("无法创建输出目录: " + outputDirectory);
         }
         
-        outputFilename = outputDir.getPath() + File.separator + "perf_" + timestamp + ".csv";
-        dataWriter = new BufferedWriter(new FileWriter(outputFilename));
+        String format = metrics.getOutputFormat();
+        if ("columnar".equalsIgnoreCase(format)) {
+            // 压缩列式格式，使用 ColumnarTool 读取
+            outputFilename = outputDirectory.getPath() + File.separator + "perf_" + runTimestamp + ".mpcol";
+            dataWriter = new ColumnarSampleSink(new File(outputFilename), metrics.getFlushIntervalMs());
+            return;
+        }
+        if (!"csv".equalsIgnoreCase(format)) {
+            LOGGER.warn("不支持的输出格式 " + format + "，使用csv");
+        }
+        outputFilename = outputDirectory.getPath() + File.separator + "perf_" + runTimestamp + ".csv";
+        dataWriter = new CsvSampleSink(new File(outputFilename), metrics.getFlushIntervalMs());
+    }
+    
+    /**
+     * 输出列定义，列顺序必须与 fillRow 中的写入顺序一致
+     */
+    static SampleSchema buildSchema() {
+        SampleSchema.Builder builder = SampleSchema.builder()
+                .longColumn("timestamp")
+                .longColumn("windowStartNanos")
+                .longColumn("windowEndNanos")
+                .longColumn("measuring")
+                .longColumn("frames")
+                .doubleColumn("fps")
+                .doubleColumn("frameTime")
+                .doubleColumn("frameTimeP50")
+                .doubleColumn("frameTimeP95")
+                .doubleColumn("frameTimeP99")
+                .doubleColumn("frameTimeP999")
+                .doubleColumn("frameTimeMax")
+                .doubleColumn("fpsLow1")
+                .doubleColumn("fpsLow01")
+                .doubleColumn("mspt")
+                .doubleColumn("msptP99")
+                .doubleColumn("msptMax")
+                .longColumn("ticks")
+                .doubleColumn("playerX")
+                .doubleColumn("playerY")
+                .doubleColumn("playerZ")
+                .longColumn("loadedChunks")
+                .doubleColumn("chunksServerPerSec", 1)
+                .doubleColumn("chunksClientPerSec", 1)
+                .doubleColumn("chunkLoadP50")
+                .doubleColumn("chunkLoadP99")
+                .doubleColumn("chunkVisibleP50")
+                .doubleColumn("chunkVisibleP99")
+                .doubleColumn("heapUsedMb", 1)
+                .doubleColumn("allocRenderMBps")
+                .doubleColumn("allocServerMBps")
+                .doubleColumn("allocWorkersMBps")
+                .longColumn("gcPauses")
+                .doubleColumn("gcPauseMs", 1)
+                .doubleColumn("gcPauseMaxMs", 1)
+                .longColumn("gcFrames");
+        for (RenderPhase phase : RenderPhase.VALUES) {
+            builder.doubleColumn(phase.getColumnName(), 3);
+        }
+        for (ServerPhase phase : ServerPhase.VALUES) {
+            builder.doubleColumn(phase.getColumnName(), 3);
+        }
+        return builder.build();
     }
     
     /**
@@ -189,57 +811,520 @@ public class LightweightMetrics {
     }
     
     /**
-     * 收集并记录性能指标
+     * 推进所有记录器的采样窗口，调用方必须持有sampleLock
      */
-    private void collectAndWriteMetrics() {
-        if (client == null || client.player == null || dataWriter == null) return;
-        
+    private void drainWindows() {
+        frameTimeRecorder.drain(frameTimeWindow);
+        fpsRecorder.drain(fpsWindow);
+        renderPhases.drain(phaseWindows);
+        gcFrameRecorder.drain(gcFrameWindow);
+        drainNonRenderWindows();
+    }
+    
+    /**
+     * 用渲染线程在窗口边界复制的累计量推进渲染线程记录器的窗口，其余记录器在此刻推进
+     * 调用方必须持有sampleLock
+     */
+    private void advanceWindows(FrameBoundaries.Slot slot) {
+        frameTimeWindow.advance(slot.frameTime);
+        fpsWindow.advance(slot.fps);
+        gcFrameWindow.advance(slot.gcFrames);
+        for (int i = 0; i < phaseWindows.length; i++) {
+            phaseWindows[i].advance(slot.phases[i]);
+        }
+        drainNonRenderWindows();
+    }
+    
+    /**
+     * 推进服务器线程、区块和JVM相关记录器的窗口，调用方必须持有sampleLock
+     */
+    private void drainNonRenderWindows() {
+        msptRecorder.drain(msptWindow);
+        serverTicks.drain(serverPhaseWindows, dimensionWindows);
+        chunkTracker.drain(chunkLoadWindow, chunkVisibleWindow, chunkServerWindow, chunkClientWindow);
+        jvm.drain(gcPauseWindow);
+    }
+    
+    /**
+     * 按全程帧时间和tick耗时分布更新慢帧阈值，调用方必须持有sampleLock
+     * 样本不足时不采集，避免运行初期把普通帧当作慢帧
+     */
+    private void updateSlowThresholds() {
+        double percentile = config.getMetrics().getStackPercentile();
+        HistogramCounts frames = frameTimeWindow.getRunHistogram();
+        if (frames != null && frames.getTotal() >= MIN_THRESHOLD_SAMPLES) {
+            slowFrames.setThresholdNanos(frames.percentileNanos(percentile));
+        }
+        HistogramCounts ticks = msptWindow.getRunHistogram();
+        if (ticks != null && ticks.getTotal() >= MIN_THRESHOLD_SAMPLES) {
+            slowTicks.setThresholdNanos(ticks.percentileNanos(percentile));
+        }
+    }
+    
+    /**
+     * 以当前累计量作为新一次运行的起点，调用方必须持有sampleLock
+     */
+    private void resetRunWindows() {
+        frameTimeWindow.resetRun();
+        fpsWindow.resetRun();
+        msptWindow.resetRun();
+        for (RecorderWindow window : phaseWindows) {
+            window.resetRun();
+        }
+        for (RecorderWindow window : serverPhaseWindows) {
+            window.resetRun();
+        }
+        for (RecorderWindow window : dimensionWindows) {
+            window.resetRun();
+        }
+        chunkLoadWindow.resetRun();
+        chunkVisibleWindow.resetRun();
+        chunkServerWindow.resetRun();
+        chunkClientWindow.resetRun();
+        gcPauseWindow.resetRun();
+        gcFrameWindow.resetRun();
+    }
+    
+    private static RecorderWindow[] newWindows(int count) {
+        RecorderWindow[] windows = new RecorderWindow[count];
+        for (int i = 0; i < count; i++) {
+            windows[i] = new RecorderWindow();
+        }
+        return windows;
+    }
+    
+    /**
+     * 关闭逐帧追踪文件
+     */
+    private void closeTrace() {
+        FrameTraceWriter trace = traceWriter;
+        if (trace != null) {
+            // 先摘除引用，渲染线程之后的帧不再写入
+            traceWriter = null;
+            trace.close();
+            LOGGER.info("逐帧追踪已保存至 " + trace.getFile() + "，可使用 FrameTraceConverter 转换为CSV");
+        }
+    }
+    
+    /**
+     * 按时间采样的定时任务
+     * 捕获所有异常，避免一次失败导致后续调度被取消
+     */
+    void sampleSafely() {
         try {
-            // 收集数据
-            long timestamp = System.currentTimeMillis();
-            double fps = currentFps;
-            
-            // 计算这一秒内的平均渲染耗时
-            double frameTime = (frameTimeCountInWindow > 0) 
-                ? (frameTimeSumInWindow / frameTimeCountInWindow) 
-                : currentFrameTime;
-            
-            // 重置窗口统计
-            frameTimeSumInWindow = 0.0;
-            frameTimeCountInWindow = 0;
+            cutWindow(System.nanoTime(), null);
+            writeWindow();
+            afterWindow();
+        } catch (Throwable t) {
+            LOGGER.error("采样时出错", t);
+        }
+    }
+    
+    /**
+     * 按帧采样时的定时任务：为渲染线程发布的每个边界写出一行
+     */
+    private void emitWindowsSafely() {
+        FrameBoundaries published = boundaries;
+        if (published == null) return;
+        try {
+            FrameBoundaries.Slot slot;
+            while ((slot = published.peek()) != null) {
+                long sequence = slot.sequence;
+                boolean cut = cutWindow(slot.endNanos, slot);
+                published.release();
+                if (cut) {
+                    writeWindow();
+                    if (sequence >= pendingMeasurementBoundary) {
+                        applyMeasurementChange();
+                    }
+                    applyPendingConfig();
+                }
+            }
+            long merged = published.getMerged();
+            if (merged != reportedMergedBoundaries) {
+                LOGGER.warn("采样线程处理不及，共有 " + merged + " 个窗口边界并入了下一个窗口");
+                reportedMergedBoundaries = merged;
+            }
+        } catch (Throwable t) {
+            LOGGER.error("采样时出错", t);
+        }
+    }
+    
+    /**
+     * 写出一个窗口之后：应用等待中的测量状态变化和新配置
+     */
+    private void afterWindow() {
+        applyMeasurementChange();
+        applyPendingConfig();
+    }
+    
+    /**
+     * 切分窗口：推进所有记录器的窗口并记录窗口边界
+     * 无论之后是否写入，窗口边界都保持连续
+     * @param slot 按帧采样时渲染线程发布的边界，按时间采样时为null（在此刻读取所有记录器）
+     * @return 边界早于上一次切分（切换采样方式时残留）时为false，此时不切分
+     */
+    private boolean cutWindow(long endNanos, FrameBoundaries.Slot slot) {
+        synchronized (sampleLock) {
+            if (slot != null) {
+                if (frameTimeWindow.isBehind(slot.frameTime)) return false;
+                advanceWindows(slot);
+            } else {
+                drainWindows();
+            }
+            windowStartNanos = windowEndNanos;
+            windowEndNanos = endNanos;
+            if (stackSampler != null) {
+                updateSlowThresholds();
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * 为最近一个已切分的窗口写出一行：在sampleLock内填充行缓冲区，释放锁后再交给写入器
+     */
+    private void writeWindow() {
+        SampleSink sink = dataWriter;
+        if (sink == null || !probe.isReady()) return;
+        if (!fillRow()) return;
+        try {
+            sink.beginRow();
+            for (int column = 0; column < row.length; column++) {
+                if (schema.getType(column) == SampleSchema.ColumnType.DOUBLE) {
+                    sink.putDouble(Double.longBitsToDouble(row[column]));
+                } else {
+                    sink.putLong(row[column]);
+                }
+            }
+            sink.endRow();
+        } catch (IOException e) {
+            LOGGER.error("写入性能指标时出错", e);
+        }
+    }
+    
+    private void putLong(long value) {
+        row[rowColumn++] = value;
+    }
+    
+    private void putDouble(double value) {
+        row[rowColumn++] = Double.doubleToRawLongBits(value);
+    }
+    
+    /**
+     * 收集最近一个已切分窗口的性能指标，填入行缓冲区并发布快照
+     * @return 出错时为false
+     */
+    private boolean fillRow() {
+        synchronized (sampleLock) {
+            try {
+                // 收集数据
+                long timestamp = System.currentTimeMillis();
+                double fps = fpsWindow.getLast();
+                
+                // 这一窗口内的平均渲染耗时
+                double frameTime = frameTimeWindow.getMean() / 1_000_000.0;
+                
+                // 这一窗口内的帧时间分布
+                HistogramCounts frameHistogram = frameTimeWindow.getWindowHistogram();
+                double frameTimeP50 = frameHistogram.percentileNanos(50.0) / 1_000_000.0;
+                double frameTimeP95 = frameHistogram.percentileNanos(95.0) / 1_000_000.0;
+                double frameTimeP99 = frameHistogram.percentileNanos(99.0) / 1_000_000.0;
+                double frameTimeP999 = frameHistogram.percentileNanos(99.9) / 1_000_000.0;
+                double frameTimeMax = frameTimeWindow.getMax() / 1_000_000.0;
+                double fpsLow1 = frameHistogram.lowFps(0.01);
+                double fpsLow01 = frameHistogram.lowFps(0.001);
+                
+                // 这一窗口内的tick耗时
+                double mspt = msptWindow.getMean() / 1_000_000.0;
+                double msptP99 = msptWindow.getWindowHistogram().percentileNanos(99.0) / 1_000_000.0;
+                double msptMax = msptWindow.getMax() / 1_000_000.0;
+                
+                // 收集玩家位置信息
+                double playerX = probe.getPlayerX();
+                double playerY = probe.getPlayerY();
+                double playerZ = probe.getPlayerZ();
+                
+                // 获取真实已加载区块数量
+                int loadedChunks = probe.getLoadedChunks();
+                
+                // 区块吞吐与延迟
+                double windowSeconds = Math.max(1e-9, (windowEndNanos - windowStartNanos) / 1_000_000_000.0);
+                double chunksServerPerSec = chunkServerWindow.getCount() / windowSeconds;
+                double chunksClientPerSec = chunkClientWindow.getCount() / windowSeconds;
+                HistogramCounts chunkLoadHistogram = chunkLoadWindow.getWindowHistogram();
+                HistogramCounts chunkVisibleHistogram = chunkVisibleWindow.getWindowHistogram();
+                
+                // 内存与GC
+                double heapUsedMb = jvm.heapUsedBytes() / BYTES_PER_MB;
+                double allocRenderMBps = jvm.getWindowAllocatedBytes(JvmTelemetry.ThreadRole.RENDER) / BYTES_PER_MB / windowSeconds;
+                double allocServerMBps = jvm.getWindowAllocatedBytes(JvmTelemetry.ThreadRole.SERVER) / BYTES_PER_MB / windowSeconds;
+                double allocWorkersMBps = jvm.getWindowAllocatedBytes(JvmTelemetry.ThreadRole.WORKERS) / BYTES_PER_MB / windowSeconds;
+                long gcPauses = gcPauseWindow.getCount();
+                double gcPauseMs = gcPauseWindow.getSum() / 1_000_000.0;
+                double gcPauseMaxMs = gcPauses > 0 ? gcPauseWindow.getMax() / 1_000_000.0 : 0.0;
+                
+                // 按列定义的顺序填入一行
+                rowColumn = 0;
+                putLong(timestamp);
+                putLong(windowStartNanos);
+                putLong(windowEndNanos);
+                putLong(measuring ? 1 : 0);
+                putLong(frameTimeWindow.getCount());
+                putDouble(fps);
+                putDouble(frameTime);
+                putDouble(frameTimeP50);
+                putDouble(frameTimeP95);
+                putDouble(frameTimeP99);
+                putDouble(frameTimeP999);
+                putDouble(frameTimeMax);
+                putDouble(fpsLow1);
+                putDouble(fpsLow01);
+                putDouble(mspt);
+                putDouble(msptP99);
+                putDouble(msptMax);
+                putLong(msptWindow.getCount());
+                putDouble(playerX);
+                putDouble(playerY);
+                putDouble(playerZ);
+                putLong(loadedChunks);
+                putDouble(chunksServerPerSec);
+                putDouble(chunksClientPerSec);
+                putDouble(chunkLoadHistogram.percentileNanos(50.0) / 1_000_000.0);
+                putDouble(chunkLoadHistogram.percentileNanos(99.0) / 1_000_000.0);
+                putDouble(chunkVisibleHistogram.percentileNanos(50.0) / 1_000_000.0);
+                putDouble(chunkVisibleHistogram.percentileNanos(99.0) / 1_000_000.0);
+                putDouble(heapUsedMb);
+                putDouble(allocRenderMBps);
+                putDouble(allocServerMBps);
+                putDouble(allocWorkersMBps);
+                putLong(gcPauses);
+                putDouble(gcPauseMs);
+                putDouble(gcPauseMaxMs);
+                putLong(gcFrameWindow.getCount());
+                // 各渲染阶段每帧平均耗时
+                for (RecorderWindow phaseWindow : phaseWindows) {
+                    putDouble(phaseWindow.getMean() / 1_000_000.0);
+                }
+                // 各服务器阶段每tick平均耗时
+                for (RecorderWindow phaseWindow : serverPhaseWindows) {
+                    putDouble(phaseWindow.getMean() / 1_000_000.0);
+                }
+                
+                publishSnapshot(timestamp, frameHistogram, loadedChunks, chunksServerPerSec, chunksClientPerSec,
+                        allocRenderMBps, allocServerMBps, gcPauseMs);
+                
+                SampleWindowEvent event = new SampleWindowEvent();
+                if (event.shouldCommit()) {
+                    event.windowStartNanos = windowStartNanos;
+                    event.windowLength = windowEndNanos - windowStartNanos;
+                    event.frames = frameTimeWindow.getCount();
+                    event.fps = fps;
+                    event.frameTimeP99 = frameHistogram.percentileNanos(99.0);
+                    event.msptMean = (long) msptWindow.getMean();
+                    event.msptP99 = msptWindow.getWindowHistogram().percentileNanos(99.0);
+                    event.loadedChunks = loadedChunks;
+                    event.gcPauses = gcPauses;
+                    event.commit();
+                }
+                return true;
+            } catch (RuntimeException e) {
+                LOGGER.error("收集性能指标时出错", e);
+                return false;
+            }
+        }
+    }
+    
+    /**
+     * 发布这一窗口的快照，只在采样锁内调用
+     * 快照创建后不再修改，读取方不需要加锁
+     */
+    private void publishSnapshot(long timestamp, HistogramCounts frameHistogram, int loadedChunks,
+                                 double chunksServerPerSec, double chunksClientPerSec,
+                                 double allocRenderMBps, double allocServerMBps, double gcPauseMs) {
+        double[] gauges = new double[MetricsSnapshot.Gauge.VALUES.length];
+        gauges[MetricsSnapshot.Gauge.FPS.ordinal()] = fpsWindow.getLast();
+        gauges[MetricsSnapshot.Gauge.FRAME_TIME.ordinal()] = frameTimeWindow.getMean() / 1_000_000_000.0;
+        gauges[MetricsSnapshot.Gauge.FRAME_TIME_P50.ordinal()] = frameHistogram.percentileNanos(50.0) / 1_000_000_000.0;
+        gauges[MetricsSnapshot.Gauge.FRAME_TIME_P99.ordinal()] = frameHistogram.percentileNanos(99.0) / 1_000_000_000.0;
+        gauges[MetricsSnapshot.Gauge.FRAME_TIME_P999.ordinal()] = frameHistogram.percentileNanos(99.9) / 1_000_000_000.0;
+        gauges[MetricsSnapshot.Gauge.FRAME_TIME_MAX.ordinal()] = frameTimeWindow.getMax() / 1_000_000_000.0;
+        gauges[MetricsSnapshot.Gauge.FPS_LOW1.ordinal()] = frameHistogram.lowFps(0.01);
+        gauges[MetricsSnapshot.Gauge.MSPT.ordinal()] = msptWindow.getMean() / 1_000_000_000.0;
+        gauges[MetricsSnapshot.Gauge.MSPT_P99.ordinal()] = msptWindow.getWindowHistogram().percentileNanos(99.0) / 1_000_000_000.0;
+        gauges[MetricsSnapshot.Gauge.MSPT_MAX.ordinal()] = msptWindow.getMax() / 1_000_000_000.0;
+        gauges[MetricsSnapshot.Gauge.LOADED_CHUNKS.ordinal()] = loadedChunks;
+        gauges[MetricsSnapshot.Gauge.CHUNKS_SERVER_RATE.ordinal()] = chunksServerPerSec;
+        gauges[MetricsSnapshot.Gauge.CHUNKS_CLIENT_RATE.ordinal()] = chunksClientPerSec;
+        gauges[MetricsSnapshot.Gauge.HEAP_USED.ordinal()] = jvm.heapUsedBytes();
+        gauges[MetricsSnapshot.Gauge.ALLOC_RENDER_RATE.ordinal()] = allocRenderMBps * BYTES_PER_MB;
+        gauges[MetricsSnapshot.Gauge.ALLOC_SERVER_RATE.ordinal()] = allocServerMBps * BYTES_PER_MB;
+        gauges[MetricsSnapshot.Gauge.GC_PAUSE.ordinal()] = gcPauseMs / 1000.0;
+        gauges[MetricsSnapshot.Gauge.MEASURING.ordinal()] = measuring ? 1 : 0;
+        
+        long[] counters = new long[MetricsSnapshot.Counter.VALUES.length];
+        counters[MetricsSnapshot.Counter.FRAMES.ordinal()] = frameTimeWindow.getRunCount();
+        counters[MetricsSnapshot.Counter.TICKS.ordinal()] = msptWindow.getRunCount();
+        counters[MetricsSnapshot.Counter.CHUNKS_SERVER.ordinal()] = chunkServerWindow.getRunCount();
+        counters[MetricsSnapshot.Counter.CHUNKS_CLIENT.ordinal()] = chunkClientWindow.getRunCount();
+        counters[MetricsSnapshot.Counter.GC_PAUSES.ordinal()] = gcPauseWindow.getRunCount();
+        counters[MetricsSnapshot.Counter.FRAME_SPIKES.ordinal()] = spikes.getFrameSpikes();
+        counters[MetricsSnapshot.Counter.TICK_SPIKES.ordinal()] = spikes.getTickSpikes();
+        
+        double[] renderPhaseSeconds = new double[phaseWindows.length];
+        for (int i = 0; i < phaseWindows.length; i++) {
+            renderPhaseSeconds[i] = phaseWindows[i].getMean() / 1_000_000_000.0;
+        }
+        double[] serverPhaseSeconds = new double[serverPhaseWindows.length];
+        for (int i = 0; i < serverPhaseWindows.length; i++) {
+            serverPhaseSeconds[i] = serverPhaseWindows[i].getMean() / 1_000_000_000.0;
+        }
+        
+        snapshot = new MetricsSnapshot(timestamp, gauges, counters, renderPhaseSeconds, serverPhaseSeconds,
+                MetricsSnapshot.Histogram.of(frameTimeWindow.getRunHistogram(),
+                        frameTimeWindow.getRunMean() * frameTimeWindow.getRunCount()),
+                MetricsSnapshot.Histogram.of(msptWindow.getRunHistogram(),
+                        msptWindow.getRunMean() * msptWindow.getRunCount()));
+    }
+    
+    /**
+     * 打印性能报告并生成 {@link RunSummary}，只统计已切分的窗口
+     */
+    private void printReport() {
+        double averageFps, minFps, maxFps;
+        double averageFrameTime, minFrameTime, maxFrameTime;
+        double averageMspt, minMspt, maxMspt;
+        double frameTimeP50, frameTimeP95, frameTimeP99, frameTimeP999, fpsLow1, fpsLow01;
+        double msptP50, msptP99;
+        double[] phaseMs = new double[phaseWindows.length];
+        double[] serverPhaseMs = new double[serverPhaseWindows.length];
+        long chunksServer, chunksClient;
+        long gcPauses, gcFrames;
+        double gcPauseTotalMs, gcPauseP99, gcPauseMaxMs;
+        double chunkLoadP50, chunkLoadP99, chunkVisibleP50, chunkVisibleP99;
+        synchronized (sampleLock) {
+            averageFps = fpsWindow.getRunMean();
+            minFps = fpsWindow.getRunMin();
+            maxFps = fpsWindow.getRunMax();
+            averageFrameTime = frameTimeWindow.getRunMean() / 1_000_000.0;
+            minFrameTime = frameTimeWindow.getRunMin() / 1_000_000.0;
+            maxFrameTime = frameTimeWindow.getRunMax() / 1_000_000.0;
+            averageMspt = msptWindow.getRunMean() / 1_000_000.0;
+            minMspt = msptWindow.getRunMin() / 1_000_000.0;
+            maxMspt = msptWindow.getRunMax() / 1_000_000.0;
             
-            float mspt = currentMspt;
+            HistogramCounts frameHistogram = frameTimeWindow.getRunHistogram();
+            frameTimeP50 = frameHistogram.percentileNanos(50.0) / 1_000_000.0;
+            frameTimeP95 = frameHistogram.percentileNanos(95.0) / 1_000_000.0;
+            frameTimeP99 = frameHistogram.percentileNanos(99.0) / 1_000_000.0;
+            frameTimeP999 = frameHistogram.percentileNanos(99.9) / 1_000_000.0;
+            fpsLow1 = frameHistogram.lowFps(0.01);
+            fpsLow01 = frameHistogram.lowFps(0.001);
             
-            // 收集玩家位置信息
-            double playerX = client.player.getX();
-            double playerY = client.player.getY();
-            double playerZ = client.player.getZ();
+            HistogramCounts msptHistogram = msptWindow.getRunHistogram();
+            msptP50 = msptHistogram.percentileNanos(50.0) / 1_000_000.0;
+            msptP99 = msptHistogram.percentileNanos(99.0) / 1_000_000.0;
             
-            // 获取真实已加载区块数量
-            int loadedChunks = 0;
-            if (client.world != null) {
-                loadedChunks = client.world.getChunkManager().getLoadedChunkCount();
+            for (int i = 0; i < phaseWindows.length; i++) {
+                phaseMs[i] = phaseWindows[i].getRunMean() / 1_000_000.0;
+            }
+            for (int i = 0; i < serverPhaseWindows.length; i++) {
+                serverPhaseMs[i] = serverPhaseWindows[i].getRunMean() / 1_000_000.0;
             }
             
-            // 写入CSV行
-            String dataLine = String.format("%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%d\n",
-                    timestamp, fps, frameTime, mspt, playerX, playerY, playerZ, loadedChunks);
+            chunksServer = chunkServerWindow.getRunCount();
+            chunksClient = chunkClientWindow.getRunCount();
+            HistogramCounts chunkLoadHistogram = chunkLoadWindow.getRunHistogram();
+            HistogramCounts chunkVisibleHistogram = chunkVisibleWindow.getRunHistogram();
+            chunkLoadP50 = chunkLoadHistogram.percentileNanos(50.0) / 1_000_000.0;
+            chunkLoadP99 = chunkLoadHistogram.percentileNanos(99.0) / 1_000_000.0;
+            chunkVisibleP50 = chunkVisibleHistogram.percentileNanos(50.0) / 1_000_000.0;
+            chunkVisibleP99 = chunkVisibleHistogram.percentileNanos(99.0) / 1_000_000.0;
             
-            dataWriter.write(dataLine);
-            dataWriter.flush();
-        } catch (Exception e) {
-            LOGGER.error("收集或写入性能指标时出错", e);
+            gcPauses = gcPauseWindow.getRunCount();
+            gcPauseTotalMs = gcPauseWindow.getRunMean() * gcPauses / 1_000_000.0;
+            gcPauseP99 = gcPauseWindow.getRunHistogram().percentileNanos(99.0) / 1_000_000.0;
+            gcPauseMaxMs = gcPauses > 0 ? gcPauseWindow.getRunMax() / 1_000_000.0 : 0.0;
+            gcFrames = gcFrameWindow.getRunCount();
         }
-    }
-    
-    /**
-     * 打印性能报告
-     */
-    public void printReport() {
+        
         LOGGER.info("===== 性能指标报告 =====");
         LOGGER.info(String.format("平均帧率: %.2f FPS (min: %.2f, max: %.2f)", averageFps, minFps, maxFps));
         LOGGER.info(String.format("平均帧时间: %.2f ms (min: %.2f, max: %.2f)", averageFrameTime, minFrameTime, maxFrameTime));
+        LOGGER.info(String.format("帧时间分位: p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, p99.9 %.2f ms", frameTimeP50, frameTimeP95, frameTimeP99, frameTimeP999));
+        LOGGER.info(String.format("1%% low: %.2f FPS, 0.1%% low: %.2f FPS", fpsLow1, fpsLow01));
         LOGGER.info(String.format("平均MSPT: %.2f ms (min: %.2f, max: %.2f)", averageMspt, minMspt, maxMspt));
+        LOGGER.info(String.format("MSPT分位: p50 %.2f ms, p99 %.2f ms", msptP50, msptP99));
+        StringBuilder phases = new StringBuilder("渲染阶段每帧平均耗时:");
+        for (RenderPhase phase : RenderPhase.VALUES) {
+            phases.append(String.format(" %s %.3f ms", phase.name(), phaseMs[phase.ordinal()]));
+        }
+        LOGGER.info(phases.toString());
+        StringBuilder serverPhases = new StringBuilder("服务器阶段每tick平均耗时:");
+        for (ServerPhase phase : ServerPhase.VALUES) {
+            serverPhases.append(String.format(" %s %.3f ms", phase.name(), serverPhaseMs[phase.ordinal()]));
+        }
+        LOGGER.info(serverPhases.toString());
+        LOGGER.info(String.format("区块: 服务器就绪 %d 个, 客户端收到 %d 个", chunksServer, chunksClient));
+        LOGGER.info(String.format("区块延迟: 请求到就绪 p50 %.1f ms / p99 %.1f ms, 请求到客户端 p50 %.1f ms / p99 %.1f ms",
+                chunkLoadP50, chunkLoadP99, chunkVisibleP50, chunkVisibleP99));
+        LOGGER.info(String.format("GC停顿: %d 次, 共 %.1f ms, p99 %.1f ms, 最长 %.1f ms, 受影响帧 %d",
+                gcPauses, gcPauseTotalMs, gcPauseP99, gcPauseMaxMs, gcFrames));
+        LOGGER.info(String.format("尖峰: 帧 %d 次, tick %d 次", spikes.getFrameSpikes(), spikes.getTickSpikes()));
         LOGGER.info("=======================");
+        
+        double[] summary = new double[RunSummary.Metric.VALUES.length];
+        summary[RunSummary.Metric.FPS.ordinal()] = averageFps;
+        summary[RunSummary.Metric.FRAME_TIME.ordinal()] = averageFrameTime;
+        summary[RunSummary.Metric.FRAME_TIME_P50.ordinal()] = frameTimeP50;
+        summary[RunSummary.Metric.FRAME_TIME_P95.ordinal()] = frameTimeP95;
+        summary[RunSummary.Metric.FRAME_TIME_P99.ordinal()] = frameTimeP99;
+        summary[RunSummary.Metric.FRAME_TIME_P999.ordinal()] = frameTimeP999;
+        summary[RunSummary.Metric.FPS_LOW1.ordinal()] = fpsLow1;
+        summary[RunSummary.Metric.FPS_LOW01.ordinal()] = fpsLow01;
+        summary[RunSummary.Metric.MSPT.ordinal()] = averageMspt;
+        summary[RunSummary.Metric.MSPT_P50.ordinal()] = msptP50;
+        summary[RunSummary.Metric.MSPT_P99.ordinal()] = msptP99;
+        summary[RunSummary.Metric.CHUNKS_SERVER.ordinal()] = chunksServer;
+        summary[RunSummary.Metric.CHUNKS_CLIENT.ordinal()] = chunksClient;
+        summary[RunSummary.Metric.GC_PAUSE_MS.ordinal()] = gcPauseTotalMs;
+        summary[RunSummary.Metric.GC_FRAMES.ordinal()] = gcFrames;
+        lastSummary = new RunSummary(summary);
+    }
+    
+    /**
+     * 把每个维度世界tick耗时的全程分布写入 dimensions_<时间戳>.csv 并输出到日志
+     */
+    private void writeDimensionReport() {
+        if (outputDirectory == null) return;
+        File reportFile = new File(outputDirectory, "dimensions_" + runTimestamp + ".csv");
+        List<String> lines = new ArrayList<>();
+        synchronized (sampleLock) {
+            int count = serverTicks.getDimensionCount();
+            for (int i = 0; i < count; i++) {
+                RecorderWindow window = dimensionWindows[i];
+                HistogramCounts histogram = window.getRunHistogram();
+                if (histogram == null) continue;
+                lines.add(String.format(Locale.ROOT, "%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f",
+                        serverTicks.getDimensionName(i), window.getRunCount(),
+                        window.getRunMean() / 1_000_000.0,
+                        histogram.percentileNanos(50.0) / 1_000_000.0,
+                        histogram.percentileNanos(95.0) / 1_000_000.0,
+                        histogram.percentileNanos(99.0) / 1_000_000.0,
+                        window.getRunMax() / 1_000_000.0));
+            }
+        }
+        if (lines.isEmpty()) return;
+        // 释放锁后再写文件
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(reportFile), StandardCharsets.UTF_8))) {
+            writer.write("dimension,ticks,meanMs,p50Ms,p95Ms,p99Ms,maxMs\n");
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+                LOGGER.info("维度 " + line);
+            }
+        } catch (IOException e) {
+            LOGGER.error("无法写入维度报告", e);
+        }
     }
-} 
\ No newline at end of file
+}
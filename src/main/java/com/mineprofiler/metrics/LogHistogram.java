@@ -0,0 +1,88 @@
+package com.mineprofiler.metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 固定内存的对数分桶直方图（HDR风格）
+ *
+ * 记录值单位为纳秒，按微秒分桶：小于32微秒的值每微秒一个桶，之后每个2的幂区间再细分为32个子桶，
+ * 相对误差不超过约3%，最大可表示约38小时，共 {@link #BUCKET_COUNT} 个桶。
+ *
+ * 与 {@link SingleWriterRecorder} 相同，只允许一个线程写入；桶计数只增不减，
+ * 采样线程复制累计计数并与上一次的副本相减得到窗口直方图。记录操作为常数时间且不分配内存。
+ */
+public final class LogHistogram {
+    private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // 每个2的幂区间的子桶位数
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // 可表示的最大指数（微秒）
+    private static final int MAX_EXPONENT = 36;
+    private static final long MAX_VALUE_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+    public static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+
+    /**
+     * 记录一个纳秒值，只能由拥有该直方图的线程调用
+     */
+    public void record(long valueNanos) {
+        int index = bucketIndex(valueNanos);
+        COUNTS.setOpaque(counts, index, counts[index] + 1);
+    }
+
+    /**
+     * 把累计桶计数复制到目标数组，可由任意线程调用
+     */
+    public void copyCounts(long[] target) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            target[i] = (long) COUNTS.getOpaque(counts, i);
+        }
+    }
+
+    /**
+     * 计算纳秒值对应的桶下标
+     */
+    static int bucketIndex(long valueNanos) {
+        long micros = valueNanos <= 0 ? 0 : valueNanos / 1_000L;
+        if (micros > MAX_VALUE_MICROS) {
+            micros = MAX_VALUE_MICROS;
+        }
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int group = exponent - SUB_BUCKET_BITS + 1;
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKET_COUNT;
+        return (group << SUB_BUCKET_BITS) + sub;
+    }
+
+    /**
+     * 桶下界（纳秒，含）
+     */
+    static long bucketLowerNanos(int index) {
+        int group = index >>> SUB_BUCKET_BITS;
+        if (group == 0) {
+            return index * 1_000L;
+        }
+        long lowerMicros = (long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1))) << (group - 1);
+        return lowerMicros * 1_000L;
+    }
+
+    /**
+     * 桶宽度（纳秒）
+     */
+    static long bucketWidthNanos(int index) {
+        int group = index >>> SUB_BUCKET_BITS;
+        return group == 0 ? 1_000L : (1L << (group - 1)) * 1_000L;
+    }
+
+    /**
+     * 桶的代表值（纳秒），取桶中点
+     */
+    static long bucketMidNanos(int index) {
+        return bucketLowerNanos(index) + bucketWidthNanos(index) / 2;
+    }
+}
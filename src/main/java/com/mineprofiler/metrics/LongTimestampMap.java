@@ -0,0 +1,116 @@
+package com.mineprofiler.metrics;
+
+import java.util.Arrays;
+
+/**
+ * long键到时间戳的开放寻址哈希表
+ * 线性探测，删除时回移后续元素，不产生墓碑；键和值均为基本类型，不装箱。
+ * 负载超过一半时容量翻倍，稳定运行后不再分配内存。非线程安全。
+ */
+final class LongTimestampMap {
+    // 空槽位标记，区块坐标编码后不会出现该值
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size = 0;
+
+    LongTimestampMap(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity - 1) << 1);
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 写入键值，已存在时覆盖
+     */
+    void put(long key, long value) {
+        int slot = find(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) >>> 1) {
+            grow();
+        }
+    }
+
+    /**
+     * 写入键值，已存在时保留原值
+     */
+    void putIfAbsent(long key, long value) {
+        int slot = find(key);
+        if (keys[slot] == key) return;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) >>> 1) {
+            grow();
+        }
+    }
+
+    /**
+     * 删除键并返回原值，不存在时返回 missing
+     */
+    long remove(long key, long missing) {
+        int slot = find(key);
+        if (keys[slot] != key) return missing;
+        long value = values[slot];
+        size--;
+        // 回移同一探测链上的后续元素
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        return value;
+    }
+
+    /**
+     * 键所在的槽位，不存在时为应插入的空槽位
+     */
+    private int find(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,159 @@
+package com.mineprofiler.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 矩阵测试结果
+ *
+ * 每次运行结束后向 matrix_<会话>_runs.csv 追加一行（配置单元、重复序号和各汇总指标），
+ * 同一会话中由启动器重新启动的多个JVM写入同一个文件。
+ * 汇总时按配置单元分组，输出每个指标的均值、95%置信区间，以及与基准单元相比的变化、
+ * Welch置信区间和Mann-Whitney U检验p值，写入 matrix_<会话>_summary.csv。
+ */
+public final class MatrixReport {
+    private static final Logger LOGGER = LogManager.getLogger("MatrixReport");
+    private static final String CELL_COLUMN = "cell";
+    private static final double SIGNIFICANCE = 0.05;
+
+    private MatrixReport() {
+    }
+
+    /**
+     * 追加一次运行的结果，文件不存在时先写表头
+     * @param keys 标识列（列名 -> 值），必须包含 cell 列，且每次调用的列相同
+     */
+    public static void appendRun(File runsFile, Map<String, String> keys, RunSummary summary) throws IOException {
+        boolean header = !runsFile.exists() || runsFile.length() == 0;
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(runsFile, true), StandardCharsets.UTF_8))) {
+            StringBuilder line = new StringBuilder();
+            if (header) {
+                for (String key : keys.keySet()) {
+                    line.append(key).append(',');
+                }
+                for (RunSummary.Metric metric : RunSummary.Metric.VALUES) {
+                    line.append(metric.getColumnName()).append(',');
+                }
+                line.setCharAt(line.length() - 1, '\n');
+            }
+            for (String value : keys.values()) {
+                line.append(sanitize(value)).append(',');
+            }
+            for (RunSummary.Metric metric : RunSummary.Metric.VALUES) {
+                line.append(String.format(Locale.ROOT, "%.4f", summary.get(metric))).append(',');
+            }
+            line.setCharAt(line.length() - 1, '\n');
+            writer.write(line.toString());
+        }
+    }
+
+    /**
+     * 读取运行结果并写出汇总
+     * @param baseline 基准单元，为空或不存在时使用第一个单元
+     * @param metricNames 要比较的指标列名
+     */
+    public static void write(File runsFile, File summaryFile, String baseline, List<String> metricNames) throws IOException {
+        Map<String, Map<String, List<Double>>> cells = read(runsFile, metricNames);
+        if (cells.isEmpty()) {
+            LOGGER.warn("没有可汇总的矩阵运行结果: " + runsFile);
+            return;
+        }
+        String baselineCell = baseline != null && cells.containsKey(baseline) ? baseline : cells.keySet().iterator().next();
+        Map<String, List<Double>> base = cells.get(baselineCell);
+
+        LOGGER.info("===== 矩阵测试汇总（基准: " + baselineCell + "）=====");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(summaryFile), StandardCharsets.UTF_8))) {
+            writer.write("cell,metric,runs,mean,stddev,ciLow,ciHigh,deltaPct,deltaCiLow,deltaCiHigh,mannWhitneyU,pValue,exact,significant\n");
+            for (Map.Entry<String, Map<String, List<Double>>> cell : cells.entrySet()) {
+                boolean isBaseline = cell.getKey().equals(baselineCell);
+                StringBuilder log = new StringBuilder(cell.getKey()).append(isBaseline ? "（基准）:" : ":");
+                for (String metricName : metricNames) {
+                    double[] values = toArray(cell.getValue().get(metricName));
+                    double[] baseValues = toArray(base.get(metricName));
+                    double mean = RunStatistics.mean(values);
+                    double[] ci = RunStatistics.confidenceInterval95(values);
+                    double baseMean = RunStatistics.mean(baseValues);
+                    double[] delta = RunStatistics.welchInterval95(baseValues, values);
+                    RunStatistics.MannWhitney test = RunStatistics.mannWhitney(baseValues, values);
+                    boolean significant = !isBaseline && test.getPValue() < SIGNIFICANCE;
+                    writer.write(String.format(Locale.ROOT, "%s,%s,%d,%.4f,%.4f,%.4f,%.4f,%.2f,%.4f,%.4f,%.1f,%.4f,%s,%s%n",
+                            cell.getKey(), metricName, values.length, mean, RunStatistics.standardDeviation(values),
+                            ci[0], ci[1], percent(mean, baseMean), delta[0], delta[1],
+                            test.getU(), test.getPValue(), test.isExact(), significant));
+                    log.append(String.format(" %s %.2f [%.2f, %.2f]", metricName, mean, ci[0], ci[1]));
+                    if (!isBaseline) {
+                        log.append(String.format(" %+.1f%% p=%.3f%s", percent(mean, baseMean), test.getPValue(), significant ? "*" : ""));
+                    }
+                }
+                LOGGER.info(log.toString());
+            }
+        }
+        LOGGER.info("矩阵测试汇总已保存至 " + summaryFile.getPath() + "（* 表示 p < " + SIGNIFICANCE + "）");
+    }
+
+    /**
+     * 按单元分组读取指定指标，单元按首次出现的顺序排列
+     */
+    private static Map<String, Map<String, List<Double>>> read(File runsFile, List<String> metricNames) throws IOException {
+        Map<String, Map<String, List<Double>>> cells = new LinkedHashMap<>();
+        if (!runsFile.exists()) return cells;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(runsFile), StandardCharsets.UTF_8))) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) return cells;
+            List<String> header = List.of(headerLine.split(","));
+            int cellIndex = header.indexOf(CELL_COLUMN);
+            if (cellIndex < 0) throw new IOException("缺少 cell 列: " + runsFile);
+            int[] metricIndex = new int[metricNames.size()];
+            for (int i = 0; i < metricIndex.length; i++) {
+                metricIndex[i] = header.indexOf(metricNames.get(i));
+                if (metricIndex[i] < 0) throw new IOException("缺少指标列 " + metricNames.get(i) + ": " + runsFile);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                String[] fields = line.split(",", -1);
+                if (fields.length != header.size()) continue;
+                Map<String, List<Double>> cell = cells.computeIfAbsent(fields[cellIndex], key -> new LinkedHashMap<>());
+                for (int i = 0; i < metricIndex.length; i++) {
+                    cell.computeIfAbsent(metricNames.get(i), key -> new ArrayList<>()).add(Double.parseDouble(fields[metricIndex[i]]));
+                }
+            }
+        }
+        return cells;
+    }
+
+    private static double[] toArray(List<Double> values) {
+        if (values == null) return new double[0];
+        double[] array = new double[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    private static double percent(double value, double base) {
+        return base != 0 ? (value - base) / base * 100.0 : 0.0;
+    }
+
+    /**
+     * 标识列中不能出现分隔符和换行
+     */
+    private static String sanitize(String value) {
+        return value.replace(',', '_').replace('\n', ' ');
+    }
+}
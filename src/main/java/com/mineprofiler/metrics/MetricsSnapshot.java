@@ -0,0 +1,217 @@
+package com.mineprofiler.metrics;
+
+/**
+ * 最近一个采样窗口的指标快照，不可变
+ * 由采样线程在每个窗口写出后发布一次，HTTP导出等读取方直接读取，不需要加锁，也不会阻塞渲染线程和服务器线程。
+ */
+public final class MetricsSnapshot {
+
+    /**
+     * 窗口指标（瞬时值）
+     */
+    public enum Gauge {
+        FPS("fps", "窗口内最近一次的帧率"),
+        FRAME_TIME("frame_time_seconds", "窗口内平均帧时间"),
+        FRAME_TIME_P50("frame_time_p50_seconds", "窗口内帧时间p50"),
+        FRAME_TIME_P99("frame_time_p99_seconds", "窗口内帧时间p99"),
+        FRAME_TIME_P999("frame_time_p999_seconds", "窗口内帧时间p99.9"),
+        FRAME_TIME_MAX("frame_time_max_seconds", "窗口内最长帧时间"),
+        FPS_LOW1("fps_low1", "窗口内1% low帧率"),
+        MSPT("mspt_seconds", "窗口内平均tick耗时"),
+        MSPT_P99("mspt_p99_seconds", "窗口内tick耗时p99"),
+        MSPT_MAX("mspt_max_seconds", "窗口内最长tick耗时"),
+        LOADED_CHUNKS("loaded_chunks", "已加载区块数"),
+        CHUNKS_SERVER_RATE("chunks_server_per_second", "服务器每秒就绪的区块数"),
+        CHUNKS_CLIENT_RATE("chunks_client_per_second", "客户端每秒收到的区块数"),
+        HEAP_USED("heap_used_bytes", "堆内存占用"),
+        ALLOC_RENDER_RATE("alloc_render_bytes_per_second", "渲染线程每秒分配字节数"),
+        ALLOC_SERVER_RATE("alloc_server_bytes_per_second", "服务器线程每秒分配字节数"),
+        GC_PAUSE("gc_pause_seconds", "窗口内GC停顿总时长"),
+        MEASURING("measuring", "是否处于正式测量（1为是）");
+
+        public static final Gauge[] VALUES = values();
+
+        private final String metricName;
+        private final String help;
+
+        Gauge(String metricName, String help) {
+            this.metricName = metricName;
+            this.help = help;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+
+        public String getHelp() {
+            return help;
+        }
+    }
+
+    /**
+     * 累计计数，除尖峰次数外都按本次运行统计，开始收集时归零
+     */
+    public enum Counter {
+        FRAMES("frames", "本次运行的帧数"),
+        TICKS("ticks", "本次运行的tick数"),
+        CHUNKS_SERVER("chunks_server", "本次运行服务器就绪的区块数"),
+        CHUNKS_CLIENT("chunks_client", "本次运行客户端收到的区块数"),
+        GC_PAUSES("gc_pauses", "本次运行的GC停顿次数"),
+        FRAME_SPIKES("frame_spikes", "已捕获的帧时间尖峰次数"),
+        TICK_SPIKES("tick_spikes", "已捕获的tick耗时尖峰次数");
+
+        public static final Counter[] VALUES = values();
+
+        private final String metricName;
+        private final String help;
+
+        Counter(String metricName, String help) {
+            this.metricName = metricName;
+            this.help = help;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+
+        public String getHelp() {
+            return help;
+        }
+    }
+
+    /**
+     * 直方图桶上界（秒），覆盖常见的帧时间和tick耗时（16.7 ms 对应60帧，33.3 ms 对应30帧，50 ms 为一个tick）
+     */
+    private static final double[] BUCKET_BOUNDS = {
+            0.001, 0.002, 0.004, 0.008, 0.0167, 0.025, 0.0333, 0.05, 0.1, 0.25, 0.5, 1.0
+    };
+
+    private final long timestampMs;
+    private final double[] gauges;
+    private final long[] counters;
+    private final double[] renderPhaseSeconds;
+    private final double[] serverPhaseSeconds;
+    private final Histogram frameTime;
+    private final Histogram mspt;
+
+    MetricsSnapshot(long timestampMs, double[] gauges, long[] counters, double[] renderPhaseSeconds,
+                    double[] serverPhaseSeconds, Histogram frameTime, Histogram mspt) {
+        this.timestampMs = timestampMs;
+        this.gauges = gauges;
+        this.counters = counters;
+        this.renderPhaseSeconds = renderPhaseSeconds;
+        this.serverPhaseSeconds = serverPhaseSeconds;
+        this.frameTime = frameTime;
+        this.mspt = mspt;
+    }
+
+    /**
+     * 窗口写出时的时间（毫秒）
+     */
+    public long getTimestampMs() {
+        return timestampMs;
+    }
+
+    public double get(Gauge gauge) {
+        return gauges[gauge.ordinal()];
+    }
+
+    public long get(Counter counter) {
+        return counters[counter.ordinal()];
+    }
+
+    /**
+     * 窗口内各渲染阶段每帧平均耗时（秒），按 {@link RenderPhase} 顺序
+     */
+    public double getRenderPhaseSeconds(RenderPhase phase) {
+        return renderPhaseSeconds[phase.ordinal()];
+    }
+
+    /**
+     * 窗口内各服务器阶段每tick平均耗时（秒），按 {@link ServerPhase} 顺序
+     */
+    public double getServerPhaseSeconds(ServerPhase phase) {
+        return serverPhaseSeconds[phase.ordinal()];
+    }
+
+    /**
+     * 本次运行的帧时间分布
+     */
+    public Histogram getFrameTime() {
+        return frameTime;
+    }
+
+    /**
+     * 本次运行的tick耗时分布
+     */
+    public Histogram getMspt() {
+        return mspt;
+    }
+
+    /**
+     * 固定桶上界的累计直方图，不可变
+     */
+    public static final class Histogram {
+        static final Histogram EMPTY = new Histogram(new long[BUCKET_BOUNDS.length], 0, 0.0);
+
+        private final long[] cumulative;
+        private final long count;
+        private final double sumSeconds;
+
+        private Histogram(long[] cumulative, long count, double sumSeconds) {
+            this.cumulative = cumulative;
+            this.count = count;
+            this.sumSeconds = sumSeconds;
+        }
+
+        /**
+         * 由全程直方图快照换算到固定桶：每个对数桶按中点计入第一个不小于中点的上界
+         * @param sumNanos 全程总和（纳秒）
+         */
+        static Histogram of(HistogramCounts counts, double sumNanos) {
+            if (counts == null) return EMPTY;
+            long[] cumulative = new long[BUCKET_BOUNDS.length];
+            int bound = 0;
+            long seen = 0;
+            for (int i = 0; i < LogHistogram.BUCKET_COUNT; i++) {
+                long c = counts.getBucketCount(i);
+                if (c == 0) continue;
+                double midSeconds = LogHistogram.bucketMidNanos(i) / 1_000_000_000.0;
+                while (bound < cumulative.length && midSeconds > BUCKET_BOUNDS[bound]) {
+                    cumulative[bound++] = seen;
+                }
+                seen += c;
+            }
+            while (bound < cumulative.length) {
+                cumulative[bound++] = seen;
+            }
+            return new Histogram(cumulative, counts.getTotal(), sumNanos / 1_000_000_000.0);
+        }
+
+        public int getBucketCount() {
+            return BUCKET_BOUNDS.length;
+        }
+
+        /**
+         * 第index个桶的上界（秒）
+         */
+        public double getUpperBound(int index) {
+            return BUCKET_BOUNDS[index];
+        }
+
+        /**
+         * 不大于第index个上界的样本数
+         */
+        public long getCumulativeCount(int index) {
+            return cumulative[index];
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getSumSeconds() {
+            return sumSeconds;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.mineprofiler.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * 以OpenMetrics文本格式导出实时指标的HTTP端点，只监听回环地址
+ *
+ * 响应只读取 {@link MetricsSnapshot}（每个采样窗口发布一次的不可变快照），
+ * 在独立的守护线程上处理请求，抓取不会与渲染线程、服务器线程或采样线程竞争锁。
+ * 用法：在Prometheus中添加抓取目标 127.0.0.1:&lt;port&gt;，路径 /metrics。
+ */
+public final class OpenMetricsExporter {
+    private static final Logger LOGGER = LogManager.getLogger("OpenMetricsExporter");
+    private static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    private static final String PREFIX = "mineprofiler_";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Supplier<MetricsSnapshot> snapshots;
+
+    private OpenMetricsExporter(HttpServer server, ExecutorService executor, Supplier<MetricsSnapshot> snapshots) {
+        this.server = server;
+        this.executor = executor;
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * 在回环地址的指定端口启动，失败时记录日志并返回null
+     * @param snapshots 提供最新快照，必须无锁
+     */
+    public static OpenMetricsExporter start(int port, Supplier<MetricsSnapshot> snapshots) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "MetricsExporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            OpenMetricsExporter exporter = new OpenMetricsExporter(server, executor, snapshots);
+            server.createContext("/metrics", exporter::handle);
+            server.setExecutor(executor);
+            server.start();
+            LOGGER.info("实时指标端点已启动: http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/metrics");
+            return exporter;
+        } catch (IOException e) {
+            LOGGER.error("无法启动实时指标端点，端口 " + port, e);
+            return null;
+        }
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = format(snapshots.get()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * 按OpenMetrics文本格式输出快照，尚未写出过窗口时只输出结束标记
+     */
+    static String format(MetricsSnapshot snapshot) {
+        StringBuilder out = new StringBuilder(4096);
+        if (snapshot != null) {
+            family(out, "window_timestamp_seconds", "gauge", "最近一个窗口写出的时间");
+            sample(out, "window_timestamp_seconds", null, snapshot.getTimestampMs() / 1000.0);
+            for (MetricsSnapshot.Gauge gauge : MetricsSnapshot.Gauge.VALUES) {
+                family(out, gauge.getMetricName(), "gauge", gauge.getHelp());
+                sample(out, gauge.getMetricName(), null, snapshot.get(gauge));
+            }
+            for (MetricsSnapshot.Counter counter : MetricsSnapshot.Counter.VALUES) {
+                family(out, counter.getMetricName(), "counter", counter.getHelp());
+                sample(out, counter.getMetricName() + "_total", null, snapshot.get(counter));
+            }
+            family(out, "render_phase_seconds", "gauge", "窗口内各渲染阶段每帧平均耗时");
+            for (RenderPhase phase : RenderPhase.VALUES) {
+                sample(out, "render_phase_seconds", "phase=\"" + phase.name() + "\"", snapshot.getRenderPhaseSeconds(phase));
+            }
+            family(out, "server_phase_seconds", "gauge", "窗口内各服务器阶段每tick平均耗时");
+            for (ServerPhase phase : ServerPhase.VALUES) {
+                sample(out, "server_phase_seconds", "phase=\"" + phase.name() + "\"", snapshot.getServerPhaseSeconds(phase));
+            }
+            histogram(out, "frame_time_run_seconds", "本次运行的帧时间分布", snapshot.getFrameTime());
+            histogram(out, "mspt_run_seconds", "本次运行的tick耗时分布", snapshot.getMspt());
+        }
+        out.append("# EOF\n");
+        return out.toString();
+    }
+
+    private static void histogram(StringBuilder out, String name, String help, MetricsSnapshot.Histogram histogram) {
+        family(out, name, "histogram", help);
+        for (int i = 0; i < histogram.getBucketCount(); i++) {
+            sample(out, name + "_bucket", "le=\"" + histogram.getUpperBound(i) + "\"", histogram.getCumulativeCount(i));
+        }
+        sample(out, name + "_bucket", "le=\"+Inf\"", histogram.getCount());
+        sample(out, name + "_count", null, histogram.getCount());
+        sample(out, name + "_sum", null, histogram.getSumSeconds());
+    }
+
+    private static void family(StringBuilder out, String name, String type, String help) {
+        out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+        if (name.endsWith("_seconds") || name.endsWith("_bytes")) {
+            out.append("# UNIT ").append(PREFIX).append(name).append(' ')
+                    .append(name.substring(name.lastIndexOf('_') + 1)).append('\n');
+        }
+        out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(PREFIX).append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (Double.isNaN(value)) {
+            out.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            out.append(value > 0 ? "+Inf" : "-Inf");
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+}
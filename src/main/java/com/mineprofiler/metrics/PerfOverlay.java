@@ -0,0 +1,153 @@
+package com.mineprofiler.metrics;
+
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.font.TextRenderer;
+import net.minecraft.client.gui.DrawContext;
+
+/**
+ * 游戏内性能浮层，用于代替开销很大的F3调试界面
+ *
+ * 文本只在 {@link MetricsSnapshot} 更新时（每个采样窗口一次）重新格式化，每帧只绘制缓存的字符串；
+ * 帧时间曲线直接读取渲染线程上的帧历史，固定宽度，历史较长时每列取几帧中的最大值，
+ * 与HUD的其他内容合批到同一个顶点缓冲，不分配内存。
+ * 浮层自身的绘制耗时从帧时间中扣除（见 {@link LightweightMetrics#excludeFromFrame}），并显示在最后一行。
+ * 只能在渲染线程上使用。
+ */
+public final class PerfOverlay {
+    private static final int MARGIN = 4;
+    private static final int PADDING = 3;
+    private static final int LINE_HEIGHT = 10;
+    private static final int SPARK_HEIGHT = 30;
+    // 曲线宽度（像素），与帧历史长度（spikeHistoryFrames）无关
+    private static final int SPARK_WIDTH = 120;
+    // 曲线满高度对应的帧时间（纳秒）
+    private static final long SPARK_FULL_SCALE_NANOS = 50_000_000L;
+    private static final long FRAME_60_NANOS = 16_666_667L;
+    private static final long FRAME_30_NANOS = 33_333_333L;
+    private static final int BACKGROUND = 0x90000000;
+    private static final int TEXT = 0xFFFFFFFF;
+    private static final int GOOD = 0xFF55FF55;
+    private static final int SLOW = 0xFFFFFF55;
+    private static final int BAD = 0xFFFF5555;
+    private static final int REFERENCE = 0x60FFFFFF;
+
+    private final LightweightMetrics metrics;
+    private boolean visible;
+
+    // 文本缓存，快照变化时才重建
+    private MetricsSnapshot cachedFor;
+    private String[] lines = {"MineProfiler: 等待第一个采样窗口"};
+    private int textWidth = -1;
+
+    // 浮层自身的绘制耗时，在每次重建文本时汇总
+    private long drawNanos = 0;
+    private long drawCount = 0;
+    private double lastDrawMs = 0.0;
+
+    public PerfOverlay(LightweightMetrics metrics, boolean visible) {
+        this.metrics = metrics;
+        this.visible = visible;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public void toggle() {
+        visible = !visible;
+        drawNanos = 0;
+        drawCount = 0;
+    }
+
+    /**
+     * 在HUD渲染结束时调用
+     */
+    public void render(DrawContext context) {
+        if (!visible) return;
+        long start = System.nanoTime();
+        TextRenderer textRenderer = MinecraftClient.getInstance().textRenderer;
+
+        MetricsSnapshot snapshot = metrics.getSnapshot();
+        if (snapshot != cachedFor && snapshot != null) {
+            rebuildText(snapshot);
+        }
+        if (textWidth < 0) {
+            for (String line : lines) {
+                textWidth = Math.max(textWidth, textRenderer.getWidth(line));
+            }
+        }
+
+        CycleHistory history = metrics.getSpikes().getFrameHistory();
+        int width = Math.max(textWidth, SPARK_WIDTH) + PADDING * 2;
+        int height = lines.length * LINE_HEIGHT + SPARK_HEIGHT + PADDING * 3;
+        int left = MARGIN;
+        int top = MARGIN;
+        context.fill(left, top, left + width, top + height, BACKGROUND);
+
+        int y = top + PADDING;
+        for (String line : lines) {
+            context.drawText(textRenderer, line, left + PADDING, y, TEXT, false);
+            y += LINE_HEIGHT;
+        }
+        drawSparkline(context, history, left + PADDING, y + PADDING + SPARK_HEIGHT);
+
+        long elapsed = System.nanoTime() - start;
+        drawNanos += elapsed;
+        drawCount++;
+        metrics.excludeFromFrame(elapsed);
+    }
+
+    /**
+     * 最近若干帧的帧时间曲线，最新的一帧在最右侧
+     * 帧历史长于曲线宽度时每列对应连续几帧，取其中最长的一帧，尖峰不会被平均掉
+     */
+    private void drawSparkline(DrawContext context, CycleHistory history, int left, int bottom) {
+        int framesPerColumn = Math.max(1, (history.getCapacity() + SPARK_WIDTH - 1) / SPARK_WIDTH);
+        int size = history.size();
+        int columns = (size + framesPerColumn - 1) / framesPerColumn;
+        // 最早的一列可能不满，从最新的一帧向前分组，保证最右一列总是包含最新的一帧
+        int first = size - columns * framesPerColumn;
+        for (int column = 0; column < columns; column++) {
+            long duration = 0;
+            int from = Math.max(0, first + column * framesPerColumn);
+            int to = first + (column + 1) * framesPerColumn;
+            for (int i = from; i < to; i++) {
+                duration = Math.max(duration, history.getDurationNanos(i));
+            }
+            int barHeight = (int) Math.min(SPARK_HEIGHT, Math.max(1, duration * SPARK_HEIGHT / SPARK_FULL_SCALE_NANOS));
+            int color = duration <= FRAME_60_NANOS ? GOOD : duration <= FRAME_30_NANOS ? SLOW : BAD;
+            int x = left + SPARK_WIDTH - columns + column;
+            context.fill(x, bottom - barHeight, x + 1, bottom, color);
+        }
+        // 60帧参考线
+        int reference = bottom - (int) (FRAME_60_NANOS * SPARK_HEIGHT / SPARK_FULL_SCALE_NANOS);
+        context.fill(left, reference, left + SPARK_WIDTH, reference + 1, REFERENCE);
+    }
+
+    private void rebuildText(MetricsSnapshot snapshot) {
+        cachedFor = snapshot;
+        if (drawCount > 0) {
+            lastDrawMs = drawNanos / 1_000_000.0 / drawCount;
+            drawNanos = 0;
+            drawCount = 0;
+        }
+        boolean measuring = snapshot.get(MetricsSnapshot.Gauge.MEASURING) > 0;
+        lines = new String[] {
+                "MineProfiler " + (measuring ? "[测量]" : "[预热/冷却]"),
+                String.format("FPS %.0f  1%% low %.1f",
+                        snapshot.get(MetricsSnapshot.Gauge.FPS), snapshot.get(MetricsSnapshot.Gauge.FPS_LOW1)),
+                String.format("帧时间 p50 %.2f  p99 %.2f ms",
+                        snapshot.get(MetricsSnapshot.Gauge.FRAME_TIME_P50) * 1000.0,
+                        snapshot.get(MetricsSnapshot.Gauge.FRAME_TIME_P99) * 1000.0),
+                String.format("MSPT %.2f  p99 %.2f ms",
+                        snapshot.get(MetricsSnapshot.Gauge.MSPT) * 1000.0,
+                        snapshot.get(MetricsSnapshot.Gauge.MSPT_P99) * 1000.0),
+                String.format("区块 %.0f  服务器 %.1f/s  客户端 %.1f/s",
+                        snapshot.get(MetricsSnapshot.Gauge.LOADED_CHUNKS),
+                        snapshot.get(MetricsSnapshot.Gauge.CHUNKS_SERVER_RATE),
+                        snapshot.get(MetricsSnapshot.Gauge.CHUNKS_CLIENT_RATE)),
+                String.format("浮层 %.3f ms/帧", lastDrawMs)
+        };
+        textWidth = -1;
+    }
+}
@@ -0,0 +1,137 @@
+package com.mineprofiler.metrics;
+
+/**
+ * 分阶段计时器
+ *
+ * 由单个线程（渲染线程或服务器线程）在各阶段的HEAD/RETURN注入点调用 {@link #push}/{@link #pop}，
+ * 使用预先分配的定长计时栈，不使用HashMap、不装箱、不分配内存。
+ * 每个周期（一帧或一个tick）结束时调用 {@link #commit()}，把各阶段的累计耗时写入对应的
+ * {@link SingleWriterRecorder}（每周期每阶段一条记录），因此窗口平均值即为该阶段每周期的平均耗时。
+ * 同一阶段在一个周期内可以进入多次（例如逐个实体tick），耗时会累加。
+ */
+public final class PhaseTimer<P extends Enum<P>> {
+    private static final int MAX_DEPTH = 16;
+
+    private final P[] phases;
+
+    // 计时栈，仅写线程访问
+    private final long[] stackStartNanos = new long[MAX_DEPTH];
+    private final int[] stackPhase = new int[MAX_DEPTH];
+    private int depth = 0;
+
+    // 当前周期各阶段累计耗时
+    private final long[] cycleNanos;
+    // 上一周期各阶段耗时
+    private final long[] lastCycleNanos;
+
+    private final SingleWriterRecorder[] recorders;
+
+    public PhaseTimer(Class<P> phaseType) {
+        this.phases = phaseType.getEnumConstants();
+        this.cycleNanos = new long[phases.length];
+        this.lastCycleNanos = new long[phases.length];
+        this.recorders = new SingleWriterRecorder[phases.length];
+        for (int i = 0; i < phases.length; i++) {
+            recorders[i] = new SingleWriterRecorder();
+        }
+    }
+
+    /**
+     * 阶段数量
+     */
+    public int getPhaseCount() {
+        return phases.length;
+    }
+
+    /**
+     * 周期开始，清空计时栈和本周期累计值
+     */
+    public void reset() {
+        depth = 0;
+        for (int i = 0; i < cycleNanos.length; i++) {
+            cycleNanos[i] = 0;
+        }
+    }
+
+    /**
+     * 进入阶段
+     */
+    public void push(P phase) {
+        if (depth < MAX_DEPTH) {
+            stackStartNanos[depth] = System.nanoTime();
+            stackPhase[depth] = phase.ordinal();
+        }
+        depth++;
+    }
+
+    /**
+     * 离开阶段
+     * 若栈顶不是该阶段（例如某个RETURN注入未命中），会一直弹出到匹配的阶段为止
+     */
+    public void pop(P phase) {
+        long now = System.nanoTime();
+        int target = phase.ordinal();
+        while (depth > 0) {
+            depth--;
+            if (depth >= MAX_DEPTH) continue;
+            int current = stackPhase[depth];
+            cycleNanos[current] += now - stackStartNanos[depth];
+            if (current == target) break;
+        }
+    }
+
+    /**
+     * 周期结束，提交本周期各阶段耗时
+     */
+    public void commit() {
+        for (int i = 0; i < cycleNanos.length; i++) {
+            long nanos = cycleNanos[i];
+            lastCycleNanos[i] = nanos;
+            recorders[i].record(nanos);
+        }
+    }
+
+    /**
+     * 上一周期指定阶段的耗时（纳秒），只能由写线程调用
+     */
+    public long getLastCycleNanos(P phase) {
+        return lastCycleNanos[phase.ordinal()];
+    }
+
+    /**
+     * 把上一周期各阶段耗时复制到指定数组，只能由写线程调用
+     */
+    public void copyLastCycle(long[] dest, int offset) {
+        System.arraycopy(lastCycleNanos, 0, dest, offset, lastCycleNanos.length);
+    }
+
+    /**
+     * 创建与各阶段记录器匹配的快照对象
+     */
+    RecorderSnapshot[] newSnapshots() {
+        RecorderSnapshot[] snapshots = new RecorderSnapshot[recorders.length];
+        for (int i = 0; i < recorders.length; i++) {
+            snapshots[i] = recorders[i].newSnapshot();
+        }
+        return snapshots;
+    }
+
+    /**
+     * 把各阶段的累计量复制到快照，只能由写线程调用
+     */
+    void snapshot(RecorderSnapshot[] targets) {
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i].snapshot(targets[i]);
+        }
+    }
+
+    /**
+     * 推进各阶段的采样窗口，只能由采样线程调用
+     * @param windows 按阶段序号排列的窗口数组
+     */
+    public void drain(RecorderWindow[] windows) {
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i].drain(windows[i]);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.mineprofiler.metrics;
+
+/**
+ * 记录器在某一时刻的累计量
+ * 由写线程通过 {@link SingleWriterRecorder#snapshot(RecorderSnapshot)} 填充，预先分配并反复使用，
+ * 之后由采样线程用 {@link RecorderWindow#advance(RecorderSnapshot)} 推进窗口
+ */
+final class RecorderSnapshot {
+    long count;
+    long sum;
+    long last;
+    long min;
+    long max;
+    // 直方图各桶的累计计数，记录器不带直方图时为null
+    final long[] histogram;
+
+    RecorderSnapshot(boolean withHistogram) {
+        this.histogram = withHistogram ? new long[LogHistogram.BUCKET_COUNT] : null;
+    }
+}
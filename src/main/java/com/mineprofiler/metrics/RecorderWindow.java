@@ -0,0 +1,178 @@
+package com.mineprofiler.metrics;
+
+/**
+ * 采样窗口统计
+ * 由采样线程持有并复用，保存一个 {@link SingleWriterRecorder} 在最近一个窗口内以及本次运行全程的统计量
+ * 若记录器带有直方图，还会保存窗口和全程的直方图快照
+ */
+public final class RecorderWindow {
+    // 窗口统计
+    private long count = 0;
+    private long sum = 0;
+    private long min = 0;
+    private long max = 0;
+    private long last = 0;
+
+    // 记录器的累计量（上一次推进时的值）
+    private long totalCount = 0;
+    private long totalSum = 0;
+
+    // 本次运行的起点与全程统计
+    private long runBaseCount = 0;
+    private long runBaseSum = 0;
+    private long runMin = Long.MAX_VALUE;
+    private long runMax = Long.MIN_VALUE;
+
+    // 直方图快照（记录器带直方图时在首次推进时分配）
+    private long[] histogramCurrent;
+    private long[] histogramPrevious;
+    private long[] histogramRunBase;
+    private HistogramCounts windowHistogram;
+    private HistogramCounts runHistogram;
+
+    /**
+     * 用新的累计量推进窗口
+     */
+    void advance(long newTotalCount, long newTotalSum, long newLast, long windowMin, long windowMax) {
+        this.count = newTotalCount - totalCount;
+        this.sum = newTotalSum - totalSum;
+        this.last = newLast;
+        this.min = count > 0 && windowMin != Long.MAX_VALUE ? windowMin : newLast;
+        this.max = count > 0 && windowMax != Long.MIN_VALUE ? windowMax : newLast;
+
+        this.totalCount = newTotalCount;
+        this.totalSum = newTotalSum;
+        if (count > 0) {
+            runMin = Math.min(runMin, min);
+            runMax = Math.max(runMax, max);
+        }
+    }
+
+    /**
+     * 用写线程复制的累计量推进窗口
+     */
+    void advance(RecorderSnapshot snapshot) {
+        advance(snapshot.count, snapshot.sum, snapshot.last, snapshot.min, snapshot.max);
+        if (snapshot.histogram != null) {
+            allocateHistograms();
+            System.arraycopy(snapshot.histogram, 0, histogramCurrent, 0, histogramCurrent.length);
+            advanceHistogramCurrent();
+        }
+    }
+
+    /**
+     * 快照是否早于上一次推进（例如切换采样方式时残留的边界），这样的快照不能再用来推进窗口
+     */
+    boolean isBehind(RecorderSnapshot snapshot) {
+        return snapshot.count < totalCount;
+    }
+
+    /**
+     * 用直方图的新累计计数推进窗口直方图和全程直方图
+     */
+    void advanceHistogram(LogHistogram histogram) {
+        allocateHistograms();
+        histogram.copyCounts(histogramCurrent);
+        advanceHistogramCurrent();
+    }
+
+    private void allocateHistograms() {
+        if (histogramCurrent == null) {
+            histogramCurrent = new long[LogHistogram.BUCKET_COUNT];
+            histogramPrevious = new long[LogHistogram.BUCKET_COUNT];
+            histogramRunBase = new long[LogHistogram.BUCKET_COUNT];
+            windowHistogram = new HistogramCounts();
+            runHistogram = new HistogramCounts();
+        }
+    }
+
+    /**
+     * 以 histogramCurrent 中的累计计数推进窗口直方图和全程直方图
+     */
+    private void advanceHistogramCurrent() {
+        windowHistogram.setDifference(histogramCurrent, histogramPrevious, count > 0 ? max : 0);
+        runHistogram.setDifference(histogramCurrent, histogramRunBase, getRunMax());
+
+        long[] swap = histogramPrevious;
+        histogramPrevious = histogramCurrent;
+        histogramCurrent = swap;
+    }
+
+    /**
+     * 以当前累计量作为新一次运行的起点，此前的数据不再计入全程统计
+     */
+    public void resetRun() {
+        this.runBaseCount = totalCount;
+        this.runBaseSum = totalSum;
+        this.runMin = Long.MAX_VALUE;
+        this.runMax = Long.MIN_VALUE;
+        if (histogramPrevious != null) {
+            System.arraycopy(histogramPrevious, 0, histogramRunBase, 0, histogramRunBase.length);
+            runHistogram.setDifference(histogramPrevious, histogramRunBase, 0);
+        }
+    }
+
+    /**
+     * 窗口直方图，记录器不带直方图时为null
+     */
+    public HistogramCounts getWindowHistogram() {
+        return windowHistogram;
+    }
+
+    /**
+     * 本次运行的全程直方图，记录器不带直方图时为null
+     */
+    public HistogramCounts getRunHistogram() {
+        return runHistogram;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getLast() {
+        return last;
+    }
+
+    /**
+     * 窗口平均值，窗口内无数据时返回最近一次记录的值
+     */
+    public double getMean() {
+        return count > 0 ? (double) sum / count : last;
+    }
+
+    /**
+     * 本次运行的记录数
+     */
+    public long getRunCount() {
+        return totalCount - runBaseCount;
+    }
+
+    /**
+     * 本次运行的平均值
+     */
+    public double getRunMean() {
+        long runCount = getRunCount();
+        return runCount > 0 ? (double) (totalSum - runBaseSum) / runCount : 0.0;
+    }
+
+    public long getRunMin() {
+        return runMin != Long.MAX_VALUE ? runMin : 0;
+    }
+
+    public long getRunMax() {
+        return runMax != Long.MIN_VALUE ? runMax : 0;
+    }
+}
@@ -0,0 +1,36 @@
+package com.mineprofiler.metrics;
+
+/**
+ * 渲染阶段
+ * 各阶段计时为包含时间：实体、方块实体和区块上传等阶段嵌套在世界渲染内部
+ */
+public enum RenderPhase {
+    // 世界渲染（GameRenderer.renderWorld）
+    WORLD("World"),
+    // 区块重建结果上传与调度（WorldRenderer.updateChunks）
+    CHUNK_UPLOAD("ChunkUpload"),
+    // 实体渲染
+    ENTITIES("Entities"),
+    // 方块实体渲染
+    BLOCK_ENTITIES("BlockEntities"),
+    // 粒子渲染
+    PARTICLES("Particles"),
+    // HUD/GUI
+    HUD("Hud");
+
+    // 缓存values()，避免每次调用都复制数组
+    static final RenderPhase[] VALUES = values();
+
+    private final String columnSuffix;
+
+    RenderPhase(String columnSuffix) {
+        this.columnSuffix = columnSuffix;
+    }
+
+    /**
+     * 输出列名
+     */
+    public String getColumnName() {
+        return "phase" + columnSuffix + "Ms";
+    }
+}
@@ -0,0 +1,212 @@
+package com.mineprofiler.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.RuntimeMXBean;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 运行清单
+ *
+ * 每次运行在数据旁边写出 manifest_<时间戳>.json，记录JVM版本和参数、GC、堆大小、CPU、操作系统、
+ * 游戏信息（版本、模组列表、种子、渲染距离等，由 {@link WorldProbe#describe(Map)} 提供）以及完整配置和配置哈希，
+ * 便于自动索引和比较历史数据。开始收集时写出一次，停止收集时补充结束时间、汇总指标和本次运行的文件列表后再写一次。
+ */
+public final class RunManifest {
+    private static final Logger LOGGER = LogManager.getLogger("RunManifest");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final int SCHEMA_VERSION = 1;
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
+    private final JsonObject root = new JsonObject();
+    private final String runTimestamp;
+
+    /**
+     * @param runTimestamp 本次运行文件名中的时间戳
+     * @param config 完整的测试配置，原样写入清单并计算哈希
+     */
+    public RunManifest(String runTimestamp, Object config) {
+        this.runTimestamp = runTimestamp;
+        root.addProperty("schemaVersion", SCHEMA_VERSION);
+        root.addProperty("runTimestamp", runTimestamp);
+        root.addProperty("startTime", Instant.now().toString());
+        root.add("jvm", describeJvm());
+        root.add("cpu", describeCpu());
+        root.add("os", describeOs());
+        JsonElement configJson = GSON.toJsonTree(config);
+        root.addProperty("configHash", sha256(configJson.toString()));
+        root.add("config", configJson);
+    }
+
+    /**
+     * 补充游戏信息
+     */
+    public void setGame(WorldProbe probe) {
+        Map<String, Object> game = new LinkedHashMap<>();
+        try {
+            probe.describe(game);
+        } catch (RuntimeException e) {
+            LOGGER.warn("无法获取游戏信息: " + e.getMessage());
+        }
+        root.add("game", GSON.toJsonTree(game));
+    }
+
+    public void setOutputFormat(String format) {
+        root.addProperty("outputFormat", format);
+    }
+
+    /**
+     * 记录运行中重新加载的配置
+     * @param changes 有变化的配置项路径 -> 新值
+     */
+    public void addConfigChange(Map<String, JsonElement> changes) {
+        JsonArray history = root.has("configChanges") ? root.getAsJsonArray("configChanges") : new JsonArray();
+        JsonObject change = new JsonObject();
+        change.addProperty("time", Instant.now().toString());
+        JsonObject values = new JsonObject();
+        for (Map.Entry<String, JsonElement> entry : changes.entrySet()) {
+            values.add(entry.getKey(), entry.getValue());
+        }
+        change.add("changes", values);
+        history.add(change);
+        root.add("configChanges", history);
+    }
+
+    /**
+     * 运行结束：记录结束时间和汇总指标
+     * @param summary 汇总指标，没有时为null
+     */
+    public void setFinished(RunSummary summary) {
+        root.addProperty("endTime", Instant.now().toString());
+        if (summary != null) {
+            JsonObject json = new JsonObject();
+            for (RunSummary.Metric metric : RunSummary.Metric.VALUES) {
+                json.addProperty(metric.getColumnName(), summary.get(metric));
+            }
+            root.add("summary", json);
+        }
+    }
+
+    /**
+     * 写出清单，文件列表为输出目录中文件名带有本次时间戳的所有文件
+     */
+    public void write(File directory) {
+        JsonArray files = new JsonArray();
+        String[] names = directory.list((dir, name) -> name.contains("_" + runTimestamp) && !name.startsWith("manifest_"));
+        if (names != null) {
+            Arrays.sort(names);
+            for (String name : names) {
+                files.add(name);
+            }
+        }
+        root.add("files", files);
+
+        File file = new File(directory, "manifest_" + runTimestamp + ".json");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            GSON.toJson(root, writer);
+        } catch (IOException e) {
+            LOGGER.error("无法写入运行清单", e);
+        }
+    }
+
+    private static JsonObject describeJvm() {
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        JsonObject jvm = new JsonObject();
+        jvm.addProperty("version", System.getProperty("java.version"));
+        jvm.addProperty("vendor", System.getProperty("java.vendor"));
+        jvm.addProperty("vmName", runtime.getVmName());
+        jvm.addProperty("vmVersion", runtime.getVmVersion());
+        JsonArray arguments = new JsonArray();
+        for (String argument : runtime.getInputArguments()) {
+            arguments.add(argument);
+        }
+        jvm.add("inputArguments", arguments);
+        JsonArray collectors = new JsonArray();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collectors.add(gc.getName());
+        }
+        jvm.add("garbageCollectors", collectors);
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        jvm.addProperty("heapInitMb", heap.getInit() / BYTES_PER_MB);
+        jvm.addProperty("heapMaxMb", heap.getMax() / BYTES_PER_MB);
+        return jvm;
+    }
+
+    private static JsonObject describeCpu() {
+        JsonObject cpu = new JsonObject();
+        cpu.addProperty("model", cpuModel());
+        cpu.addProperty("logicalCores", Runtime.getRuntime().availableProcessors());
+        cpu.addProperty("arch", System.getProperty("os.arch"));
+        return cpu;
+    }
+
+    private static JsonObject describeOs() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        JsonObject json = new JsonObject();
+        json.addProperty("name", os.getName());
+        json.addProperty("version", os.getVersion());
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs) {
+            json.addProperty("physicalMemoryMb", sunOs.getTotalMemorySize() / BYTES_PER_MB);
+        }
+        return json;
+    }
+
+    /**
+     * CPU型号：Linux读取 /proc/cpuinfo，Windows读取环境变量，其他系统为 unknown
+     */
+    private static String cpuModel() {
+        File cpuinfo = new File("/proc/cpuinfo");
+        if (cpuinfo.isFile()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(cpuinfo), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("model name")) {
+                        int colon = line.indexOf(':');
+                        if (colon >= 0) return line.substring(colon + 1).trim();
+                    }
+                }
+            } catch (IOException e) {
+                // 使用下面的默认值
+            }
+        }
+        String identifier = System.getenv("PROCESSOR_IDENTIFIER");
+        return identifier != null ? identifier : "unknown";
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.mineprofiler.metrics;
+
+import java.util.Arrays;
+
+/**
+ * 多次运行结果的统计方法
+ *
+ * 同一配置重复K次得到K个汇总值（例如每次运行的平均FPS），据此计算均值的置信区间，
+ * 并用Welch区间和Mann-Whitney U检验判断两个配置之间的差异是否显著。
+ * 样本很小（通常3~10次）时U检验使用精确分布，否则使用带连续性校正和结校正的正态近似。
+ */
+public final class RunStatistics {
+    // t分布0.975分位数，下标为自由度1~30
+    private static final double[] T975 = {
+            Double.NaN, 12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+    private static final double Z975 = 1.959964;
+    // 精确U分布的最大总样本数，超过后使用正态近似
+    private static final int MAX_EXACT_SAMPLES = 40;
+
+    private RunStatistics() {
+    }
+
+    public static double mean(double[] values) {
+        if (values.length == 0) return Double.NaN;
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    /**
+     * 样本标准差（n-1），少于两个样本时为0
+     */
+    public static double standardDeviation(double[] values) {
+        int n = values.length;
+        if (n < 2) return 0.0;
+        double mean = mean(values);
+        double sum = 0;
+        for (double value : values) {
+            double d = value - mean;
+            sum += d * d;
+        }
+        return Math.sqrt(sum / (n - 1));
+    }
+
+    /**
+     * 均值的95%置信区间（t分布），返回 {下限, 上限}；少于两个样本时上下限都等于均值
+     */
+    public static double[] confidenceInterval95(double[] values) {
+        double mean = mean(values);
+        int n = values.length;
+        if (n < 2) return new double[]{mean, mean};
+        double half = tQuantile975(n - 1) * standardDeviation(values) / Math.sqrt(n);
+        return new double[]{mean - half, mean + half};
+    }
+
+    /**
+     * 均值之差 mean(b) - mean(a) 的95%置信区间（Welch，不假设方差相等），返回 {下限, 上限}
+     */
+    public static double[] welchInterval95(double[] a, double[] b) {
+        double diff = mean(b) - mean(a);
+        if (a.length < 2 || b.length < 2) return new double[]{diff, diff};
+        double va = variance(a) / a.length;
+        double vb = variance(b) / b.length;
+        double se = Math.sqrt(va + vb);
+        if (se == 0) return new double[]{diff, diff};
+        // Welch-Satterthwaite 自由度
+        double df = (va + vb) * (va + vb) / (va * va / (a.length - 1) + vb * vb / (b.length - 1));
+        double half = tQuantile975(df) * se;
+        return new double[]{diff - half, diff + half};
+    }
+
+    /**
+     * t分布的0.975分位数，自由度可以是小数（向下取整，结果偏保守）
+     */
+    public static double tQuantile975(double df) {
+        if (!(df >= 1)) return Double.NaN;
+        int floor = (int) Math.floor(df);
+        if (floor < T975.length) return T975[floor];
+        // Cornish-Fisher 展开，自由度大于30时误差小于0.001
+        double z = Z975;
+        double z3 = z * z * z;
+        double z5 = z3 * z * z;
+        return z + (z3 + z) / (4 * df) + (5 * z5 + 16 * z3 + 3 * z) / (96 * df * df);
+    }
+
+    /**
+     * Mann-Whitney U 检验（双侧）
+     * @return a 相对 b 的U统计量和p值
+     */
+    public static MannWhitney mannWhitney(double[] a, double[] b) {
+        int n1 = a.length;
+        int n2 = b.length;
+        if (n1 == 0 || n2 == 0) return new MannWhitney(Double.NaN, Double.NaN, false);
+        int n = n1 + n2;
+        double[] pooled = new double[n];
+        System.arraycopy(a, 0, pooled, 0, n1);
+        System.arraycopy(b, 0, pooled, n1, n2);
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Double.compare(pooled[x], pooled[y]));
+
+        // 平均秩，同时累计结校正项 sum(t^3 - t)
+        double rankSumA = 0;
+        double tieTerm = 0;
+        for (int i = 0; i < n; ) {
+            int j = i;
+            while (j + 1 < n && pooled[order[j + 1]] == pooled[order[i]]) {
+                j++;
+            }
+            double rank = (i + j) / 2.0 + 1;
+            for (int k = i; k <= j; k++) {
+                if (order[k] < n1) rankSumA += rank;
+            }
+            double t = j - i + 1;
+            tieTerm += t * t * t - t;
+            i = j + 1;
+        }
+        double u = rankSumA - n1 * (n1 + 1) / 2.0;
+
+        if (tieTerm == 0 && n <= MAX_EXACT_SAMPLES) {
+            return new MannWhitney(u, exactPValue(n1, n2, (long) u), true);
+        }
+        double mu = n1 * (double) n2 / 2.0;
+        double sigma = Math.sqrt(n1 * (double) n2 / 12.0 * ((n + 1) - tieTerm / ((double) n * (n - 1))));
+        if (sigma == 0) return new MannWhitney(u, 1.0, false);
+        double z = Math.max(0.0, Math.abs(u - mu) - 0.5) / sigma;
+        return new MannWhitney(u, Math.min(1.0, 2.0 * (1.0 - normalCdf(z))), false);
+    }
+
+    /**
+     * 无结时U统计量的精确双侧p值
+     */
+    private static double exactPValue(int n1, int n2, long u) {
+        // counts[i][j][k]：i个a、j个b的排列中U=k的个数，按 f(i,j,k) = f(i-1,j,k-j) + f(i,j-1,k) 递推
+        double[][][] counts = new double[n1 + 1][n2 + 1][];
+        for (int i = 0; i <= n1; i++) {
+            for (int j = 0; j <= n2; j++) {
+                double[] f = new double[i * j + 1];
+                if (i == 0 || j == 0) {
+                    f[0] = 1;
+                } else {
+                    double[] withoutA = counts[i - 1][j];
+                    double[] withoutB = counts[i][j - 1];
+                    for (int k = 0; k < f.length; k++) {
+                        double value = 0;
+                        if (k - j >= 0 && k - j < withoutA.length) value += withoutA[k - j];
+                        if (k < withoutB.length) value += withoutB[k];
+                        f[k] = value;
+                    }
+                }
+                counts[i][j] = f;
+            }
+        }
+        double[] distribution = counts[n1][n2];
+        double total = 0;
+        double lower = 0;
+        double upper = 0;
+        for (int k = 0; k < distribution.length; k++) {
+            total += distribution[k];
+            if (k <= u) lower += distribution[k];
+            if (k >= u) upper += distribution[k];
+        }
+        return Math.min(1.0, 2.0 * Math.min(lower, upper) / total);
+    }
+
+    private static double variance(double[] values) {
+        double sd = standardDeviation(values);
+        return sd * sd;
+    }
+
+    /**
+     * 标准正态分布函数（Abramowitz-Stegun 7.1.26，误差小于1.5e-7）
+     */
+    static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2.0);
+        double t = 1.0 / (1.0 + 0.3275911 * x);
+        double poly = t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))));
+        double erf = 1.0 - poly * Math.exp(-x * x);
+        return z >= 0 ? 0.5 * (1.0 + erf) : 0.5 * (1.0 - erf);
+    }
+
+    /**
+     * Mann-Whitney U 检验结果
+     */
+    public static final class MannWhitney {
+        private final double u;
+        private final double pValue;
+        private final boolean exact;
+
+        MannWhitney(double u, double pValue, boolean exact) {
+            this.u = u;
+            this.pValue = pValue;
+            this.exact = exact;
+        }
+
+        public double getU() {
+            return u;
+        }
+
+        /**
+         * 双侧p值
+         */
+        public double getPValue() {
+            return pValue;
+        }
+
+        /**
+         * p值是否来自精确分布
+         */
+        public boolean isExact() {
+            return exact;
+        }
+    }
+}
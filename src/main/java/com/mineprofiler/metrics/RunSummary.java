@@ -0,0 +1,73 @@
+package com.mineprofiler.metrics;
+
+/**
+ * 一次运行（正式测量期间）的汇总指标，不可变
+ * 由 {@link LightweightMetrics} 在正式测量结束或停止收集时生成，供矩阵测试比较不同配置
+ */
+public final class RunSummary {
+
+    /**
+     * 汇总指标
+     */
+    public enum Metric {
+        FPS("fps", true),
+        FRAME_TIME("frameTime", false),
+        FRAME_TIME_P50("frameTimeP50", false),
+        FRAME_TIME_P95("frameTimeP95", false),
+        FRAME_TIME_P99("frameTimeP99", false),
+        FRAME_TIME_P999("frameTimeP999", false),
+        FPS_LOW1("fpsLow1", true),
+        FPS_LOW01("fpsLow01", true),
+        MSPT("mspt", false),
+        MSPT_P50("msptP50", false),
+        MSPT_P99("msptP99", false),
+        CHUNKS_SERVER("chunksServer", true),
+        CHUNKS_CLIENT("chunksClient", true),
+        GC_PAUSE_MS("gcPauseMs", false),
+        GC_FRAMES("gcFrames", false);
+
+        public static final Metric[] VALUES = values();
+
+        private final String columnName;
+        private final boolean higherIsBetter;
+
+        Metric(String columnName, boolean higherIsBetter) {
+            this.columnName = columnName;
+            this.higherIsBetter = higherIsBetter;
+        }
+
+        /**
+         * 输出列名，与 perf_*.csv 中的同名列含义相同
+         */
+        public String getColumnName() {
+            return columnName;
+        }
+
+        /**
+         * 数值越大是否越好
+         */
+        public boolean isHigherBetter() {
+            return higherIsBetter;
+        }
+
+        /**
+         * 按列名查找，找不到时返回null
+         */
+        public static Metric byColumnName(String name) {
+            for (Metric metric : VALUES) {
+                if (metric.columnName.equals(name)) return metric;
+            }
+            return null;
+        }
+    }
+
+    private final double[] values;
+
+    RunSummary(double[] values) {
+        this.values = values.clone();
+    }
+
+    public double get(Metric metric) {
+        return values[metric.ordinal()];
+    }
+}
@@ -0,0 +1,27 @@
+package com.mineprofiler.metrics;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+
+/**
+ * 把服务器区块加载/卸载事件接入 {@link ChunkTracker}
+ * 集成服务器（客户端入口）和专用服务器入口各注册一次
+ */
+public final class ServerChunkHooks {
+    private ServerChunkHooks() {
+    }
+
+    public static void register() {
+        ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> {
+            LightweightMetrics metrics = LightweightMetrics.current();
+            if (metrics != null) {
+                metrics.getChunks().onServerReady(chunk.getPos().toLong());
+            }
+        });
+        ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> {
+            LightweightMetrics metrics = LightweightMetrics.current();
+            if (metrics != null) {
+                metrics.getChunks().onServerUnloaded(chunk.getPos().toLong());
+            }
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package com.mineprofiler.metrics;
+
+/**
+ * 服务器tick阶段
+ * 各阶段计时为包含时间：实体、区块和方块实体阶段嵌套在世界tick内部
+ */
+public enum ServerPhase {
+    // 所有维度的世界tick（MinecraftServer.tickWorlds，包含网络阶段）
+    WORLDS("Worlds"),
+    // 区块系统（ServerChunkManager.tick）
+    CHUNKS("Chunks"),
+    // 实体tick（逐个实体累加）
+    ENTITIES("Entities"),
+    // 方块实体tick
+    BLOCK_ENTITIES("BlockEntities"),
+    // 网络连接处理与刷新（ServerNetworkIo.tick）
+    NETWORK("Network");
+
+    static final ServerPhase[] VALUES = values();
+
+    private final String columnSuffix;
+
+    ServerPhase(String columnSuffix) {
+        this.columnSuffix = columnSuffix;
+    }
+
+    /**
+     * 输出列名
+     */
+    public String getColumnName() {
+        return "tick" + columnSuffix + "Ms";
+    }
+}
@@ -0,0 +1,171 @@
+package com.mineprofiler.metrics;
+
+import com.mineprofiler.metrics.jfr.ServerTickEvent;
+
+/**
+ * 服务器tick计时器
+ *
+ * 在 MinecraftServer.tick 的HEAD/RETURN处精确测量每个tick的耗时（取代平滑过的averageTickTime），
+ * 并记录各tick阶段以及每个维度世界tick的耗时分布。所有写入都发生在服务器线程上，
+ * 不依赖客户端类，集成服务器和专用服务器均可使用。
+ */
+public final class ServerTickProfiler {
+    // 最多跟踪的维度数量
+    public static final int MAX_DIMENSIONS = 16;
+
+    private final SingleWriterRecorder tickRecorder;
+    private final SlowSpans slowTicks;
+    private final SpikeCapture spikes;
+    private final PhaseTimer<ServerPhase> phases = new PhaseTimer<>(ServerPhase.class);
+
+    // 维度表：按身份比较维度键，不使用HashMap
+    private final Object[] dimensionKeys = new Object[MAX_DIMENSIONS];
+    private final String[] dimensionNames = new String[MAX_DIMENSIONS];
+    private final SingleWriterRecorder[] dimensionRecorders = new SingleWriterRecorder[MAX_DIMENSIONS];
+    private final long[] dimensionStartNanos = new long[MAX_DIMENSIONS];
+    // 已登记的维度数量，采样线程读取
+    private volatile int dimensionCount = 0;
+
+    // 当前tick开始时间，仅服务器线程访问
+    private long tickStartNanos = 0;
+    // 当前tick的JFR事件，仅在录制启用该事件时创建
+    private ServerTickEvent tickEvent;
+
+    /**
+     * @param tickRecorder 记录每tick耗时（纳秒）的记录器
+     * @param slowTicks 慢tick区间，供栈采样使用
+     * @param spikes 尖峰捕获
+     */
+    ServerTickProfiler(SingleWriterRecorder tickRecorder, SlowSpans slowTicks, SpikeCapture spikes) {
+        this.tickRecorder = tickRecorder;
+        this.slowTicks = slowTicks;
+        this.spikes = spikes;
+    }
+
+    /**
+     * tick开始
+     */
+    public void beginTick() {
+        tickStartNanos = System.nanoTime();
+        phases.reset();
+        if (ServerTickEvent.isTypeEnabled()) {
+            tickEvent = new ServerTickEvent();
+            tickEvent.begin();
+        } else {
+            tickEvent = null;
+        }
+    }
+
+    /**
+     * tick结束，提交本tick耗时和各阶段耗时
+     */
+    public void endTick() {
+        if (tickStartNanos == 0) return;
+        long start = tickStartNanos;
+        long now = System.nanoTime();
+        long duration = now - start;
+        tickStartNanos = 0;
+        slowTicks.spanEnded(start, now);
+        phases.commit();
+        tickRecorder.record(duration);
+        spikes.recordTick(start, duration, phases);
+        
+        ServerTickEvent event = tickEvent;
+        if (event != null) {
+            tickEvent = null;
+            event.end();
+            if (event.shouldCommit()) {
+                event.tickTime = duration;
+                event.worlds = phases.getLastCycleNanos(ServerPhase.WORLDS);
+                event.chunks = phases.getLastCycleNanos(ServerPhase.CHUNKS);
+                event.entities = phases.getLastCycleNanos(ServerPhase.ENTITIES);
+                event.blockEntities = phases.getLastCycleNanos(ServerPhase.BLOCK_ENTITIES);
+                event.network = phases.getLastCycleNanos(ServerPhase.NETWORK);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * 最近一个tick的耗时（纳秒），可被任意线程读取
+     */
+    public long getLastTickNanos() {
+        return tickRecorder.getLast();
+    }
+
+    public void push(ServerPhase phase) {
+        phases.push(phase);
+    }
+
+    public void pop(ServerPhase phase) {
+        phases.pop(phase);
+    }
+
+    /**
+     * 查找维度槽位，未登记时返回-1
+     */
+    public int dimensionSlot(Object dimensionKey) {
+        int count = dimensionCount;
+        for (int i = 0; i < count; i++) {
+            if (dimensionKeys[i] == dimensionKey) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 登记新维度，超过上限时返回-1
+     */
+    public int registerDimension(Object dimensionKey, String name) {
+        int existing = dimensionSlot(dimensionKey);
+        if (existing >= 0) return existing;
+        int slot = dimensionCount;
+        if (slot >= MAX_DIMENSIONS) return -1;
+        dimensionKeys[slot] = dimensionKey;
+        dimensionNames[slot] = name;
+        dimensionRecorders[slot] = new SingleWriterRecorder(true);
+        // volatile写入发布新槽位
+        dimensionCount = slot + 1;
+        return slot;
+    }
+
+    /**
+     * 维度世界tick开始
+     */
+    public void beginDimensionTick(int slot) {
+        if (slot >= 0) {
+            dimensionStartNanos[slot] = System.nanoTime();
+        }
+    }
+
+    /**
+     * 维度世界tick结束
+     */
+    public void endDimensionTick(int slot) {
+        if (slot >= 0 && dimensionStartNanos[slot] != 0) {
+            dimensionRecorders[slot].record(System.nanoTime() - dimensionStartNanos[slot]);
+            dimensionStartNanos[slot] = 0;
+        }
+    }
+
+    /**
+     * 已登记的维度数量
+     */
+    public int getDimensionCount() {
+        return dimensionCount;
+    }
+
+    public String getDimensionName(int slot) {
+        return dimensionNames[slot];
+    }
+
+    /**
+     * 推进各阶段和各维度的采样窗口，只能由采样线程调用
+     */
+    void drain(RecorderWindow[] phaseWindows, RecorderWindow[] dimensionWindows) {
+        phases.drain(phaseWindows);
+        int count = dimensionCount;
+        for (int i = 0; i < count; i++) {
+            dimensionRecorders[i].drain(dimensionWindows[i]);
+        }
+    }
+}
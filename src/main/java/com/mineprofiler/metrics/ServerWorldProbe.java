@@ -0,0 +1,113 @@
+package com.mineprofiler.metrics;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.Box;
+import net.minecraft.world.World;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 服务器游戏状态探针
+ * 位置取自指定的跟踪实体（例如第一个机器人），没有时取第一个在线玩家；区块数为所有维度之和
+ */
+public class ServerWorldProbe implements WorldProbe {
+    private final MinecraftServer server;
+    private volatile Entity tracked;
+
+    public ServerWorldProbe(MinecraftServer server) {
+        this.server = server;
+    }
+
+    /**
+     * 设置报告位置的实体，null表示使用第一个在线玩家
+     */
+    public void setTracked(Entity entity) {
+        this.tracked = entity;
+    }
+
+    @Override
+    public boolean isReady() {
+        return server.isRunning();
+    }
+
+    @Override
+    public double getPlayerX() {
+        Entity entity = positionSource();
+        return entity != null ? entity.getX() : 0.0;
+    }
+
+    @Override
+    public double getPlayerY() {
+        Entity entity = positionSource();
+        return entity != null ? entity.getY() : 0.0;
+    }
+
+    @Override
+    public double getPlayerZ() {
+        Entity entity = positionSource();
+        return entity != null ? entity.getZ() : 0.0;
+    }
+
+    @Override
+    public int getLoadedChunks() {
+        int total = 0;
+        for (ServerWorld world : server.getWorlds()) {
+            total += world.getChunkManager().getLoadedChunkCount();
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Integer> countNearbyEntities(double radius) {
+        Entity entity = positionSource();
+        if (entity == null || !server.isOnThread()) return Map.of();
+        return countEntitiesAround(entity.getWorld(), entity, radius);
+    }
+
+    @Override
+    public void describe(Map<String, Object> game) {
+        FabricEnvironment.describe(game);
+        describeServer(server, game);
+    }
+
+    /**
+     * 服务器的世界信息，客户端探针也用于集成服务器
+     */
+    static void describeServer(MinecraftServer server, Map<String, Object> game) {
+        game.put("dedicatedServer", server.isDedicated());
+        game.put("levelName", server.getSaveProperties().getLevelName());
+        ServerWorld overworld = server.getOverworld();
+        if (overworld != null) {
+            game.put("seed", overworld.getSeed());
+        }
+        game.put("serverViewDistance", server.getPlayerManager().getViewDistance());
+        game.put("serverSimulationDistance", server.getPlayerManager().getSimulationDistance());
+    }
+
+    /**
+     * 按实体类型统计指定实体周围的实体数量（不含该实体本身），只能在拥有该世界的线程上调用
+     */
+    static Map<String, Integer> countEntitiesAround(World world, Entity center, double radius) {
+        Map<String, Integer> counts = new TreeMap<>();
+        Box box = center.getBoundingBox().expand(radius);
+        double radiusSquared = radius * radius;
+        for (Entity entity : world.getOtherEntities(center, box)) {
+            if (entity.squaredDistanceTo(center) > radiusSquared) continue;
+            counts.merge(EntityType.getId(entity.getType()).toString(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private Entity positionSource() {
+        Entity entity = tracked;
+        if (entity != null) return entity;
+        List<ServerPlayerEntity> players = server.getPlayerManager().getPlayerList();
+        return players.isEmpty() ? null : players.get(0);
+    }
+}
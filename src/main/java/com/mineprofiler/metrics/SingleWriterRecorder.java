@@ -0,0 +1,161 @@
+package com.mineprofiler.metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 单写者、无锁、零分配的指标记录器
+ *
+ * 每个记录器只允许一个线程写入（渲染线程、客户端tick线程或服务器线程各自持有自己的记录器），
+ * 采样线程通过 {@link #drain(RecorderWindow)} 读取。
+ *
+ * 计数、累加和以及最新值都是累计量，受一个序列锁(seqlock)保护：
+ * 写者永不阻塞，读者在读到写到一半的状态时重试。窗口统计由采样线程用本次与上次的累计量相减得到，
+ * 因此不需要在写者和采样线程之间"清零"，也就不会丢帧或出现撕裂的窗口。
+ * 窗口内的最小/最大值由采样线程用原子交换重置，写者仅在刷新极值时才执行一次CAS。
+ * 可选附带一个 {@link LogHistogram}，用于窗口和全程的百分位统计。
+ */
+public final class SingleWriterRecorder {
+    private static final VarHandle SEQ;
+    private static final VarHandle COUNT;
+    private static final VarHandle SUM;
+    private static final VarHandle LAST;
+    private static final VarHandle WINDOW_MIN;
+    private static final VarHandle WINDOW_MAX;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            SEQ = lookup.findVarHandle(SingleWriterRecorder.class, "seq", long.class);
+            COUNT = lookup.findVarHandle(SingleWriterRecorder.class, "count", long.class);
+            SUM = lookup.findVarHandle(SingleWriterRecorder.class, "sum", long.class);
+            LAST = lookup.findVarHandle(SingleWriterRecorder.class, "last", long.class);
+            WINDOW_MIN = lookup.findVarHandle(SingleWriterRecorder.class, "windowMin", long.class);
+            WINDOW_MAX = lookup.findVarHandle(SingleWriterRecorder.class, "windowMax", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // 序列号：奇数表示写者正在更新
+    private long seq = 0;
+    // 累计量（受序列锁保护）
+    private long count = 0;
+    private long sum = 0;
+    private long last = 0;
+    // 窗口极值（采样线程交换重置）
+    private long windowMin = Long.MAX_VALUE;
+    private long windowMax = Long.MIN_VALUE;
+    // 可选的分布直方图
+    private final LogHistogram histogram;
+
+    /**
+     * 不带直方图的记录器
+     */
+    public SingleWriterRecorder() {
+        this(false);
+    }
+
+    /**
+     * @param withHistogram 是否同时记录对数分桶直方图（记录值须为纳秒）
+     */
+    public SingleWriterRecorder(boolean withHistogram) {
+        this.histogram = withHistogram ? new LogHistogram() : null;
+    }
+
+    /**
+     * 记录一个值，只能由拥有该记录器的线程调用
+     */
+    public void record(long value) {
+        long s = seq;
+        SEQ.setOpaque(this, s + 1);
+        VarHandle.storeStoreFence();
+
+        COUNT.setOpaque(this, count + 1);
+        SUM.setOpaque(this, sum + value);
+        LAST.setOpaque(this, value);
+
+        SEQ.setRelease(this, s + 2);
+
+        if (histogram != null) {
+            histogram.record(value);
+        }
+
+        // 窗口极值：只有刷新极值时才需要CAS，与采样线程的交换竞争极少
+        long currentMin = (long) WINDOW_MIN.getOpaque(this);
+        while (value < currentMin) {
+            long witness = (long) WINDOW_MIN.compareAndExchange(this, currentMin, value);
+            if (witness == currentMin) break;
+            currentMin = witness;
+        }
+        long currentMax = (long) WINDOW_MAX.getOpaque(this);
+        while (value > currentMax) {
+            long witness = (long) WINDOW_MAX.compareAndExchange(this, currentMax, value);
+            if (witness == currentMax) break;
+            currentMax = witness;
+        }
+    }
+
+    /**
+     * 读取自上次调用以来的窗口统计，并推进窗口
+     * 只能由采样线程调用，window对象由调用方预先分配并在每次采样中复用
+     */
+    public void drain(RecorderWindow window) {
+        long c, s, l;
+        while (true) {
+            long before = (long) SEQ.getAcquire(this);
+            c = (long) COUNT.getOpaque(this);
+            s = (long) SUM.getOpaque(this);
+            l = (long) LAST.getOpaque(this);
+            VarHandle.loadLoadFence();
+            long after = (long) SEQ.getOpaque(this);
+            if ((before & 1L) == 0 && before == after) break;
+            Thread.onSpinWait();
+        }
+
+        long windowMinValue = (long) WINDOW_MIN.getAndSet(this, Long.MAX_VALUE);
+        long windowMaxValue = (long) WINDOW_MAX.getAndSet(this, Long.MIN_VALUE);
+
+        window.advance(c, s, l, windowMinValue, windowMaxValue);
+        if (histogram != null) {
+            window.advanceHistogram(histogram);
+        }
+    }
+
+    /**
+     * 创建与本记录器匹配的快照对象
+     */
+    RecorderSnapshot newSnapshot() {
+        return new RecorderSnapshot(histogram != null);
+    }
+
+    /**
+     * 把当前累计量复制到快照，并重置窗口极值
+     * 只能由拥有该记录器的线程调用，用于写线程自己决定窗口边界（按帧切分窗口）；
+     * 同一个记录器不能同时用 {@link #drain(RecorderWindow)} 推进窗口
+     */
+    void snapshot(RecorderSnapshot target) {
+        target.count = count;
+        target.sum = sum;
+        target.last = last;
+        target.min = (long) WINDOW_MIN.getAndSet(this, Long.MAX_VALUE);
+        target.max = (long) WINDOW_MAX.getAndSet(this, Long.MIN_VALUE);
+        if (histogram != null) {
+            histogram.copyCounts(target.histogram);
+        }
+    }
+
+    /**
+     * 当前累计记录数（近似值，可被任意线程读取）
+     */
+    public long getCount() {
+        return (long) COUNT.getOpaque(this);
+    }
+
+    /**
+     * 最近一次记录的值（近似值，可被任意线程读取）
+     */
+    public long getLast() {
+        return (long) LAST.getOpaque(this);
+    }
+}
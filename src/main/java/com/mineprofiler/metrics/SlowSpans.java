@@ -0,0 +1,77 @@
+package com.mineprofiler.metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 慢帧/慢tick区间记录
+ *
+ * 写线程（渲染线程或服务器线程）在每帧或每tick结束时调用 {@link #spanEnded}：
+ * 耗时达到阈值的区间写入定长环形数组，并推进“已完成”时刻。
+ * 读线程（栈采样线程）先读已完成时刻再读区间，据此判断某一时刻采到的栈是否落在慢帧内。
+ */
+final class SlowSpans {
+    private static final int CAPACITY = 64;
+    private static final VarHandle WRITTEN;
+    private static final VarHandle COMPLETED_UP_TO;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            WRITTEN = lookup.findVarHandle(SlowSpans.class, "written", long.class);
+            COMPLETED_UP_TO = lookup.findVarHandle(SlowSpans.class, "completedUpTo", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long[] starts = new long[CAPACITY];
+    private final long[] ends = new long[CAPACITY];
+    // 已写入的区间数，写线程以release语义发布
+    private long written = 0;
+    // 该时刻之前开始的帧都已结束
+    private long completedUpTo = 0;
+    // 慢帧阈值（纳秒），由采样线程根据全程分布更新
+    private volatile long thresholdNanos = Long.MAX_VALUE;
+
+    /**
+     * 一帧或一个tick结束，只能由写线程调用
+     */
+    void spanEnded(long startNanos, long endNanos) {
+        if (endNanos - startNanos >= thresholdNanos) {
+            long index = written;
+            int slot = (int) (index % CAPACITY);
+            starts[slot] = startNanos;
+            ends[slot] = endNanos;
+            WRITTEN.setRelease(this, index + 1);
+        }
+        COMPLETED_UP_TO.setRelease(this, endNanos);
+    }
+
+    void setThresholdNanos(long thresholdNanos) {
+        this.thresholdNanos = thresholdNanos;
+    }
+
+    long getCompletedUpTo() {
+        return (long) COMPLETED_UP_TO.getAcquire(this);
+    }
+
+    long getWritten() {
+        return (long) WRITTEN.getAcquire(this);
+    }
+
+    /**
+     * 读取第index个区间（读线程落后超过容量时旧区间已被覆盖，调用方应跳过）
+     */
+    long getStart(long index) {
+        return starts[(int) (index % CAPACITY)];
+    }
+
+    long getEnd(long index) {
+        return ends[(int) (index % CAPACITY)];
+    }
+
+    static int capacity() {
+        return CAPACITY;
+    }
+}
@@ -0,0 +1,282 @@
+package com.mineprofiler.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 尖峰捕获
+ *
+ * 渲染线程和服务器线程每帧/每tick把耗时和各阶段耗时写入各自的 {@link CycleHistory}（预分配、原地覆盖）。
+ * 某一帧或tick超过阈值时，在该线程上复制最近的历史，附上玩家位置、已加载区块数和玩家附近的实体数量，
+ * 交给后台线程以JSON行写入 spikes_<时间戳>.jsonl。两次捕获之间有冷却时间，避免持续卡顿时刷屏。
+ */
+public final class SpikeCapture {
+    private static final Logger LOGGER = LogManager.getLogger("SpikeCapture");
+    private static final Gson GSON = new Gson();
+
+    private final WorldProbe probe;
+    // 阈值可在运行中修改，由渲染线程和服务器线程读取
+    private volatile long frameThresholdNanos;
+    private volatile long tickThresholdNanos;
+    private volatile long cooldownNanos;
+    private volatile double entityRadius;
+
+    // 帧历史仅渲染线程访问，tick历史仅服务器线程访问
+    private final CycleHistory frames;
+    private final CycleHistory ticks;
+    private long lastFrameSpikeNanos = 0;
+    private long lastTickSpikeNanos = 0;
+    private volatile long frameSpikes = 0;
+    private volatile long tickSpikes = 0;
+
+    // 写入线程，收集期间非null
+    private volatile Executor executor;
+    // 仅写入线程访问
+    private BufferedWriter log;
+
+    /**
+     * @param historyLength 每次捕获附带的历史长度（帧/tick数）
+     * @param frameThresholdMs 帧时间阈值（毫秒）
+     * @param tickThresholdMs tick耗时阈值（毫秒）
+     * @param cooldownMs 同一类尖峰两次捕获的最小间隔（毫秒）
+     * @param entityRadius 统计玩家附近实体的半径（格）
+     */
+    public SpikeCapture(WorldProbe probe, int historyLength, double frameThresholdMs, double tickThresholdMs,
+                        long cooldownMs, double entityRadius) {
+        this.probe = probe;
+        setThresholds(frameThresholdMs, tickThresholdMs, cooldownMs, entityRadius);
+        this.frames = new CycleHistory(historyLength, RenderPhase.VALUES.length);
+        this.ticks = new CycleHistory(historyLength, ServerPhase.VALUES.length);
+    }
+
+    /**
+     * 修改阈值，可由任意线程调用，之后的帧/tick立即使用新阈值
+     */
+    public void setThresholds(double frameThresholdMs, double tickThresholdMs, long cooldownMs, double entityRadius) {
+        this.frameThresholdNanos = (long) (frameThresholdMs * 1_000_000.0);
+        this.tickThresholdNanos = (long) (tickThresholdMs * 1_000_000.0);
+        this.cooldownNanos = cooldownMs * 1_000_000L;
+        this.entityRadius = entityRadius;
+    }
+
+    /**
+     * 开始写入尖峰日志
+     * 同一次运行中停止后再次开始时追加到原文件
+     * @param executor 执行写入的后台线程
+     */
+    public void start(File file, Executor executor) {
+        try {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+            executor.execute(() -> {
+                close();
+                log = writer;
+            });
+            this.executor = executor;
+        } catch (IOException | RejectedExecutionException e) {
+            LOGGER.error("无法创建尖峰日志", e);
+        }
+    }
+
+    /**
+     * 停止捕获，之后应在写入线程结束后调用 {@link #close()}
+     */
+    public void stop() {
+        executor = null;
+    }
+
+    /**
+     * 关闭尖峰日志，调用时写入线程必须已经结束
+     */
+    public void close() {
+        if (log == null) return;
+        try {
+            log.close();
+        } catch (IOException e) {
+            LOGGER.error("关闭尖峰日志时出错", e);
+        }
+        log = null;
+    }
+
+    /**
+     * 记录一帧，只能由渲染线程调用
+     */
+    void recordFrame(long startNanos, long durationNanos, int flags, long msptNanos, PhaseTimer<RenderPhase> phases) {
+        frames.record(startNanos, durationNanos, flags, msptNanos, phases);
+        long thresholdNanos = frameThresholdNanos;
+        if (durationNanos < thresholdNanos) return;
+        long now = startNanos + durationNanos;
+        if (lastFrameSpikeNanos != 0 && now - lastFrameSpikeNanos < cooldownNanos) return;
+        if (submit("frame", frames, thresholdNanos)) {
+            lastFrameSpikeNanos = now;
+            frameSpikes++;
+        }
+    }
+
+    /**
+     * 记录一个tick，只能由服务器线程调用
+     */
+    void recordTick(long startNanos, long durationNanos, PhaseTimer<ServerPhase> phases) {
+        ticks.record(startNanos, durationNanos, 0, durationNanos, phases);
+        long thresholdNanos = tickThresholdNanos;
+        if (durationNanos < thresholdNanos) return;
+        long now = startNanos + durationNanos;
+        if (lastTickSpikeNanos != 0 && now - lastTickSpikeNanos < cooldownNanos) return;
+        if (submit("tick", ticks, thresholdNanos)) {
+            lastTickSpikeNanos = now;
+            tickSpikes++;
+        }
+    }
+
+    /**
+     * 最近的帧历史，只能由渲染线程读取
+     */
+    public CycleHistory getFrameHistory() {
+        return frames;
+    }
+
+    public long getFrameSpikes() {
+        return frameSpikes;
+    }
+
+    public long getTickSpikes() {
+        return tickSpikes;
+    }
+
+    /**
+     * 在尖峰线程上复制历史和现场数据，交给写入线程
+     */
+    private boolean submit(String kind, CycleHistory history, long thresholdNanos) {
+        Executor target = executor;
+        if (target == null) return false;
+        Spike spike = new Spike();
+        spike.kind = kind;
+        spike.timestamp = System.currentTimeMillis();
+        spike.thresholdNanos = thresholdNanos;
+        spike.history = history.copy();
+        if (probe.isReady()) {
+            spike.x = probe.getPlayerX();
+            spike.y = probe.getPlayerY();
+            spike.z = probe.getPlayerZ();
+            spike.loadedChunks = probe.getLoadedChunks();
+            spike.entities = probe.countNearbyEntities(entityRadius);
+        }
+        try {
+            target.execute(() -> write(spike));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // 正在停止收集
+            return false;
+        }
+    }
+
+    /**
+     * 写入一条尖峰记录，在写入线程上执行
+     */
+    private void write(Spike spike) {
+        if (log == null) return;
+        CycleHistory history = spike.history;
+        int last = history.size() - 1;
+        boolean frame = "frame".equals(spike.kind);
+
+        JsonObject json = new JsonObject();
+        json.addProperty("kind", spike.kind);
+        json.addProperty("timestamp", spike.timestamp);
+        json.addProperty("startNanos", history.getStartNanos(last));
+        json.addProperty("durationMs", toMs(history.getDurationNanos(last)));
+        json.addProperty("thresholdMs", toMs(spike.thresholdNanos));
+        if (frame) {
+            json.addProperty("msptMs", toMs(history.getMsptNanos(last)));
+        }
+        json.add("phasesMs", phases(history, last, frame));
+
+        if (spike.entities != null) {
+            JsonObject player = new JsonObject();
+            player.addProperty("x", spike.x);
+            player.addProperty("y", spike.y);
+            player.addProperty("z", spike.z);
+            json.add("player", player);
+            json.addProperty("loadedChunks", spike.loadedChunks);
+            json.addProperty("entityRadius", entityRadius);
+            JsonObject entities = new JsonObject();
+            int total = 0;
+            for (Map.Entry<String, Integer> entry : spike.entities.entrySet()) {
+                entities.addProperty(entry.getKey(), entry.getValue());
+                total += entry.getValue();
+            }
+            json.addProperty("nearbyEntities", total);
+            json.add("nearbyEntityTypes", entities);
+        }
+
+        JsonArray entries = new JsonArray();
+        for (int i = 0; i <= last; i++) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("startNanos", history.getStartNanos(i));
+            entry.addProperty("durationMs", toMs(history.getDurationNanos(i)));
+            if (frame) {
+                int flags = history.getFlags(i);
+                entry.addProperty("tick", (flags & FrameTraceWriter.FLAG_TICK) != 0);
+                entry.addProperty("gc", (flags & FrameTraceWriter.FLAG_GC) != 0);
+                entry.addProperty("msptMs", toMs(history.getMsptNanos(i)));
+            }
+            entry.add("phasesMs", phases(history, i, frame));
+            entries.add(entry);
+        }
+        json.add("history", entries);
+
+        try {
+            log.write(GSON.toJson(json));
+            log.newLine();
+            log.flush();
+        } catch (IOException e) {
+            LOGGER.error("写入尖峰日志时出错", e);
+        }
+        LOGGER.info(String.format("捕获到%s尖峰: %.1f ms（阈值 %.1f ms）",
+                frame ? "帧" : "tick", toMs(history.getDurationNanos(last)), toMs(spike.thresholdNanos)));
+    }
+
+    private static JsonObject phases(CycleHistory history, int index, boolean frame) {
+        JsonObject json = new JsonObject();
+        if (frame) {
+            for (RenderPhase phase : RenderPhase.VALUES) {
+                json.addProperty(phase.getColumnName(), toMs(history.getPhaseNanos(index, phase.ordinal())));
+            }
+        } else {
+            for (ServerPhase phase : ServerPhase.VALUES) {
+                json.addProperty(phase.getColumnName(), toMs(history.getPhaseNanos(index, phase.ordinal())));
+            }
+        }
+        return json;
+    }
+
+    private static double toMs(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    /**
+     * 一次尖峰的现场数据
+     */
+    private static final class Spike {
+        String kind;
+        long timestamp;
+        long thresholdNanos;
+        CycleHistory history;
+        double x;
+        double y;
+        double z;
+        int loadedChunks;
+        Map<String, Integer> entities;
+    }
+}
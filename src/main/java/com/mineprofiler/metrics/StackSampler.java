@@ -0,0 +1,217 @@
+package com.mineprofiler.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 慢帧栈采样器
+ *
+ * 独立线程按固定间隔采集渲染线程和服务器线程的调用栈，先放入待定队列；
+ * 对应的帧或tick结束后，只有落在慢帧/慢tick区间（耗时超过全程分布的指定百分位）内的样本
+ * 才会并入调用栈前缀树，其余丢弃。停止时每个线程输出一个折叠栈文件，可直接生成火焰图。
+ * 注意：每次采样需要JVM安全点，采样间隔不宜过小。
+ */
+public final class StackSampler {
+    private static final Logger LOGGER = LogManager.getLogger("StackSampler");
+    private static final int MAX_DEPTH = 256;
+    private static final int PENDING_CAPACITY = 1024;
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final JvmTelemetry jvm;
+    private final long intervalNanos;
+    private final RoleState[] roles;
+
+    // 帧驻留表，仅采样线程访问
+    private final Map<StackTraceElement, Integer> elementIds = new HashMap<>();
+    private final Map<String, Integer> labelIds = new HashMap<>();
+    private final List<String> labels = new ArrayList<>();
+
+    private Thread thread;
+    private volatile boolean running = false;
+
+    /**
+     * @param renderSpans 渲染线程的慢帧区间
+     * @param serverSpans 服务器线程的慢tick区间
+     * @param intervalMs 采样间隔（毫秒）
+     */
+    StackSampler(JvmTelemetry jvm, SlowSpans renderSpans, SlowSpans serverSpans, long intervalMs) {
+        this.jvm = jvm;
+        this.intervalNanos = Math.max(1, intervalMs) * 1_000_000L;
+        this.roles = new RoleState[] {
+                new RoleState(JvmTelemetry.ThreadRole.RENDER, renderSpans),
+                new RoleState(JvmTelemetry.ThreadRole.SERVER, serverSpans)
+        };
+    }
+
+    synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::sampleLoop, "MetricsStackSampler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 停止采样，并把每个线程的结果写入 stacks_<线程>_<时间戳>.collapsed
+     */
+    synchronized void stop(File directory, String runTimestamp) {
+        if (!running) return;
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        String[] labelArray = labels.toArray(new String[0]);
+        for (RoleState role : roles) {
+            if (role.trie.getTotal() == 0) continue;
+            String name = role.role.name().toLowerCase(Locale.ROOT);
+            File file = new File(directory, "stacks_" + name + "_" + runTimestamp + ".collapsed");
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+                role.trie.writeCollapsed(writer, name, labelArray);
+                LOGGER.info(String.format("%s 线程: 慢帧样本 %d 个（共采集 %d 个），已写入 %s",
+                        name, role.trie.getTotal(), role.sampled, file.getPath()));
+            } catch (IOException e) {
+                LOGGER.error("无法写入栈采样结果", e);
+            }
+        }
+    }
+
+    private void sampleLoop() {
+        long next = System.nanoTime();
+        while (running) {
+            try {
+                for (RoleState role : roles) {
+                    sample(role);
+                    resolve(role);
+                }
+            } catch (Throwable t) {
+                LOGGER.error("栈采样时出错", t);
+            }
+            next += intervalNanos;
+            long sleepNanos = next - System.nanoTime();
+            if (sleepNanos <= 0) {
+                // 落后时不补采
+                next = System.nanoTime();
+                continue;
+            }
+            try {
+                Thread.sleep(sleepNanos / 1_000_000L, (int) (sleepNanos % 1_000_000L));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void sample(RoleState role) {
+        long threadId = jvm.getThreadId(role.role);
+        if (threadId < 0) return;
+        ThreadInfo info = threadBean.getThreadInfo(threadId, MAX_DEPTH);
+        // 栈在安全点处采集，请求之后可能要等待一段时间才到达安全点，以返回时刻作为样本时间
+        long timestamp = System.nanoTime();
+        if (info == null) return;
+        StackTraceElement[] stack = info.getStackTrace();
+        if (stack.length == 0) return;
+
+        // 待定队列已满时丢弃最旧的样本
+        if (role.pendingCount == PENDING_CAPACITY) {
+            role.pendingHead = (role.pendingHead + 1) % PENDING_CAPACITY;
+            role.pendingCount--;
+        }
+        int slot = (role.pendingHead + role.pendingCount) % PENDING_CAPACITY;
+        int[] frames = role.pendingFrames[slot];
+        if (frames == null) {
+            frames = new int[MAX_DEPTH];
+            role.pendingFrames[slot] = frames;
+        }
+        // ThreadInfo中栈顶在前，前缀树需要根方法在前
+        for (int i = 0; i < stack.length; i++) {
+            frames[i] = intern(stack[stack.length - 1 - i]);
+        }
+        role.pendingTimes[slot] = timestamp;
+        role.pendingLengths[slot] = stack.length;
+        role.pendingCount++;
+        role.sampled++;
+    }
+
+    /**
+     * 处理所在帧已经结束的待定样本：落在慢帧区间内则并入前缀树，否则丢弃
+     */
+    private void resolve(RoleState role) {
+        SlowSpans spans = role.spans;
+        long completedUpTo = spans.getCompletedUpTo();
+        long written = spans.getWritten();
+        // 只保留环形数组中仍有效的区间
+        long firstValid = Math.max(role.spanCursor, written - SlowSpans.capacity());
+
+        while (role.pendingCount > 0) {
+            int slot = role.pendingHead;
+            long time = role.pendingTimes[slot];
+            if (time > completedUpTo) break;
+
+            // 跳过已经结束在该样本之前的慢帧区间
+            while (firstValid < written && spans.getEnd(firstValid) < time) {
+                firstValid++;
+            }
+            if (firstValid < written && spans.getStart(firstValid) <= time) {
+                role.trie.add(role.pendingFrames[slot], role.pendingLengths[slot]);
+            }
+            role.pendingHead = (slot + 1) % PENDING_CAPACITY;
+            role.pendingCount--;
+        }
+        role.spanCursor = firstValid;
+    }
+
+    private int intern(StackTraceElement element) {
+        Integer id = elementIds.get(element);
+        if (id != null) return id;
+        String label = element.getClassName() + "." + element.getMethodName();
+        Integer labelId = labelIds.get(label);
+        if (labelId == null) {
+            labelId = labels.size();
+            labels.add(label);
+            labelIds.put(label, labelId);
+        }
+        elementIds.put(element, labelId);
+        return labelId;
+    }
+
+    /**
+     * 单个被采样线程的状态，仅采样线程访问
+     */
+    private static final class RoleState {
+        final JvmTelemetry.ThreadRole role;
+        final SlowSpans spans;
+        final StackTrie trie = new StackTrie();
+        final int[][] pendingFrames = new int[PENDING_CAPACITY][];
+        final int[] pendingLengths = new int[PENDING_CAPACITY];
+        final long[] pendingTimes = new long[PENDING_CAPACITY];
+        int pendingHead = 0;
+        int pendingCount = 0;
+        long spanCursor = 0;
+        long sampled = 0;
+
+        RoleState(JvmTelemetry.ThreadRole role, SlowSpans spans) {
+            this.role = role;
+            this.spans = spans;
+        }
+    }
+}
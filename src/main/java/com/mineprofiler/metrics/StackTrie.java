@@ -0,0 +1,82 @@
+package com.mineprofiler.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * 调用栈前缀树
+ * 节点以数组存放（父节点、首个子节点、下一个兄弟节点、帧编号、自身计数），
+ * 帧编号由 {@link StackSampler} 驻留分配，相同前缀的栈共享节点。
+ */
+final class StackTrie {
+    private int[] frame = new int[1024];
+    private int[] firstChild = new int[1024];
+    private int[] nextSibling = new int[1024];
+    private long[] selfCount = new long[1024];
+    private int size = 1;
+    private long total = 0;
+
+    StackTrie() {
+        // 0号节点为根
+        frame[0] = -1;
+        firstChild[0] = -1;
+        nextSibling[0] = -1;
+    }
+
+    /**
+     * 加入一个样本
+     * @param frames 由外到内（根方法在前）的帧编号
+     */
+    void add(int[] frames, int length) {
+        int node = 0;
+        for (int i = 0; i < length; i++) {
+            node = child(node, frames[i]);
+        }
+        selfCount[node]++;
+        total++;
+    }
+
+    long getTotal() {
+        return total;
+    }
+
+    /**
+     * 以折叠栈格式输出（每行“帧;帧;帧 次数”），可直接交给 flamegraph.pl 等工具
+     */
+    void writeCollapsed(Writer writer, String root, String[] labels) throws IOException {
+        StringBuilder path = new StringBuilder(root);
+        writeNode(writer, 0, path, labels);
+    }
+
+    private void writeNode(Writer writer, int node, StringBuilder path, String[] labels) throws IOException {
+        if (selfCount[node] > 0) {
+            writer.append(path).append(' ').append(Long.toString(selfCount[node])).append('\n');
+        }
+        int length = path.length();
+        for (int c = firstChild[node]; c >= 0; c = nextSibling[c]) {
+            path.append(';').append(labels[frame[c]]);
+            writeNode(writer, c, path, labels);
+            path.setLength(length);
+        }
+    }
+
+    private int child(int parent, int frameId) {
+        for (int c = firstChild[parent]; c >= 0; c = nextSibling[c]) {
+            if (frame[c] == frameId) return c;
+        }
+        if (size == frame.length) {
+            int capacity = size * 2;
+            frame = Arrays.copyOf(frame, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            nextSibling = Arrays.copyOf(nextSibling, capacity);
+            selfCount = Arrays.copyOf(selfCount, capacity);
+        }
+        int node = size++;
+        frame[node] = frameId;
+        firstChild[node] = -1;
+        nextSibling[node] = firstChild[parent];
+        firstChild[parent] = node;
+        return node;
+    }
+}
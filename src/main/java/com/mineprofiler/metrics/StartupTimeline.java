@@ -0,0 +1,356 @@
+package com.mineprofiler.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * 启动时间线
+ *
+ * 记录从JVM启动到进入世界后第一帧的各个里程碑（System.nanoTime()），每个里程碑只记录第一次。
+ * 相邻里程碑之差即为各启动阶段的耗时：加载器、模组初始化、客户端初始化、资源加载、世界生成到出生点、加入世界、首帧渲染。
+ * 此外记录资源重载、着色器编译、图集拼接等带线程信息的区间，以及每个模组初始化入口的耗时，
+ * 可输出为 Chrome trace（trace_event JSON），在 chrome://tracing 或 Perfetto 中查看。
+ * 里程碑和区间可由任意线程记录。
+ */
+public final class StartupTimeline {
+    private static final Logger LOGGER = LogManager.getLogger("StartupTimeline");
+    private static final Gson GSON = new Gson();
+    private static final long UNSET = 0L;
+    // 进程内唯一实例：preLaunch 阶段即开始记录，早于模组主类创建
+    private static final StartupTimeline CURRENT = new StartupTimeline();
+
+    /**
+     * 启动里程碑，按发生顺序排列
+     */
+    public enum Milestone {
+        // JVM启动
+        JVM_START("jvm"),
+        // Fabric加载器和Mixin准备完成，开始执行 preLaunch 入口
+        PRE_LAUNCH("loader"),
+        // 本模组客户端初始化完成
+        MOD_INITIALIZED("modInit"),
+        // 所有模组初始化完成，客户端开始运行
+        CLIENT_STARTED("clientInit"),
+        // 首次资源加载完成（加载界面消失）
+        RESOURCES_LOADED("resourceReload"),
+        // 开始创建或加载世界
+        WORLD_REQUESTED("idle"),
+        // 集成服务器启动完成（出生点区块已生成）
+        SERVER_STARTED("worldGen"),
+        // 客户端玩家进入世界
+        WORLD_JOINED("join"),
+        // 进入世界后第一帧渲染完成
+        FIRST_FRAME("firstFrame");
+
+        static final Milestone[] VALUES = values();
+
+        private final String stageName;
+
+        Milestone(String stageName) {
+            this.stageName = stageName;
+        }
+
+        /**
+         * 以该里程碑结束的启动阶段名称
+         */
+        public String getStageName() {
+            return stageName;
+        }
+    }
+
+    private final AtomicLongArray nanos = new AtomicLongArray(Milestone.VALUES.length);
+    // 已记录的区间，受对象锁保护
+    private final List<Span> spans = new ArrayList<>();
+    // 各模组初始化入口的累计耗时（模组ID -> 纳秒），受对象锁保护
+    private final Map<String, Long> modNanos = new LinkedHashMap<>();
+    // 写出后不再记录区间（之后的资源重载不属于启动过程）
+    private volatile boolean closed = false;
+    // 已开始的资源重载次数，包括启动之后的重载
+    private final AtomicInteger reloads = new AtomicInteger();
+
+    private StartupTimeline() {
+        // JVM启动时刻换算为 System.nanoTime()
+        long uptimeNanos = ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000L;
+        nanos.set(Milestone.JVM_START.ordinal(), System.nanoTime() - uptimeNanos);
+    }
+
+    /**
+     * 进程内的启动时间线
+     */
+    public static StartupTimeline current() {
+        return CURRENT;
+    }
+
+    /**
+     * 记录里程碑，已记录过的里程碑保持第一次的时间
+     */
+    public void mark(Milestone milestone) {
+        if (nanos.compareAndSet(milestone.ordinal(), UNSET, System.nanoTime())) {
+            LOGGER.info(String.format("启动里程碑 %s: JVM启动后 %.0f ms", milestone, sinceJvmStartMs(milestone)));
+        }
+    }
+
+    /**
+     * 每帧渲染结束时调用：进入世界后的第一帧记为首帧
+     */
+    public void onFrameRendered() {
+        if (isMarked(Milestone.WORLD_JOINED) && !isMarked(Milestone.FIRST_FRAME)) {
+            mark(Milestone.FIRST_FRAME);
+        }
+    }
+
+    /**
+     * 资源重载开始时调用
+     */
+    public void onReloadStarted() {
+        reloads.incrementAndGet();
+    }
+
+    /**
+     * 已开始的资源重载次数，可用来区分属于不同重载的回调
+     */
+    public int getReloadCount() {
+        return reloads.get();
+    }
+
+    /**
+     * 记录一个在当前线程上执行的区间
+     * @param category 分类，例如 reload、shader、atlas
+     */
+    public void addSpan(String name, String category, long startNanos, long endNanos) {
+        Thread thread = Thread.currentThread();
+        addSpan(name, category, startNanos, endNanos, thread.getId(), thread.getName());
+    }
+
+    /**
+     * 记录一个区间
+     */
+    public synchronized void addSpan(String name, String category, long startNanos, long endNanos, long threadId, String threadName) {
+        if (closed || endNanos < startNanos) return;
+        spans.add(new Span(name, category, startNanos, endNanos, threadId, threadName));
+    }
+
+    /**
+     * 记录模组初始化入口的采样结果
+     * @param runs 采样得到的连续执行段
+     * @param classToMod 入口类名 -> 模组ID，找不到时使用类名
+     * @param thread 执行入口的线程
+     */
+    public synchronized void addEntrypointRuns(List<EntrypointSampler.Run> runs, Map<String, String> classToMod, Thread thread) {
+        for (EntrypointSampler.Run run : runs) {
+            String mod = classToMod.getOrDefault(run.getClassName(), run.getClassName());
+            addSpan(mod, "mod", run.getStartNanos(), run.getEndNanos(), thread.getId(), thread.getName());
+            modNanos.merge(mod, run.getEndNanos() - run.getStartNanos(), Long::sum);
+        }
+    }
+
+    public boolean isMarked(Milestone milestone) {
+        return nanos.get(milestone.ordinal()) != UNSET;
+    }
+
+    /**
+     * 是否已到达首帧
+     */
+    public boolean isComplete() {
+        return isMarked(Milestone.FIRST_FRAME);
+    }
+
+    /**
+     * 里程碑时间（System.nanoTime()），未记录时为0
+     */
+    public long getNanos(Milestone milestone) {
+        return nanos.get(milestone.ordinal());
+    }
+
+    /**
+     * 里程碑距JVM启动的毫秒数，未记录时为-1
+     */
+    public double sinceJvmStartMs(Milestone milestone) {
+        long value = nanos.get(milestone.ordinal());
+        if (value == UNSET) return -1;
+        return (value - nanos.get(Milestone.JVM_START.ordinal())) / 1_000_000.0;
+    }
+
+    /**
+     * 以该里程碑结束的阶段耗时（毫秒），即与上一个已记录里程碑之差；未记录时为-1
+     */
+    public double stageMs(Milestone milestone) {
+        long end = nanos.get(milestone.ordinal());
+        if (end == UNSET) return -1;
+        if (milestone == Milestone.JVM_START) return 0;
+        for (int i = milestone.ordinal() - 1; i >= 0; i--) {
+            long start = nanos.get(i);
+            if (start != UNSET) {
+                return (end - start) / 1_000_000.0;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 写出各阶段耗时（CSV）、各模组初始化耗时（CSV）和 Chrome trace，并输出到日志
+     * 写出后不再记录区间
+     * @param directory 输出目录
+     * @param runTimestamp 文件名中的时间戳
+     */
+    public void write(File directory, String runTimestamp) {
+        closed = true;
+        File stagesFile = new File(directory, "startup_" + runTimestamp + ".csv");
+        File modsFile = new File(directory, "startup_mods_" + runTimestamp + ".csv");
+        File traceFile = new File(directory, "startup_" + runTimestamp + ".trace.json");
+        try {
+            writeStages(stagesFile);
+            writeMods(modsFile);
+            writeTrace(traceFile);
+            LOGGER.info(String.format("首帧时间: JVM启动后 %.0f ms，启动时间线已保存至 %s，Chrome trace: %s",
+                    sinceJvmStartMs(Milestone.FIRST_FRAME), stagesFile.getPath(), traceFile.getPath()));
+        } catch (IOException e) {
+            LOGGER.error("无法写入启动时间线", e);
+        }
+    }
+
+    private void writeStages(File file) throws IOException {
+        StringBuilder summary = new StringBuilder("启动阶段耗时:");
+        try (BufferedWriter writer = newWriter(file)) {
+            writer.write("milestone,stage,startNanos,sinceJvmStartMs,stageMs\n");
+            for (Milestone milestone : Milestone.VALUES) {
+                if (!isMarked(milestone)) continue;
+                writer.write(String.format(Locale.ROOT, "%s,%s,%d,%.1f,%.1f%n", milestone.name(), milestone.getStageName(),
+                        getNanos(milestone), sinceJvmStartMs(milestone), stageMs(milestone)));
+                if (milestone != Milestone.JVM_START) {
+                    summary.append(String.format(" %s %.0f ms", milestone.getStageName(), stageMs(milestone)));
+                }
+            }
+        }
+        LOGGER.info(summary.toString());
+    }
+
+    private synchronized void writeMods(File file) throws IOException {
+        if (modNanos.isEmpty()) return;
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(modNanos.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        StringBuilder summary = new StringBuilder("模组初始化耗时:");
+        try (BufferedWriter writer = newWriter(file)) {
+            writer.write("mod,initMs\n");
+            for (int i = 0; i < entries.size(); i++) {
+                Map.Entry<String, Long> entry = entries.get(i);
+                double ms = entry.getValue() / 1_000_000.0;
+                writer.write(String.format(Locale.ROOT, "%s,%.1f%n", entry.getKey(), ms));
+                if (i < 10) {
+                    summary.append(String.format(" %s %.0f ms", entry.getKey(), ms));
+                }
+            }
+        }
+        LOGGER.info(summary.toString());
+    }
+
+    /**
+     * 输出 Chrome trace：启动阶段和区间为完整事件（ph=X），里程碑为全局瞬时事件（ph=i），时间单位为微秒，以JVM启动为零点
+     */
+    private synchronized void writeTrace(File file) throws IOException {
+        long origin = nanos.get(Milestone.JVM_START.ordinal());
+        JsonArray events = new JsonArray();
+        Map<Long, String> threads = new LinkedHashMap<>();
+        for (Span span : spans) {
+            JsonObject event = new JsonObject();
+            event.addProperty("name", span.name);
+            event.addProperty("cat", span.category);
+            event.addProperty("ph", "X");
+            event.addProperty("ts", (span.startNanos - origin) / 1_000.0);
+            event.addProperty("dur", (span.endNanos - span.startNanos) / 1_000.0);
+            event.addProperty("pid", 1);
+            event.addProperty("tid", span.threadId);
+            events.add(event);
+            threads.putIfAbsent(span.threadId, span.threadName);
+        }
+        // 各启动阶段放在单独的一行（tid 0）
+        threads.put(0L, "startup");
+        for (Milestone milestone : Milestone.VALUES) {
+            if (milestone == Milestone.JVM_START || !isMarked(milestone)) continue;
+            long end = getNanos(milestone);
+            long start = end - (long) (stageMs(milestone) * 1_000_000.0);
+            JsonObject event = new JsonObject();
+            event.addProperty("name", milestone.getStageName());
+            event.addProperty("cat", "stage");
+            event.addProperty("ph", "X");
+            event.addProperty("ts", (start - origin) / 1_000.0);
+            event.addProperty("dur", (end - start) / 1_000.0);
+            event.addProperty("pid", 1);
+            event.addProperty("tid", 0);
+            events.add(event);
+        }
+        for (Milestone milestone : Milestone.VALUES) {
+            if (!isMarked(milestone)) continue;
+            JsonObject event = new JsonObject();
+            event.addProperty("name", milestone.name());
+            event.addProperty("cat", "milestone");
+            event.addProperty("ph", "i");
+            event.addProperty("s", "g");
+            event.addProperty("ts", (getNanos(milestone) - origin) / 1_000.0);
+            event.addProperty("pid", 1);
+            event.addProperty("tid", 0);
+            events.add(event);
+        }
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            JsonObject args = new JsonObject();
+            args.addProperty("name", thread.getValue());
+            JsonObject event = new JsonObject();
+            event.addProperty("name", "thread_name");
+            event.addProperty("ph", "M");
+            event.addProperty("pid", 1);
+            event.addProperty("tid", thread.getKey());
+            event.add("args", args);
+            events.add(event);
+        }
+        JsonObject trace = new JsonObject();
+        trace.add("traceEvents", events);
+        trace.addProperty("displayTimeUnit", "ms");
+        try (BufferedWriter writer = newWriter(file)) {
+            GSON.toJson(trace, writer);
+        }
+    }
+
+    private static BufferedWriter newWriter(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 一个带线程信息的区间
+     */
+    private static final class Span {
+        final String name;
+        final String category;
+        final long startNanos;
+        final long endNanos;
+        final long threadId;
+        final String threadName;
+
+        Span(String name, String category, long startNanos, long endNanos, long threadId, String threadName) {
+            this.name = name;
+            this.category = category;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.threadId = threadId;
+            this.threadName = threadName;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.mineprofiler.metrics;
+
+import java.util.Map;
+
+/**
+ * 游戏状态探针
+ * 为采样线程提供玩家位置、已加载区块数等与运行环境相关的数据，
+ * 使 {@link LightweightMetrics} 本身不依赖客户端或服务器的具体类
+ */
+public interface WorldProbe {
+    /**
+     * 是否已进入世界，未进入时不写入数据行
+     */
+    boolean isReady();
+
+    double getPlayerX();
+
+    double getPlayerY();
+
+    double getPlayerZ();
+
+    /**
+     * 已加载的区块数量
+     */
+    int getLoadedChunks();
+
+    /**
+     * 玩家附近各类实体的数量（实体类型ID -> 数量）
+     * 需要遍历世界中的实体，只在拥有该世界的线程上统计，其他线程调用时返回空表
+     */
+    Map<String, Integer> countNearbyEntities(double radius);
+
+    /**
+     * 写入运行清单的游戏信息（版本、模组、种子、视距等），默认不提供
+     */
+    default void describe(Map<String, Object> game) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.mineprofiler.metrics.io;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 不分配内存的数字格式化工具
+ * 把整数和定点小数直接以ASCII写入字节数组，用于替代逐行 String.format
+ */
+public final class AsciiNumbers {
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+    // 超过该值时定点格式会溢出，退回到Double.toString
+    private static final double FIXED_POINT_LIMIT = 1e15;
+    private static final byte[] LONG_MIN_VALUE = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NAN = "NaN".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] POSITIVE_INFINITY = "Infinity".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEGATIVE_INFINITY = "-Infinity".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 数值格式化后的最大长度，调用方应保证缓冲区至少有这么多剩余空间
+     */
+    public static final int MAX_LENGTH = 32;
+
+    private AsciiNumbers() {
+    }
+
+    /**
+     * 写入十进制整数
+     * @return 写入后的位置
+     */
+    public static int appendLong(byte[] buffer, int position, long value) {
+        if (value == Long.MIN_VALUE) {
+            return appendBytes(buffer, position, LONG_MIN_VALUE);
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = digitCount(value);
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        return end;
+    }
+
+    /**
+     * 以固定小数位数写入小数（四舍五入）
+     * @param decimals 小数位数，0~9
+     * @return 写入后的位置
+     */
+    public static int appendDouble(byte[] buffer, int position, double value, int decimals) {
+        if (Double.isNaN(value)) {
+            return appendBytes(buffer, position, NAN);
+        }
+        if (Double.isInfinite(value)) {
+            return appendBytes(buffer, position, value > 0 ? POSITIVE_INFINITY : NEGATIVE_INFINITY);
+        }
+        long scale = POWERS_OF_TEN[decimals];
+        double magnitude = Math.abs(value);
+        if (magnitude * scale >= FIXED_POINT_LIMIT) {
+            // 极少出现的超大值
+            return appendBytes(buffer, position, Double.toString(value).getBytes(StandardCharsets.US_ASCII));
+        }
+
+        long scaled = Math.round(magnitude * scale);
+        if (value < 0 && scaled != 0) {
+            buffer[position++] = '-';
+        }
+        position = appendLong(buffer, position, scaled / scale);
+        if (decimals > 0) {
+            buffer[position++] = '.';
+            long fraction = scaled % scale;
+            int end = position + decimals;
+            for (int i = end - 1; i >= position; i--) {
+                buffer[i] = (byte) ('0' + (fraction % 10));
+                fraction /= 10;
+            }
+            position = end;
+        }
+        return position;
+    }
+
+    private static int appendBytes(byte[] buffer, int position, byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,204 @@
+package com.mineprofiler.metrics.io;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量异步文件写入器
+ *
+ * 生产者把字节追加到当前缓冲区，独立的写线程在缓冲区达到批量大小、
+ * 或最早一批未写出的数据超过刷新期限时交换缓冲区并写入文件。
+ * 两块缓冲区预先分配并循环使用；写线程落后时生产者会等待，内存占用有上限。
+ * 进程崩溃时最多丢失一个刷新期限内的数据。
+ */
+public final class BatchedFileWriter implements Closeable {
+    private static final Logger LOGGER = LogManager.getLogger("BatchedFileWriter");
+
+    private final FileChannel channel;
+    private final int batchBytes;
+    private final long flushDeadlineNanos;
+    private final Object lock = new Object();
+    private final Thread writerThread;
+
+    // 以下字段受lock保护
+    private ByteBuffer active;
+    private ByteBuffer spare;
+    // active中第一个字节写入的时间，active为空时无意义
+    private long oldestPendingNanos = 0;
+    private boolean flushRequested = false;
+    private boolean closing = false;
+    private IOException failure;
+    // 等待空间时被中断而丢弃的写入次数
+    private long droppedWrites = 0;
+
+    /**
+     * @param file 输出文件（覆盖写入）
+     * @param bufferBytes 每块缓冲区的大小
+     * @param batchBytes 达到该大小时立即写出
+     * @param flushDeadlineMs 数据在内存中停留的最长时间
+     */
+    public BatchedFileWriter(File file, int bufferBytes, int batchBytes, long flushDeadlineMs) throws IOException {
+        this.channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.active = ByteBuffer.allocate(bufferBytes);
+        this.spare = ByteBuffer.allocate(bufferBytes);
+        this.batchBytes = Math.min(batchBytes, bufferBytes);
+        this.flushDeadlineNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushDeadlineMs));
+
+        this.writerThread = new Thread(this::writeLoop, "MetricsWriter-" + file.getName());
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * 追加字节，缓冲区已满且写线程尚未腾出空间时等待
+     * 等待期间被中断时保留中断状态并丢弃本次写入，关闭时汇报丢弃的次数
+     */
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length > active.capacity()) {
+            throw new IOException("单次写入超过缓冲区大小: " + length);
+        }
+        synchronized (lock) {
+            while (true) {
+                checkState();
+                if (active.remaining() >= length) break;
+                flushRequested = true;
+                lock.notifyAll();
+                if (!waitForSpace()) {
+                    droppedWrites++;
+                    return;
+                }
+            }
+            if (active.position() == 0) {
+                oldestPendingNanos = System.nanoTime();
+            }
+            active.put(bytes, offset, length);
+            if (active.position() >= batchBytes) {
+                flushRequested = true;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 请求写线程立即写出当前缓冲区，不等待写入完成
+     */
+    public void flush() throws IOException {
+        synchronized (lock) {
+            checkState();
+            flushRequested = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * 写出全部剩余数据，并把文件内容刷到磁盘
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closing) return;
+            closing = true;
+            lock.notifyAll();
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+        synchronized (lock) {
+            if (droppedWrites > 0) {
+                LOGGER.warn("写线程等待空间时被中断，丢弃了 " + droppedWrites + " 次写入");
+            }
+            if (failure != null) throw failure;
+        }
+    }
+
+    /**
+     * 写线程主循环
+     */
+    private void writeLoop() {
+        while (true) {
+            ByteBuffer toWrite;
+            boolean last;
+            synchronized (lock) {
+                while (!closing && !shouldSwap()) {
+                    long waitNanos = active.position() == 0
+                            ? flushDeadlineNanos
+                            : oldestPendingNanos + flushDeadlineNanos - System.nanoTime();
+                    if (waitNanos <= 0) break;
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(lock, waitNanos);
+                    } catch (InterruptedException e) {
+                        // 写线程只在close时结束
+                    }
+                }
+                last = closing;
+                toWrite = active;
+                active = spare;
+                spare = toWrite;
+                flushRequested = false;
+                lock.notifyAll();
+            }
+
+            try {
+                toWrite.flip();
+                while (toWrite.hasRemaining()) {
+                    channel.write(toWrite);
+                }
+            } catch (IOException e) {
+                LOGGER.error("写入指标文件时出错", e);
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            } finally {
+                toWrite.clear();
+            }
+
+            // 关闭后生产者无法再写入，最后一次交换已带走全部数据
+            if (last) return;
+        }
+    }
+
+    /**
+     * 是否需要交换缓冲区，调用方必须持有lock
+     */
+    private boolean shouldSwap() {
+        if (active.position() == 0) return false;
+        return flushRequested || System.nanoTime() - oldestPendingNanos >= flushDeadlineNanos;
+    }
+
+    private void checkState() throws IOException {
+        if (failure != null) throw failure;
+        if (closing) throw new IOException("写入器已关闭");
+    }
+
+    /**
+     * 等待写线程腾出空间，调用方必须持有lock
+     * @return 被中断时为false，此时已恢复中断状态
+     */
+    private boolean waitForSpace() {
+        try {
+            lock.wait(flushDeadlineNanos / 1_000_000L + 1);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
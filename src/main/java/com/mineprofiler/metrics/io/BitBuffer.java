@@ -0,0 +1,148 @@
+package com.mineprofiler.metrics.io;
+
+/**
+ * 按位写入的字节缓冲区，高位在前
+ * 缓冲区按需扩容后复用，稳定运行时不分配内存。也提供对同一字节数组按位读取的方法。
+ */
+final class BitBuffer {
+    private byte[] bytes;
+    // 已写入的完整字节数
+    private int length = 0;
+    // 尚未凑满一个字节的位，以及位数
+    private int pending = 0;
+    private int pendingBits = 0;
+
+    BitBuffer(int initialCapacity) {
+        this.bytes = new byte[Math.max(16, initialCapacity)];
+    }
+
+    void reset() {
+        length = 0;
+        pending = 0;
+        pendingBits = 0;
+    }
+
+    void writeBit(boolean bit) {
+        pending = (pending << 1) | (bit ? 1 : 0);
+        if (++pendingBits == 8) {
+            appendByte(pending);
+            pending = 0;
+            pendingBits = 0;
+        }
+    }
+
+    /**
+     * 写入value的低count位（0~64）
+     */
+    void writeBits(long value, int count) {
+        for (int shift = count - 1; shift >= 0; ) {
+            if (pendingBits == 0 && shift >= 7) {
+                // 对齐时整字节写入
+                appendByte((int) (value >>> (shift - 7)));
+                shift -= 8;
+            } else {
+                writeBit(((value >>> shift) & 1L) != 0);
+                shift--;
+            }
+        }
+    }
+
+    /**
+     * 无符号变长整数，每字节7位
+     */
+    void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeBits((value & 0x7F) | 0x80, 8);
+            value >>>= 7;
+        }
+        writeBits(value, 8);
+    }
+
+    /**
+     * 有符号变长整数（zigzag编码，绝对值小的负数也只占一个字节）
+     */
+    void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * 把不足一个字节的剩余位补零写出，返回总字节数
+     */
+    int finish() {
+        if (pendingBits > 0) {
+            appendByte(pending << (8 - pendingBits));
+            pending = 0;
+            pendingBits = 0;
+        }
+        return length;
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    int length() {
+        return length;
+    }
+
+    private void appendByte(int value) {
+        if (length == bytes.length) {
+            byte[] grown = new byte[bytes.length * 2];
+            System.arraycopy(bytes, 0, grown, 0, length);
+            bytes = grown;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    /**
+     * 按位读取字节数组的一段
+     */
+    static final class Reader {
+        private byte[] bytes;
+        // 下一个要读取的位
+        private long bitPosition;
+
+        void reset(byte[] bytes, int offset) {
+            this.bytes = bytes;
+            this.bitPosition = (long) offset * 8;
+        }
+
+        boolean readBit() {
+            int b = bytes[(int) (bitPosition >>> 3)];
+            boolean bit = ((b >>> (7 - (int) (bitPosition & 7))) & 1) != 0;
+            bitPosition++;
+            return bit;
+        }
+
+        long readBits(int count) {
+            long value = 0;
+            int remaining = count;
+            while (remaining > 0) {
+                int bitInByte = (int) (bitPosition & 7);
+                int available = 8 - bitInByte;
+                int take = Math.min(available, remaining);
+                int b = bytes[(int) (bitPosition >>> 3)] & 0xFF;
+                int bits = (b >>> (available - take)) & ((1 << take) - 1);
+                value = (value << take) | bits;
+                bitPosition += take;
+                remaining -= take;
+            }
+            return value;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                long b = readBits(8);
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) break;
+            }
+            return value;
+        }
+
+        long readSignedVarLong() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.mineprofiler.metrics.io;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link ColumnarSampleSink} 输出文件的流式读取器
+ *
+ * 逐块读取，内存占用只与块大小有关，与文件大小无关。列在第一次访问时才解码，
+ * 只读取少数几列或按时间范围跳过整块时不需要解码其余数据。
+ * 文件末尾不完整的块（写入时进程被终止）会被忽略。
+ * 用法：
+ * <pre>
+ * while (reader.nextBlock()) {
+ *     if (!reader.blockOverlaps(from, to)) continue;
+ *     for (int row = 0; row &lt; reader.getBlockRows(); row++) { reader.getDouble(column, row) ... }
+ * }
+ * </pre>
+ */
+public final class ColumnarSampleReader implements Closeable {
+    private final DataInputStream in;
+    private final SampleSchema schema;
+    private final boolean[] doubleColumn;
+    private final double[] scale;
+    private final BitBuffer.Reader bits = new BitBuffer.Reader();
+
+    // 当前块
+    private int rows = 0;
+    private long firstKey;
+    private long lastKey;
+    private byte[] payload = new byte[64 * 1024];
+    private int payloadBytes = 0;
+    // 每列在payload中的起始位置，-1表示尚未定位
+    private final int[] columnOffsets;
+    private boolean offsetsReady = false;
+    // 已解码的列，按需扩容后复用
+    private final long[][] longValues;
+    private final double[][] doubleValues;
+    private final boolean[] decoded;
+    private boolean truncated = false;
+
+    public ColumnarSampleReader(File file) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 256 * 1024));
+        try {
+            if (in.readLong() != ColumnarSampleSink.MAGIC) {
+                throw new IOException("不是MineProfiler列式文件: " + file);
+            }
+            int version = in.readInt();
+            if (version != ColumnarSampleSink.VERSION) {
+                throw new IOException("不支持的列式文件版本: " + version);
+            }
+            int count = in.readInt();
+            SampleSchema.Builder builder = SampleSchema.builder();
+            doubleColumn = new boolean[count];
+            scale = new double[count];
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[in.readUnsignedShort()];
+                in.readFully(name);
+                byte type = in.readByte();
+                int decimals = in.readByte();
+                String columnName = new String(name, StandardCharsets.UTF_8);
+                doubleColumn[i] = type == ColumnarSampleSink.TYPE_DOUBLE;
+                scale[i] = Math.pow(10, decimals);
+                if (doubleColumn[i]) {
+                    builder.doubleColumn(columnName, decimals);
+                } else {
+                    builder.longColumn(columnName);
+                }
+            }
+            this.schema = builder.build();
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        int count = schema.size();
+        this.columnOffsets = new int[count];
+        this.longValues = new long[count][];
+        this.doubleValues = new double[count][];
+        this.decoded = new boolean[count];
+    }
+
+    public SampleSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * 读取下一块的块头，没有更多块时返回false
+     * 文件末尾的块不完整（写入时进程被终止）时视为结束，{@link #isTruncated()} 返回true
+     */
+    public boolean nextBlock() throws IOException {
+        if (truncated) return false;
+        try {
+            rows = in.readInt();
+        } catch (EOFException e) {
+            return false;
+        }
+        try {
+            payloadBytes = in.readInt();
+            firstKey = in.readLong();
+            lastKey = in.readLong();
+            if (payload.length < payloadBytes) {
+                payload = new byte[Math.max(payloadBytes, payload.length * 2)];
+            }
+            in.readFully(payload, 0, payloadBytes);
+        } catch (EOFException e) {
+            truncated = true;
+            rows = 0;
+            return false;
+        }
+        offsetsReady = false;
+        for (int i = 0; i < decoded.length; i++) {
+            decoded[i] = false;
+        }
+        return true;
+    }
+
+    public int getBlockRows() {
+        return rows;
+    }
+
+    /**
+     * 当前块第一行的键（第一列的值，小数列为按小数位数放大后的整数）
+     */
+    public long getBlockFirstKey() {
+        return firstKey;
+    }
+
+    public long getBlockLastKey() {
+        return lastKey;
+    }
+
+    /**
+     * 当前块的键范围是否与 [from, to] 相交，参数与第一列的单位相同
+     */
+    public boolean blockOverlaps(double from, double to) {
+        double factor = doubleColumn.length > 0 && doubleColumn[0] ? scale[0] : 1.0;
+        return lastKey >= from * factor && firstKey <= to * factor;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public long getLong(int column, int row) throws IOException {
+        if (doubleColumn[column]) return (long) getDouble(column, row);
+        decode(column);
+        return longValues[column][row];
+    }
+
+    public double getDouble(int column, int row) throws IOException {
+        decode(column);
+        return doubleColumn[column] ? doubleValues[column][row] : longValues[column][row];
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void locateColumns() throws IOException {
+        if (offsetsReady) return;
+        int offset = 0;
+        for (int i = 0; i < columnOffsets.length; i++) {
+            bits.reset(payload, offset);
+            long length = bits.readVarLong();
+            int headerBytes = 1;
+            while ((length >>> (7 * headerBytes)) != 0) headerBytes++;
+            columnOffsets[i] = offset + headerBytes;
+            offset += headerBytes + (int) length;
+        }
+        offsetsReady = true;
+    }
+
+    private void decode(int column) throws IOException {
+        if (decoded[column]) return;
+        locateColumns();
+        bits.reset(payload, columnOffsets[column]);
+        if (doubleColumn[column]) {
+            decodeDoubles(column);
+        } else {
+            decodeLongs(column);
+        }
+        decoded[column] = true;
+    }
+
+    private void decodeLongs(int column) {
+        long[] values = longValues[column];
+        if (values == null || values.length < rows) {
+            values = longValues[column] = new long[Math.max(rows, ColumnarSampleSink.BLOCK_ROWS)];
+        }
+        long previous = 0;
+        long delta = 0;
+        for (int row = 0; row < rows; row++) {
+            long encoded = bits.readSignedVarLong();
+            if (row == 0) {
+                previous = encoded;
+            } else {
+                delta = row == 1 ? encoded : delta + encoded;
+                previous += delta;
+            }
+            values[row] = previous;
+        }
+    }
+
+    private void decodeDoubles(int column) {
+        double[] values = doubleValues[column];
+        if (values == null || values.length < rows) {
+            values = doubleValues[column] = new double[Math.max(rows, ColumnarSampleSink.BLOCK_ROWS)];
+        }
+        double factor = scale[column];
+        long previous = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int row = 0; row < rows; row++) {
+            if (row == 0) {
+                previous = bits.readBits(64);
+            } else if (bits.readBit()) {
+                if (bits.readBit()) {
+                    leading = (int) bits.readBits(5);
+                    int significant = (int) bits.readBits(6);
+                    if (significant == 0) significant = 64;
+                    trailing = 64 - leading - significant;
+                }
+                long xor = bits.readBits(64 - leading - trailing) << trailing;
+                previous ^= xor;
+            }
+            values[row] = Double.longBitsToDouble(previous) / factor;
+        }
+    }
+}
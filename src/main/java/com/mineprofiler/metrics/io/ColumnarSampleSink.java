@@ -0,0 +1,236 @@
+package com.mineprofiler.metrics.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 压缩列式格式的采样输出
+ *
+ * 行按块缓存，每块每列单独编码：
+ * 整数列写入第一个值、第二个值的差和之后各值的二阶差（zigzag变长整数），固定间隔的时间戳每行只占一个字节；
+ * 小数列先按列定义的小数位数取整（与CSV精度相同），再按Gorilla方式与上一个值异或，只写出有效位。
+ * 块头记录第一列（时间戳）的首尾值，读取时可以跳过时间范围外的块而不解码。
+ * 块在达到 {@link #BLOCK_ROWS} 行或缓存超过 {@link #BLOCK_MAX_AGE_MS} 时写出，进程崩溃时最多丢失一个块。
+ *
+ * 文件布局（大端序）：
+ * <pre>
+ * 文件头：long magic "MPGORL01"、int 版本、int 列数、每列 [short 名称长度、UTF-8名称、byte 类型(0=long, 1=double)、byte 小数位数]
+ * 块：int 行数、int 数据字节数、long 首行键、long 末行键、每列 [变长整数 字节数、编码数据]
+ * </pre>
+ */
+public final class ColumnarSampleSink implements SampleSink {
+    static final long MAGIC = 0x4D50474F524C3031L; // "MPGORL01"
+    static final int VERSION = 1;
+    static final byte TYPE_LONG = 0;
+    static final byte TYPE_DOUBLE = 1;
+    static final int BLOCK_HEADER_BYTES = 24;
+
+    static final int BLOCK_ROWS = 4096;
+    static final long BLOCK_MAX_AGE_MS = 30_000;
+    private static final int BUFFER_BYTES = 1024 * 1024;
+    private static final int BATCH_BYTES = 64 * 1024;
+
+    private final BatchedFileWriter writer;
+    private final long blockMaxAgeNanos;
+    private SampleSchema schema;
+    private boolean[] doubleColumn;
+    private double[] scale;
+
+    // 每列的编码缓冲和编码状态，块结束时重置
+    private BitBuffer[] columns;
+    private long[] previous;
+    private long[] previousDelta;
+    private int[] previousLeading;
+    private int[] previousTrailing;
+
+    // 当前块
+    private int rows = 0;
+    private int column = 0;
+    private long firstKey;
+    private long lastKey;
+    private long blockStartNanos;
+    private final BitBuffer block = new BitBuffer(BUFFER_BYTES / 4);
+
+    /**
+     * @param file 输出文件
+     * @param flushDeadlineMs 块写出后在内存中停留的最长时间
+     */
+    public ColumnarSampleSink(File file, long flushDeadlineMs) throws IOException {
+        this.writer = new BatchedFileWriter(file, BUFFER_BYTES, BATCH_BYTES, flushDeadlineMs);
+        this.blockMaxAgeNanos = BLOCK_MAX_AGE_MS * 1_000_000L;
+    }
+
+    @Override
+    public void writeHeader(SampleSchema schema) throws IOException {
+        this.schema = schema;
+        int count = schema.size();
+        doubleColumn = new boolean[count];
+        scale = new double[count];
+        columns = new BitBuffer[count];
+        previous = new long[count];
+        previousDelta = new long[count];
+        previousLeading = new int[count];
+        previousTrailing = new int[count];
+        BitBuffer header = new BitBuffer(256);
+        header.writeBits(MAGIC, 64);
+        header.writeBits(VERSION, 32);
+        header.writeBits(count, 32);
+        for (int i = 0; i < count; i++) {
+            doubleColumn[i] = schema.getType(i) == SampleSchema.ColumnType.DOUBLE;
+            scale[i] = Math.pow(10, schema.getDecimals(i));
+            columns[i] = new BitBuffer(BLOCK_ROWS);
+            byte[] name = schema.getName(i).getBytes(StandardCharsets.UTF_8);
+            header.writeBits(name.length, 16);
+            for (byte b : name) {
+                header.writeBits(b, 8);
+            }
+            header.writeBits(doubleColumn[i] ? TYPE_DOUBLE : TYPE_LONG, 8);
+            header.writeBits(schema.getDecimals(i), 8);
+        }
+        write(header.array(), header.finish());
+    }
+
+    @Override
+    public void beginRow() {
+        column = 0;
+        if (rows == 0) {
+            blockStartNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void putLong(long value) {
+        int c = column++;
+        if (c == 0) {
+            key(value);
+        }
+        BitBuffer out = columns[c];
+        if (rows == 0) {
+            out.writeSignedVarLong(value);
+        } else {
+            long delta = value - previous[c];
+            out.writeSignedVarLong(rows == 1 ? delta : delta - previousDelta[c]);
+            previousDelta[c] = delta;
+        }
+        previous[c] = value;
+    }
+
+    @Override
+    public void putDouble(double value) {
+        int c = column++;
+        // 按小数位数取整，取整后的整数值尾部全为0，相近的值异或后有效位很少
+        double rounded = Math.rint(value * scale[c]);
+        if (c == 0) {
+            key((long) rounded);
+        }
+        long bits = Double.doubleToLongBits(rounded);
+        BitBuffer out = columns[c];
+        if (rows == 0) {
+            out.writeBits(bits, 64);
+            previousLeading[c] = -1;
+        } else {
+            long xor = bits ^ previous[c];
+            if (xor == 0) {
+                out.writeBit(false);
+            } else {
+                out.writeBit(true);
+                int leading = Math.min(31, Long.numberOfLeadingZeros(xor));
+                int trailing = Long.numberOfTrailingZeros(xor);
+                int prevLeading = previousLeading[c];
+                int prevTrailing = previousTrailing[c];
+                if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing) {
+                    // 有效位落在上一个窗口内，沿用窗口
+                    out.writeBit(false);
+                    out.writeBits(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+                } else {
+                    int significant = 64 - leading - trailing;
+                    out.writeBit(true);
+                    out.writeBits(leading, 5);
+                    // 64位有效位记为0
+                    out.writeBits(significant & 63, 6);
+                    out.writeBits(xor >>> trailing, significant);
+                    previousLeading[c] = leading;
+                    previousTrailing[c] = trailing;
+                }
+            }
+        }
+        previous[c] = bits;
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        rows++;
+        if (rows >= BLOCK_ROWS || System.nanoTime() - blockStartNanos >= blockMaxAgeNanos) {
+            writeBlock();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeBlock();
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writeBlock();
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void key(long value) {
+        if (rows == 0) {
+            firstKey = value;
+        }
+        lastKey = value;
+    }
+
+    /**
+     * 写出当前块并重置各列编码状态
+     */
+    private void writeBlock() throws IOException {
+        if (rows == 0) return;
+        boolean keyed = schema.size() > 0;
+        int payload = 0;
+        for (BitBuffer out : columns) {
+            int length = out.finish();
+            payload += varLongSize(length) + length;
+        }
+        block.reset();
+        block.writeBits(rows, 32);
+        block.writeBits(payload, 32);
+        block.writeBits(keyed ? firstKey : 0, 64);
+        block.writeBits(keyed ? lastKey : rows - 1, 64);
+        for (BitBuffer out : columns) {
+            block.writeVarLong(out.length());
+            byte[] bytes = out.array();
+            for (int i = 0; i < out.length(); i++) {
+                block.writeBits(bytes[i], 8);
+            }
+            out.reset();
+        }
+        write(block.array(), block.finish());
+        rows = 0;
+    }
+
+    /**
+     * 分批交给写入器，单次写入不能超过其缓冲区大小
+     */
+    private void write(byte[] bytes, int length) throws IOException {
+        for (int offset = 0; offset < length; offset += BATCH_BYTES) {
+            writer.write(bytes, offset, Math.min(BATCH_BYTES, length - offset));
+        }
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,282 @@
+package com.mineprofiler.metrics.io;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 列式文件命令行工具，流式处理，不把文件整体读入内存
+ *
+ * 用法：
+ * <pre>
+ * java -cp mineprofiler.jar com.mineprofiler.metrics.io.ColumnarTool dump perf_xxx.mpcol [--from t] [--to t] [--columns a,b] &gt; out.csv
+ * java -cp mineprofiler.jar com.mineprofiler.metrics.io.ColumnarTool stats perf_xxx.mpcol [--from t] [--to t] [--columns a,b]
+ * java -cp mineprofiler.jar com.mineprofiler.metrics.io.ColumnarTool convert perf_xxx.csv perf_xxx.mpcol
+ * </pre>
+ * --from/--to 按第一列（timestamp，毫秒）过滤，包含两端。
+ */
+public final class ColumnarTool {
+
+    private ColumnarTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: ColumnarTool <dump|stats> <file.mpcol> [--from t] [--to t] [--columns a,b] | convert <in.csv> <out.mpcol>");
+            System.exit(1);
+        }
+        if ("convert".equals(args[0])) {
+            if (args.length < 3) {
+                System.err.println("用法: ColumnarTool convert <in.csv> <out.mpcol>");
+                System.exit(1);
+            }
+            convert(new File(args[1]), new File(args[2]));
+            return;
+        }
+
+        double from = Double.NEGATIVE_INFINITY;
+        double to = Double.POSITIVE_INFINITY;
+        String columns = null;
+        for (int i = 2; i < args.length; i++) {
+            if ("--from".equals(args[i]) && i + 1 < args.length) {
+                from = Double.parseDouble(args[++i]);
+            } else if ("--to".equals(args[i]) && i + 1 < args.length) {
+                to = Double.parseDouble(args[++i]);
+            } else if ("--columns".equals(args[i]) && i + 1 < args.length) {
+                columns = args[++i];
+            }
+        }
+        try (ColumnarSampleReader reader = new ColumnarSampleReader(new File(args[1]))) {
+            int[] selected = selectColumns(reader.getSchema(), columns);
+            switch (args[0]) {
+                case "dump" -> dump(reader, selected, from, to);
+                case "stats" -> stats(reader, selected, from, to);
+                default -> {
+                    System.err.println("未知命令: " + args[0]);
+                    System.exit(1);
+                }
+            }
+            if (reader.isTruncated()) {
+                System.err.println("警告: 文件末尾的块不完整，已忽略");
+            }
+        }
+    }
+
+    private static int[] selectColumns(SampleSchema schema, String names) {
+        if (names == null) {
+            int[] all = new int[schema.size()];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        String[] parts = names.split(",");
+        int[] selected = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            selected[i] = schema.indexOf(parts[i].trim());
+            if (selected[i] < 0) {
+                throw new IllegalArgumentException("没有这一列: " + parts[i]);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * 按CSV格式输出范围内的行
+     */
+    private static void dump(ColumnarSampleReader reader, int[] selected, double from, double to) throws IOException {
+        SampleSchema schema = reader.getSchema();
+        OutputStream out = new BufferedOutputStream(System.out, 256 * 1024);
+        StringBuilder header = new StringBuilder();
+        for (int i = 0; i < selected.length; i++) {
+            if (i > 0) header.append(',');
+            header.append(schema.getName(selected[i]));
+        }
+        header.append('\n');
+        out.write(header.toString().getBytes(StandardCharsets.UTF_8));
+
+        byte[] line = new byte[selected.length * (AsciiNumbers.MAX_LENGTH + 1) + 1];
+        while (reader.nextBlock()) {
+            if (!reader.blockOverlaps(from, to)) continue;
+            for (int row = 0; row < reader.getBlockRows(); row++) {
+                if (!inRange(reader, row, from, to)) continue;
+                int position = 0;
+                for (int i = 0; i < selected.length; i++) {
+                    if (i > 0) line[position++] = ',';
+                    int column = selected[i];
+                    position = schema.getType(column) == SampleSchema.ColumnType.DOUBLE
+                            ? AsciiNumbers.appendDouble(line, position, reader.getDouble(column, row), schema.getDecimals(column))
+                            : AsciiNumbers.appendLong(line, position, reader.getLong(column, row));
+                }
+                line[position++] = '\n';
+                out.write(line, 0, position);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * 输出范围内每列的行数、均值、最小值和最大值（NaN不计入）
+     */
+    private static void stats(ColumnarSampleReader reader, int[] selected, double from, double to) throws IOException {
+        SampleSchema schema = reader.getSchema();
+        long[] counts = new long[selected.length];
+        double[] sums = new double[selected.length];
+        double[] mins = new double[selected.length];
+        double[] maxs = new double[selected.length];
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+        long rows = 0;
+        long blocks = 0;
+        long skipped = 0;
+        while (reader.nextBlock()) {
+            blocks++;
+            if (!reader.blockOverlaps(from, to)) {
+                skipped++;
+                continue;
+            }
+            for (int row = 0; row < reader.getBlockRows(); row++) {
+                if (!inRange(reader, row, from, to)) continue;
+                rows++;
+                for (int i = 0; i < selected.length; i++) {
+                    double value = reader.getDouble(selected[i], row);
+                    if (Double.isNaN(value)) continue;
+                    counts[i]++;
+                    sums[i] += value;
+                    mins[i] = Math.min(mins[i], value);
+                    maxs[i] = Math.max(maxs[i], value);
+                }
+            }
+        }
+        System.out.printf("行数 %d，块 %d（跳过 %d）%n", rows, blocks, skipped);
+        System.out.println("column,count,mean,min,max");
+        for (int i = 0; i < selected.length; i++) {
+            boolean empty = counts[i] == 0;
+            System.out.printf(Locale.ROOT, "%s,%d,%.4f,%.4f,%.4f%n", schema.getName(selected[i]), counts[i],
+                    empty ? Double.NaN : sums[i] / counts[i], empty ? Double.NaN : mins[i], empty ? Double.NaN : maxs[i]);
+        }
+    }
+
+    private static boolean inRange(ColumnarSampleReader reader, int row, double from, double to) throws IOException {
+        if (reader.getSchema().size() == 0) return true;
+        double key = reader.getDouble(0, row);
+        return key >= from && key <= to;
+    }
+
+    /**
+     * 把已有的CSV转换为列式文件
+     * 先完整扫描一遍确定列类型：某列只要有一个值带小数点、指数、NaN/Infinity或为空，就是小数列（空值记为NaN），
+     * 小数位数取该列所有值中最多的位数（最多9位），转换后按CSV精度无损；第二遍写出。字段数与表头不符的行跳过。
+     */
+    private static void convert(File csv, File output) throws IOException {
+        String[] names;
+        boolean[] doubles;
+        int[] decimals;
+        try (BufferedReader reader = openCsv(csv)) {
+            String headerLine = reader.readLine();
+            String line = reader.readLine();
+            if (headerLine == null || line == null) {
+                throw new IOException("CSV文件没有数据行: " + csv);
+            }
+            names = headerLine.split(",");
+            if (line.split(",", -1).length != names.length) {
+                throw new IOException("第一行数据的字段数与表头不符（" + line.split(",", -1).length + " / " + names.length + "）: " + csv);
+            }
+            doubles = new boolean[names.length];
+            decimals = new int[names.length];
+            do {
+                String[] fields = line.split(",", -1);
+                if (fields.length != names.length) continue;
+                for (int i = 0; i < fields.length; i++) {
+                    String value = fields[i];
+                    if (!isLong(value)) {
+                        doubles[i] = true;
+                        decimals[i] = Math.max(decimals[i], decimalCount(value));
+                    }
+                }
+            } while ((line = reader.readLine()) != null);
+        }
+
+        SampleSchema.Builder builder = SampleSchema.builder();
+        for (int i = 0; i < names.length; i++) {
+            if (doubles[i]) {
+                builder.doubleColumn(names[i], decimals[i]);
+            } else {
+                builder.longColumn(names[i]);
+            }
+        }
+
+        long count = 0;
+        long skipped = 0;
+        try (BufferedReader reader = openCsv(csv);
+             ColumnarSampleSink sink = new ColumnarSampleSink(output, 1000)) {
+            sink.writeHeader(builder.build());
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",", -1);
+                if (fields.length != names.length) {
+                    skipped++;
+                    continue;
+                }
+                sink.beginRow();
+                for (int i = 0; i < fields.length; i++) {
+                    if (doubles[i]) {
+                        sink.putDouble(fields[i].isEmpty() ? Double.NaN : Double.parseDouble(fields[i]));
+                    } else {
+                        sink.putLong(Long.parseLong(fields[i]));
+                    }
+                }
+                sink.endRow();
+                count++;
+            }
+        }
+        if (skipped > 0) {
+            System.err.println("警告: " + skipped + " 行的字段数与表头不符，已跳过");
+        }
+        System.out.printf("已转换 %d 行: %s (%d 字节) -> %s (%d 字节)%n",
+                count, csv, csv.length(), output, output.length());
+    }
+
+    private static BufferedReader openCsv(File csv) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(csv), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 是否为整数（可带负号），空值不是整数
+     */
+    private static boolean isLong(String value) {
+        int start = value.startsWith("-") ? 1 : 0;
+        if (value.length() == start || value.length() - start > 18) return false;
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    /**
+     * 按原样写回该值所需的小数位数，最多9位；NaN、Infinity和空值为0
+     */
+    private static int decimalCount(String value) {
+        int exponent = Math.max(value.indexOf('E'), value.indexOf('e'));
+        String mantissa = exponent >= 0 ? value.substring(0, exponent) : value;
+        int dot = mantissa.indexOf('.');
+        int count = dot >= 0 ? mantissa.length() - dot - 1 : 0;
+        if (exponent >= 0) {
+            try {
+                count -= Integer.parseInt(value.substring(exponent + 1));
+            } catch (NumberFormatException e) {
+                // 交给写出时的解析报告
+            }
+        }
+        return Math.max(0, Math.min(9, count));
+    }
+}
@@ -0,0 +1,91 @@
+package com.mineprofiler.metrics.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CSV格式的采样输出
+ * 每行直接以ASCII格式化到复用的字节缓冲区，再交给 {@link BatchedFileWriter} 批量写出，稳定运行时不分配内存
+ */
+public final class CsvSampleSink implements SampleSink {
+    private static final int BUFFER_BYTES = 256 * 1024;
+    private static final int BATCH_BYTES = 64 * 1024;
+
+    private final BatchedFileWriter writer;
+    private SampleSchema schema;
+    private byte[] row = new byte[1024];
+    private int position = 0;
+    private int column = 0;
+
+    /**
+     * @param file 输出文件
+     * @param flushDeadlineMs 数据在内存中停留的最长时间
+     */
+    public CsvSampleSink(File file, long flushDeadlineMs) throws IOException {
+        this.writer = new BatchedFileWriter(file, BUFFER_BYTES, BATCH_BYTES, flushDeadlineMs);
+    }
+
+    @Override
+    public void writeHeader(SampleSchema schema) throws IOException {
+        this.schema = schema;
+        StringBuilder header = new StringBuilder();
+        for (int i = 0; i < schema.size(); i++) {
+            if (i > 0) header.append(',');
+            header.append(schema.getName(i));
+        }
+        header.append('\n');
+        byte[] bytes = header.toString().getBytes(StandardCharsets.UTF_8);
+        writer.write(bytes, 0, bytes.length);
+        // 每列最多一个数值加一个分隔符
+        ensureCapacity(schema.size() * (AsciiNumbers.MAX_LENGTH + 1) + 1);
+    }
+
+    @Override
+    public void beginRow() {
+        position = 0;
+        column = 0;
+    }
+
+    @Override
+    public void putLong(long value) {
+        separator();
+        position = AsciiNumbers.appendLong(row, position, value);
+    }
+
+    @Override
+    public void putDouble(double value) {
+        int decimals = schema.getDecimals(column);
+        separator();
+        position = AsciiNumbers.appendDouble(row, position, value, decimals);
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        row[position++] = '\n';
+        writer.write(row, 0, position);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void separator() {
+        if (column > 0) {
+            row[position++] = ',';
+        }
+        column++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (row.length < capacity) {
+            row = new byte[capacity];
+        }
+    }
+}
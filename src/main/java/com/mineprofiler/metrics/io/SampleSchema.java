@@ -0,0 +1,102 @@
+package com.mineprofiler.metrics.io;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 采样数据的列定义
+ * 每一行按列定义的顺序依次写入，整数列用 {@link SampleSink#putLong}，小数列用 {@link SampleSink#putDouble}
+ */
+public final class SampleSchema {
+    /**
+     * 列类型
+     */
+    public enum ColumnType {
+        LONG,
+        DOUBLE
+    }
+
+    private final String[] names;
+    private final ColumnType[] types;
+    private final int[] decimals;
+
+    private SampleSchema(List<String> names, List<ColumnType> types, List<Integer> decimals) {
+        this.names = names.toArray(new String[0]);
+        this.types = types.toArray(new ColumnType[0]);
+        this.decimals = new int[decimals.size()];
+        for (int i = 0; i < this.decimals.length; i++) {
+            this.decimals[i] = decimals.get(i);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String getName(int column) {
+        return names[column];
+    }
+
+    public ColumnType getType(int column) {
+        return types[column];
+    }
+
+    /**
+     * 小数列在文本格式中保留的小数位数
+     */
+    public int getDecimals(int column) {
+        return decimals[column];
+    }
+
+    /**
+     * 列名对应的下标，不存在时返回-1
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 列定义构建器
+     */
+    public static final class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final List<ColumnType> types = new ArrayList<>();
+        private final List<Integer> decimals = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder longColumn(String name) {
+            return add(name, ColumnType.LONG, 0);
+        }
+
+        public Builder doubleColumn(String name) {
+            return add(name, ColumnType.DOUBLE, 2);
+        }
+
+        public Builder doubleColumn(String name, int decimalPlaces) {
+            return add(name, ColumnType.DOUBLE, decimalPlaces);
+        }
+
+        private Builder add(String name, ColumnType type, int decimalPlaces) {
+            if (names.contains(name)) {
+                throw new IllegalArgumentException("重复的列名: " + name);
+            }
+            names.add(name);
+            types.add(type);
+            decimals.add(decimalPlaces);
+            return this;
+        }
+
+        public SampleSchema build() {
+            return new SampleSchema(names, types, decimals);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.mineprofiler.metrics.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 采样数据输出
+ * 由采样线程按行写入：beginRow，按列顺序put，endRow。实现应在稳定运行时不分配内存。
+ */
+public interface SampleSink extends Closeable {
+    /**
+     * 写入列定义，必须在第一行之前调用一次
+     */
+    void writeHeader(SampleSchema schema) throws IOException;
+
+    void beginRow();
+
+    void putLong(long value);
+
+    void putDouble(double value);
+
+    void endRow() throws IOException;
+
+    /**
+     * 立即把已缓冲的数据交给操作系统
+     */
+    void flush() throws IOException;
+
+    /**
+     * 写出剩余数据并关闭，调用后不再接受新行
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,29 @@
+package com.mineprofiler.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 服务器端区块加载或生成完成
+ */
+@Name("mineprofiler.ChunkLoaded")
+@Label("Chunk Loaded")
+@Category("MineProfiler")
+@Description("区块在服务器端就绪")
+@StackTrace(false)
+public final class ChunkLoadedEvent extends jdk.jfr.Event {
+    @Label("Chunk X")
+    public int chunkX;
+
+    @Label("Chunk Z")
+    public int chunkZ;
+
+    @Label("Load Latency")
+    @Description("从请求到就绪的时间，未知时为-1")
+    @Timespan(Timespan.NANOSECONDS)
+    public long latency;
+}
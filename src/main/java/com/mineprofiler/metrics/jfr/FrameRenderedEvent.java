@@ -0,0 +1,64 @@
+package com.mineprofiler.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 一帧渲染，事件的起止即 GameRenderer.render 的HEAD/RETURN
+ */
+@Name("mineprofiler.FrameRendered")
+@Label("Frame Rendered")
+@Category("MineProfiler")
+@Description("GameRenderer.render 的一次调用")
+@StackTrace(false)
+public final class FrameRenderedEvent extends jdk.jfr.Event {
+    private static final EventType TYPE = EventType.getEventType(FrameRenderedEvent.class);
+
+    @Label("Frame Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long frameTime;
+
+    @Label("Game Tick")
+    @Description("本帧执行了客户端游戏tick")
+    public boolean tick;
+
+    @Label("GC Pause")
+    @Description("本帧遇到了GC停顿")
+    public boolean gcPause;
+
+    @Label("World")
+    @Timespan(Timespan.NANOSECONDS)
+    public long world;
+
+    @Label("Chunk Upload")
+    @Timespan(Timespan.NANOSECONDS)
+    public long chunkUpload;
+
+    @Label("Entities")
+    @Timespan(Timespan.NANOSECONDS)
+    public long entities;
+
+    @Label("Block Entities")
+    @Timespan(Timespan.NANOSECONDS)
+    public long blockEntities;
+
+    @Label("Particles")
+    @Timespan(Timespan.NANOSECONDS)
+    public long particles;
+
+    @Label("HUD")
+    @Timespan(Timespan.NANOSECONDS)
+    public long hud;
+
+    /**
+     * 是否有录制启用了该事件，不分配内存
+     */
+    public static boolean isTypeEnabled() {
+        return TYPE.isEnabled();
+    }
+}
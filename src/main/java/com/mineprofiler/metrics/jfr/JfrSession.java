@@ -0,0 +1,66 @@
+package com.mineprofiler.metrics.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * 与一次指标收集同步的JFR录制
+ * 使用JDK自带的设置（default 或 profile），并启用MineProfiler的自定义事件，结束时写入 .jfr 文件
+ */
+public final class JfrSession {
+    private static final Logger LOGGER = LogManager.getLogger("JfrSession");
+
+    private final File file;
+    private Recording recording;
+
+    private JfrSession(File file, Recording recording) {
+        this.file = file;
+        this.recording = recording;
+    }
+
+    /**
+     * 开始录制，失败时返回null
+     * @param file 输出文件
+     * @param settings JDK设置名称（default、profile）
+     */
+    public static JfrSession start(File file, String settings) {
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration(settings));
+            recording.setName("MineProfiler");
+            recording.enable(FrameRenderedEvent.class);
+            recording.enable(ServerTickEvent.class);
+            recording.enable(ChunkLoadedEvent.class);
+            recording.enable(SampleWindowEvent.class);
+            recording.setToDisk(true);
+            recording.setDestination(file.toPath());
+            recording.start();
+            LOGGER.info("已开始JFR录制（" + settings + "），文件: " + file);
+            return new JfrSession(file, recording);
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            LOGGER.error("无法开始JFR录制", e);
+            return null;
+        }
+    }
+
+    /**
+     * 停止录制并写出文件
+     */
+    public synchronized void stop() {
+        if (recording == null) return;
+        try {
+            recording.stop();
+            LOGGER.info("JFR录制已保存至 " + file);
+        } catch (IllegalStateException e) {
+            LOGGER.error("停止JFR录制时出错", e);
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.mineprofiler.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 一个采样窗口的汇总，与CSV中的一行对应
+ */
+@Name("mineprofiler.SampleWindow")
+@Label("Sample Window")
+@Category("MineProfiler")
+@Description("LightweightMetrics 采样窗口汇总")
+@StackTrace(false)
+public final class SampleWindowEvent extends jdk.jfr.Event {
+    @Label("Window Start")
+    @Description("窗口起点 System.nanoTime()")
+    public long windowStartNanos;
+
+    @Label("Window Length")
+    @Timespan(Timespan.NANOSECONDS)
+    public long windowLength;
+
+    @Label("Frames")
+    public long frames;
+
+    @Label("FPS")
+    public double fps;
+
+    @Label("Frame Time p99")
+    @Timespan(Timespan.NANOSECONDS)
+    public long frameTimeP99;
+
+    @Label("MSPT Mean")
+    @Timespan(Timespan.NANOSECONDS)
+    public long msptMean;
+
+    @Label("MSPT p99")
+    @Timespan(Timespan.NANOSECONDS)
+    public long msptP99;
+
+    @Label("Loaded Chunks")
+    public int loadedChunks;
+
+    @Label("GC Pauses")
+    public long gcPauses;
+}
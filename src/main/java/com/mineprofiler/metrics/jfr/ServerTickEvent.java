@@ -0,0 +1,52 @@
+package com.mineprofiler.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 一个服务器tick，事件的起止即 MinecraftServer.tick 的HEAD/RETURN
+ */
+@Name("mineprofiler.ServerTick")
+@Label("Server Tick")
+@Category("MineProfiler")
+@Description("MinecraftServer.tick 的一次调用及各阶段耗时")
+@StackTrace(false)
+public final class ServerTickEvent extends jdk.jfr.Event {
+    private static final EventType TYPE = EventType.getEventType(ServerTickEvent.class);
+
+    @Label("Tick Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long tickTime;
+
+    @Label("Worlds")
+    @Timespan(Timespan.NANOSECONDS)
+    public long worlds;
+
+    @Label("Chunks")
+    @Timespan(Timespan.NANOSECONDS)
+    public long chunks;
+
+    @Label("Entities")
+    @Timespan(Timespan.NANOSECONDS)
+    public long entities;
+
+    @Label("Block Entities")
+    @Timespan(Timespan.NANOSECONDS)
+    public long blockEntities;
+
+    @Label("Network")
+    @Timespan(Timespan.NANOSECONDS)
+    public long network;
+
+    /**
+     * 是否有录制启用了该事件，不分配内存
+     */
+    public static boolean isTypeEnabled() {
+        return TYPE.isEnabled();
+    }
+}
@@ -0,0 +1,26 @@
+package com.mineprofiler.mixin;
+
+import com.mineprofiler.metrics.LightweightMetrics;
+import net.minecraft.client.world.ClientChunkManager;
+import net.minecraft.world.chunk.WorldChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * ClientChunkManager的Mixin
+ * 记录客户端收到区块数据的时刻
+ */
+@Mixin(ClientChunkManager.class)
+public abstract class ClientChunkManagerMixin {
+    
+    @Inject(method = "loadChunkFromPacket", at = @At("RETURN"), require = 0)
+    private void onChunkLoaded(CallbackInfoReturnable<WorldChunk> cir) {
+        WorldChunk chunk = cir.getReturnValue();
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (chunk != null && metrics != null) {
+            metrics.getChunks().onClientReceived(chunk.getPos().toLong());
+        }
+    }
+}
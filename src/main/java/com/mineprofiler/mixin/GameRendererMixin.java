@@ -1,6 +1,8 @@
 package com.mineprofiler.mixin;
 
 import com.mineprofiler.MineProfilerMod;
+import com.mineprofiler.metrics.LightweightMetrics;
+import com.mineprofiler.metrics.RenderPhase;
 import net.minecraft.client.render.GameRenderer;
 import net.minecraft.client.render.RenderTickCounter;
 import org.spongepowered.asm.mixin.Mixin;
@@ -10,7 +12,7 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 /**
  * 游戏渲染器的Mixin
- * 测量每帧的渲染耗时（render函数执行时间）
+ * 测量每帧的渲染耗时（render函数执行时间）以及世界渲染阶段的耗时
  */
 @Mixin(GameRenderer.class)
 public class GameRendererMixin {
@@ -23,6 +25,10 @@ public class GameRendererMixin {
     @Inject(method = "render", at = @At("HEAD"))
     private void onRenderStart(RenderTickCounter tickCounter, boolean tick, CallbackInfo ci) {
         renderStartTime = System.nanoTime();
+        LightweightMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.beginFrame();
+        }
     }
     
     /**
@@ -31,12 +37,43 @@ public class GameRendererMixin {
     @Inject(method = "render", at = @At("RETURN"))
     private void onRenderEnd(RenderTickCounter tickCounter, boolean tick, CallbackInfo ci) {
         if (renderStartTime > 0) {
-            double renderTimeMs = (System.nanoTime() - renderStartTime) / 1_000_000.0;
-            if (MineProfilerMod.getInstance() != null && 
-                MineProfilerMod.getInstance().getMetrics() != null) {
-                MineProfilerMod.getInstance().getMetrics().updateFrameTime(renderTimeMs);
+            long renderTimeNanos = System.nanoTime() - renderStartTime;
+            LightweightMetrics metrics = getMetrics();
+            if (metrics != null) {
+                metrics.getRenderPhases().commit();
+                metrics.recordFrame(renderStartTime, renderTimeNanos, tick);
             }
         }
+        MineProfilerMod mod = MineProfilerMod.getInstance();
+        if (mod != null && mod.getStartup() != null) {
+            mod.getStartup().onFrameRendered();
+        }
+    }
+    
+    /**
+     * 世界渲染阶段开始
+     */
+    @Inject(method = "renderWorld", at = @At("HEAD"), require = 0)
+    private void onRenderWorldStart(CallbackInfo ci) {
+        LightweightMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.getRenderPhases().push(RenderPhase.WORLD);
+        }
+    }
+    
+    /**
+     * 世界渲染阶段结束
+     */
+    @Inject(method = "renderWorld", at = @At("RETURN"), require = 0)
+    private void onRenderWorldEnd(CallbackInfo ci) {
+        LightweightMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.getRenderPhases().pop(RenderPhase.WORLD);
+        }
+    }
+    
+    private static LightweightMetrics getMetrics() {
+        MineProfilerMod mod = MineProfilerMod.getInstance();
+        return mod != null ? mod.getMetrics() : null;
     }
 }
- 
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.mineprofiler.mixin;
+
+import com.mineprofiler.MineProfilerMod;
+import com.mineprofiler.metrics.LightweightMetrics;
+import com.mineprofiler.metrics.PerfOverlay;
+import com.mineprofiler.metrics.RenderPhase;
+import net.minecraft.client.gui.DrawContext;
+import net.minecraft.client.gui.hud.InGameHud;
+import net.minecraft.client.render.RenderTickCounter;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * 游戏内HUD的Mixin
+ * 对HUD/GUI渲染阶段计时，并在HUD最后绘制性能浮层（浮层在HUD阶段结束后绘制，耗时不计入HUD阶段和帧时间）
+ */
+@Mixin(InGameHud.class)
+public class InGameHudMixin {
+    
+    @Inject(method = "render", at = @At("HEAD"), require = 0)
+    private void onRenderStart(CallbackInfo ci) {
+        LightweightMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.getRenderPhases().push(RenderPhase.HUD);
+        }
+    }
+    
+    @Inject(method = "render", at = @At("RETURN"), require = 0)
+    private void onRenderEnd(DrawContext context, RenderTickCounter tickCounter, CallbackInfo ci) {
+        LightweightMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.getRenderPhases().pop(RenderPhase.HUD);
+        }
+        MineProfilerMod mod = MineProfilerMod.getInstance();
+        PerfOverlay overlay = mod != null ? mod.getOverlay() : null;
+        if (overlay != null) {
+            overlay.render(context);
+        }
+    }
+    
+    private static LightweightMetrics getMetrics() {
+        MineProfilerMod mod = MineProfilerMod.getInstance();
+        return mod != null ? mod.getMetrics() : null;
+    }
+}
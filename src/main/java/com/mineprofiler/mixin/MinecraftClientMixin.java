@@ -5,11 +5,12 @@ import net.minecraft.client.MinecraftClient;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.ModifyArg;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 /**
  * MinecraftClient的Mixin
- * 处理游戏退出时的清理
+ * 处理游戏退出时的清理，并让进程以测试的退出码结束
  */
 @Mixin(MinecraftClient.class)
 public class MinecraftClientMixin {
@@ -33,4 +34,18 @@ public class MinecraftClientMixin {
             MineProfilerMod.LOGGER.info("MineProfiler模组资源已释放");
         }
     }
+    
+    /**
+     * stop 最后以 System.exit(0) 结束进程，测试结束后按配置退出时改用测试的退出码
+     */
+    @ModifyArg(method = "stop", at = @At(value = "INVOKE", target = "Ljava/lang/System;exit(I)V"), require = 0)
+    private int onExit(int status) {
+        MineProfilerMod mod = MineProfilerMod.getInstance();
+        if (status != 0 || mod == null || mod.getRunController() == null) return status;
+        int code = mod.getRunController().getProcessExitCode();
+        if (code != 0) {
+            MineProfilerMod.LOGGER.info("以退出码 " + code + " 结束进程");
+        }
+        return code;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.mineprofiler.mixin;
+
+import com.mineprofiler.automation.BotLoadDriver;
+import net.minecraft.server.dedicated.MinecraftDedicatedServer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * MinecraftDedicatedServer的Mixin
+ * 机器人不在玩家列表中，压测期间服务器会被视为无人而按 pause-when-empty-seconds 暂停tick，
+ * 因此压测期间不暂停
+ */
+@Mixin(MinecraftDedicatedServer.class)
+public abstract class MinecraftDedicatedServerMixin {
+    
+    @Inject(method = "getPauseWhenEmptySeconds", at = @At("HEAD"), cancellable = true)
+    private void onGetPauseWhenEmptySeconds(CallbackInfoReturnable<Integer> cir) {
+        if (BotLoadDriver.isRunning()) {
+            cir.setReturnValue(0);
+        }
+    }
+}
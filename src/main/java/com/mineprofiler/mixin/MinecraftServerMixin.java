@@ -1,31 +1,57 @@
 package com.mineprofiler.mixin;
 
-import com.mineprofiler.MineProfilerMod;
+import com.mineprofiler.metrics.JvmTelemetry;
+import com.mineprofiler.metrics.LightweightMetrics;
+import com.mineprofiler.metrics.ServerPhase;
 import net.minecraft.server.MinecraftServer;
 import org.spongepowered.asm.mixin.Mixin;
-import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 /**
  * MinecraftServer的Mixin
- * 用于获取服务器MSPT数据
+ * 在tick的HEAD/RETURN处精确测量每个tick的耗时，并对世界tick阶段计时
  */
 @Mixin(MinecraftServer.class)
 public abstract class MinecraftServerMixin {
     
-    @Shadow
-    private float averageTickTime;
+    /**
+     * 服务器tick开始
+     */
+    @Inject(method = "tick", at = @At("HEAD"))
+    private void onServerTickStart(CallbackInfo ci) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics != null) {
+            metrics.getJvm().registerCurrentThread(JvmTelemetry.ThreadRole.SERVER);
+            metrics.getServerTicks().beginTick();
+        }
+    }
     
     /**
-     * 在服务器tick结束时收集MSPT数据
+     * 服务器tick结束，记录本tick耗时
      */
     @Inject(method = "tick", at = @At("RETURN"))
-    private void onServerTick(CallbackInfo ci) {
-        if (MineProfilerMod.getInstance() != null && MineProfilerMod.getInstance().getMetrics() != null) {
-            // averageTickTime已经是毫秒单位，直接使用
-            MineProfilerMod.getInstance().getMetrics().updateMspt(this.averageTickTime);
+    private void onServerTickEnd(CallbackInfo ci) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics != null) {
+            metrics.getServerTicks().endTick();
+        }
+    }
+    
+    @Inject(method = "tickWorlds", at = @At("HEAD"), require = 0)
+    private void onTickWorldsStart(CallbackInfo ci) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics != null) {
+            metrics.getServerTicks().push(ServerPhase.WORLDS);
+        }
+    }
+    
+    @Inject(method = "tickWorlds", at = @At("RETURN"), require = 0)
+    private void onTickWorldsEnd(CallbackInfo ci) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics != null) {
+            metrics.getServerTicks().pop(ServerPhase.WORLDS);
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.mineprofiler.mixin;
+
+import com.mineprofiler.MineProfilerMod;
+import com.mineprofiler.metrics.LightweightMetrics;
+import com.mineprofiler.metrics.RenderPhase;
+import net.minecraft.client.particle.ParticleManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * 粒子管理器的Mixin
+ * 对粒子渲染阶段计时
+ */
+@Mixin(ParticleManager.class)
+public class ParticleManagerMixin {
+    
+    @Inject(method = "renderParticles", at = @At("HEAD"), require = 0)
+    private void onRenderParticlesStart(CallbackInfo ci) {
+        LightweightMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.getRenderPhases().push(RenderPhase.PARTICLES);
+        }
+    }
+    
+    @Inject(method = "renderParticles", at = @At("RETURN"), require = 0)
+    private void onRenderParticlesEnd(CallbackInfo ci) {
+        LightweightMetrics metrics = getMetrics();
+        if (metrics != null) {
+            metrics.getRenderPhases().pop(RenderPhase.PARTICLES);
+        }
+    }
+    
+    private static LightweightMetrics getMetrics() {
+        MineProfilerMod mod = MineProfilerMod.getInstance();
+        return mod != null ? mod.getMetrics() : null;
+    }
+}
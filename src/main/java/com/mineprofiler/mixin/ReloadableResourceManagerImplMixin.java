@@ -0,0 +1,36 @@
+package com.mineprofiler.mixin;
+
+import com.mineprofiler.metrics.StartupTimeline;
+import net.minecraft.resource.ReloadableResourceManagerImpl;
+import net.minecraft.resource.ResourceReload;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * ReloadableResourceManagerImpl的Mixin
+ * 记录资源包重载从开始到全部重载器完成的区间
+ */
+@Mixin(ReloadableResourceManagerImpl.class)
+public abstract class ReloadableResourceManagerImplMixin {
+
+    @Unique
+    private long mineprofiler$reloadStart;
+
+    @Inject(method = "reload", at = @At("HEAD"), require = 0)
+    private void onReloadStart(CallbackInfoReturnable<ResourceReload> cir) {
+        mineprofiler$reloadStart = System.nanoTime();
+        StartupTimeline.current().onReloadStarted();
+    }
+
+    @Inject(method = "reload", at = @At("RETURN"), require = 0)
+    private void onReloadScheduled(CallbackInfoReturnable<ResourceReload> cir) {
+        long start = mineprofiler$reloadStart;
+        Thread thread = Thread.currentThread();
+        // 重载在工作线程上异步完成，结束时间在完成回调中记录
+        cir.getReturnValue().whenComplete().thenRun(() -> StartupTimeline.current()
+                .addSpan("resourceReload", "reload", start, System.nanoTime(), thread.getId(), thread.getName()));
+    }
+}
@@ -0,0 +1,31 @@
+package com.mineprofiler.mixin;
+
+import com.mineprofiler.metrics.LightweightMetrics;
+import net.minecraft.server.world.ChunkHolder;
+import net.minecraft.server.world.ChunkLevels;
+import net.minecraft.server.world.ServerChunkLoadingManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * ServerChunkLoadingManager的Mixin
+ * 区块等级升到可访问（FULL）时视为一次加载请求，在就绪前降级时视为放弃
+ */
+@Mixin(ServerChunkLoadingManager.class)
+public abstract class ServerChunkLoadingManagerMixin {
+    
+    @Inject(method = "setLevel", at = @At("HEAD"), require = 0)
+    private void onSetLevel(long pos, int level, ChunkHolder holder, int oldLevel, CallbackInfoReturnable<ChunkHolder> cir) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics == null) return;
+        boolean accessible = ChunkLevels.isAccessible(level);
+        boolean wasAccessible = ChunkLevels.isAccessible(oldLevel);
+        if (accessible && !wasAccessible) {
+            metrics.getChunks().onRequested(pos);
+        } else if (!accessible && wasAccessible) {
+            metrics.getChunks().onCancelled(pos);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.mineprofiler.mixin;
+
+import com.mineprofiler.metrics.LightweightMetrics;
+import com.mineprofiler.metrics.ServerPhase;
+import net.minecraft.server.world.ServerChunkManager;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * ServerChunkManager的Mixin
+ * 对区块tick（加载、生成调度和随机刻）阶段计时
+ */
+@Mixin(ServerChunkManager.class)
+public abstract class ServerChunkManagerMixin {
+    
+    @Inject(method = "tick", at = @At("HEAD"), require = 0)
+    private void onChunkTickStart(CallbackInfo ci) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics != null) {
+            metrics.getServerTicks().push(ServerPhase.CHUNKS);
+        }
+    }
+    
+    @Inject(method = "tick", at = @At("RETURN"), require = 0)
+    private void onChunkTickEnd(CallbackInfo ci) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics != null) {
+            metrics.getServerTicks().pop(ServerPhase.CHUNKS);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.mineprofiler.mixin;
+
+import com.mineprofiler.metrics.LightweightMetrics;
+import com.mineprofiler.metrics.ServerPhase;
+import net.minecraft.server.ServerNetworkIo;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * ServerNetworkIo的Mixin
+ * 对网络连接处理（收发包）阶段计时
+ */
+@Mixin(ServerNetworkIo.class)
+public abstract class ServerNetworkIoMixin {
+    
+    @Inject(method = "tick", at = @At("HEAD"), require = 0)
+    private void onNetworkTickStart(CallbackInfo ci) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics != null) {
+            metrics.getServerTicks().push(ServerPhase.NETWORK);
+        }
+    }
+    
+    @Inject(method = "tick", at = @At("RETURN"), require = 0)
+    private void onNetworkTickEnd(CallbackInfo ci) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics != null) {
+            metrics.getServerTicks().pop(ServerPhase.NETWORK);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.mineprofiler.mixin;
+
+import com.mineprofiler.metrics.LightweightMetrics;
+import com.mineprofiler.metrics.ServerPhase;
+import com.mineprofiler.metrics.ServerTickProfiler;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * ServerWorld的Mixin
+ * 记录每个维度世界tick的耗时，并对实体tick阶段计时
+ */
+@Mixin(ServerWorld.class)
+public abstract class ServerWorldMixin {
+    // 本维度在ServerTickProfiler中的槽位，HEAD处取得，RETURN处使用
+    @Unique
+    private int mineprofiler$dimensionSlot = -1;
+    
+    @Inject(method = "tick", at = @At("HEAD"), require = 0)
+    private void onWorldTickStart(CallbackInfo ci) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics == null) {
+            mineprofiler$dimensionSlot = -1;
+            return;
+        }
+        ServerTickProfiler ticks = metrics.getServerTicks();
+        RegistryKey<World> key = ((ServerWorld) (Object) this).getRegistryKey();
+        int slot = ticks.dimensionSlot(key);
+        if (slot < 0) {
+            slot = ticks.registerDimension(key, key.getValue().toString());
+        }
+        mineprofiler$dimensionSlot = slot;
+        ticks.beginDimensionTick(slot);
+    }
+    
+    @Inject(method = "tick", at = @At("RETURN"), require = 0)
+    private void onWorldTickEnd(CallbackInfo ci) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics != null) {
+            metrics.getServerTicks().endDimensionTick(mineprofiler$dimensionSlot);
+        }
+    }
+    
+    @Inject(method = "tickEntity", at = @At("HEAD"), require = 0)
+    private void onTickEntityStart(CallbackInfo ci) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics != null) {
+            metrics.getServerTicks().push(ServerPhase.ENTITIES);
+        }
+    }
+    
+    @Inject(method = "tickEntity", at = @At("RETURN"), require = 0)
+    private void onTickEntityEnd(CallbackInfo ci) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics != null) {
+            metrics.getServerTicks().pop(ServerPhase.ENTITIES);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.mineprofiler.mixin;
+
+import com.mineprofiler.metrics.StartupTimeline;
+import net.minecraft.client.gl.ShaderLoader;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * ShaderLoader的Mixin
+ * 记录着色器和渲染管线的编译区间（资源重载的应用阶段，在渲染线程上执行）
+ */
+@Mixin(ShaderLoader.class)
+public abstract class ShaderLoaderMixin {
+
+    @Unique
+    private long mineprofiler$applyStart;
+    // apply 同时匹配桥接方法和实际方法，只记录最外层的一次
+    @Unique
+    private int mineprofiler$depth;
+    // 当前深度所属的资源重载
+    @Unique
+    private int mineprofiler$reload = -1;
+
+    @Inject(method = "apply", at = @At("HEAD"), require = 0)
+    private void onApplyStart(CallbackInfo ci) {
+        // 编译抛出异常时不会执行到RETURN，深度在下一次重载开始时归零
+        int reload = StartupTimeline.current().getReloadCount();
+        if (reload != mineprofiler$reload) {
+            mineprofiler$reload = reload;
+            mineprofiler$depth = 0;
+        }
+        if (mineprofiler$depth++ == 0) {
+            mineprofiler$applyStart = System.nanoTime();
+        }
+    }
+
+    @Inject(method = "apply", at = @At("RETURN"), require = 0)
+    private void onApplyEnd(CallbackInfo ci) {
+        if (mineprofiler$depth > 0 && --mineprofiler$depth == 0) {
+            StartupTimeline.current().addSpan("shaders", "shader", mineprofiler$applyStart, System.nanoTime());
+        }
+    }
+}
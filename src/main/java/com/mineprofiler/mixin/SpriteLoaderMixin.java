@@ -0,0 +1,30 @@
+package com.mineprofiler.mixin;
+
+import com.mineprofiler.metrics.StartupTimeline;
+import net.minecraft.client.texture.SpriteLoader;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * SpriteLoader的Mixin
+ * 记录每个图集的拼接区间，各图集在不同的工作线程上并行拼接
+ */
+@Mixin(SpriteLoader.class)
+public abstract class SpriteLoaderMixin {
+
+    @Unique
+    private long mineprofiler$stitchStart;
+
+    @Inject(method = "stitch", at = @At("HEAD"), require = 0)
+    private void onStitchStart(CallbackInfoReturnable<SpriteLoader.StitchResult> cir) {
+        mineprofiler$stitchStart = System.nanoTime();
+    }
+
+    @Inject(method = "stitch", at = @At("RETURN"), require = 0)
+    private void onStitchEnd(CallbackInfoReturnable<SpriteLoader.StitchResult> cir) {
+        StartupTimeline.current().addSpan("atlasStitch", "atlas", mineprofiler$stitchStart, System.nanoTime());
+    }
+}
@@ -0,0 +1,33 @@
+package com.mineprofiler.mixin;
+
+import com.mineprofiler.metrics.LightweightMetrics;
+import com.mineprofiler.metrics.ServerPhase;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * World的Mixin
+ * 对服务器端方块实体tick阶段计时，客户端世界不计入
+ */
+@Mixin(World.class)
+public abstract class WorldMixin {
+    
+    @Inject(method = "tickBlockEntities", at = @At("HEAD"), require = 0)
+    private void onTickBlockEntitiesStart(CallbackInfo ci) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics != null && !((World) (Object) this).isClient()) {
+            metrics.getServerTicks().push(ServerPhase.BLOCK_ENTITIES);
+        }
+    }
+    
+    @Inject(method = "tickBlockEntities", at = @At("RETURN"), require = 0)
+    private void onTickBlockEntitiesEnd(CallbackInfo ci) {
+        LightweightMetrics metrics = LightweightMetrics.current();
+        if (metrics != null && !((World) (Object) this).isClient()) {
+            metrics.getServerTicks().pop(ServerPhase.BLOCK_ENTITIES);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.mineprofiler.mixin;
+
+import com.mineprofiler.MineProfilerMod;
+import com.mineprofiler.metrics.LightweightMetrics;
+import com.mineprofiler.metrics.RenderPhase;
+import net.minecraft.client.render.WorldRenderer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * 世界渲染器的Mixin
+ * 对区块上传、实体和方块实体渲染分阶段计时
+ * 注入点均为可选（require = 0），某个方法签名在新版本中变化时只会缺失对应阶段，不会导致崩溃
+ */
+@Mixin(WorldRenderer.class)
+public class WorldRendererMixin {
+    
+    @Inject(method = "updateChunks", at = @At("HEAD"), require = 0)
+    private void onUpdateChunksStart(CallbackInfo ci) {
+        push(RenderPhase.CHUNK_UPLOAD);
+    }
+    
+    @Inject(method = "updateChunks", at = @At("RETURN"), require = 0)
+    private void onUpdateChunksEnd(CallbackInfo ci) {
+        pop(RenderPhase.CHUNK_UPLOAD);
+    }
+    
+    @Inject(method = "renderEntities", at = @At("HEAD"), require = 0)
+    private void onRenderEntitiesStart(CallbackInfo ci) {
+        push(RenderPhase.ENTITIES);
+    }
+    
+    @Inject(method = "renderEntities", at = @At("RETURN"), require = 0)
+    private void onRenderEntitiesEnd(CallbackInfo ci) {
+        pop(RenderPhase.ENTITIES);
+    }
+    
+    @Inject(method = "renderBlockEntities", at = @At("HEAD"), require = 0)
+    private void onRenderBlockEntitiesStart(CallbackInfo ci) {
+        push(RenderPhase.BLOCK_ENTITIES);
+    }
+    
+    @Inject(method = "renderBlockEntities", at = @At("RETURN"), require = 0)
+    private void onRenderBlockEntitiesEnd(CallbackInfo ci) {
+        pop(RenderPhase.BLOCK_ENTITIES);
+    }
+    
+    private static void push(RenderPhase phase) {
+        MineProfilerMod mod = MineProfilerMod.getInstance();
+        LightweightMetrics metrics = mod != null ? mod.getMetrics() : null;
+        if (metrics != null) {
+            metrics.getRenderPhases().push(phase);
+        }
+    }
+    
+    private static void pop(RenderPhase phase) {
+        MineProfilerMod mod = MineProfilerMod.getInstance();
+        LightweightMetrics metrics = mod != null ? mod.getMetrics() : null;
+        if (metrics != null) {
+            metrics.getRenderPhases().pop(phase);
+        }
+    }
+}